@@ -0,0 +1,252 @@
+-- ===================================================================
+-- FitFamily Backend - PostgreSQL Schema Migrations
+-- ===================================================================
+-- Production runs with ddl-auto: validate, so schema changes to
+-- existing tables are applied by hand with this script.
+-- Each migration is idempotent and safe to re-run.
+--
+-- Run with:
+-- psql -U fitfamily_user -d fitfamily -f postgresql-migrations.sql
+-- ===================================================================
+
+
+-- ===================================================================
+-- 1. FIXED-POINT MACROS ON FOOD LOGS
+-- ===================================================================
+-- food_logs.calories/protein/carbs/fat (double precision) are replaced
+-- by *_milli BIGINT columns holding milli-units (1 kcal = 1000).
+-- SUM() over BIGINT is exact, so dashboard totals no longer drift.
+-- ===================================================================
+
+DO $$
+BEGIN
+	IF EXISTS (
+		SELECT 1 FROM information_schema.columns
+		WHERE table_name = 'food_logs' AND column_name = 'calories'
+	) THEN
+		ALTER TABLE food_logs
+			ADD COLUMN IF NOT EXISTS calories_milli BIGINT,
+			ADD COLUMN IF NOT EXISTS protein_milli BIGINT,
+			ADD COLUMN IF NOT EXISTS carbs_milli BIGINT,
+			ADD COLUMN IF NOT EXISTS fat_milli BIGINT;
+
+		-- numeric rounding is half away from zero, matching Math.round for positive values
+		UPDATE food_logs SET
+			calories_milli = ROUND(calories::numeric * 1000),
+			protein_milli = ROUND(protein::numeric * 1000),
+			carbs_milli = ROUND(carbs::numeric * 1000),
+			fat_milli = ROUND(fat::numeric * 1000);
+
+		ALTER TABLE food_logs
+			ALTER COLUMN calories_milli SET NOT NULL,
+			ALTER COLUMN protein_milli SET NOT NULL,
+			ALTER COLUMN carbs_milli SET NOT NULL,
+			ALTER COLUMN fat_milli SET NOT NULL;
+
+		ALTER TABLE food_logs
+			DROP COLUMN calories,
+			DROP COLUMN protein,
+			DROP COLUMN carbs,
+			DROP COLUMN fat;
+	END IF;
+END $$;
+
+
+-- ===================================================================
+-- 2. LOGGING STREAKS
+-- ===================================================================
+-- One row per user, maintained by the application on every food log
+-- change. Rows are created on a user's first log after upgrading.
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS user_streaks (
+	user_id UUID PRIMARY KEY,
+	current_streak INTEGER NOT NULL,
+	longest_streak INTEGER NOT NULL,
+	streak_start_date DATE,
+	last_logged_date DATE
+);
+
+
+-- ===================================================================
+-- 3. DAILY MACRO GOALS
+-- ===================================================================
+-- Optional per-user daily targets in milli-units, used for the
+-- remaining/percent-complete figures on the dashboards.
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS macro_goals (
+	user_id UUID PRIMARY KEY,
+	calories_milli BIGINT NOT NULL,
+	protein_milli BIGINT NOT NULL,
+	carbs_milli BIGINT NOT NULL,
+	fat_milli BIGINT NOT NULL,
+	updated_at TIMESTAMP NOT NULL
+);
+
+
+-- ===================================================================
+-- 4. CATALOG MODIFICATION TIMES
+-- ===================================================================
+-- foods.updated_at and food_portions.updated_at are maintained by the
+-- application; the catalog snapshot compares their maximum with the
+-- one it was written from to decide whether it is still current.
+-- ===================================================================
+
+ALTER TABLE foods ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+UPDATE foods SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE foods ALTER COLUMN updated_at SET NOT NULL;
+
+ALTER TABLE food_portions ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+UPDATE food_portions SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE food_portions ALTER COLUMN updated_at SET NOT NULL;
+
+
+-- ===================================================================
+-- 5. CATALOG CHANGE LOG
+-- ===================================================================
+-- One row per food changed by a transaction, written by the
+-- application. The latest version is the catalog version used by
+-- /foods/sync; clients without one receive the whole catalog, so
+-- existing foods need no rows.
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS food_catalog_changes (
+	version BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	food_id UUID NOT NULL,
+	changed_at TIMESTAMP NOT NULL
+);
+
+
+-- ===================================================================
+-- 6. FOOD ALIASES
+-- ===================================================================
+-- Alternative names of foods (e.g., "Roti" for Chapati), each tagged
+-- with a BCP 47 locale. Search matches foods by their aliases too.
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS food_aliases (
+	id UUID PRIMARY KEY,
+	food_id UUID NOT NULL REFERENCES foods(id),
+	name VARCHAR(255) NOT NULL,
+	locale VARCHAR(35) NOT NULL,
+	created_at TIMESTAMP NOT NULL,
+	CONSTRAINT uk_food_aliases_food_name UNIQUE (food_id, name)
+);
+
+
+-- ===================================================================
+-- 7. RECIPES
+-- ===================================================================
+-- Ingredients of recipe foods. A recipe is a row of foods whose
+-- nutrients per 100g are computed from its ingredients (which may be
+-- other recipes) and kept up to date by the application.
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS recipe_ingredients (
+	id UUID PRIMARY KEY,
+	recipe_id UUID NOT NULL REFERENCES foods(id),
+	ingredient_id UUID NOT NULL REFERENCES foods(id),
+	grams DOUBLE PRECISION NOT NULL,
+	created_at TIMESTAMP NOT NULL,
+	CONSTRAINT uk_recipe_ingredients_recipe_ingredient UNIQUE (recipe_id, ingredient_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_recipe_ingredients_ingredient ON recipe_ingredients (ingredient_id);
+
+
+-- ===================================================================
+-- 8. FOOD LOG CORRECTIONS
+-- ===================================================================
+-- Background jobs recomputing the stored macros of a corrected food's
+-- food logs, chunk by chunk in food log ID order. last_log_id is the
+-- position a job resumes from after a restart.
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS food_log_corrections (
+	id UUID PRIMARY KEY,
+	food_id UUID NOT NULL,
+	status VARCHAR(20) NOT NULL,
+	total_logs BIGINT,
+	processed_logs BIGINT NOT NULL,
+	updated_logs BIGINT NOT NULL,
+	last_log_id UUID,
+	requested_by VARCHAR(255) NOT NULL,
+	error VARCHAR(255),
+	created_at TIMESTAMP NOT NULL,
+	started_at TIMESTAMP,
+	finished_at TIMESTAMP
+);
+
+-- Keyset pagination over one food's logs
+CREATE INDEX IF NOT EXISTS idx_food_logs_food_id_id ON food_logs (food_id, id);
+
+
+-- ===================================================================
+-- 9. MICRONUTRIENT VECTORS
+-- ===================================================================
+-- Fibre, sugar, vitamins and minerals as one packed column per row:
+-- little-endian float32 amounts in the order of the Micronutrient enum
+-- (4 bytes per nutrient). NULL when a food has no micronutrient data.
+-- ===================================================================
+
+ALTER TABLE foods ADD COLUMN IF NOT EXISTS micronutrients_per100g BYTEA;
+ALTER TABLE food_logs ADD COLUMN IF NOT EXISTS micronutrients BYTEA;
+
+
+-- ===================================================================
+-- 10. CATALOG VERSIONS IN COMMIT ORDER
+-- ===================================================================
+-- Change versions are handed out from one counter row, which every
+-- catalog-changing transaction locks until it ends, so they become
+-- visible in commit order and /foods/sync cannot skip a change that
+-- commits late. pruned_through marks how far the change log has been
+-- pruned; clients older than it receive the whole catalog. Apply while
+-- the application is stopped.
+-- ===================================================================
+
+ALTER TABLE food_catalog_changes ALTER COLUMN version DROP IDENTITY IF EXISTS;
+
+CREATE TABLE IF NOT EXISTS food_catalog_version (
+	id INTEGER PRIMARY KEY,
+	version BIGINT NOT NULL,
+	pruned_through BIGINT NOT NULL
+);
+INSERT INTO food_catalog_version (id, version, pruned_through)
+SELECT 1, COALESCE(MAX(version), 0), 0 FROM food_catalog_changes
+ON CONFLICT (id) DO NOTHING;
+
+-- Pruning keeps only the latest change of each food
+CREATE INDEX IF NOT EXISTS idx_food_catalog_changes_food_id_version ON food_catalog_changes (food_id, version);
+
+
+-- ===================================================================
+-- 11. FOOD LOG CORRECTION CLAIMS
+-- ===================================================================
+-- The application instance working on a correction job, and when it
+-- last committed a chunk. Another instance only takes a job over once
+-- its heartbeat is older than catalog.corrections.claim-timeout-ms.
+-- ===================================================================
+
+ALTER TABLE food_log_corrections ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(255);
+ALTER TABLE food_log_corrections ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMP;
+
+
+-- ===================================================================
+-- 12. HISTORY VERSIONS
+-- ===================================================================
+-- Every change to a user's daily totals bumps the user's version in
+-- the change's transaction. The history files behind /dashboard/history
+-- are local to each instance and record the version they are complete
+-- up to; a file behind the database is rebuilt from food_logs. Existing
+-- users start at version 1, so files written before versions existed
+-- (version 0) are rebuilt once.
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS user_history_versions (
+	user_id UUID PRIMARY KEY,
+	version BIGINT NOT NULL
+);
+INSERT INTO user_history_versions (user_id, version)
+SELECT id, 1 FROM users
+ON CONFLICT (user_id) DO NOTHING;
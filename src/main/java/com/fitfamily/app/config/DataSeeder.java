@@ -1,21 +1,30 @@
 package com.fitfamily.app.config;
 
 import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodAlias;
 import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.model.Micronutrient;
+import com.fitfamily.app.model.NutrientVector;
+import com.fitfamily.app.repository.FoodAliasRepository;
 import com.fitfamily.app.repository.FoodPortionRepository;
 import com.fitfamily.app.repository.FoodRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 @Component
 public class DataSeeder implements CommandLineRunner {
 
 	private final FoodRepository foodRepository;
 	private final FoodPortionRepository foodPortionRepository;
+	private final FoodAliasRepository foodAliasRepository;
 
-	public DataSeeder(FoodRepository foodRepository, FoodPortionRepository foodPortionRepository) {
+	public DataSeeder(FoodRepository foodRepository, FoodPortionRepository foodPortionRepository,
+			FoodAliasRepository foodAliasRepository) {
 		this.foodRepository = foodRepository;
 		this.foodPortionRepository = foodPortionRepository;
+		this.foodAliasRepository = foodAliasRepository;
 	}
 
 	@Override
@@ -29,34 +38,48 @@ public class DataSeeder implements CommandLineRunner {
 		System.out.println("Seeding database with sample food data...");
 
 		// Seed Rice
-		Food rice = createFood("Rice", 130, 2.7, 28.2, 0.3);
+		Food rice = createFood("Rice", 130, 2.7, 28.2, 0.3, Map.of(
+			Micronutrient.FIBRE, 0.4, Micronutrient.SUGAR, 0.1, Micronutrient.SODIUM, 1.0,
+			Micronutrient.POTASSIUM, 35.0, Micronutrient.MAGNESIUM, 12.0, Micronutrient.IRON, 0.2));
 		createPortion(rice, "100g", 100);
 		createPortion(rice, "1 cup (cooked)", 158);
 		createPortion(rice, "1 bowl", 200);
 		createPortion(rice, "1 serving", 150);
+		createAlias(rice, "Chawal", "hi-Latn");
+		createAlias(rice, "चावल", "hi");
 
 		// Seed Chapati
-		Food chapati = createFood("Chapati", 297, 9.6, 50.8, 6.1);
+		Food chapati = createFood("Chapati", 297, 9.6, 50.8, 6.1, Map.of(
+			Micronutrient.FIBRE, 4.9, Micronutrient.SUGAR, 1.3, Micronutrient.SODIUM, 2.0,
+			Micronutrient.POTASSIUM, 230.0, Micronutrient.MAGNESIUM, 80.0, Micronutrient.IRON, 3.0));
 		createPortion(chapati, "1 small (40g)", 40);
 		createPortion(chapati, "1 medium (50g)", 50);
 		createPortion(chapati, "1 large (60g)", 60);
+		createAlias(chapati, "Roti", "en-IN");
+		createAlias(chapati, "Phulka", "en-IN");
+		createAlias(chapati, "रोटी", "hi");
 
 		// Seed Chicken Breast
-		Food chickenBreast = createFood("Chicken Breast", 165, 31, 0, 3.6);
+		Food chickenBreast = createFood("Chicken Breast", 165, 31, 0, 3.6, Map.of(
+			Micronutrient.SODIUM, 74.0, Micronutrient.POTASSIUM, 256.0, Micronutrient.PHOSPHORUS, 228.0,
+			Micronutrient.SELENIUM, 27.6, Micronutrient.NIACIN, 13.7, Micronutrient.VITAMIN_B6, 0.6));
 		createPortion(chickenBreast, "100g", 100);
 		createPortion(chickenBreast, "1 piece (150g)", 150);
 		createPortion(chickenBreast, "1 serving (200g)", 200);
+		createAlias(chickenBreast, "Murgh", "hi-Latn");
 
 		System.out.println("Database seeding completed successfully!");
 	}
 
-	private Food createFood(String name, double calories, double protein, double carbs, double fat) {
+	private Food createFood(String name, double calories, double protein, double carbs, double fat,
+			Map<Micronutrient, Double> micronutrients) {
 		Food food = new Food();
 		food.setName(name);
 		food.setCaloriesPer100g(calories);
 		food.setProteinPer100g(protein);
 		food.setCarbsPer100g(carbs);
 		food.setFatPer100g(fat);
+		food.setMicronutrientsPer100g(NutrientVector.of(micronutrients));
 		return foodRepository.save(food);
 	}
 
@@ -68,5 +91,13 @@ public class DataSeeder implements CommandLineRunner {
 		foodPortionRepository.save(portion);
 	}
 
+	private void createAlias(Food food, String name, String locale) {
+		FoodAlias alias = new FoodAlias();
+		alias.setFood(food);
+		alias.setName(name);
+		alias.setLocale(locale);
+		foodAliasRepository.save(alias);
+	}
+
 }
 
@@ -0,0 +1,41 @@
+package com.fitfamily.app.config;
+
+import com.fitfamily.app.service.FoodCatalogImporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Imports a food catalog file at startup when catalog.import.file is set:
+ * 
+ * java -jar fitfamily.jar --catalog.import.file=/data/foods.csv
+ * 
+ * Runs before DataSeeder, so an imported catalog is not mixed with the
+ * sample foods. The application starts normally once the import is done.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FoodImportRunner implements CommandLineRunner {
+
+	private final FoodCatalogImporter foodCatalogImporter;
+	private final String importFile;
+
+	public FoodImportRunner(FoodCatalogImporter foodCatalogImporter,
+			@Value("${catalog.import.file:}") String importFile) {
+		this.foodCatalogImporter = foodCatalogImporter;
+		this.importFile = importFile;
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		if (importFile.isBlank()) {
+			return;
+		}
+		foodCatalogImporter.importFile(Path.of(importFile));
+	}
+
+}
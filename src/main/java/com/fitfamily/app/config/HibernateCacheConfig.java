@@ -0,0 +1,90 @@
+package com.fitfamily.app.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache for the food catalog (JCache on Caffeine).
+ *
+ * Foods and portions are read on every food log but change rarely, so
+ * FoodLogService.addFoodLog and portion lists are served from memory. The
+ * regions are created here with explicit sizes and Hibernate is told to
+ * fail on any other region, so nothing is cached unbounded by accident.
+ * Each application context gets its own CacheManager, so two contexts on
+ * the same database never share (possibly stale) entries.
+ *
+ * Hit, miss and put counts per region are published as actuator metrics
+ * (hibernate.second.level.cache.*) from Hibernate's statistics.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+	// Region names used by the @Cache annotations on Food and FoodPortion
+	public static final String FOODS_REGION = "foods";
+	public static final String FOOD_PORTIONS_REGION = "food_portions";
+	public static final String PORTIONS_BY_FOOD_REGION = "food_portions_by_food";
+
+	private final boolean enabled;
+	private final long maxFoods;
+	private final long maxPortions;
+	private final long expireAfterWriteMinutes;
+
+	public HibernateCacheConfig(@Value("${food.second-level-cache.enabled:true}") boolean enabled,
+			@Value("${food.second-level-cache.max-foods:20000}") long maxFoods,
+			@Value("${food.second-level-cache.max-portions:100000}") long maxPortions,
+			@Value("${food.second-level-cache.expire-after-write-minutes:60}") long expireAfterWriteMinutes) {
+		this.enabled = enabled;
+		this.maxFoods = maxFoods;
+		this.maxPortions = maxPortions;
+		this.expireAfterWriteMinutes = expireAfterWriteMinutes;
+	}
+
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager() {
+		CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+		CacheManager cacheManager = provider.getCacheManager(URI.create("fitfamily-hibernate-" + UUID.randomUUID()),
+				getClass().getClassLoader());
+		cacheManager.createCache(FOODS_REGION, region(maxFoods));
+		cacheManager.createCache(FOOD_PORTIONS_REGION, region(maxPortions));
+		// One entry per food, holding its portion IDs
+		cacheManager.createCache(PORTIONS_BY_FOOD_REGION, region(maxFoods));
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> {
+			properties.put("hibernate.cache.use_second_level_cache", enabled);
+			properties.put("hibernate.cache.region.factory_class", "jcache");
+			properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+			properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+			// Portions are owned by FoodPortion.food, so adding or removing one must evict Food.foodPortions
+			properties.put("hibernate.cache.auto_evict_collection_cache", true);
+			properties.put("hibernate.generate_statistics", true);
+			// Statistics feed the metrics only; do not log them for every session
+			properties.put("hibernate.session.events.log", false);
+		};
+	}
+
+	private CaffeineConfiguration<Object, Object> region(long maxEntries) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setMaximumSize(OptionalLong.of(maxEntries));
+		// Safety net for rows changed outside the application
+		configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(expireAfterWriteMinutes)));
+		configuration.setStatisticsEnabled(true);
+		return configuration;
+	}
+
+}
@@ -1,9 +1,11 @@
 package com.fitfamily.app.controller;
 
 import com.fitfamily.app.dto.FamilyMemberDashboardResponse;
+import com.fitfamily.app.dto.MacroHistoryResponse;
 import com.fitfamily.app.dto.UserDailyDashboardResponse;
 import com.fitfamily.app.model.User;
-import com.fitfamily.app.service.DashboardService;
+import com.fitfamily.app.service.HistoryService;
+import com.fitfamily.app.service.ResilientDashboardService;
 import com.fitfamily.app.util.SecurityUtil;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -19,11 +21,19 @@ import java.util.List;
 @RequestMapping("/dashboard")
 public class DashboardController {
 
-	private final DashboardService dashboardService;
+	/**
+	 * Set (to the age in seconds) when a dashboard was served from the last
+	 * good copy because the database was slow or unavailable
+	 */
+	public static final String STALE_HEADER = "X-Dashboard-Stale";
+
+	private final ResilientDashboardService dashboardService;
+	private final HistoryService historyService;
 	private final SecurityUtil securityUtil;
 
-	public DashboardController(DashboardService dashboardService, SecurityUtil securityUtil) {
+	public DashboardController(ResilientDashboardService dashboardService, HistoryService historyService, SecurityUtil securityUtil) {
 		this.dashboardService = dashboardService;
+		this.historyService = historyService;
 		this.securityUtil = securityUtil;
 	}
 
@@ -45,9 +55,10 @@ public class DashboardController {
 		// Default to today if no date provided
 		LocalDate targetDate = date != null ? date : LocalDate.now();
 		
-		UserDailyDashboardResponse dashboard = dashboardService.getUserDailyDashboard(currentUser, targetDate);
+		ResilientDashboardService.Result<UserDailyDashboardResponse> dashboard =
+				dashboardService.getUserDailyDashboard(currentUser, targetDate);
 		
-		return ResponseEntity.ok(dashboard);
+		return withStaleness(dashboard);
 	}
 
 	/**
@@ -68,9 +79,45 @@ public class DashboardController {
 		// Default to today if no date provided
 		LocalDate targetDate = date != null ? date : LocalDate.now();
 		
-		List<FamilyMemberDashboardResponse> familyDashboards = dashboardService.getFamilyDailyDashboard(currentUser, targetDate);
+		ResilientDashboardService.Result<List<FamilyMemberDashboardResponse>> familyDashboards =
+				dashboardService.getFamilyDailyDashboard(currentUser, targetDate);
+		
+		return withStaleness(familyDashboards);
+	}
+
+	/**
+	 * Get daily macro totals of the logged-in user for a date range
+	 * 
+	 * GET /dashboard/history
+	 * GET /dashboard/history?from=2025-01-01&to=2025-12-31
+	 * 
+	 * @param from Optional first day (defaults to 29 days before to)
+	 * @param to Optional last day (defaults to today)
+	 * @return MacroHistoryResponse with one value per day and macro
+	 */
+	@GetMapping("/history")
+	public ResponseEntity<MacroHistoryResponse> getHistory(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		
+		User currentUser = securityUtil.getCurrentUser();
+		
+		// Default to the last 30 days
+		LocalDate endDate = to != null ? to : LocalDate.now();
+		LocalDate startDate = from != null ? from : endDate.minusDays(29);
+		
+		MacroHistoryResponse history = historyService.getHistory(currentUser, startDate, endDate);
 		
-		return ResponseEntity.ok(familyDashboards);
+		return ResponseEntity.ok(history);
+	}
+
+	private static <T> ResponseEntity<T> withStaleness(ResilientDashboardService.Result<T> result) {
+		if (!result.stale()) {
+			return ResponseEntity.ok(result.body());
+		}
+		return ResponseEntity.ok()
+				.header(STALE_HEADER, String.valueOf(result.ageSeconds()))
+				.body(result.body());
 	}
 
 }
@@ -1,38 +1,263 @@
 package com.fitfamily.app.controller;
 
-import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.dto.FoodBatchRequest;
+import com.fitfamily.app.dto.FoodBatchResponse;
+import com.fitfamily.app.dto.FoodNutrientsResponse;
+import com.fitfamily.app.dto.NutrientQueryRequest;
+import com.fitfamily.app.dto.QuickAddFoodResponse;
+import com.fitfamily.app.dto.RelatedFoodResponse;
+import com.fitfamily.app.dto.SerializedFoodSearchPage;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.service.CatalogSnapshotService;
+import com.fitfamily.app.service.CatalogVersion;
 import com.fitfamily.app.service.FoodService;
+import com.fitfamily.app.service.QuickAddService;
+import com.fitfamily.app.service.RelatedFoodService;
+import com.fitfamily.app.util.Gzip;
+import com.fitfamily.app.util.SecurityUtil;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/foods")
 public class FoodController {
 
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	// Catalog reads may be stored, but must be revalidated with their ETag (cheap 304s)
+	private static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
 	private final FoodService foodService;
+	private final CatalogSnapshotService catalogSnapshotService;
+	private final QuickAddService quickAddService;
+	private final RelatedFoodService relatedFoodService;
+	private final CatalogVersion catalogVersion;
+	private final SecurityUtil securityUtil;
+	private final CacheControl suggestCacheControl;
 
-	public FoodController(FoodService foodService) {
+	public FoodController(FoodService foodService, CatalogSnapshotService catalogSnapshotService, QuickAddService quickAddService, RelatedFoodService relatedFoodService,
+			CatalogVersion catalogVersion, SecurityUtil securityUtil, @Value("${food.suggest.cache-max-age-seconds:60}") long suggestMaxAgeSeconds) {
 		this.foodService = foodService;
+		this.catalogSnapshotService = catalogSnapshotService;
+		this.quickAddService = quickAddService;
+		this.relatedFoodService = relatedFoodService;
+		this.catalogVersion = catalogVersion;
+		this.securityUtil = securityUtil;
+		this.suggestCacheControl = CacheControl.maxAge(Duration.ofSeconds(suggestMaxAgeSeconds)).cachePrivate();
 	}
 
 	/**
-	 * Search for foods by name
+	 * Search for foods by name, best matches first
 	 * 
 	 * GET /foods/search?query=chicken
+	 * GET /foods/search?query=chicken&limit=10&cursor={X-Next-Cursor of the previous page}
 	 * 
 	 * @param query Search query string
-	 * @return List of matching foods with portions
+	 * @param limit Optional page size (capped server-side)
+	 * @param cursor Optional cursor of the next page
+	 * @return List of matching foods with portions; X-Next-Cursor header if there are more
 	 */
 	@GetMapping("/search")
-	public ResponseEntity<List<FoodResponse>> searchFoods(@RequestParam String query) {
-		List<FoodResponse> foods = foodService.searchFoods(query);
-		return ResponseEntity.ok(foods);
+	public ResponseEntity<byte[]> searchFoods(
+			@RequestParam String query,
+			@RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) String cursor,
+			WebRequest request) {
+		if (notModified(request)) {
+			return null;
+		}
+
+		// Pre-serialized (and usually cached) JSON, written as is
+		SerializedFoodSearchPage page = foodService.searchFoodsSerialized(query, limit, cursor);
+		
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.cacheControl(CATALOG_CACHE_CONTROL);
+		if (page.getNextCursor() != null) {
+			response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		return response.body(page.getBody());
 	}
 
-}
+	/**
+	 * Typeahead suggestions for a typed prefix
+	 * 
+	 * GET /foods/suggest?prefix=chi&limit=8
+	 * 
+	 * @param prefix Typed prefix
+	 * @param limit Optional number of suggestions (capped server-side)
+	 * @return JSON array of {id, name}, cacheable by the client for a short while
+	 */
+	@GetMapping("/suggest")
+	public ResponseEntity<byte[]> suggestFoods(
+			@RequestParam String prefix,
+			@RequestParam(required = false) Integer limit,
+			WebRequest request) {
+		if (notModified(request)) {
+			return null;
+		}
+
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.cacheControl(suggestCacheControl)
+				.body(foodService.suggestFoods(prefix, limit));
+	}
+
+	/**
+	 * Get several foods with nutrients and portions by ID
+	 * 
+	 * GET /foods/batch?ids={id1},{id2}
+	 * 
+	 * @param ids Food IDs (capped server-side)
+	 * @return Found foods in request order, plus the IDs that were not found
+	 */
+	@GetMapping("/batch")
+	public ResponseEntity<FoodBatchResponse> getFoods(@RequestParam List<UUID> ids, WebRequest request) {
+		if (notModified(request)) {
+			return null;
+		}
+
+		return ResponseEntity.ok()
+				.cacheControl(CATALOG_CACHE_CONTROL)
+				.body(foodService.getFoodsByIds(ids));
+	}
+
+	/**
+	 * Find foods by nutrients per 100g
+	 * 
+	 * GET /foods/nutrients?minProtein=20&maxCalories=200
+	 * GET /foods/nutrients?rankBy=protein&per=calories&limit=10
+	 * 
+	 * @param query Optional min/max per nutrient, ranking (rankBy, per, ascending) and limit (capped server-side)
+	 * @return Matching foods with their nutrients, best ranked first
+	 */
+	@GetMapping("/nutrients")
+	public ResponseEntity<List<FoodNutrientsResponse>> findFoodsByNutrients(NutrientQueryRequest query, WebRequest request) {
+		if (notModified(request)) {
+			return null;
+		}
+
+		return ResponseEntity.ok()
+				.cacheControl(CATALOG_CACHE_CONTROL)
+				.body(foodService.findFoodsByNutrients(query));
+	}
+
+	/**
+	 * Same as GET /foods/batch, for ID lists too long for a URL
+	 * 
+	 * POST /foods/batch
+	 * Body: { "ids": ["{id1}", "{id2}"] }
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<FoodBatchResponse> getFoods(@Valid @RequestBody FoodBatchRequest request) {
+		// Tagged for clients that compare versions themselves; POST responses are never 304
+		String eTag = catalogVersion.eTag();
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (eTag != null) {
+			response.eTag(eTag);
+		}
+		return response.body(foodService.getFoodsByIds(request.getIds()));
+	}
+
+	/**
+	 * Catalog changes for clients that keep the catalog offline
+	 * 
+	 * GET /foods/sync (whole catalog)
+	 * GET /foods/sync?since={version of the previous response}
+	 * 
+	 * @param since Optional catalog version the client already has
+	 * @param acceptEncoding Accept-Encoding header; the body is sent gzip-compressed when allowed
+	 * @return Upserted foods and deleted IDs since the version (or the whole catalog), with the new version
+	 */
+	@GetMapping("/sync")
+	public ResponseEntity<byte[]> syncFoods(
+			@RequestParam(required = false) Long since,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		// Stored compressed, so it is only decompressed for clients that cannot take gzip
+		byte[] body = catalogSnapshotService.syncFoods(since);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (Gzip.accepted(acceptEncoding)) {
+			return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body);
+		}
+		return response.body(Gzip.decompress(body));
+	}
+
+	/**
+	 * Foods the current user logged most recently, for one-tap re-logging
+	 * 
+	 * GET /foods/recent?limit=10
+	 * 
+	 * @param limit Optional number of foods (capped server-side)
+	 * @return Foods with the portion of their latest log, latest first
+	 */
+	@GetMapping("/recent")
+	public ResponseEntity<List<QuickAddFoodResponse>> getRecentFoods(@RequestParam(required = false) Integer limit) {
+		User currentUser = securityUtil.getCurrentUser();
+		return ResponseEntity.ok(quickAddService.getRecent(currentUser, limit));
+	}
+
+	/**
+	 * Foods the current user logged most often
+	 * 
+	 * GET /foods/frequent?limit=10
+	 * 
+	 * @param limit Optional number of foods (capped server-side)
+	 * @return Foods with their log counts, most frequent first
+	 */
+	@GetMapping("/frequent")
+	public ResponseEntity<List<QuickAddFoodResponse>> getFrequentFoods(@RequestParam(required = false) Integer limit) {
+		User currentUser = securityUtil.getCurrentUser();
+		return ResponseEntity.ok(quickAddService.getFrequent(currentUser, limit));
+	}
+
+	/**
+	 * Foods most often logged in the same meal as a food ("often logged with")
+	 * 
+	 * GET /foods/{id}/related?limit=5
+	 * 
+	 * @param id The food
+	 * @param limit Optional number of foods (capped server-side)
+	 * @return Related foods with portions and shared meal counts, most shared first
+	 */
+	@GetMapping("/{id}/related")
+	public ResponseEntity<List<RelatedFoodResponse>> getRelatedFoods(@PathVariable UUID id,
+			@RequestParam(required = false) Integer limit) {
+		return ResponseEntity.ok(relatedFoodService.getRelatedFoods(id, limit));
+	}
 
+	/**
+	 * Check If-None-Match against the current catalog version
+	 * 
+	 * Sets the ETag header, and answers 304 Not Modified (before any catalog
+	 * work) if the client's copy is of the current version. Nothing is
+	 * tagged until the catalog has been loaded. /foods/sync is not tagged:
+	 * its body carries the version it brings the client to, and the
+	 * per-user quick-add lists do not depend on the catalog version.
+	 * 
+	 * @return true if the response is complete (304)
+	 */
+	private boolean notModified(WebRequest request) {
+		String eTag = catalogVersion.eTag();
+		return eTag != null && request.checkNotModified(eTag);
+	}
+
+}
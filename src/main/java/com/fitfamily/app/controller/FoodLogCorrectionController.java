@@ -0,0 +1,71 @@
+package com.fitfamily.app.controller;
+
+import com.fitfamily.app.dto.FoodLogCorrectionRequest;
+import com.fitfamily.app.dto.FoodLogCorrectionResponse;
+import com.fitfamily.app.service.FoodLogCorrectionService;
+import com.fitfamily.app.util.SecurityUtil;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Catalog admin endpoints for propagating food corrections to food logs.
+ * Only users listed in catalog.admin-emails may use them.
+ */
+@RestController
+@RequestMapping("/admin/food-log-corrections")
+public class FoodLogCorrectionController {
+
+	private final FoodLogCorrectionService foodLogCorrectionService;
+	private final SecurityUtil securityUtil;
+
+	public FoodLogCorrectionController(FoodLogCorrectionService foodLogCorrectionService, SecurityUtil securityUtil) {
+		this.foodLogCorrectionService = foodLogCorrectionService;
+		this.securityUtil = securityUtil;
+	}
+
+	/**
+	 * Recompute the stored macros of all food logs of corrected foods
+	 * 
+	 * POST /admin/food-log-corrections
+	 * 
+	 * @param request IDs of the corrected foods
+	 * @return 202 Accepted with one queued job per food; poll them for progress
+	 */
+	@PostMapping
+	public ResponseEntity<List<FoodLogCorrectionResponse>> startCorrections(@Valid @RequestBody FoodLogCorrectionRequest request) {
+		List<FoodLogCorrectionResponse> corrections = foodLogCorrectionService.startCorrections(
+				request.getFoodIds(), securityUtil.getCurrentUserEmail());
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body(corrections);
+	}
+
+	/**
+	 * Recent correction jobs with their progress
+	 * 
+	 * GET /admin/food-log-corrections
+	 * 
+	 * @return Up to 50 jobs, newest first
+	 */
+	@GetMapping
+	public ResponseEntity<List<FoodLogCorrectionResponse>> getRecentCorrections() {
+		return ResponseEntity.ok(foodLogCorrectionService.getRecentCorrections(securityUtil.getCurrentUserEmail()));
+	}
+
+	/**
+	 * Progress of one correction job
+	 * 
+	 * GET /admin/food-log-corrections/{id}
+	 * 
+	 * @param id ID of the job
+	 * @return The job's status and processed/updated log counts
+	 */
+	@GetMapping("/{id}")
+	public ResponseEntity<FoodLogCorrectionResponse> getCorrection(@PathVariable UUID id) {
+		return ResponseEntity.ok(foodLogCorrectionService.getCorrection(id, securityUtil.getCurrentUserEmail()));
+	}
+
+}
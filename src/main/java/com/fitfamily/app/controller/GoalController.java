@@ -0,0 +1,70 @@
+package com.fitfamily.app.controller;
+
+import com.fitfamily.app.dto.DailyMacroSummary;
+import com.fitfamily.app.dto.MacroGoalRequest;
+import com.fitfamily.app.exception.GoalsNotFoundException;
+import com.fitfamily.app.model.MacroGoal;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.service.GoalService;
+import com.fitfamily.app.util.FixedPoint;
+import com.fitfamily.app.util.SecurityUtil;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/goals")
+public class GoalController {
+
+	private final GoalService goalService;
+	private final SecurityUtil securityUtil;
+
+	public GoalController(GoalService goalService, SecurityUtil securityUtil) {
+		this.goalService = goalService;
+		this.securityUtil = securityUtil;
+	}
+
+	/**
+	 * Get the logged-in user's daily goals
+	 * 
+	 * GET /goals
+	 * 
+	 * @return DailyMacroSummary with the daily targets
+	 */
+	@GetMapping
+	public ResponseEntity<DailyMacroSummary> getGoals() {
+		User currentUser = securityUtil.getCurrentUser();
+		
+		MacroGoal goal = goalService.getGoals(currentUser)
+				.orElseThrow(() -> new GoalsNotFoundException("No daily goals have been set"));
+		
+		return ResponseEntity.ok(toSummary(goal));
+	}
+
+	/**
+	 * Set (create or replace) the logged-in user's daily goals
+	 * 
+	 * PUT /goals
+	 * 
+	 * @param request MacroGoalRequest with daily calories, protein, carbs and fat
+	 * @return DailyMacroSummary with the saved targets
+	 */
+	@PutMapping
+	public ResponseEntity<DailyMacroSummary> setGoals(@Valid @RequestBody MacroGoalRequest request) {
+		User currentUser = securityUtil.getCurrentUser();
+		
+		MacroGoal goal = goalService.setGoals(currentUser, request);
+		
+		return ResponseEntity.ok(toSummary(goal));
+	}
+
+	private DailyMacroSummary toSummary(MacroGoal goal) {
+		return new DailyMacroSummary(
+			FixedPoint.fromMilli(goal.getCaloriesMilli()),
+			FixedPoint.fromMilli(goal.getProteinMilli()),
+			FixedPoint.fromMilli(goal.getCarbsMilli()),
+			FixedPoint.fromMilli(goal.getFatMilli())
+		);
+	}
+
+}
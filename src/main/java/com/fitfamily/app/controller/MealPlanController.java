@@ -0,0 +1,42 @@
+package com.fitfamily.app.controller;
+
+import com.fitfamily.app.dto.MealPlanRequest;
+import com.fitfamily.app.dto.MealPlanResponse;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.service.MealPlanService;
+import com.fitfamily.app.util.SecurityUtil;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/meal-plans")
+public class MealPlanController {
+
+	private final MealPlanService mealPlanService;
+	private final SecurityUtil securityUtil;
+
+	public MealPlanController(MealPlanService mealPlanService, SecurityUtil securityUtil) {
+		this.mealPlanService = mealPlanService;
+		this.securityUtil = securityUtil;
+	}
+
+	/**
+	 * Plan a day of foods hitting the logged-in user's macro targets
+	 * 
+	 * POST /meal-plans
+	 * 
+	 * The plan is computed within a fixed time budget; if it runs out, the
+	 * best plan found so far is returned with complete = false.
+	 * 
+	 * @param request Optional targets (missing ones come from the user's goals) and item count
+	 * @return Chosen portions and servings with their totals
+	 */
+	@PostMapping
+	public ResponseEntity<MealPlanResponse> generatePlan(@Valid @RequestBody(required = false) MealPlanRequest request) {
+		User currentUser = securityUtil.getCurrentUser();
+		return ResponseEntity.ok(mealPlanService.generatePlan(currentUser,
+				request == null ? new MealPlanRequest() : request));
+	}
+
+}
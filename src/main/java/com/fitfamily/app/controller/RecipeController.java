@@ -0,0 +1,56 @@
+package com.fitfamily.app.controller;
+
+import com.fitfamily.app.dto.CreateRecipeRequest;
+import com.fitfamily.app.dto.RecipeResponse;
+import com.fitfamily.app.service.RecipeService;
+import com.fitfamily.app.util.SecurityUtil;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/recipes")
+public class RecipeController {
+
+	private final RecipeService recipeService;
+	private final SecurityUtil securityUtil;
+
+	public RecipeController(RecipeService recipeService, SecurityUtil securityUtil) {
+		this.recipeService = recipeService;
+		this.securityUtil = securityUtil;
+	}
+
+	/**
+	 * Create a recipe from existing foods
+	 * 
+	 * POST /recipes
+	 * 
+	 * The recipe becomes a food of the catalog (searchable and loggable
+	 * like any other) whose nutrients follow its ingredients. Only catalog
+	 * admins (catalog.admin-emails) may create recipes.
+	 * 
+	 * @param request Name, ingredients with grams, and optional servings
+	 * @return Created recipe with its computed nutrients per 100g and portions, or 403 for other users
+	 */
+	@PostMapping
+	public ResponseEntity<RecipeResponse> createRecipe(@Valid @RequestBody CreateRecipeRequest request) {
+		return ResponseEntity.status(HttpStatus.CREATED).body(recipeService.createRecipe(request, securityUtil.getCurrentUserEmail()));
+	}
+
+	/**
+	 * Get a recipe with its ingredients
+	 * 
+	 * GET /recipes/{id}
+	 * 
+	 * @param id ID of the recipe (its food ID)
+	 * @return The recipe, or 404 if the food is not a recipe
+	 */
+	@GetMapping("/{id}")
+	public ResponseEntity<RecipeResponse> getRecipe(@PathVariable UUID id) {
+		return ResponseEntity.ok(recipeService.getRecipe(id));
+	}
+
+}
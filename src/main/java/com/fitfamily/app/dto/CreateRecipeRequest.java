@@ -0,0 +1,47 @@
+package com.fitfamily.app.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateRecipeRequest {
+
+	@NotBlank(message = "Recipe name is required")
+	@Size(max = 255, message = "Recipe name must be at most 255 characters")
+	private String name;
+
+	@NotEmpty(message = "At least one ingredient is required")
+	@Valid
+	private List<Ingredient> ingredients;
+
+	// Number of servings the whole recipe makes (defaults to 1)
+	@Positive(message = "Servings must be positive")
+	private Integer servings;
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Ingredient {
+
+		@NotNull(message = "Ingredient food ID is required")
+		private UUID foodId;
+
+		// Weight of this ingredient in the whole recipe
+		@Positive(message = "Ingredient grams must be positive")
+		private double grams;
+
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.fitfamily.app.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodBatchRequest {
+
+	@NotNull(message = "Food IDs are required")
+	private List<UUID> ids;
+
+}
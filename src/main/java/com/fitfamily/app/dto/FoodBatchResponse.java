@@ -0,0 +1,21 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodBatchResponse {
+
+	// Found foods, in the order they were requested
+	private List<FoodDetailsResponse> foods;
+
+	// Requested IDs that matched no food, in request order
+	private List<UUID> missingIds;
+
+}
@@ -0,0 +1,34 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodDetailsResponse {
+
+	private UUID id;
+	private String name;
+	private double caloriesPer100g;
+	private double proteinPer100g;
+	private double carbsPer100g;
+	private double fatPer100g;
+	private List<Portion> portions;
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Portion {
+
+		private UUID id;
+		private String label;
+		private double grams;
+
+	}
+
+}
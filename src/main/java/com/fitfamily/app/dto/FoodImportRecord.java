@@ -0,0 +1,38 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One food of a catalog import file (a JSON Lines row, or one or more CSV rows)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodImportRecord {
+
+	private String name;
+	private Double caloriesPer100g;
+	private Double proteinPer100g;
+	private Double carbsPer100g;
+	private Double fatPer100g;
+	// Optional amounts per 100g by micronutrient key (e.g., "fibre", "vitaminC")
+	private Map<String, Double> micronutrientsPer100g;
+	private List<Portion> portions = new ArrayList<>();
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Portion {
+
+		private String label;
+		private Double grams;
+
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodImportResult {
+
+	private long rows;
+	private long rejectedRows;
+	private long foodsInserted;
+	private long foodsUpdated;
+	private long portionsInserted;
+	private long portionsUpdated;
+	private long elapsedMillis;
+
+	public long getRowsPerSecond() {
+		return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.fitfamily.app.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodLogCorrectionRequest {
+
+	// Foods whose nutrients or portion weights were corrected
+	@NotEmpty(message = "At least one food ID is required")
+	private List<UUID> foodIds;
+
+}
@@ -0,0 +1,29 @@
+package com.fitfamily.app.dto;
+
+import com.fitfamily.app.model.CorrectionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodLogCorrectionResponse {
+
+	private UUID id;
+	private UUID foodId;
+	private CorrectionStatus status;
+	private Long totalLogs;
+	private long processedLogs;
+	private long updatedLogs;
+	// Share of totalLogs processed so far (0-100), null until the job has started
+	private Double percentComplete;
+	private String error;
+	private LocalDateTime createdAt;
+	private LocalDateTime startedAt;
+	private LocalDateTime finishedAt;
+
+}
@@ -0,0 +1,21 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodNutrientsResponse {
+
+	private UUID id;
+	private String name;
+	private double caloriesPer100g;
+	private double proteinPer100g;
+	private double carbsPer100g;
+	private double fatPer100g;
+
+}
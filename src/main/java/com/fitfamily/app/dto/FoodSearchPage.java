@@ -0,0 +1,19 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodSearchPage {
+
+	private List<FoodResponse> foods;
+
+	// Null on the last page
+	private String nextCursor;
+
+}
@@ -0,0 +1,27 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodSyncResponse {
+
+	// Catalog version this response brings the client to (pass as "since" next time)
+	private long version;
+
+	// True if upserts is the whole catalog and the client should replace its copy
+	private boolean full;
+
+	// Added or changed foods, with nutrients and portions
+	private List<FoodDetailsResponse> upserts;
+
+	// Foods deleted since the requested version
+	private List<UUID> deletedIds;
+
+}
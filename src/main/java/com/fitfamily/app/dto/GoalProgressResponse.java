@@ -0,0 +1,22 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Daily goals compared with the day's summary
+ * 
+ * remaining is negative when a goal is exceeded; percentComplete is 0
+ * for macros without a goal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoalProgressResponse {
+
+	private DailyMacroSummary goal;
+	private DailyMacroSummary remaining;
+	private DailyMacroSummary percentComplete;
+
+}
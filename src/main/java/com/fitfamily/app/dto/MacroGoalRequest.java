@@ -0,0 +1,30 @@
+package com.fitfamily.app.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MacroGoalRequest {
+
+	@NotNull(message = "Calorie goal is required")
+	@PositiveOrZero(message = "Calorie goal must not be negative")
+	private Double calories;
+
+	@NotNull(message = "Protein goal is required")
+	@PositiveOrZero(message = "Protein goal must not be negative")
+	private Double protein;
+
+	@NotNull(message = "Carbs goal is required")
+	@PositiveOrZero(message = "Carbs goal must not be negative")
+	private Double carbs;
+
+	@NotNull(message = "Fat goal is required")
+	@PositiveOrZero(message = "Fat goal must not be negative")
+	private Double fat;
+
+}
@@ -0,0 +1,26 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Daily macro totals for a date range in columnar form
+ * 
+ * Index i of each array is the total for day from + i.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MacroHistoryResponse {
+
+	private LocalDate from;
+	private LocalDate to;
+	private double[] calories;
+	private double[] protein;
+	private double[] carbs;
+	private double[] fat;
+
+}
@@ -0,0 +1,34 @@
+package com.fitfamily.app.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of POST /meal-plans; all optional
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealPlanRequest {
+
+	// Daily targets; each one missing is taken from the user's goals
+	@PositiveOrZero(message = "Calorie target must not be negative")
+	private Double calories;
+
+	@PositiveOrZero(message = "Protein target must not be negative")
+	private Double protein;
+
+	@PositiveOrZero(message = "Carbs target must not be negative")
+	private Double carbs;
+
+	@PositiveOrZero(message = "Fat target must not be negative")
+	private Double fat;
+
+	// Most foods in the plan (capped by meal-plan.max-items)
+	@Min(value = 1, message = "A plan needs at least one item")
+	private Integer maxItems;
+
+}
@@ -0,0 +1,42 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealPlanResponse {
+
+	private List<Item> items;
+	private DailyMacroSummary targets;
+	private DailyMacroSummary totals;
+
+	// false if the time budget ran out before every candidate plan was considered
+	private boolean complete;
+
+	private long elapsedMillis;
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Item {
+
+		private UUID foodId;
+		private String foodName;
+		private UUID portionId;
+		private String portionLabel;
+		private int servings;
+		private double grams;
+		private double calories;
+		private double protein;
+		private double carbs;
+		private double fat;
+
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Query parameters of GET /foods/nutrients; all optional
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NutrientQueryRequest {
+
+	// Inclusive bounds per 100g
+	private Double minCalories;
+	private Double maxCalories;
+	private Double minProtein;
+	private Double maxProtein;
+	private Double minCarbs;
+	private Double maxCarbs;
+	private Double minFat;
+	private Double maxFat;
+
+	// Nutrient to rank by ("calories", "protein", "carbs" or "fat"), by name if absent
+	private String rankBy;
+
+	// Optional nutrient to divide rankBy by, e.g. rankBy=protein&per=calories
+	private String per;
+
+	// Lowest first instead of highest first
+	private boolean ascending;
+
+	private Integer limit;
+
+}
@@ -0,0 +1,25 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuickAddFoodResponse {
+
+	private UUID foodId;
+	private String foodName;
+
+	// Portion of the latest log, so the food can be logged again in one tap
+	private UUID portionId;
+	private String portionLabel;
+
+	private long logCount;
+	private LocalDateTime lastLoggedAt;
+
+}
@@ -0,0 +1,37 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeResponse {
+
+	private UUID id;
+	private String name;
+	private double caloriesPer100g;
+	private double proteinPer100g;
+	private double carbsPer100g;
+	private double fatPer100g;
+	// Weight of the whole recipe (sum of its ingredients)
+	private double totalGrams;
+	private List<Ingredient> ingredients;
+	private List<FoodDetailsResponse.Portion> portions;
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Ingredient {
+
+		private UUID foodId;
+		private String name;
+		private double grams;
+
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedFoodResponse {
+
+	private UUID foodId;
+	private String foodName;
+
+	// Portions, so the food can be logged in one tap
+	private List<FoodDetailsResponse.Portion> portions;
+
+	// Meals (same user, date and meal type) in which both foods were logged
+	private long mealCount;
+
+}
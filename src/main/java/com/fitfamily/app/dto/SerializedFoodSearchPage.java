@@ -0,0 +1,16 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerializedFoodSearchPage {
+
+	// JSON array of FoodResponse; shared between requests, never modified
+	private byte[] body;
+	private String nextCursor;
+
+}
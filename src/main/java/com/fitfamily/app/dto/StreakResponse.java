@@ -0,0 +1,18 @@
+package com.fitfamily.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreakResponse {
+
+	private int currentStreak;
+	private int longestStreak;
+	private LocalDate lastLoggedDate;
+
+}
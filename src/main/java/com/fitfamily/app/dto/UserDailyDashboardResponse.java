@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -15,6 +16,10 @@ public class UserDailyDashboardResponse {
 	private LocalDate date;
 	private DailyMacroSummary summary;
 	private List<FoodLogResponse> foodLogs;
+	private StreakResponse streak;
+	private GoalProgressResponse goals;
+	// Non-zero micronutrient totals by key (e.g., "fibre": 12.5)
+	private Map<String, Double> micronutrients;
 
 }
 
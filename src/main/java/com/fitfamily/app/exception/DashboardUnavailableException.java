@@ -0,0 +1,9 @@
+package com.fitfamily.app.exception;
+
+public class DashboardUnavailableException extends RuntimeException {
+
+	public DashboardUnavailableException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,9 @@
+package com.fitfamily.app.exception;
+
+public class FoodLogCorrectionNotFoundException extends RuntimeException {
+
+	public FoodLogCorrectionNotFoundException(String message) {
+		super(message);
+	}
+
+}
@@ -123,6 +123,96 @@ public class GlobalExceptionHandler {
 		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
 	}
 
+	@ExceptionHandler(InvalidDateRangeException.class)
+	public ResponseEntity<ErrorResponse> handleInvalidDateRange(InvalidDateRangeException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.BAD_REQUEST.value(),
+			"Invalid Date Range",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+	}
+
+	@ExceptionHandler(InvalidSearchCursorException.class)
+	public ResponseEntity<ErrorResponse> handleInvalidSearchCursor(InvalidSearchCursorException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.BAD_REQUEST.value(),
+			"Invalid Search Cursor",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+	}
+
+	@ExceptionHandler(InvalidFoodBatchException.class)
+	public ResponseEntity<ErrorResponse> handleInvalidFoodBatch(InvalidFoodBatchException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.BAD_REQUEST.value(),
+			"Invalid Food Batch",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+	}
+
+	@ExceptionHandler(InvalidNutrientQueryException.class)
+	public ResponseEntity<ErrorResponse> handleInvalidNutrientQuery(InvalidNutrientQueryException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.BAD_REQUEST.value(),
+			"Invalid Nutrient Query",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+	}
+
+	@ExceptionHandler(InvalidRecipeException.class)
+	public ResponseEntity<ErrorResponse> handleInvalidRecipe(InvalidRecipeException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.BAD_REQUEST.value(),
+			"Invalid Recipe",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+	}
+
+	@ExceptionHandler(InvalidMealPlanException.class)
+	public ResponseEntity<ErrorResponse> handleInvalidMealPlan(InvalidMealPlanException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.BAD_REQUEST.value(),
+			"Invalid Meal Plan",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+	}
+
+	@ExceptionHandler(FoodLogCorrectionNotFoundException.class)
+	public ResponseEntity<ErrorResponse> handleFoodLogCorrectionNotFound(FoodLogCorrectionNotFoundException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.NOT_FOUND.value(),
+			"Correction Not Found",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+	}
+
+	@ExceptionHandler(GoalsNotFoundException.class)
+	public ResponseEntity<ErrorResponse> handleGoalsNotFound(GoalsNotFoundException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.NOT_FOUND.value(),
+			"Goals Not Found",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+	}
+
+	@ExceptionHandler(DashboardUnavailableException.class)
+	public ResponseEntity<ErrorResponse> handleDashboardUnavailable(DashboardUnavailableException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.SERVICE_UNAVAILABLE.value(),
+			"Service Unavailable",
+			ex.getMessage()
+		);
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+	}
+
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
 		Map<String, String> errors = new HashMap<>();
@@ -0,0 +1,9 @@
+package com.fitfamily.app.exception;
+
+public class GoalsNotFoundException extends RuntimeException {
+
+	public GoalsNotFoundException(String message) {
+		super(message);
+	}
+
+}
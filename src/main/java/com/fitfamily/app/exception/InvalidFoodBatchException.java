@@ -0,0 +1,9 @@
+package com.fitfamily.app.exception;
+
+public class InvalidFoodBatchException extends RuntimeException {
+
+	public InvalidFoodBatchException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,9 @@
+package com.fitfamily.app.exception;
+
+public class InvalidMealPlanException extends RuntimeException {
+
+	public InvalidMealPlanException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,9 @@
+package com.fitfamily.app.exception;
+
+public class InvalidNutrientQueryException extends RuntimeException {
+
+	public InvalidNutrientQueryException(String message) {
+		super(message);
+	}
+
+}
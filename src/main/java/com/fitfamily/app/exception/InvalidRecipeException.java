@@ -0,0 +1,9 @@
+package com.fitfamily.app.exception;
+
+public class InvalidRecipeException extends RuntimeException {
+
+	public InvalidRecipeException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,9 @@
+package com.fitfamily.app.exception;
+
+public class InvalidSearchCursorException extends RuntimeException {
+
+	public InvalidSearchCursorException(String message) {
+		super(message);
+	}
+
+}
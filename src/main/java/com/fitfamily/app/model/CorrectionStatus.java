@@ -0,0 +1,8 @@
+package com.fitfamily.app.model;
+
+public enum CorrectionStatus {
+	PENDING,
+	RUNNING,
+	COMPLETED,
+	FAILED
+}
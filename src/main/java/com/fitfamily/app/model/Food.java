@@ -1,16 +1,23 @@
 package com.fitfamily.app.model;
 
+import com.fitfamily.app.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = HibernateCacheConfig.FOODS_REGION)
+@EntityListeners(FoodCatalogListener.class)
 @Table(name = "foods")
 @Data
 @NoArgsConstructor
@@ -36,10 +43,19 @@ public class Food {
 	@Column(nullable = false)
 	private double fatPer100g;
 
+	// Fibre, sugar, vitamins and minerals per 100g (null when unknown)
+	@Column(name = "micronutrients_per100g")
+	private NutrientVector micronutrientsPer100g;
+
 	@CreationTimestamp
 	@Column(nullable = false, updatable = false)
 	private LocalDateTime createdAt;
 
+	@UpdateTimestamp
+	@Column(nullable = false)
+	private LocalDateTime updatedAt;
+
+	@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = HibernateCacheConfig.PORTIONS_BY_FOOD_REGION)
 	@OneToMany(mappedBy = "food", fetch = FetchType.LAZY)
 	private List<FoodPortion> foodPortions;
 
@@ -0,0 +1,43 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Another name a food is known by, e.g. "roti" for Chapati or "curd" for
+ * Yogurt, in some language or region. Searches match aliases like names.
+ */
+@Entity
+@EntityListeners(FoodCatalogListener.class)
+@Table(name = "food_aliases", uniqueConstraints = @UniqueConstraint(columnNames = {"food_id", "name"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodAlias {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.UUID)
+	private UUID id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "food_id", nullable = false)
+	private Food food;
+
+	@Column(nullable = false)
+	private String name;
+
+	// BCP 47 language tag, e.g. "en-IN", "en-GB", "hi" or "hi-Latn" (transliterated Hindi)
+	@Column(nullable = false, length = 35)
+	private String locale;
+
+	@CreationTimestamp
+	@Column(nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,36 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One food added, updated or deleted (with or through its portions) by one
+ * transaction. The version numbers all catalog changes in commit order
+ * (see FoodCatalogVersion); the latest one is the catalog version offline
+ * clients sync from.
+ *
+ * Rows are written with plain JDBC by FoodCatalogChangeLog, in the
+ * transaction that made the change.
+ */
+@Entity
+@Table(name = "food_catalog_changes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodCatalogChange {
+
+	@Id
+	private Long version;
+
+	@Column(nullable = false)
+	private UUID foodId;
+
+	@Column(nullable = false)
+	private LocalDateTime changedAt;
+
+}
@@ -0,0 +1,13 @@
+package com.fitfamily.app.model;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published after a transaction that added, updated or deleted foods or
+ * food portions has committed
+ * 
+ * @param foodIds IDs of the affected foods
+ */
+public record FoodCatalogChangedEvent(Set<UUID> foodIds) {
+}
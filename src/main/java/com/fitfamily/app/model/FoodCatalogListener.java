@@ -0,0 +1,111 @@
+package com.fitfamily.app.model;
+
+import com.fitfamily.app.repository.FoodCatalogChangeLog;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA entity listener for Food, FoodPortion and FoodAlias.
+ *
+ * Collects the IDs of changed foods per transaction and publishes a single
+ * FoodCatalogChangedEvent once the transaction has committed, so in-memory
+ * catalog views never see uncommitted or rolled-back changes.
+ *
+ * Each changed food is also recorded once per transaction in
+ * food_catalog_changes, on the transaction's own connection, so the
+ * catalog version moves if and only if the change commits. The version row
+ * is locked before the transaction's first catalog write (see
+ * FoodCatalogChangeLog), so versions follow commit order.
+ */
+@Component
+public class FoodCatalogListener {
+
+	private final ApplicationEventPublisher eventPublisher;
+	private final FoodCatalogChangeLog changeLog;
+
+	public FoodCatalogListener(ApplicationEventPublisher eventPublisher, FoodCatalogChangeLog changeLog) {
+		this.eventPublisher = eventPublisher;
+		this.changeLog = changeLog;
+	}
+
+	@PrePersist
+	@PreUpdate
+	@PreRemove
+	public void beforeChange(Object entity) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			changedInTransaction();
+		}
+	}
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void onChange(Object entity) {
+		UUID foodId;
+		if (entity instanceof FoodPortion portion) {
+			foodId = portion.getFood().getId();
+		} else if (entity instanceof FoodAlias alias) {
+			foodId = alias.getFood().getId();
+		} else {
+			foodId = ((Food) entity).getId();
+		}
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			recordChange(foodId);
+			eventPublisher.publishEvent(new FoodCatalogChangedEvent(Set.of(foodId)));
+			return;
+		}
+
+		if (changedInTransaction().add(foodId)) {
+			recordChange(foodId);
+		}
+	}
+
+	/**
+	 * IDs of foods changed by the current transaction, locking the version row on first use
+	 */
+	private Set<UUID> changedInTransaction() {
+		@SuppressWarnings("unchecked")
+		Set<UUID> changed = (Set<UUID>) TransactionSynchronizationManager.getResource(this);
+		if (changed != null) {
+			return changed;
+		}
+
+		Set<UUID> foodIds = new HashSet<>();
+		TransactionSynchronizationManager.bindResource(this, foodIds);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				if (!foodIds.isEmpty()) {
+					eventPublisher.publishEvent(new FoodCatalogChangedEvent(Set.copyOf(foodIds)));
+				}
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(FoodCatalogListener.this);
+			}
+		});
+		changeLog.lock();
+		return foodIds;
+	}
+
+	private void recordChange(UUID foodId) {
+		changeLog.record(List.of(foodId), LocalDateTime.now());
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row (id 1) that hands out catalog change versions.
+ *
+ * Every transaction that changes the catalog locks this row before its
+ * first change and keeps it until it ends, so versions are assigned and
+ * become visible in commit order. Written with plain JDBC by
+ * FoodCatalogChangeLog.
+ */
+@Entity
+@Table(name = "food_catalog_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodCatalogVersion {
+
+	@Id
+	private Integer id;
+
+	// The last version assigned to a change
+	@Column(nullable = false)
+	private long version;
+
+	// Changes up to this version may have been pruned; clients older than it need the whole catalog
+	@Column(nullable = false)
+	private long prunedThrough;
+
+}
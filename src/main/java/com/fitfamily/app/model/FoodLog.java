@@ -1,5 +1,6 @@
 package com.fitfamily.app.model;
 
+import com.fitfamily.app.util.FixedPoint;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -37,17 +38,22 @@ public class FoodLog {
 	@JoinColumn(name = "portion_id", nullable = false)
 	private FoodPortion portion;
 
-	@Column(nullable = false)
-	private double calories;
+	// Macros are stored as fixed-point milli-units (1 kcal = 1000) so sums are exact
+	@Column(name = "calories_milli", nullable = false)
+	private long caloriesMilli;
 
-	@Column(nullable = false)
-	private double protein;
+	@Column(name = "protein_milli", nullable = false)
+	private long proteinMilli;
 
-	@Column(nullable = false)
-	private double carbs;
+	@Column(name = "carbs_milli", nullable = false)
+	private long carbsMilli;
 
-	@Column(nullable = false)
-	private double fat;
+	@Column(name = "fat_milli", nullable = false)
+	private long fatMilli;
+
+	// Micronutrients of the portion (null when the food has none)
+	@Column(name = "micronutrients")
+	private NutrientVector micronutrients;
 
 	@Enumerated(EnumType.STRING)
 	@Column(nullable = false)
@@ -60,5 +66,37 @@ public class FoodLog {
 	@Column(nullable = false, updatable = false)
 	private LocalDateTime createdAt;
 
+	public double getCalories() {
+		return FixedPoint.fromMilli(caloriesMilli);
+	}
+
+	public void setCalories(double calories) {
+		this.caloriesMilli = FixedPoint.toMilli(calories);
+	}
+
+	public double getProtein() {
+		return FixedPoint.fromMilli(proteinMilli);
+	}
+
+	public void setProtein(double protein) {
+		this.proteinMilli = FixedPoint.toMilli(protein);
+	}
+
+	public double getCarbs() {
+		return FixedPoint.fromMilli(carbsMilli);
+	}
+
+	public void setCarbs(double carbs) {
+		this.carbsMilli = FixedPoint.toMilli(carbs);
+	}
+
+	public double getFat() {
+		return FixedPoint.fromMilli(fatMilli);
+	}
+
+	public void setFat(double fat) {
+		this.fatMilli = FixedPoint.toMilli(fat);
+	}
+
 }
 
@@ -0,0 +1,70 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A background job recomputing the stored macros of every food log of one
+ * food after its nutrients or portions were corrected. The job commits its
+ * position with every chunk, so it resumes where it stopped after a restart.
+ * One application instance at a time works on a job: the one that claimed
+ * it, until its heartbeat goes stale.
+ */
+@Entity
+@Table(name = "food_log_corrections")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodLogCorrection {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.UUID)
+	private UUID id;
+
+	@Column(nullable = false)
+	private UUID foodId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 20)
+	private CorrectionStatus status;
+
+	// Food logs of the food when the job started (logs added later are already correct)
+	private Long totalLogs;
+
+	@Column(nullable = false)
+	private long processedLogs;
+
+	// Processed logs whose macros actually changed
+	@Column(nullable = false)
+	private long updatedLogs;
+
+	// ID of the last processed food log (logs are processed in ID order)
+	private UUID lastLogId;
+
+	// Email of the admin who requested the correction
+	@Column(nullable = false)
+	private String requestedBy;
+
+	private String error;
+
+	// Application instance working on the job (null while nobody is)
+	private String claimedBy;
+
+	// Refreshed by the claiming instance with every chunk
+	private LocalDateTime heartbeatAt;
+
+	@CreationTimestamp
+	@Column(nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	private LocalDateTime startedAt;
+
+	private LocalDateTime finishedAt;
+
+}
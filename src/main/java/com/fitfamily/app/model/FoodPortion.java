@@ -1,15 +1,22 @@
 package com.fitfamily.app.model;
 
+import com.fitfamily.app.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = HibernateCacheConfig.FOOD_PORTIONS_REGION)
+@EntityListeners(FoodCatalogListener.class)
 @Table(name = "food_portions")
 @Data
 @NoArgsConstructor
@@ -34,5 +41,9 @@ public class FoodPortion {
 	@Column(nullable = false, updatable = false)
 	private LocalDateTime createdAt;
 
+	@UpdateTimestamp
+	@Column(nullable = false)
+	private LocalDateTime updatedAt;
+
 }
 
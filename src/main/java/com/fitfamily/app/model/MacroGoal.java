@@ -0,0 +1,40 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "macro_goals")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MacroGoal {
+
+	// Same value as users.id
+	@Id
+	private UUID userId;
+
+	// Daily targets in fixed-point milli-units, like FoodLog
+	@Column(name = "calories_milli", nullable = false)
+	private long caloriesMilli;
+
+	@Column(name = "protein_milli", nullable = false)
+	private long proteinMilli;
+
+	@Column(name = "carbs_milli", nullable = false)
+	private long carbsMilli;
+
+	@Column(name = "fat_milli", nullable = false)
+	private long fatMilli;
+
+	@UpdateTimestamp
+	@Column(nullable = false)
+	private LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,87 @@
+package com.fitfamily.app.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Nutrients tracked beyond the macros, in the fixed layout of a NutrientVector.
+ *
+ * The declaration order is the storage layout (a constant's ordinal is its
+ * slot in every stored vector), so new nutrients must be appended at the
+ * end and existing ones never reordered or removed.
+ */
+public enum Micronutrient {
+
+	FIBRE("fibre", "g"),
+	SUGAR("sugar", "g"),
+	SODIUM("sodium", "mg"),
+	POTASSIUM("potassium", "mg"),
+	CALCIUM("calcium", "mg"),
+	IRON("iron", "mg"),
+	MAGNESIUM("magnesium", "mg"),
+	PHOSPHORUS("phosphorus", "mg"),
+	ZINC("zinc", "mg"),
+	COPPER("copper", "mg"),
+	MANGANESE("manganese", "mg"),
+	SELENIUM("selenium", "ug"),
+	IODINE("iodine", "ug"),
+	VITAMIN_A("vitaminA", "ug"),
+	VITAMIN_C("vitaminC", "mg"),
+	VITAMIN_D("vitaminD", "ug"),
+	VITAMIN_E("vitaminE", "mg"),
+	VITAMIN_K("vitaminK", "ug"),
+	THIAMIN("thiamin", "mg"),
+	RIBOFLAVIN("riboflavin", "mg"),
+	NIACIN("niacin", "mg"),
+	PANTOTHENIC_ACID("pantothenicAcid", "mg"),
+	VITAMIN_B6("vitaminB6", "mg"),
+	FOLATE("folate", "ug"),
+	VITAMIN_B12("vitaminB12", "ug");
+
+	private static final Map<String, Micronutrient> BY_KEY = new HashMap<>();
+
+	static {
+		for (Micronutrient nutrient : values()) {
+			BY_KEY.put(nutrient.key, nutrient);
+		}
+	}
+
+	private final String key;
+	private final String unit;
+
+	Micronutrient(String key, String unit) {
+		this.key = key;
+		this.unit = unit;
+	}
+
+	/**
+	 * @return Name used in API responses and JSON Lines imports (e.g., vitaminB12)
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return Unit of the stored amounts (g, mg or ug)
+	 */
+	public String getUnit() {
+		return unit;
+	}
+
+	/**
+	 * @return Column of this nutrient in CSV imports (e.g., vitamin_b12_per_100g)
+	 */
+	public String getCsvColumn() {
+		return name().toLowerCase(Locale.ROOT) + "_per_100g";
+	}
+
+	/**
+	 * @param key A nutrient's key
+	 * @return The nutrient, or null if the key is unknown
+	 */
+	public static Micronutrient fromKey(String key) {
+		return BY_KEY.get(key);
+	}
+
+}
@@ -0,0 +1,188 @@
+package com.fitfamily.app.model;
+
+import com.fitfamily.app.util.FixedPoint;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Amounts of every Micronutrient in one fixed-layout float array.
+ *
+ * Slot i holds the amount of the nutrient with ordinal i, so scaling a
+ * portion or summing a day is one plain loop over the array instead of a
+ * multiplication and setter per nutrient. Stored as a single column of
+ * packed little-endian floats (4 bytes per nutrient, see
+ * NutrientVectorConverter); a stored vector shorter than the current
+ * layout (written before nutrients were appended) reads its missing slots
+ * as zero. Floats keep about 7 significant digits, plenty for amounts
+ * that are themselves label estimates. Never modified (and Serializable
+ * only so the second-level cache can hold foods' vectors as they are).
+ */
+public final class NutrientVector implements Serializable {
+
+	/**
+	 * Number of slots (one per Micronutrient)
+	 */
+	public static final int SIZE = Micronutrient.values().length;
+
+	private final float[] values;
+
+	private NutrientVector(float[] values) {
+		this.values = values;
+	}
+
+	/**
+	 * @param amounts Amount per nutrient; missing nutrients are zero
+	 * @return The vector
+	 */
+	public static NutrientVector of(Map<Micronutrient, ? extends Number> amounts) {
+		float[] values = new float[SIZE];
+		amounts.forEach((nutrient, amount) -> values[nutrient.ordinal()] = amount.floatValue());
+		return new NutrientVector(values);
+	}
+
+	/**
+	 * @param amounts Amount per nutrient key (e.g., "fibre"); missing nutrients are zero
+	 * @return The vector
+	 * @throws IllegalArgumentException if a key is not a Micronutrient key
+	 */
+	public static NutrientVector fromKeys(Map<String, ? extends Number> amounts) {
+		Map<Micronutrient, Number> byNutrient = new EnumMap<>(Micronutrient.class);
+		amounts.forEach((key, amount) -> {
+			Micronutrient nutrient = Micronutrient.fromKey(key);
+			if (nutrient == null) {
+				throw new IllegalArgumentException("Unknown micronutrient: " + key);
+			}
+			byNutrient.put(nutrient, amount);
+		});
+		return of(byNutrient);
+	}
+
+	/**
+	 * @param bytes Packed little-endian floats, as written by toBytes()
+	 * @return The vector (slots missing from bytes are zero, extra ones ignored)
+	 * @throws IllegalArgumentException if the length is not a whole number of floats
+	 */
+	public static NutrientVector fromBytes(byte[] bytes) {
+		if (bytes.length % Float.BYTES != 0) {
+			throw new IllegalArgumentException("Nutrient vector of " + bytes.length + " bytes is not packed floats");
+		}
+		float[] values = new float[SIZE];
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer()
+				.get(values, 0, Math.min(SIZE, bytes.length / Float.BYTES));
+		return new NutrientVector(values);
+	}
+
+	/**
+	 * @return The amounts as packed little-endian floats
+	 */
+	public byte[] toBytes() {
+		ByteBuffer buffer = ByteBuffer.allocate(SIZE * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.asFloatBuffer().put(values);
+		return buffer.array();
+	}
+
+	/**
+	 * @return The amount of one nutrient
+	 */
+	public double get(Micronutrient nutrient) {
+		return values[nutrient.ordinal()];
+	}
+
+	/**
+	 * Multiply every amount by the same factor (e.g., portion grams / 100)
+	 *
+	 * @param factor The factor
+	 * @return A new vector
+	 */
+	public NutrientVector scale(double factor) {
+		float multiplier = (float) factor;
+		float[] scaled = new float[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			scaled[i] = values[i] * multiplier;
+		}
+		return new NutrientVector(scaled);
+	}
+
+	/**
+	 * @return Non-zero amounts by nutrient key in layout order, rounded to three decimals
+	 */
+	public Map<String, Double> toMap() {
+		Map<String, Double> amounts = new LinkedHashMap<>();
+		for (Micronutrient nutrient : Micronutrient.values()) {
+			long milli = FixedPoint.toMilli(values[nutrient.ordinal()]);
+			if (milli != 0) {
+				amounts.put(nutrient.getKey(), FixedPoint.fromMilli(milli));
+			}
+		}
+		return amounts;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof NutrientVector vector && Arrays.equals(values, vector.values);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(values);
+	}
+
+	@Override
+	public String toString() {
+		return "NutrientVector" + toMap();
+	}
+
+	/**
+	 * Running total of many vectors, accumulated in doubles so long sums
+	 * do not drift. Not thread-safe.
+	 */
+	public static final class Sum {
+
+		private final double[] totals = new double[SIZE];
+
+		/**
+		 * Add a vector (null counts as zero)
+		 */
+		public Sum add(NutrientVector vector) {
+			if (vector != null) {
+				float[] values = vector.values;
+				for (int i = 0; i < SIZE; i++) {
+					totals[i] += values[i];
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Add a vector times a weight (null counts as zero)
+		 */
+		public Sum add(NutrientVector vector, double weight) {
+			if (vector != null) {
+				float[] values = vector.values;
+				for (int i = 0; i < SIZE; i++) {
+					totals[i] += values[i] * weight;
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * @return The totals so far
+		 */
+		public NutrientVector toVector() {
+			float[] values = new float[SIZE];
+			for (int i = 0; i < SIZE; i++) {
+				values[i] = (float) totals[i];
+			}
+			return new NutrientVector(values);
+		}
+
+	}
+
+}
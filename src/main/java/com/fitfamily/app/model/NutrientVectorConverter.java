@@ -0,0 +1,27 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Stores a NutrientVector as one binary column of packed floats (null stays null)
+ *
+ * Vectors are never modified, so Hibernate may share them between entity
+ * copies and compare them with equals() instead of taking snapshots.
+ */
+@Immutable
+@Converter(autoApply = true)
+public class NutrientVectorConverter implements AttributeConverter<NutrientVector, byte[]> {
+
+	@Override
+	public byte[] convertToDatabaseColumn(NutrientVector vector) {
+		return vector == null ? null : vector.toBytes();
+	}
+
+	@Override
+	public NutrientVector convertToEntityAttribute(byte[] bytes) {
+		return bytes == null ? null : NutrientVector.fromBytes(bytes);
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An ingredient of a recipe: a food (possibly another recipe) and its
+ * weight in the whole recipe. The recipe's own per-100g nutrients are
+ * computed from its ingredients and stored on its Food row.
+ */
+@Entity
+@Table(name = "recipe_ingredients", uniqueConstraints = @UniqueConstraint(columnNames = {"recipe_id", "ingredient_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeIngredient {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.UUID)
+	private UUID id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "recipe_id", nullable = false)
+	private Food recipe;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "ingredient_id", nullable = false)
+	private Food ingredient;
+
+	@Column(nullable = false)
+	private double grams;
+
+	@CreationTimestamp
+	@Column(nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,33 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Counts the changes to a user's daily totals (food logs added, deleted or
+ * corrected).
+ *
+ * Every change bumps the version in its own transaction, so versions follow
+ * commit order. Each history file records the version it is complete up to;
+ * a file behind the database (e.g., changed through another instance) is
+ * rebuilt from food_logs on its next read.
+ */
+@Entity
+@Table(name = "user_history_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserHistoryVersion {
+
+	// Same value as users.id
+	@Id
+	private UUID userId;
+
+	@Column(nullable = false)
+	private long version;
+
+}
@@ -0,0 +1,32 @@
+package com.fitfamily.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "user_streaks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStreak {
+
+	// Same value as users.id
+	@Id
+	private UUID userId;
+
+	@Column(nullable = false)
+	private int currentStreak;
+
+	@Column(nullable = false)
+	private int longestStreak;
+
+	private LocalDate streakStartDate;
+
+	private LocalDate lastLoggedDate;
+
+}
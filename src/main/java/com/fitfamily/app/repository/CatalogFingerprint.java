@@ -0,0 +1,61 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+/**
+ * Identifies one state of the food catalog
+ *
+ * Any insert or update moves a last-modified time and any delete changes a
+ * count, so a snapshot whose fingerprint equals the database's is current.
+ * Times are epoch microseconds (the database's precision), 0 for an empty table.
+ *
+ * @param foodCount Number of foods
+ * @param portionCount Number of food portions
+ * @param foodsUpdatedAt Latest food modification time
+ * @param portionsUpdatedAt Latest portion modification time
+ */
+public record CatalogFingerprint(long foodCount, long portionCount, long foodsUpdatedAt, long portionsUpdatedAt) {
+
+	/**
+	 * Fingerprint of the catalog as stored in the database
+	 */
+	public static CatalogFingerprint of(CatalogStats stats) {
+		return new CatalogFingerprint(stats.getFoodCount(), stats.getPortionCount(),
+				micros(stats.getFoodsUpdatedAt()), micros(stats.getPortionsUpdatedAt()));
+	}
+
+	/**
+	 * Fingerprint of a fully loaded catalog (foods with their portions)
+	 */
+	public static CatalogFingerprint of(Collection<Food> foods) {
+		long portionCount = 0;
+		long foodsUpdatedAt = 0;
+		long portionsUpdatedAt = 0;
+		for (Food food : foods) {
+			foodsUpdatedAt = Math.max(foodsUpdatedAt, micros(food.getUpdatedAt()));
+			for (FoodPortion portion : food.getFoodPortions()) {
+				portionCount++;
+				portionsUpdatedAt = Math.max(portionsUpdatedAt, micros(portion.getUpdatedAt()));
+			}
+		}
+		return new CatalogFingerprint(foods.size(), portionCount, foodsUpdatedAt, portionsUpdatedAt);
+	}
+
+	static long micros(LocalDateTime time) {
+		if (time == null) {
+			return 0;
+		}
+		return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), time);
+	}
+
+	static LocalDateTime fromMicros(long micros) {
+		return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+	}
+
+}
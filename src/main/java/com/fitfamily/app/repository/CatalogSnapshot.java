@@ -0,0 +1,231 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only view of a catalog snapshot file (see CatalogSnapshotStore)
+ *
+ * Foods are addressed by their position in the snapshot (sorted by ID) and
+ * every accessor reads straight from the mapped buffer, so lookups allocate
+ * nothing beyond the strings they return. Safe to share between threads;
+ * the store may patch a food's record in place while lookups are not served
+ * from the snapshot (see CatalogSnapshotService.inSyncSnapshot() and
+ * CatalogSnapshotStore.patch()).
+ */
+public final class CatalogSnapshot {
+
+	public static final int NUTRIENTS = 4;
+	public static final int CALORIES = 0;
+	public static final int PROTEIN = 1;
+	public static final int CARBS = 2;
+	public static final int FAT = 3;
+
+	static final int MAGIC = 0x46464353; // "FFCS"
+	static final int FORMAT_VERSION = 1;
+	static final int HEADER_BYTES = 48;
+
+	// Bytes per food and per portion in each fixed-width column
+	static final int ID_BYTES = 2 * Long.BYTES;
+	static final int STRING_REF_BYTES = 2 * Integer.BYTES;
+	static final int NUTRIENT_BYTES = NUTRIENTS * Double.BYTES;
+	static final int PORTION_RANGE_BYTES = 2 * Integer.BYTES;
+
+	private final ByteBuffer buffer;
+	private final int foodCount;
+	private final int portionCount;
+	private final CatalogFingerprint fingerprint;
+	private final Layout layout;
+
+	CatalogSnapshot(ByteBuffer buffer) {
+		this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+			throw new IllegalStateException("Not a catalog snapshot");
+		}
+		if (buffer.getInt(4) != FORMAT_VERSION) {
+			throw new IllegalStateException("Unsupported catalog snapshot version: " + buffer.getInt(4));
+		}
+		this.foodCount = buffer.getInt(8);
+		this.portionCount = buffer.getInt(12);
+		int stringPoolBytes = buffer.getInt(16);
+		this.fingerprint = new CatalogFingerprint(foodCount, portionCount, buffer.getLong(24), buffer.getLong(32));
+		if (fileSize(foodCount, portionCount, stringPoolBytes) != buffer.capacity()) {
+			throw new IllegalStateException("Truncated catalog snapshot");
+		}
+		this.layout = Layout.of(foodCount, portionCount);
+	}
+
+	/**
+	 * Total file size for the given counts
+	 */
+	static long fileSize(int foodCount, int portionCount, int stringPoolBytes) {
+		return HEADER_BYTES
+				+ (long) foodCount * (ID_BYTES + STRING_REF_BYTES + NUTRIENT_BYTES + Long.BYTES + PORTION_RANGE_BYTES)
+				+ (long) portionCount * (ID_BYTES + STRING_REF_BYTES + Double.BYTES + Long.BYTES)
+				+ stringPoolBytes;
+	}
+
+	public CatalogFingerprint fingerprint() {
+		return fingerprint;
+	}
+
+	public int size() {
+		return foodCount;
+	}
+
+	/**
+	 * Binary search for a food by ID
+	 *
+	 * @param id The food ID
+	 * @return The food's position, or -1 if it is not in the snapshot
+	 */
+	public int indexOf(UUID id) {
+		long most = id.getMostSignificantBits();
+		long least = id.getLeastSignificantBits();
+		int low = 0;
+		int high = foodCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int position = layout.foodIds() + mid * ID_BYTES;
+			int cmp = Long.compare(buffer.getLong(position), most);
+			if (cmp == 0) {
+				cmp = Long.compare(buffer.getLong(position + Long.BYTES), least);
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	public UUID id(int food) {
+		int position = layout.foodIds() + food * ID_BYTES;
+		return new UUID(buffer.getLong(position), buffer.getLong(position + Long.BYTES));
+	}
+
+	public String name(int food) {
+		return string(layout.foodNames() + food * STRING_REF_BYTES);
+	}
+
+	/**
+	 * @param food Food position
+	 * @param nutrient One of CALORIES, PROTEIN, CARBS, FAT
+	 * @return Amount per 100g
+	 */
+	public double nutrientPer100g(int food, int nutrient) {
+		return buffer.getDouble(layout.foodNutrients() + food * NUTRIENT_BYTES + nutrient * Double.BYTES);
+	}
+
+	public int firstPortion(int food) {
+		return buffer.getInt(layout.foodPortionRanges() + food * PORTION_RANGE_BYTES);
+	}
+
+	public int portionCount(int food) {
+		return buffer.getInt(layout.foodPortionRanges() + food * PORTION_RANGE_BYTES + Integer.BYTES);
+	}
+
+	/**
+	 * Find a portion of one food by ID (a short linear scan; foods have few portions)
+	 *
+	 * @return The portion's position, or -1 if the food has no such portion
+	 */
+	public int portionIndexOf(int food, UUID portionId) {
+		int first = firstPortion(food);
+		int end = first + portionCount(food);
+		long most = portionId.getMostSignificantBits();
+		long least = portionId.getLeastSignificantBits();
+		for (int portion = first; portion < end; portion++) {
+			int position = layout.portionIds() + portion * ID_BYTES;
+			if (buffer.getLong(position) == most && buffer.getLong(position + Long.BYTES) == least) {
+				return portion;
+			}
+		}
+		return -1;
+	}
+
+	public UUID portionId(int portion) {
+		int position = layout.portionIds() + portion * ID_BYTES;
+		return new UUID(buffer.getLong(position), buffer.getLong(position + Long.BYTES));
+	}
+
+	public String portionLabel(int portion) {
+		return string(layout.portionLabels() + portion * STRING_REF_BYTES);
+	}
+
+	public double portionGrams(int portion) {
+		return buffer.getDouble(layout.portionGrams() + portion * Double.BYTES);
+	}
+
+	/**
+	 * Copy one food and its portions into detached entities
+	 *
+	 * Only used when rewriting the snapshot; lookups should use the accessors.
+	 */
+	public Food toFood(int food) {
+		Food entity = new Food();
+		entity.setId(id(food));
+		entity.setName(name(food));
+		entity.setCaloriesPer100g(nutrientPer100g(food, CALORIES));
+		entity.setProteinPer100g(nutrientPer100g(food, PROTEIN));
+		entity.setCarbsPer100g(nutrientPer100g(food, CARBS));
+		entity.setFatPer100g(nutrientPer100g(food, FAT));
+		entity.setUpdatedAt(CatalogFingerprint.fromMicros(buffer.getLong(layout.foodUpdatedAt() + food * Long.BYTES)));
+
+		int first = firstPortion(food);
+		List<FoodPortion> portions = new ArrayList<>(portionCount(food));
+		for (int portion = first; portion < first + portionCount(food); portion++) {
+			FoodPortion portionEntity = new FoodPortion();
+			portionEntity.setId(portionId(portion));
+			portionEntity.setLabel(portionLabel(portion));
+			portionEntity.setGrams(portionGrams(portion));
+			portionEntity.setFood(entity);
+			portionEntity.setUpdatedAt(CatalogFingerprint.fromMicros(buffer.getLong(layout.portionUpdatedAt() + portion * Long.BYTES)));
+			portions.add(portionEntity);
+		}
+		entity.setFoodPortions(portions);
+		return entity;
+	}
+
+	private String string(int reference) {
+		int offset = buffer.getInt(reference);
+		int length = buffer.getInt(reference + Integer.BYTES);
+		byte[] bytes = new byte[length];
+		buffer.get(layout.stringPool() + offset, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Byte offsets of the columns, in file order after the header
+	 */
+	record Layout(int foodIds, int foodNames, int foodNutrients, int foodUpdatedAt, int foodPortionRanges,
+			int portionIds, int portionLabels, int portionGrams, int portionUpdatedAt, int stringPool) {
+
+		static Layout of(int foodCount, int portionCount) {
+			int foodIds = HEADER_BYTES;
+			int foodNames = foodIds + foodCount * ID_BYTES;
+			int foodNutrients = foodNames + foodCount * STRING_REF_BYTES;
+			int foodUpdatedAt = foodNutrients + foodCount * NUTRIENT_BYTES;
+			int foodPortionRanges = foodUpdatedAt + foodCount * Long.BYTES;
+			int portionIds = foodPortionRanges + foodCount * PORTION_RANGE_BYTES;
+			int portionLabels = portionIds + portionCount * ID_BYTES;
+			int portionGrams = portionLabels + portionCount * STRING_REF_BYTES;
+			int portionUpdatedAt = portionGrams + portionCount * Double.BYTES;
+			int stringPool = portionUpdatedAt + portionCount * Long.BYTES;
+			return new Layout(foodIds, foodNames, foodNutrients, foodUpdatedAt, foodPortionRanges,
+					portionIds, portionLabels, portionGrams, portionUpdatedAt, stringPool);
+		}
+
+	}
+
+}
@@ -0,0 +1,323 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Memory-mapped binary snapshot of the whole food catalog.
+ *
+ * Lets the search index be built at startup without loading every food and
+ * portion through JPA. A snapshot is only used while its CatalogFingerprint
+ * matches the database. Edits that keep every record's size (nutrients,
+ * grams, same-length names) are patched in place; other catalog changes
+ * rewrite the whole file (to a temporary file that then atomically
+ * replaces the old one).
+ *
+ * File layout (little-endian), foods sorted by ID:
+ * - header: magic (int), format version (int), food count (int), portion count (int),
+ *   string pool bytes (int), reserved (int), foods updated at (long),
+ *   portions updated at (long), reserved (long)
+ * - food columns: ID (2 longs), name (pool offset, length), calories/protein/carbs/fat
+ *   per 100g (4 doubles), updated at (long), portions (first index, count)
+ * - portion columns, grouped by food: ID (2 longs), label (pool offset, length),
+ *   grams (double), updated at (long)
+ * - string pool: UTF-8 names and labels
+ */
+@Repository
+public class CatalogSnapshotStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+	private static final Comparator<Food> BY_ID = Comparator
+			.comparingLong((Food food) -> food.getId().getMostSignificantBits())
+			.thenComparingLong(food -> food.getId().getLeastSignificantBits());
+
+	private final Path path;
+	private volatile CatalogSnapshot current;
+
+	public CatalogSnapshotStore(@Value("${catalog.snapshot.path}") String path) {
+		this.path = Path.of(path);
+		try {
+			Files.createDirectories(this.path.toAbsolutePath().getParent());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot create catalog snapshot directory: " + path, e);
+		}
+
+		if (Files.exists(this.path)) {
+			try {
+				current = map();
+			} catch (IOException | RuntimeException e) {
+				// A broken snapshot only costs a database load; it is replaced on the next write
+				logger.warn("Ignoring unreadable catalog snapshot {}: {}", path, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * The most recently written or loaded snapshot
+	 *
+	 * @return The snapshot, or null if there is none
+	 */
+	public CatalogSnapshot current() {
+		return current;
+	}
+
+	/**
+	 * Replace the snapshot with the given catalog
+	 *
+	 * @param foods All foods, with their portions loaded
+	 * @return The new snapshot
+	 */
+	public synchronized CatalogSnapshot write(Collection<Food> foods) {
+		List<Food> sorted = new ArrayList<>(foods);
+		sorted.sort(BY_ID);
+		CatalogFingerprint fingerprint = CatalogFingerprint.of(sorted);
+
+		// Encode strings first: the pool size is part of the layout
+		int portionCount = (int) fingerprint.portionCount();
+		List<byte[]> strings = new ArrayList<>(sorted.size() + portionCount);
+		long poolBytes = 0;
+		for (Food food : sorted) {
+			poolBytes += add(strings, food.getName());
+			for (FoodPortion portion : food.getFoodPortions()) {
+				poolBytes += add(strings, portion.getLabel());
+			}
+		}
+
+		long size = CatalogSnapshot.fileSize(sorted.size(), portionCount, (int) Math.min(poolBytes, Integer.MAX_VALUE));
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Catalog too large for a snapshot: " + size + " bytes");
+		}
+
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		try {
+			Files.deleteIfExists(temporary);
+			try (FileChannel channel = FileChannel.open(temporary,
+					StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				fill(buffer, sorted, fingerprint, strings, (int) poolBytes);
+				buffer.force();
+			}
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			current = map();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot write catalog snapshot: " + path, e);
+		}
+
+		logger.info("Catalog snapshot written [foods={}, portions={}, bytes={}]", sorted.size(), portionCount, size);
+		return current;
+	}
+
+	/**
+	 * Rewrite the current snapshot with some foods replaced
+	 *
+	 * @param changes Current state of each changed food (with portions), or null if it was deleted
+	 * @return The new snapshot, or null if there is no snapshot to update
+	 */
+	public synchronized CatalogSnapshot merge(Map<UUID, Food> changes) {
+		CatalogSnapshot snapshot = current;
+		if (snapshot == null) {
+			return null;
+		}
+
+		List<Food> foods = new ArrayList<>(snapshot.size() + changes.size());
+		for (int food = 0; food < snapshot.size(); food++) {
+			if (!changes.containsKey(snapshot.id(food))) {
+				foods.add(snapshot.toFood(food));
+			}
+		}
+		for (Food food : changes.values()) {
+			if (food != null) {
+				foods.add(food);
+			}
+		}
+		return write(foods);
+	}
+
+	/**
+	 * Overwrite changed foods in the current snapshot file, if every change fits in place
+	 *
+	 * A change fits when the food is in the snapshot with the same portions
+	 * and its name and portion labels keep their encoded lengths, which
+	 * covers nutrient and weight corrections. Costs O(changes) instead of a
+	 * rewrite. The header's fingerprint is written last, so a patch cut
+	 * short leaves a snapshot that no longer matches the database.
+	 *
+	 * @param changes Current state of each changed food (with portions), or null if it was deleted
+	 * @return true if the snapshot now holds every change; false if nothing was written
+	 *         (no snapshot, or some change needs a rewrite, see merge())
+	 */
+	public synchronized boolean patch(Map<UUID, Food> changes) {
+		CatalogSnapshot snapshot = current;
+		if (snapshot == null) {
+			return false;
+		}
+
+		List<Food> foods = new ArrayList<>(changes.values());
+		int[] positions = new int[foods.size()];
+		for (int i = 0; i < positions.length; i++) {
+			Food food = foods.get(i);
+			positions[i] = food == null ? -1 : snapshot.indexOf(food.getId());
+			if (positions[i] < 0 || !fitsInPlace(snapshot, positions[i], food)) {
+				return false;
+			}
+		}
+
+		CatalogFingerprint old = snapshot.fingerprint();
+		long foodsUpdatedAt = old.foodsUpdatedAt();
+		long portionsUpdatedAt = old.portionsUpdatedAt();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			CatalogSnapshot.Layout layout = CatalogSnapshot.Layout.of(snapshot.size(), (int) old.portionCount());
+
+			for (int i = 0; i < positions.length; i++) {
+				Food food = foods.get(i);
+				int position = positions[i];
+				overwriteString(buffer, layout, layout.foodNames() + position * CatalogSnapshot.STRING_REF_BYTES, food.getName());
+				int nutrients = layout.foodNutrients() + position * CatalogSnapshot.NUTRIENT_BYTES;
+				buffer.putDouble(nutrients + CatalogSnapshot.CALORIES * Double.BYTES, food.getCaloriesPer100g());
+				buffer.putDouble(nutrients + CatalogSnapshot.PROTEIN * Double.BYTES, food.getProteinPer100g());
+				buffer.putDouble(nutrients + CatalogSnapshot.CARBS * Double.BYTES, food.getCarbsPer100g());
+				buffer.putDouble(nutrients + CatalogSnapshot.FAT * Double.BYTES, food.getFatPer100g());
+				long updatedAt = CatalogFingerprint.micros(food.getUpdatedAt());
+				buffer.putLong(layout.foodUpdatedAt() + position * Long.BYTES, updatedAt);
+				foodsUpdatedAt = Math.max(foodsUpdatedAt, updatedAt);
+
+				for (FoodPortion foodPortion : food.getFoodPortions()) {
+					int portion = snapshot.portionIndexOf(position, foodPortion.getId());
+					overwriteString(buffer, layout, layout.portionLabels() + portion * CatalogSnapshot.STRING_REF_BYTES,
+							foodPortion.getLabel());
+					buffer.putDouble(layout.portionGrams() + portion * Double.BYTES, foodPortion.getGrams());
+					long portionUpdatedAt = CatalogFingerprint.micros(foodPortion.getUpdatedAt());
+					buffer.putLong(layout.portionUpdatedAt() + portion * Long.BYTES, portionUpdatedAt);
+					portionsUpdatedAt = Math.max(portionsUpdatedAt, portionUpdatedAt);
+				}
+			}
+			buffer.force();
+
+			buffer.putLong(24, foodsUpdatedAt);
+			buffer.putLong(32, portionsUpdatedAt);
+			buffer.force();
+			current = map();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot patch catalog snapshot: " + path, e);
+		}
+
+		logger.debug("Catalog snapshot patched in place [foods={}]", positions.length);
+		return true;
+	}
+
+	private static boolean fitsInPlace(CatalogSnapshot snapshot, int position, Food food) {
+		if (snapshot.portionCount(position) != food.getFoodPortions().size()
+				|| !sameEncodedLength(snapshot.name(position), food.getName())) {
+			return false;
+		}
+		for (FoodPortion portion : food.getFoodPortions()) {
+			int index = snapshot.portionIndexOf(position, portion.getId());
+			if (index < 0 || !sameEncodedLength(snapshot.portionLabel(index), portion.getLabel())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean sameEncodedLength(String stored, String value) {
+		return stored.getBytes(StandardCharsets.UTF_8).length == value.getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	private static void overwriteString(MappedByteBuffer buffer, CatalogSnapshot.Layout layout, int reference, String value) {
+		buffer.put(layout.stringPool() + buffer.getInt(reference), value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static int add(List<byte[]> strings, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		strings.add(bytes);
+		return bytes.length;
+	}
+
+	private static void fill(MappedByteBuffer buffer, List<Food> foods, CatalogFingerprint fingerprint,
+			List<byte[]> strings, int poolBytes) {
+		int portionCount = (int) fingerprint.portionCount();
+		CatalogSnapshot.Layout layout = CatalogSnapshot.Layout.of(foods.size(), portionCount);
+
+		buffer.putInt(0, CatalogSnapshot.MAGIC);
+		buffer.putInt(4, CatalogSnapshot.FORMAT_VERSION);
+		buffer.putInt(8, foods.size());
+		buffer.putInt(12, portionCount);
+		buffer.putInt(16, poolBytes);
+		buffer.putLong(24, fingerprint.foodsUpdatedAt());
+		buffer.putLong(32, fingerprint.portionsUpdatedAt());
+
+		int portion = 0;
+		int string = 0;
+		int poolOffset = 0;
+		for (int food = 0; food < foods.size(); food++) {
+			Food entity = foods.get(food);
+			putId(buffer, layout.foodIds() + food * CatalogSnapshot.ID_BYTES, entity.getId());
+			poolOffset = putString(buffer, layout, layout.foodNames() + food * CatalogSnapshot.STRING_REF_BYTES,
+					strings.get(string++), poolOffset);
+
+			int nutrients = layout.foodNutrients() + food * CatalogSnapshot.NUTRIENT_BYTES;
+			buffer.putDouble(nutrients + CatalogSnapshot.CALORIES * Double.BYTES, entity.getCaloriesPer100g());
+			buffer.putDouble(nutrients + CatalogSnapshot.PROTEIN * Double.BYTES, entity.getProteinPer100g());
+			buffer.putDouble(nutrients + CatalogSnapshot.CARBS * Double.BYTES, entity.getCarbsPer100g());
+			buffer.putDouble(nutrients + CatalogSnapshot.FAT * Double.BYTES, entity.getFatPer100g());
+			buffer.putLong(layout.foodUpdatedAt() + food * Long.BYTES, CatalogFingerprint.micros(entity.getUpdatedAt()));
+
+			int range = layout.foodPortionRanges() + food * CatalogSnapshot.PORTION_RANGE_BYTES;
+			buffer.putInt(range, portion);
+			buffer.putInt(range + Integer.BYTES, entity.getFoodPortions().size());
+			for (FoodPortion foodPortion : entity.getFoodPortions()) {
+				putId(buffer, layout.portionIds() + portion * CatalogSnapshot.ID_BYTES, foodPortion.getId());
+				poolOffset = putString(buffer, layout, layout.portionLabels() + portion * CatalogSnapshot.STRING_REF_BYTES,
+						strings.get(string++), poolOffset);
+				buffer.putDouble(layout.portionGrams() + portion * Double.BYTES, foodPortion.getGrams());
+				buffer.putLong(layout.portionUpdatedAt() + portion * Long.BYTES, CatalogFingerprint.micros(foodPortion.getUpdatedAt()));
+				portion++;
+			}
+		}
+	}
+
+	private static void putId(MappedByteBuffer buffer, int position, UUID id) {
+		buffer.putLong(position, id.getMostSignificantBits());
+		buffer.putLong(position + Long.BYTES, id.getLeastSignificantBits());
+	}
+
+	private static int putString(MappedByteBuffer buffer, CatalogSnapshot.Layout layout, int reference,
+			byte[] bytes, int poolOffset) {
+		buffer.putInt(reference, poolOffset);
+		buffer.putInt(reference + Integer.BYTES, bytes.length);
+		buffer.put(layout.stringPool() + poolOffset, bytes);
+		return poolOffset + bytes.length;
+	}
+
+	private CatalogSnapshot map() throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new CatalogSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.fitfamily.app.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the catalog's row counts and last modification times,
+ * used to tell whether a catalog snapshot is still current
+ */
+public interface CatalogStats {
+
+	long getFoodCount();
+
+	long getPortionCount();
+
+	LocalDateTime getFoodsUpdatedAt();
+
+	LocalDateTime getPortionsUpdatedAt();
+
+}
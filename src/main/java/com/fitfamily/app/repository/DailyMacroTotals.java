@@ -0,0 +1,20 @@
+package com.fitfamily.app.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of a user's macro totals for one day, summed by the database
+ */
+public interface DailyMacroTotals {
+
+	LocalDate getDate();
+
+	long getCaloriesMilli();
+
+	long getProteinMilli();
+
+	long getCarbsMilli();
+
+	long getFatMilli();
+
+}
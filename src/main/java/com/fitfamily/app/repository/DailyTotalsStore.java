@@ -0,0 +1,425 @@
+package com.fitfamily.app.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import sun.misc.Unsafe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Embedded time-series store of per-user daily macro totals.
+ *
+ * Each user has one memory-mapped file of fixed-width daily records
+ * (calories, protein, carbs, fat in milli-units), indexed by day number
+ * since BASE_DATE. Reading a date range is a sequential scan of the
+ * mapped file, so history views never touch the food_logs table.
+ *
+ * At most history.store.max-open-files files are mapped at once: the least
+ * recently used one is flushed and unmapped when another is opened, and
+ * mapped again on its next use.
+ *
+ * Files are created complete under a temporary name and moved into place
+ * atomically, so a crash never leaves a partial history behind. Each file
+ * records the user's history version (see UserHistoryVersion) it holds all
+ * changes up to.
+ *
+ * File layout (little-endian):
+ * - header: magic (int), format version (int), history version (long)
+ * - records: 4 longs per day, day 0 = BASE_DATE
+ */
+@Repository
+public class DailyTotalsStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(DailyTotalsStore.class);
+
+	public static final LocalDate BASE_DATE = LocalDate.of(2020, 1, 1);
+	public static final int FIELDS = 4;
+
+	private static final int MAGIC = 0x46464454; // "FFDT"
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_LONGS = 2;
+	private static final int VERSION_INDEX = 1;
+	private static final int RECORD_BYTES = FIELDS * Long.BYTES;
+	private static final int GROWTH_DAYS = 366;
+	private static final String FILE_SUFFIX = ".days";
+	private static final String TEMP_SUFFIX = ".days.tmp";
+
+	// Unmaps a file as soon as it is closed rather than when the buffer is garbage collected (null if unavailable)
+	private static final Unsafe UNSAFE = unsafe();
+
+	private final Path directory;
+	private final int maxOpenFiles;
+
+	// Open segments, least recently used first (guarded by itself)
+	private final LinkedHashMap<UUID, Segment> segments = new LinkedHashMap<>(16, 0.75f, true);
+
+	public DailyTotalsStore(@Value("${history.store.directory}") String directory,
+			@Value("${history.store.max-open-files:1000}") int maxOpenFiles) {
+		this.directory = Path.of(directory);
+		this.maxOpenFiles = maxOpenFiles;
+		try {
+			Files.createDirectories(this.directory);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot create history store directory: " + directory, e);
+		}
+		deleteTempFiles();
+	}
+
+	/**
+	 * Check whether the user already has a history file
+	 *
+	 * @param userId The user ID
+	 * @return true if the user's history has been initialized
+	 */
+	public boolean exists(UUID userId) {
+		synchronized (segments) {
+			if (segments.containsKey(userId)) {
+				return true;
+			}
+		}
+		return Files.exists(pathFor(userId));
+	}
+
+	/**
+	 * Add deltas to one day's totals (negative deltas subtract a removed log)
+	 *
+	 * @param userId The user ID
+	 * @param date The day to update
+	 * @param totals Deltas in milli-units: calories, protein, carbs, fat
+	 */
+	public void add(UUID userId, LocalDate date, long... totals) {
+		int day = dayIndex(date);
+		if (day < 0) {
+			logger.warn("Ignoring history update before {} for user {}", BASE_DATE, userId);
+			return;
+		}
+
+		withSegment(userId, segment -> {
+			segment.add(day, totals);
+			return null;
+		});
+	}
+
+	/**
+	 * The history version the user's file holds all changes up to
+	 *
+	 * @param userId The user ID (whose history exists)
+	 * @return The version, 0 for files written before versions existed
+	 */
+	public long version(UUID userId) {
+		return withSegment(userId, segment -> segment.longs.get(VERSION_INDEX));
+	}
+
+	/**
+	 * Record that a change of the given version was added to the user's file
+	 *
+	 * The file's version only moves if it held every change before this one;
+	 * otherwise it stays behind and the history is rebuilt on its next read.
+	 *
+	 * @param userId The user ID
+	 * @param version Version of the added change
+	 */
+	public void advanceVersion(UUID userId, long version) {
+		withSegment(userId, segment -> {
+			if (segment.longs.get(VERSION_INDEX) == version - 1) {
+				segment.longs.put(VERSION_INDEX, version);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Read consecutive daily totals into a caller-provided array
+	 *
+	 * Days without any logs (or outside the stored range) are returned as zeros.
+	 *
+	 * @param userId The user ID
+	 * @param from First day to read
+	 * @param days Number of days to read
+	 * @param out Destination array of at least days * FIELDS longs
+	 */
+	public void readRange(UUID userId, LocalDate from, int days, long[] out) {
+		Arrays.fill(out, 0, days * FIELDS, 0L);
+
+		int firstDay = dayIndex(from);
+		withSegment(userId, segment -> {
+			int start = Math.max(firstDay, 0);
+			int end = Math.min(firstDay + days, segment.capacityDays);
+			if (start < end) {
+				segment.longs.get(
+					HEADER_LONGS + start * FIELDS,
+					out,
+					(start - firstDay) * FIELDS,
+					(end - start) * FIELDS
+				);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Replace a user's history with totals rebuilt from the database
+	 *
+	 * The new file is written in full next to the old one and then moved
+	 * over it, so readers see either the old history or the new one.
+	 *
+	 * @param userId The user ID
+	 * @param version History version the totals include every change up to
+	 * @param dailyTotals Totals grouped by day
+	 */
+	public void rebuild(UUID userId, long version, List<DailyMacroTotals> dailyTotals) {
+		Path written = write(userId, version, dailyTotals);
+		synchronized (segments) {
+			Segment previous = segments.remove(userId);
+			if (previous != null) {
+				previous.close();
+			}
+			moveIntoPlace(written, userId);
+		}
+	}
+
+	@PreDestroy
+	public void flush() {
+		synchronized (segments) {
+			segments.values().forEach(Segment::close);
+			segments.clear();
+		}
+	}
+
+	/**
+	 * Run an action on the user's open segment, holding its lock
+	 *
+	 * Retries if the segment was closed (evicted or rebuilt) between being
+	 * looked up and locked.
+	 */
+	private <T> T withSegment(UUID userId, Function<Segment, T> action) {
+		while (true) {
+			Segment segment = segment(userId);
+			synchronized (segment) {
+				if (segment.mapped != null) {
+					return action.apply(segment);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The user's segment, mapping its file if needed and closing the least recently used one beyond the limit
+	 */
+	private Segment segment(UUID userId) {
+		synchronized (segments) {
+			Segment segment = segments.get(userId);
+			if (segment != null) {
+				return segment;
+			}
+			segment = openSegment(userId);
+			segments.put(userId, segment);
+
+			Iterator<Map.Entry<UUID, Segment>> eldest = segments.entrySet().iterator();
+			while (segments.size() > maxOpenFiles) {
+				eldest.next().getValue().close();
+				eldest.remove();
+			}
+			return segment;
+		}
+	}
+
+	private static int dayIndex(LocalDate date) {
+		return (int) (date.toEpochDay() - BASE_DATE.toEpochDay());
+	}
+
+	private Path pathFor(UUID userId) {
+		return directory.resolve(userId + FILE_SUFFIX);
+	}
+
+	/**
+	 * Map the user's file, creating an empty one first if there is none (called holding the segments lock)
+	 */
+	private Segment openSegment(UUID userId) {
+		Path path = pathFor(userId);
+		if (!Files.exists(path)) {
+			moveIntoPlace(write(userId, 0, List.of()), userId);
+		}
+		try {
+			int capacityDays = (int) ((Files.size(path) - HEADER_LONGS * Long.BYTES) / RECORD_BYTES);
+			Segment segment = new Segment(path);
+			segment.map(capacityDays);
+			if (segment.mapped.getInt(0) != MAGIC) {
+				segment.close();
+				throw new IllegalStateException("Corrupt history file: " + path);
+			}
+			return segment;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot open history file: " + path, e);
+		}
+	}
+
+	/**
+	 * Write a complete history file under a temporary name
+	 *
+	 * @return The written file, to be moved into place
+	 */
+	private Path write(UUID userId, long version, List<DailyMacroTotals> dailyTotals) {
+		Path temp = null;
+		try {
+			temp = Files.createTempFile(directory, userId.toString(), TEMP_SUFFIX);
+			Segment segment = new Segment(temp);
+			synchronized (segment) {
+				segment.map(GROWTH_DAYS);
+				segment.mapped.putInt(0, MAGIC);
+				segment.mapped.putInt(Integer.BYTES, FORMAT_VERSION);
+				segment.longs.put(VERSION_INDEX, version);
+				for (DailyMacroTotals totals : dailyTotals) {
+					int day = dayIndex(totals.getDate());
+					if (day >= 0) {
+						segment.add(day, totals.getCaloriesMilli(), totals.getProteinMilli(),
+								totals.getCarbsMilli(), totals.getFatMilli());
+					}
+				}
+			}
+			segment.close();
+			return temp;
+		} catch (IOException e) {
+			deleteQuietly(temp);
+			throw new UncheckedIOException("Cannot write history file for user " + userId, e);
+		} catch (RuntimeException e) {
+			deleteQuietly(temp);
+			throw e;
+		}
+	}
+
+	private void moveIntoPlace(Path written, UUID userId) {
+		try {
+			Files.move(written, pathFor(userId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			deleteQuietly(written);
+			throw new UncheckedIOException("Cannot replace history file for user " + userId, e);
+		}
+	}
+
+	/**
+	 * Delete files left by writes interrupted by a crash
+	 */
+	private void deleteTempFiles() {
+		try (Stream<Path> files = Files.list(directory)) {
+			files.filter(path -> path.getFileName().toString().endsWith(TEMP_SUFFIX)).forEach(DailyTotalsStore::deleteQuietly);
+		} catch (IOException e) {
+			logger.warn("Cannot list history store directory {}: {}", directory, e.getMessage());
+		}
+	}
+
+	private static void deleteQuietly(Path path) {
+		if (path == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			logger.warn("Cannot delete history file {}: {}", path, e.getMessage());
+		}
+	}
+
+	private static Unsafe unsafe() {
+		try {
+			Field field = Unsafe.class.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			return (Unsafe) field.get(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			logger.warn("History files will be unmapped by the garbage collector: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private static void unmap(MappedByteBuffer buffer) {
+		if (UNSAFE != null) {
+			UNSAFE.invokeCleaner(buffer);
+		}
+	}
+
+	/**
+	 * One user's mapped history file
+	 *
+	 * Accessed only while holding its lock; mapped is null once closed.
+	 */
+	private static final class Segment {
+
+		private final Path path;
+		private MappedByteBuffer mapped;
+		private LongBuffer longs;
+		private int capacityDays;
+
+		private Segment(Path path) {
+			this.path = path;
+		}
+
+		private void map(int days) throws IOException {
+			try (FileChannel channel = FileChannel.open(path,
+					StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				long size = (long) HEADER_LONGS * Long.BYTES + (long) days * RECORD_BYTES;
+				MappedByteBuffer previous = mapped;
+				mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				mapped.order(ByteOrder.LITTLE_ENDIAN);
+				longs = mapped.asLongBuffer();
+				capacityDays = days;
+				if (previous != null) {
+					unmap(previous);
+				}
+			}
+		}
+
+		private synchronized void close() {
+			if (mapped != null) {
+				mapped.force();
+				MappedByteBuffer closed = mapped;
+				mapped = null;
+				longs = null;
+				unmap(closed);
+			}
+		}
+
+		private void add(int day, long... totals) {
+			ensureCapacity(day + 1);
+			int index = HEADER_LONGS + day * FIELDS;
+			for (int field = 0; field < FIELDS; field++) {
+				longs.put(index + field, longs.get(index + field) + totals[field]);
+			}
+		}
+
+		private void ensureCapacity(int days) {
+			if (days <= capacityDays) {
+				return;
+			}
+			int grownDays = ((days + GROWTH_DAYS - 1) / GROWTH_DAYS) * GROWTH_DAYS;
+			try {
+				mapped.force();
+				map(grownDays);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot grow history file: " + path, e);
+			}
+		}
+
+	}
+
+}
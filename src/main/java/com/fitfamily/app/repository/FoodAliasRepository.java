@@ -0,0 +1,32 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.FoodAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FoodAliasRepository extends JpaRepository<FoodAlias, UUID> {
+
+	/**
+	 * Every alias, for the search index
+	 * 
+	 * @return Rows of [food ID, alias name]
+	 */
+	@Query("select a.food.id, a.name from FoodAlias a")
+	List<Object[]> findAllFoodIdsAndNames();
+
+	/**
+	 * Aliases of some foods
+	 * 
+	 * @return Rows of [food ID, alias name]
+	 */
+	@Query("select a.food.id, a.name from FoodAlias a where a.food.id in :foodIds")
+	List<Object[]> findFoodIdsAndNamesByFoodIdIn(@Param("foodIds") Collection<UUID> foodIds);
+
+}
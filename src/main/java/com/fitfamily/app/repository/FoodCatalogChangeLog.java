@@ -0,0 +1,118 @@
+package com.fitfamily.app.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes food_catalog_changes with plain JDBC, on the connection of the
+ * transaction that changed the catalog (entity listeners and the bulk
+ * importer cannot go through a JPA repository while flushing).
+ *
+ * Versions come from the food_catalog_version row. A changing transaction
+ * locks that row before its first catalog write and holds it until it
+ * ends, so catalog writers run one at a time and a version is never
+ * visible before a smaller one: a client that synced to the latest
+ * version cannot miss a change that commits later with a lower one.
+ * Taking the lock before any catalog row also keeps two writers from
+ * deadlocking on the same food.
+ */
+@Repository
+public class FoodCatalogChangeLog {
+
+	private static final String LOCK = "update food_catalog_version set version = version where id = 1";
+	private static final String SEED = "insert into food_catalog_version (id, version, pruned_through) " +
+			"select 1, coalesce(max(version), 0), 0 from food_catalog_changes";
+	private static final String ALLOCATE = "update food_catalog_version set version = version + ? where id = 1";
+	private static final String CURRENT = "select version from food_catalog_version where id = 1";
+	private static final String INSERT = "insert into food_catalog_changes (version, food_id, changed_at) values (?, ?, ?)";
+
+	// Older changes of a food are covered by its latest one
+	private static final String COMPACT = "delete from food_catalog_changes c where exists " +
+			"(select 1 from food_catalog_changes n where n.food_id = c.food_id and n.version > c.version)";
+	private static final String CUTOFF = "select version from food_catalog_changes order by version desc " +
+			"offset ? rows fetch next 1 rows only";
+	private static final String PRUNE = "delete from food_catalog_changes where version <= ?";
+	private static final String MARK_PRUNED = "update food_catalog_version set pruned_through = ? " +
+			"where id = 1 and pruned_through < ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public FoodCatalogChangeLog(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Lock the version row until the current transaction ends
+	 *
+	 * Creates the row on first use (PostgreSQL has it from the migration).
+	 */
+	public void lock() {
+		if (jdbcTemplate.update(LOCK) == 0) {
+			seed();
+			jdbcTemplate.update(LOCK);
+		}
+	}
+
+	/**
+	 * Record changed foods under the next versions (locking the version row if not done yet)
+	 *
+	 * @param foodIds IDs of the changed foods
+	 * @param changedAt When they changed
+	 */
+	public void record(Collection<UUID> foodIds, LocalDateTime changedAt) {
+		if (foodIds.isEmpty()) {
+			return;
+		}
+		if (jdbcTemplate.update(ALLOCATE, foodIds.size()) == 0) {
+			seed();
+			jdbcTemplate.update(ALLOCATE, foodIds.size());
+		}
+		long version = jdbcTemplate.queryForObject(CURRENT, Long.class) - foodIds.size();
+
+		List<Object[]> rows = new ArrayList<>(foodIds.size());
+		for (UUID foodId : foodIds) {
+			rows.add(new Object[] {++version, foodId, changedAt});
+		}
+		jdbcTemplate.batchUpdate(INSERT, rows);
+	}
+
+	private void seed() {
+		try {
+			jdbcTemplate.update(SEED);
+		} catch (DuplicateKeyException e) {
+			// Seeded by a concurrent transaction
+		}
+	}
+
+	/**
+	 * Delete changes no delta sync can need any more
+	 *
+	 * Keeps only the latest change of each food, and of those only the
+	 * newest keepFoods: a client behind all of them has more changed foods
+	 * than a delta may hold and gets the whole catalog anyway. The highest
+	 * deleted version is recorded as pruned through in the same transaction,
+	 * so syncs that read it after the changes never serve an incomplete delta.
+	 *
+	 * @param keepFoods Most changed foods a delta sync may hold (food.sync.max-delta-foods)
+	 * @return Number of deleted changes
+	 */
+	@Transactional
+	public int prune(int keepFoods) {
+		int deleted = jdbcTemplate.update(COMPACT);
+		List<Long> cutoff = jdbcTemplate.queryForList(CUTOFF, Long.class, keepFoods);
+		if (!cutoff.isEmpty()) {
+			deleted += jdbcTemplate.update(PRUNE, cutoff.get(0));
+			jdbcTemplate.update(MARK_PRUNED, cutoff.get(0), cutoff.get(0));
+		}
+		return deleted;
+	}
+
+}
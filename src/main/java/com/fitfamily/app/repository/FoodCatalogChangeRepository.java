@@ -0,0 +1,37 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.FoodCatalogChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the catalog change log; changes are written by FoodCatalogChangeLog
+ */
+@Repository
+public interface FoodCatalogChangeRepository extends JpaRepository<FoodCatalogChange, Long> {
+
+	/**
+	 * The current catalog version (0 before the first recorded change)
+	 */
+	@Query("select coalesce(max(v.version), 0) from FoodCatalogVersion v")
+	long findLatestVersion();
+
+	/**
+	 * The version up to which changes may have been pruned (0 if none were)
+	 */
+	@Query("select coalesce(max(v.prunedThrough), 0) from FoodCatalogVersion v")
+	long findPrunedThrough();
+
+	/**
+	 * IDs of foods changed after one version, up to and including another
+	 */
+	@Query("select distinct c.foodId from FoodCatalogChange c where c.version > :since and c.version <= :until")
+	List<UUID> findFoodIdsChangedBetween(@Param("since") long since, @Param("until") long until, Pageable pageable);
+
+}
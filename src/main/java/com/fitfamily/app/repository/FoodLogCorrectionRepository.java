@@ -0,0 +1,55 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.CorrectionStatus;
+import com.fitfamily.app.model.FoodLogCorrection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FoodLogCorrectionRepository extends JpaRepository<FoodLogCorrection, UUID> {
+
+	// Oldest first, so each instance works through jobs in request order
+	List<FoodLogCorrection> findByStatusInOrderByCreatedAtAsc(Collection<CorrectionStatus> statuses);
+
+	/**
+	 * Claim an unfinished job for one instance, unless another instance
+	 * holds it and has shown progress since staleBefore
+	 *
+	 * @return 1 if the job is now claimed by the instance, else 0
+	 */
+	@Modifying
+	@Query("update FoodLogCorrection c set c.claimedBy = :instance, c.heartbeatAt = :now " +
+			"where c.id = :id and c.status in :statuses " +
+			"and (c.claimedBy is null or c.claimedBy = :instance or c.heartbeatAt < :staleBefore)")
+	int claim(@Param("id") UUID id, @Param("statuses") Collection<CorrectionStatus> statuses,
+			@Param("instance") String instance, @Param("now") LocalDateTime now,
+			@Param("staleBefore") LocalDateTime staleBefore);
+
+	/**
+	 * Refresh an instance's claim on a job, locking the job's row until the
+	 * transaction ends
+	 *
+	 * @return 0 if another instance has taken the job over
+	 */
+	@Modifying
+	@Query("update FoodLogCorrection c set c.heartbeatAt = :now where c.id = :id and c.claimedBy = :instance")
+	int heartbeat(@Param("id") UUID id, @Param("instance") String instance, @Param("now") LocalDateTime now);
+
+	/**
+	 * Give up an instance's claim on a job, so another instance may resume it right away
+	 */
+	@Modifying
+	@Query("update FoodLogCorrection c set c.claimedBy = null where c.id = :id and c.claimedBy = :instance")
+	int release(@Param("id") UUID id, @Param("instance") String instance);
+
+	List<FoodLogCorrection> findTop50ByOrderByCreatedAtDesc();
+
+}
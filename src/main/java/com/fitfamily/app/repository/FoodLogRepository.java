@@ -2,8 +2,13 @@ package com.fitfamily.app.repository;
 
 import com.fitfamily.app.model.Family;
 import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.MealType;
 import com.fitfamily.app.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -18,7 +23,53 @@ public interface FoodLogRepository extends JpaRepository<FoodLog, UUID> {
 
 	List<FoodLog> findByFamilyAndDate(Family family, LocalDate date);
 
-	Optional<FoodLog> findByIdAndUser(UUID id, User user);
+	/**
+	 * Read one of a user's food logs and lock it until the transaction ends,
+	 * so a deletion waits for a correction chunk holding the log and removes
+	 * the corrected macros from the history
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select f from FoodLog f where f.id = :id and f.user = :user")
+	Optional<FoodLog> findByIdAndUserForUpdate(@Param("id") UUID id, @Param("user") User user);
+
+	boolean existsByUserAndDate(User user, LocalDate date);
+
+	@Query("select distinct f.date from FoodLog f where f.user = :user order by f.date")
+	List<LocalDate> findDistinctDatesByUser(@Param("user") User user);
+
+	@Query("select distinct f.date from FoodLog f where f.user = :user and f.date between :from and :to order by f.date")
+	List<LocalDate> findDistinctDatesByUserAndDateBetween(@Param("user") User user, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+
+	@Query("select f.date as date, sum(f.caloriesMilli) as caloriesMilli, sum(f.proteinMilli) as proteinMilli, " +
+			"sum(f.carbsMilli) as carbsMilli, sum(f.fatMilli) as fatMilli " +
+			"from FoodLog f where f.user = :user group by f.date order by f.date")
+	List<DailyMacroTotals> findDailyTotalsByUser(@Param("user") User user);
+
+	@Query("select f.user.id as userId, sum(f.caloriesMilli) as caloriesMilli, sum(f.proteinMilli) as proteinMilli, " +
+			"sum(f.carbsMilli) as carbsMilli, sum(f.fatMilli) as fatMilli " +
+			"from FoodLog f where f.user = :user and f.date = :date group by f.user.id")
+	Optional<UserMacroTotals> findTotalsByUserAndDate(@Param("user") User user, @Param("date") LocalDate date);
+
+	@Query("select f.user.id as userId, sum(f.caloriesMilli) as caloriesMilli, sum(f.proteinMilli) as proteinMilli, " +
+			"sum(f.carbsMilli) as carbsMilli, sum(f.fatMilli) as fatMilli " +
+			"from FoodLog f where f.family = :family and f.date = :date group by f.user.id")
+	List<UserMacroTotals> findTotalsByFamilyAndDate(@Param("family") Family family, @Param("date") LocalDate date);
+
+	@Query("select f.food.id as foodId, f.food.name as foodName, f.portion.id as portionId, " +
+			"f.portion.label as portionLabel, count(f) as logCount, max(f.createdAt) as lastLoggedAt " +
+			"from FoodLog f where f.user = :user and f.date >= :since " +
+			"group by f.food.id, f.food.name, f.portion.id, f.portion.label")
+	List<FoodUsage> findFoodUsageByUserSince(@Param("user") User user, @Param("since") LocalDate since);
+
+	@Query("select distinct f.food.id from FoodLog f where f.user = :user and f.date = :date " +
+			"and f.mealType = :mealType and f.id <> :excludedId")
+	List<UUID> findFoodIdsInMeal(@Param("user") User user, @Param("date") LocalDate date,
+			@Param("mealType") MealType mealType, @Param("excludedId") UUID excludedId);
+
+	// One row per food of each meal: user ID, date, meal type, food ID
+	@Query("select distinct f.user.id, f.date, f.mealType, f.food.id from FoodLog f")
+	List<Object[]> findAllMealFoods();
 
 }
 
@@ -1,16 +1,90 @@
 package com.fitfamily.app.repository;
 
+import com.fitfamily.app.dto.FoodNutrientsResponse;
 import com.fitfamily.app.model.Food;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface FoodRepository extends JpaRepository<Food, UUID> {
 
-	List<Food> findByNameContainingIgnoreCase(String name);
+	Optional<Food> findByName(String name);
+
+	boolean existsByName(String name);
+
+	// Database variant of FoodSearchRanking's tiers (word starts are only detected after a space)
+	String SEARCH_TIER = "case when lower(f.name) = :query then 0 " +
+			"when lower(f.name) like :prefix escape '\\' then 1 " +
+			"when lower(f.name) like :wordStart escape '\\' then 2 else 3 end";
+
+	/**
+	 * Ranked page of foods whose name contains the query (as a phrase)
+	 * 
+	 * @return Rows of [id, name, tier] in ranking order
+	 */
+	@Query("select f.id, f.name, " + SEARCH_TIER + " from Food f " +
+			"where lower(f.name) like :contains escape '\\' " +
+			"order by " + SEARCH_TIER + ", length(f.name), f.name")
+	List<Object[]> findRankedByName(@Param("query") String query, @Param("contains") String contains,
+			@Param("prefix") String prefix, @Param("wordStart") String wordStart, Pageable pageable);
+
+	/**
+	 * Next ranked page after the food with the given tier and name
+	 * 
+	 * @return Rows of [id, name, tier] in ranking order
+	 */
+	@Query("select f.id, f.name, " + SEARCH_TIER + " from Food f " +
+			"where lower(f.name) like :contains escape '\\' " +
+			"and (" + SEARCH_TIER + " > :tier or (" + SEARCH_TIER + " = :tier and " +
+			"(length(f.name) > :length or (length(f.name) = :length and f.name > :name)))) " +
+			"order by " + SEARCH_TIER + ", length(f.name), f.name")
+	List<Object[]> findRankedByNameAfter(@Param("query") String query, @Param("contains") String contains,
+			@Param("prefix") String prefix, @Param("wordStart") String wordStart,
+			@Param("tier") int tier, @Param("length") int length, @Param("name") String name, Pageable pageable);
+
+	/**
+	 * IDs and names of foods whose name starts with the prefix, alphabetically
+	 * 
+	 * @return Rows of [id, name]
+	 */
+	@Query("select f.id, f.name from Food f where lower(f.name) like :prefix escape '\\' order by lower(f.name)")
+	List<Object[]> findIdAndNameByNamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+	/**
+	 * Nutrients of foods within ranges per 100g (bounds inclusive)
+	 */
+	@Query("select new com.fitfamily.app.dto.FoodNutrientsResponse(f.id, f.name, f.caloriesPer100g, f.proteinPer100g, " +
+			"f.carbsPer100g, f.fatPer100g) from Food f " +
+			"where f.caloriesPer100g between :minCalories and :maxCalories " +
+			"and f.proteinPer100g between :minProtein and :maxProtein " +
+			"and f.carbsPer100g between :minCarbs and :maxCarbs " +
+			"and f.fatPer100g between :minFat and :maxFat")
+	List<FoodNutrientsResponse> findNutrientsByRanges(@Param("minCalories") double minCalories, @Param("maxCalories") double maxCalories,
+			@Param("minProtein") double minProtein, @Param("maxProtein") double maxProtein,
+			@Param("minCarbs") double minCarbs, @Param("maxCarbs") double maxCarbs,
+			@Param("minFat") double minFat, @Param("maxFat") double maxFat);
+
+	@Query("select distinct f from Food f left join fetch f.foodPortions")
+	List<Food> findAllWithPortions();
+
+	@Query("select distinct f from Food f left join fetch f.foodPortions where f.id in :ids")
+	List<Food> findAllWithPortionsByIdIn(@Param("ids") Collection<UUID> ids);
+
+	/**
+	 * Row counts and last modification times of foods and portions, in one statement
+	 */
+	@Query("select count(f) as foodCount, max(f.updatedAt) as foodsUpdatedAt, " +
+			"(select count(p) from FoodPortion p) as portionCount, " +
+			"(select max(p.updatedAt) from FoodPortion p) as portionsUpdatedAt from Food f")
+	CatalogStats findCatalogStats();
 
 }
 
@@ -0,0 +1,23 @@
+package com.fitfamily.app.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection of how often a user logged one food with one portion, grouped by the database
+ */
+public interface FoodUsage {
+
+	UUID getFoodId();
+
+	String getFoodName();
+
+	UUID getPortionId();
+
+	String getPortionLabel();
+
+	long getLogCount();
+
+	LocalDateTime getLastLoggedAt();
+
+}
@@ -0,0 +1,12 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.MacroGoal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface MacroGoalRepository extends JpaRepository<MacroGoal, UUID> {
+
+}
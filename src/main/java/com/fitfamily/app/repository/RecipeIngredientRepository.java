@@ -0,0 +1,39 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.RecipeIngredient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredient, UUID> {
+
+	/**
+	 * Every edge of the recipe graph
+	 * 
+	 * @return Rows of [recipe ID, ingredient ID, grams]
+	 */
+	@Query("select ri.recipe.id, ri.ingredient.id, ri.grams from RecipeIngredient ri")
+	List<Object[]> findAllEdges();
+
+	/**
+	 * Edges of the recipes among the foods changed after one catalog version,
+	 * up to and including another
+	 * 
+	 * @return Rows of [recipe ID, ingredient ID, grams]
+	 */
+	@Query("select ri.recipe.id, ri.ingredient.id, ri.grams from RecipeIngredient ri where ri.recipe.id in " +
+			"(select c.foodId from FoodCatalogChange c where c.version > :since and c.version <= :until)")
+	List<Object[]> findEdgesOfRecipesChangedBetween(@Param("since") long since, @Param("until") long until);
+
+	/**
+	 * Ingredients of a recipe with their foods
+	 */
+	@Query("select ri from RecipeIngredient ri join fetch ri.ingredient where ri.recipe.id = :recipeId order by ri.grams desc")
+	List<RecipeIngredient> findByRecipeIdWithIngredient(@Param("recipeId") UUID recipeId);
+
+}
@@ -0,0 +1,38 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.UserHistoryVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserHistoryVersionRepository extends JpaRepository<UserHistoryVersion, UUID> {
+
+	/**
+	 * Bump a user's history version; the row stays locked until the transaction ends
+	 *
+	 * @return 1 if bumped, 0 if the user has no version row yet
+	 */
+	@Modifying
+	@Query("update UserHistoryVersion v set v.version = v.version + 1 where v.userId = :userId")
+	int increment(@Param("userId") UUID userId);
+
+	/**
+	 * Insert a user's version row (version 0) unless one exists
+	 *
+	 * @return 1 if the row was inserted, 0 if it already existed
+	 */
+	@Modifying
+	@Query(value = "insert into user_history_versions (user_id, version) values (:userId, 0) on conflict do nothing",
+			nativeQuery = true)
+	int insertIfAbsent(@Param("userId") UUID userId);
+
+	@Query("select v.version from UserHistoryVersion v where v.userId = :userId")
+	Optional<Long> findVersion(@Param("userId") UUID userId);
+
+}
@@ -0,0 +1,20 @@
+package com.fitfamily.app.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection of one user's macro totals for a day, summed by the database
+ */
+public interface UserMacroTotals {
+
+	UUID getUserId();
+
+	long getCaloriesMilli();
+
+	long getProteinMilli();
+
+	long getCarbsMilli();
+
+	long getFatMilli();
+
+}
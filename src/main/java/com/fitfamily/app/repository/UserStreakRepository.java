@@ -0,0 +1,41 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.UserStreak;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserStreakRepository extends JpaRepository<UserStreak, UUID> {
+
+	/**
+	 * Read a user's streak row and lock it until the transaction ends, so
+	 * concurrent logs of the same user update the streak one at a time
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select s from UserStreak s where s.userId = :userId")
+	Optional<UserStreak> findByIdForUpdate(@Param("userId") UUID userId);
+
+	/**
+	 * Insert a user's streak row unless one exists; an insert racing a
+	 * concurrent one for the same user waits for it and then does nothing
+	 *
+	 * @return 1 if the row was inserted, 0 if it already existed
+	 */
+	@Modifying
+	@Query(value = "insert into user_streaks (user_id, current_streak, longest_streak, streak_start_date, last_logged_date) " +
+			"values (:userId, :currentStreak, :longestStreak, :streakStartDate, :lastLoggedDate) on conflict do nothing",
+			nativeQuery = true)
+	int insertIfAbsent(@Param("userId") UUID userId, @Param("currentStreak") int currentStreak,
+			@Param("longestStreak") int longestStreak, @Param("streakStartDate") LocalDate streakStartDate,
+			@Param("lastLoggedDate") LocalDate lastLoggedDate);
+
+}
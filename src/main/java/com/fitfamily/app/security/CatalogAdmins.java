@@ -0,0 +1,39 @@
+package com.fitfamily.app.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The users allowed to change the shared food catalog: those whose emails
+ * are listed in catalog.admin-emails (compared case-insensitively)
+ */
+@Component
+public class CatalogAdmins {
+
+	private final Set<String> emails;
+
+	public CatalogAdmins(@Value("${catalog.admin-emails:}") String adminEmails) {
+		this.emails = Arrays.stream(adminEmails.split(","))
+				.map(email -> email.trim().toLowerCase(Locale.ROOT))
+				.filter(email -> !email.isEmpty())
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+	/**
+	 * @param email Email of the current user
+	 * @param action What the user tried to do (e.g., "Creating recipes"), for the error message
+	 * @throws AccessDeniedException if the user is not a catalog admin
+	 */
+	public void check(String email, String action) {
+		if (email == null || !emails.contains(email.toLowerCase(Locale.ROOT))) {
+			throw new AccessDeniedException(action + " requires a catalog admin");
+		}
+	}
+
+}
@@ -138,12 +138,16 @@ public class SecurityConfig {
 		configuration.setAllowedHeaders(Arrays.asList(
 			"Authorization",
 			"Content-Type",
-			"Accept"
+			"Accept",
+			"If-None-Match"
 		));
 		
 		// Expose these headers to the frontend
 		configuration.setExposedHeaders(Arrays.asList(
-			"Authorization"
+			"Authorization",
+			"X-Dashboard-Stale",
+			"X-Next-Cursor",
+			"ETag"
 		));
 		
 		// Allow credentials (cookies, authorization headers)
@@ -0,0 +1,163 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.FoodNutrientsResponse;
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodCatalogChangedEvent;
+import com.fitfamily.app.repository.CatalogSnapshot;
+import com.fitfamily.app.repository.FoodAliasRepository;
+import com.fitfamily.app.repository.FoodCatalogChangeRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the in-memory catalog indexes (search, nutrients, meal plan
+ * matrix) at startup and applies committed catalog changes to them.
+ *
+ * Changes are applied on the committing thread, so the next request on
+ * this instance already sees them. Only the changed foods are loaded; the
+ * snapshot and /foods/sync are left to CatalogSnapshotService's background
+ * writer, which never waits on this listener's monitor.
+ */
+@Component
+public class CatalogIndexUpdater {
+
+	private static final Logger logger = LoggerFactory.getLogger(CatalogIndexUpdater.class);
+
+	private final FoodRepository foodRepository;
+	private final FoodCatalogChangeRepository foodCatalogChangeRepository;
+	private final FoodAliasRepository foodAliasRepository;
+	private final FoodSearchIndex foodSearchIndex;
+	private final NutrientIndex nutrientIndex;
+	private final MealPlanMatrix mealPlanMatrix;
+	private final CatalogVersion catalogVersion;
+	private final CatalogSnapshotService catalogSnapshotService;
+	private final TransactionTemplate catalogReadTransaction;
+
+	public CatalogIndexUpdater(FoodRepository foodRepository, FoodCatalogChangeRepository foodCatalogChangeRepository,
+			FoodAliasRepository foodAliasRepository, FoodSearchIndex foodSearchIndex, NutrientIndex nutrientIndex,
+			MealPlanMatrix mealPlanMatrix, CatalogVersion catalogVersion, CatalogSnapshotService catalogSnapshotService,
+			PlatformTransactionManager transactionManager) {
+		this.foodRepository = foodRepository;
+		this.foodCatalogChangeRepository = foodCatalogChangeRepository;
+		this.foodAliasRepository = foodAliasRepository;
+		this.foodSearchIndex = foodSearchIndex;
+		this.nutrientIndex = nutrientIndex;
+		this.mealPlanMatrix = mealPlanMatrix;
+		this.catalogVersion = catalogVersion;
+		this.catalogSnapshotService = catalogSnapshotService;
+
+		// Catalog changes are loaded after the changing transaction committed,
+		// so they need a transaction (and persistence context) of their own
+		this.catalogReadTransaction = new TransactionTemplate(transactionManager);
+		this.catalogReadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.catalogReadTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * Load the whole catalog into the indexes at startup
+	 *
+	 * Reads the memory-mapped catalog snapshot when it matches the database
+	 * (one aggregate query), otherwise loads the catalog through JPA and
+	 * writes a new snapshot for the next start. Aliases are not part of the
+	 * snapshot and are always read with one query.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void buildIndexes() {
+		long start = System.currentTimeMillis();
+		// Read before the catalog, so the recorded version never claims changes the index lacks
+		long changeVersion = catalogReadTransaction.execute(status -> foodCatalogChangeRepository.findLatestVersion());
+		CatalogSnapshot snapshot = catalogSnapshotService.loadCurrentSnapshot();
+
+		List<FoodResponse> foods;
+		List<FoodNutrientsResponse> nutrients;
+		List<FoodDetailsResponse> details;
+		if (snapshot != null) {
+			foods = FoodMappings.toFoodResponses(snapshot);
+			nutrients = FoodMappings.toFoodNutrientsResponses(snapshot);
+			details = new ArrayList<>(snapshot.size());
+			for (int food = 0; food < snapshot.size(); food++) {
+				details.add(FoodMappings.toFoodDetailsResponse(snapshot, food));
+			}
+		} else {
+			List<Food> catalog = catalogReadTransaction.execute(status -> foodRepository.findAllWithPortions());
+			foods = catalog.stream().map(FoodMappings::toFoodResponse).collect(Collectors.toList());
+			nutrients = catalog.stream().map(FoodMappings::toFoodNutrientsResponse).collect(Collectors.toList());
+			details = catalog.stream().map(FoodMappings::toFoodDetailsResponse).collect(Collectors.toList());
+			catalogSnapshotService.writeSnapshot(catalog);
+		}
+
+		Map<UUID, List<String>> aliases = catalogReadTransaction.execute(
+				status -> groupAliases(foodAliasRepository.findAllFoodIdsAndNames()));
+
+		foodSearchIndex.rebuild(foods, aliases);
+		nutrientIndex.rebuild(nutrients);
+		mealPlanMatrix.rebuild(details);
+		catalogVersion.loaded(changeVersion);
+		logger.info("Food search index built [foods={}, source={}, millis={}]",
+				foods.size(), snapshot != null ? "snapshot" : "database", System.currentTimeMillis() - start);
+
+		catalogSnapshotService.scheduleSyncPrecompute();
+	}
+
+	/**
+	 * Apply committed catalog changes to the indexes
+	 *
+	 * Synchronized with the initial build, so changes committed while the
+	 * catalog is being loaded are applied on top of it. The changes are then
+	 * handed to CatalogSnapshotService for the next snapshot write.
+	 */
+	@EventListener
+	public synchronized void onCatalogChanged(FoodCatalogChangedEvent event) {
+		if (!foodSearchIndex.isReady()) {
+			// The initial build has not started yet and will see these changes
+			return;
+		}
+
+		LoadedChanges loaded = catalogReadTransaction.execute(status -> new LoadedChanges(
+				foodCatalogChangeRepository.findLatestVersion(), foodRepository.findAllWithPortionsByIdIn(event.foodIds()),
+				groupAliases(foodAliasRepository.findFoodIdsAndNamesByFoodIdIn(event.foodIds()))));
+		List<Food> changed = loaded.foods();
+
+		foodSearchIndex.apply(event.foodIds(), changed.stream()
+				.map(FoodMappings::toFoodResponse)
+				.collect(Collectors.toList()), loaded.aliases());
+		nutrientIndex.apply(event.foodIds(), changed.stream()
+				.map(FoodMappings::toFoodNutrientsResponse)
+				.collect(Collectors.toList()));
+		mealPlanMatrix.apply(event.foodIds(), changed.stream()
+				.map(FoodMappings::toFoodDetailsResponse)
+				.collect(Collectors.toList()));
+		catalogVersion.loaded(loaded.changeVersion());
+
+		catalogSnapshotService.recordChanges(event.foodIds(), changed);
+	}
+
+	private static Map<UUID, List<String>> groupAliases(List<Object[]> rows) {
+		Map<UUID, List<String>> aliases = new HashMap<>();
+		for (Object[] row : rows) {
+			aliases.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((String) row[1]);
+		}
+		return aliases;
+	}
+
+	// Changed foods and their aliases, with the change version read before them
+	private record LoadedChanges(long changeVersion, List<Food> foods, Map<UUID, List<String>> aliases) {
+	}
+
+}
@@ -0,0 +1,339 @@
+package com.fitfamily.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.FoodSyncResponse;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.repository.CatalogFingerprint;
+import com.fitfamily.app.repository.CatalogSnapshot;
+import com.fitfamily.app.repository.CatalogSnapshotStore;
+import com.fitfamily.app.repository.FoodCatalogChangeLog;
+import com.fitfamily.app.repository.FoodCatalogChangeRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the memory-mapped catalog snapshot and the full catalog served by
+ * /foods/sync up to date, and serves /foods/sync.
+ *
+ * Catalog changes are recorded by CatalogIndexUpdater and written on a
+ * background thread once they stop arriving for
+ * catalog.snapshot.write-delay-ms, so bulk imports cause a single write.
+ * Edits that fit the snapshot's records are patched in place; others
+ * rewrite it at most once per catalog.snapshot.rewrite-interval-ms.
+ */
+@Service
+public class CatalogSnapshotService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+	private final FoodRepository foodRepository;
+	private final FoodCatalogChangeRepository foodCatalogChangeRepository;
+	private final FoodCatalogChangeLog foodCatalogChangeLog;
+	private final CatalogSnapshotStore catalogSnapshotStore;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate catalogReadTransaction;
+	private final int maxSyncDeltaFoods;
+
+	// Catalog changes not yet written to the snapshot (null = deleted), guarded by this
+	private final Map<UUID, Food> pendingSnapshotChanges = new HashMap<>();
+	private final ScheduledExecutorService snapshotWriter;
+	private final long snapshotWriteDelayMillis;
+	private final long snapshotRewriteIntervalMillis;
+	private ScheduledFuture<?> scheduledSnapshotWrite;
+	// When the snapshot was last written in full (guarded by this)
+	private long lastSnapshotRewriteAt;
+
+	// True while the snapshot holds every catalog change seen so far, so lookups can be served from it
+	private volatile boolean snapshotInSync;
+
+	// Whole catalog as gzip JSON for /foods/sync, built once per catalog version under fullSyncLock
+	private final Object fullSyncLock = new Object();
+	private volatile FullCatalogSync fullCatalogSync;
+
+	public CatalogSnapshotService(FoodRepository foodRepository, FoodCatalogChangeRepository foodCatalogChangeRepository,
+			FoodCatalogChangeLog foodCatalogChangeLog, CatalogSnapshotStore catalogSnapshotStore, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager,
+			@Value("${food.sync.max-delta-foods:5000}") int maxSyncDeltaFoods,
+			@Value("${catalog.snapshot.write-delay-ms:5000}") long snapshotWriteDelayMillis,
+			@Value("${catalog.snapshot.rewrite-interval-ms:300000}") long snapshotRewriteIntervalMillis) {
+		this.foodRepository = foodRepository;
+		this.foodCatalogChangeRepository = foodCatalogChangeRepository;
+		this.foodCatalogChangeLog = foodCatalogChangeLog;
+		this.catalogSnapshotStore = catalogSnapshotStore;
+		this.objectMapper = objectMapper;
+		this.maxSyncDeltaFoods = maxSyncDeltaFoods;
+		this.snapshotWriteDelayMillis = snapshotWriteDelayMillis;
+		this.snapshotRewriteIntervalMillis = snapshotRewriteIntervalMillis;
+		this.snapshotWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "catalog-snapshot-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.catalogReadTransaction = new TransactionTemplate(transactionManager);
+		this.catalogReadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.catalogReadTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * The catalog snapshot, if it holds every catalog change seen so far
+	 *
+	 * @return The snapshot, or null if lookups must go to the database
+	 */
+	public CatalogSnapshot inSyncSnapshot() {
+		return snapshotInSync ? catalogSnapshotStore.current() : null;
+	}
+
+	/**
+	 * The catalog snapshot, if it matches the database (one aggregate query)
+	 *
+	 * @return The snapshot, or null if there is none or it is outdated
+	 */
+	public CatalogSnapshot loadCurrentSnapshot() {
+		CatalogSnapshot snapshot = catalogSnapshotStore.current();
+		boolean current = snapshot != null && snapshot.fingerprint().equals(
+				catalogReadTransaction.execute(status -> CatalogFingerprint.of(foodRepository.findCatalogStats())));
+		if (!current) {
+			return null;
+		}
+		snapshotInSync = true;
+		return snapshot;
+	}
+
+	/**
+	 * Replace the snapshot with the whole catalog, for the next start
+	 */
+	public void writeSnapshot(List<Food> catalog) {
+		try {
+			synchronized (this) {
+				lastSnapshotRewriteAt = System.currentTimeMillis();
+			}
+			catalogSnapshotStore.write(catalog);
+			snapshotInSync = true;
+		} catch (RuntimeException e) {
+			// Lookups fall back to the database until a snapshot is written
+			logger.warn("Failed to write catalog snapshot: {}", e.getMessage());
+			snapshotInSync = false;
+		}
+	}
+
+	/**
+	 * Build the full catalog sync and prune the change log in the background
+	 *
+	 * Runs after catalog.snapshot.write-delay-ms, so a fresh start is not
+	 * slowed down by loading the catalog again.
+	 */
+	public void scheduleSyncPrecompute() {
+		snapshotWriter.schedule(() -> {
+			precomputeFullCatalogSync();
+			pruneCatalogChanges();
+		}, snapshotWriteDelayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Record committed catalog changes for the next snapshot write
+	 *
+	 * @param foodIds IDs of all changed foods
+	 * @param changed Current state of those that still exist
+	 */
+	public synchronized void recordChanges(Set<UUID> foodIds, List<Food> changed) {
+		snapshotInSync = false;
+		foodIds.forEach(id -> pendingSnapshotChanges.put(id, null));
+		changed.forEach(food -> pendingSnapshotChanges.put(food.getId(), food));
+		scheduleSnapshotWrite(snapshotWriteDelayMillis);
+	}
+
+	/**
+	 * Catalog changes since a version, for clients that keep the catalog offline
+	 *
+	 * Without a usable version (none, 0, ahead of the server, older than the
+	 * pruned change log, or more than food.sync.max-delta-foods changed
+	 * foods since), the whole catalog is
+	 * returned instead. That response is serialized and compressed once per
+	 * catalog version and then served from memory as is.
+	 *
+	 * Deltas are computed from food_catalog_changes; upserts carry the
+	 * current state of each changed food, so a food changed again after the
+	 * returned version is simply sent once more on the next sync. The log is
+	 * pruned in the background after catalog changes, down to the latest
+	 * change of the food.sync.max-delta-foods most recently changed foods.
+	 *
+	 * @param since Catalog version of the client's copy, or null if it has none
+	 * @return gzip-compressed JSON of a FoodSyncResponse
+	 */
+	public byte[] syncFoods(Long since) {
+		long latest = catalogReadTransaction.execute(status -> foodCatalogChangeRepository.findLatestVersion());
+		if (since == null || since <= 0 || since > latest) {
+			return fullCatalogSync(latest);
+		}
+
+		FoodSyncResponse delta = catalogReadTransaction.execute(status -> {
+			List<UUID> changedIds = foodCatalogChangeRepository.findFoodIdsChangedBetween(since, latest,
+					PageRequest.of(0, maxSyncDeltaFoods + 1));
+			// Checked after reading the changes: pruning deletes them and raises this in one transaction
+			if (changedIds.size() > maxSyncDeltaFoods || since < foodCatalogChangeRepository.findPrunedThrough()) {
+				return null;
+			}
+
+			List<FoodDetailsResponse> upserts = changedIds.isEmpty() ? List.of() : foodRepository.findAllWithPortionsByIdIn(changedIds).stream()
+					.map(FoodMappings::toFoodDetailsResponse)
+					.collect(Collectors.toList());
+			Set<UUID> found = upserts.stream().map(FoodDetailsResponse::getId).collect(Collectors.toSet());
+			List<UUID> deletedIds = changedIds.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+			return new FoodSyncResponse(latest, false, upserts, deletedIds);
+		});
+		return delta != null ? gzip(delta) : fullCatalogSync(latest);
+	}
+
+	private byte[] fullCatalogSync(long version) {
+		FullCatalogSync full = fullCatalogSync;
+		if (full != null && full.version() >= version) {
+			return full.gzip();
+		}
+
+		// One build per version, however many clients ask for it at once
+		synchronized (fullSyncLock) {
+			full = fullCatalogSync;
+			if (full == null || full.version() < version) {
+				full = catalogReadTransaction.execute(status -> {
+					// Version first: foods changed meanwhile are sent again by the next delta
+					long current = foodCatalogChangeRepository.findLatestVersion();
+					List<FoodDetailsResponse> foods = foodRepository.findAllWithPortions().stream()
+							.map(FoodMappings::toFoodDetailsResponse)
+							.collect(Collectors.toList());
+					return new FullCatalogSync(current, gzip(new FoodSyncResponse(current, true, foods, List.of())));
+				});
+				fullCatalogSync = full;
+				logger.info("Full catalog sync built [version={}, bytes={}]", full.version(), full.gzip().length);
+			}
+			return full.gzip();
+		}
+	}
+
+	private void precomputeFullCatalogSync() {
+		try {
+			fullCatalogSync(catalogReadTransaction.execute(status -> foodCatalogChangeRepository.findLatestVersion()));
+		} catch (RuntimeException e) {
+			// Built on the next full sync request instead
+			logger.warn("Failed to build full catalog sync: {}", e.getMessage());
+		}
+	}
+
+	private void pruneCatalogChanges() {
+		try {
+			int deleted = foodCatalogChangeLog.prune(maxSyncDeltaFoods);
+			if (deleted > 0) {
+				logger.info("Catalog change log pruned [deleted={}]", deleted);
+			}
+		} catch (RuntimeException e) {
+			// Retried after the next catalog change
+			logger.warn("Failed to prune catalog change log: {}", e.getMessage());
+		}
+	}
+
+	private byte[] gzip(FoodSyncResponse response) {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(body)) {
+			objectMapper.writeValue(out, response);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to serialize food sync response", e);
+		}
+		return body.toByteArray();
+	}
+
+	private synchronized void scheduleSnapshotWrite(long delayMillis) {
+		if (scheduledSnapshotWrite != null) {
+			scheduledSnapshotWrite.cancel(false);
+		}
+		scheduledSnapshotWrite = snapshotWriter.schedule(() -> {
+			writePendingSnapshotChanges(false);
+			precomputeFullCatalogSync();
+			pruneCatalogChanges();
+		}, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @param rewriteNow Rewrite the snapshot even if the last rewrite was less than the rewrite interval ago
+	 */
+	private void writePendingSnapshotChanges(boolean rewriteNow) {
+		Map<UUID, Food> changes;
+		synchronized (this) {
+			changes = new HashMap<>(pendingSnapshotChanges);
+			pendingSnapshotChanges.clear();
+			scheduledSnapshotWrite = null;
+		}
+		if (changes.isEmpty()) {
+			return;
+		}
+
+		try {
+			if (!catalogSnapshotStore.patch(changes)) {
+				synchronized (this) {
+					long rewriteDueIn = lastSnapshotRewriteAt + snapshotRewriteIntervalMillis - System.currentTimeMillis();
+					if (!rewriteNow && rewriteDueIn > 0) {
+						// Keep the changes (newer ones win) until a rewrite is due
+						changes.forEach(pendingSnapshotChanges::putIfAbsent);
+						if (scheduledSnapshotWrite == null) {
+							scheduleSnapshotWrite(rewriteDueIn);
+						}
+						return;
+					}
+					lastSnapshotRewriteAt = System.currentTimeMillis();
+				}
+				if (catalogSnapshotStore.merge(changes) == null) {
+					// No snapshot to update: the next start falls back to the database and writes one
+					logger.debug("No catalog snapshot to update with {} changed foods", changes.size());
+					return;
+				}
+			}
+			synchronized (this) {
+				snapshotInSync = pendingSnapshotChanges.isEmpty();
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Failed to update catalog snapshot: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Write catalog changes still waiting for the debounce delay
+	 */
+	@PreDestroy
+	public void flushSnapshot() throws InterruptedException {
+		synchronized (this) {
+			if (scheduledSnapshotWrite != null) {
+				scheduledSnapshotWrite.cancel(false);
+			}
+		}
+		snapshotWriter.shutdown();
+		snapshotWriter.awaitTermination(30, TimeUnit.SECONDS);
+		writePendingSnapshotChanges(true);
+	}
+
+	private record FullCatalogSync(long version, byte[] gzip) {
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.fitfamily.app.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Version stamp of the catalog served by this instance, used as the ETag of
+ * catalog reads.
+ *
+ * Combines the catalog change version (food_catalog_changes, persistent and
+ * shared by all instances) as of the last load with the search index
+ * version, which is bumped after every applied change. The stamp therefore
+ * never moves ahead of what the in-memory catalog actually contains, and
+ * stays the same across restarts while the catalog does not change.
+ */
+@Component
+public class CatalogVersion {
+
+	private final FoodSearchIndex foodSearchIndex;
+
+	// Latest change version read before the catalog (or a change) was last loaded; -1 until then
+	private volatile long changeVersion = -1;
+
+	public CatalogVersion(FoodSearchIndex foodSearchIndex) {
+		this.foodSearchIndex = foodSearchIndex;
+	}
+
+	/**
+	 * Record the change version a catalog load started from
+	 *
+	 * @param changeVersion Latest food_catalog_changes version, read before the foods
+	 */
+	void loaded(long changeVersion) {
+		this.changeVersion = changeVersion;
+	}
+
+	/**
+	 * Weak ETag of the current catalog
+	 *
+	 * @return The ETag, or null while the catalog has not been loaded
+	 */
+	public String eTag() {
+		long indexVersion = foodSearchIndex.version();
+		long loadedVersion = changeVersion;
+		if (indexVersion == 0 || loadedVersion < 0) {
+			return null;
+		}
+		return "W/\"" + loadedVersion + "." + indexVersion + "\"";
+	}
+
+}
@@ -2,23 +2,41 @@ package com.fitfamily.app.service;
 
 import com.fitfamily.app.dto.*;
 import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.MacroGoal;
+import com.fitfamily.app.model.NutrientVector;
 import com.fitfamily.app.model.User;
 import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.UserMacroTotals;
+import com.fitfamily.app.util.FixedPoint;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Daily dashboards of a user and of their family.
+ *
+ * Macro totals are summed exactly by the database from the fixed-point
+ * columns. The logs and their totals are read in one repeatable-read
+ * transaction, so the summary always matches the listed logs.
+ */
 @Service
 public class DashboardService {
 
 	private final FoodLogRepository foodLogRepository;
+	private final StreakService streakService;
+	private final GoalService goalService;
 
-	public DashboardService(FoodLogRepository foodLogRepository) {
+	public DashboardService(FoodLogRepository foodLogRepository, StreakService streakService, GoalService goalService) {
 		this.foodLogRepository = foodLogRepository;
+		this.streakService = streakService;
+		this.goalService = goalService;
 	}
 
 	/**
@@ -28,38 +46,29 @@ public class DashboardService {
 	 * @param date The date for the dashboard
 	 * @return UserDailyDashboardResponse with summary and food logs
 	 */
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
 	public UserDailyDashboardResponse getUserDailyDashboard(User user, LocalDate date) {
 		// Fetch food logs for user and date
 		List<FoodLog> foodLogs = foodLogRepository.findByUserAndDate(user, date);
 
-		// Calculate total calories and macros
-		double totalCalories = 0;
-		double totalProtein = 0;
-		double totalCarbs = 0;
-		double totalFat = 0;
-
-		for (FoodLog log : foodLogs) {
-			totalCalories += log.getCalories();
-			totalProtein += log.getProtein();
-			totalCarbs += log.getCarbs();
-			totalFat += log.getFat();
-		}
-
-		// Create macro summary
-		DailyMacroSummary summary = new DailyMacroSummary(
-			totalCalories,
-			totalProtein,
-			totalCarbs,
-			totalFat
-		);
+		// Total calories and macros, summed by the database
+		MacroTotals totals = foodLogRepository.findTotalsByUserAndDate(user, date)
+				.map(MacroTotals::of)
+				.orElse(MacroTotals.ZERO);
 
 		// Map food logs to response DTOs
 		List<FoodLogResponse> foodLogResponses = foodLogs.stream()
 				.map(this::mapToFoodLogResponse)
 				.collect(Collectors.toList());
 
+		// Compare totals with the user's goals (if any)
+		GoalProgressResponse goals = goalService.getGoals(user)
+				.map(goal -> goalProgress(totals, goal))
+				.orElse(null);
+
 		// Return dashboard response
-		return new UserDailyDashboardResponse(date, summary, foodLogResponses);
+		return new UserDailyDashboardResponse(date, totals.toSummary(), foodLogResponses, streakService.getStreak(user), goals,
+				sumMicronutrients(foodLogs));
 	}
 
 	/**
@@ -69,6 +78,7 @@ public class DashboardService {
 	 * @param date The date for the dashboard
 	 * @return List of FamilyMemberDashboardResponse for each family member
 	 */
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
 	public List<FamilyMemberDashboardResponse> getFamilyDailyDashboard(User user, LocalDate date) {
 		// Check if user has a family
 		if (user.getFamily() == null) {
@@ -82,6 +92,16 @@ public class DashboardService {
 		Map<User, List<FoodLog>> logsByUser = familyLogs.stream()
 				.collect(Collectors.groupingBy(FoodLog::getUser));
 
+		// Each member's totals, summed by the database in one grouped query
+		Map<UUID, MacroTotals> totalsByUser = foodLogRepository.findTotalsByFamilyAndDate(user.getFamily(), date).stream()
+				.collect(Collectors.toMap(UserMacroTotals::getUserId, MacroTotals::of));
+
+		// Load all members' streaks and goals in one batch each
+		Map<UUID, StreakResponse> streaks = streakService.getStreaks(logsByUser.keySet());
+		Map<UUID, MacroGoal> goals = goalService.getGoals(logsByUser.keySet().stream()
+				.map(User::getId)
+				.collect(Collectors.toList()));
+
 		// Build dashboard for each family member
 		List<FamilyMemberDashboardResponse> familyDashboards = new ArrayList<>();
 
@@ -89,26 +109,8 @@ public class DashboardService {
 			User familyMember = entry.getKey();
 			List<FoodLog> memberLogs = entry.getValue();
 
-			// Calculate totals for this member
-			double totalCalories = 0;
-			double totalProtein = 0;
-			double totalCarbs = 0;
-			double totalFat = 0;
-
-			for (FoodLog log : memberLogs) {
-				totalCalories += log.getCalories();
-				totalProtein += log.getProtein();
-				totalCarbs += log.getCarbs();
-				totalFat += log.getFat();
-			}
-
-			// Create macro summary
-			DailyMacroSummary summary = new DailyMacroSummary(
-				totalCalories,
-				totalProtein,
-				totalCarbs,
-				totalFat
-			);
+			MacroTotals totals = totalsByUser.getOrDefault(familyMember.getId(), MacroTotals.ZERO);
+			MacroGoal goal = goals.get(familyMember.getId());
 
 			// Map food logs to response DTOs
 			List<FoodLogResponse> foodLogResponses = memberLogs.stream()
@@ -118,8 +120,11 @@ public class DashboardService {
 			// Create user dashboard
 			UserDailyDashboardResponse userDashboard = new UserDailyDashboardResponse(
 				date,
-				summary,
-				foodLogResponses
+				totals.toSummary(),
+				foodLogResponses,
+				streaks.get(familyMember.getId()),
+				goal != null ? goalProgress(totals, goal) : null,
+				sumMicronutrients(memberLogs)
 			);
 
 			// Wrap in family member response
@@ -134,6 +139,60 @@ public class DashboardService {
 		return familyDashboards;
 	}
 
+	/**
+	 * Sum the micronutrient vectors of the given logs
+	 * 
+	 * Whole vectors are added slot by slot; logs of foods without
+	 * micronutrients count as zero.
+	 * 
+	 * @param foodLogs The food logs to sum
+	 * @return Non-zero totals by nutrient key
+	 */
+	private Map<String, Double> sumMicronutrients(List<FoodLog> foodLogs) {
+		NutrientVector.Sum totals = new NutrientVector.Sum();
+		for (FoodLog log : foodLogs) {
+			totals.add(log.getMicronutrients());
+		}
+		return totals.toVector().toMap();
+	}
+
+	/**
+	 * Compute remaining and percent-complete values from the day's totals
+	 * 
+	 * @param totals The day's totals (same aggregate as the summary)
+	 * @param goal The user's daily goals
+	 * @return GoalProgressResponse
+	 */
+	private GoalProgressResponse goalProgress(MacroTotals totals, MacroGoal goal) {
+		// Remaining values go negative once a goal is exceeded
+		DailyMacroSummary target = new MacroTotals(
+			goal.getCaloriesMilli(), goal.getProteinMilli(), goal.getCarbsMilli(), goal.getFatMilli()).toSummary();
+		DailyMacroSummary remaining = new MacroTotals(
+			goal.getCaloriesMilli() - totals.calories(),
+			goal.getProteinMilli() - totals.protein(),
+			goal.getCarbsMilli() - totals.carbs(),
+			goal.getFatMilli() - totals.fat()).toSummary();
+
+		DailyMacroSummary percentComplete = new DailyMacroSummary(
+			percent(totals.calories(), goal.getCaloriesMilli()),
+			percent(totals.protein(), goal.getProteinMilli()),
+			percent(totals.carbs(), goal.getCarbsMilli()),
+			percent(totals.fat(), goal.getFatMilli())
+		);
+
+		return new GoalProgressResponse(target, remaining, percentComplete);
+	}
+
+	/**
+	 * Percentage of a goal reached, rounded to one decimal (0 when there is no goal)
+	 */
+	private static double percent(long totalMilli, long goalMilli) {
+		if (goalMilli <= 0) {
+			return 0;
+		}
+		return Math.round(totalMilli * 1000.0 / goalMilli) / 10.0;
+	}
+
 	/**
 	 * Map FoodLog entity to FoodLogResponse DTO
 	 * 
@@ -149,5 +208,28 @@ public class DashboardService {
 		);
 	}
 
+	/**
+	 * Totals of one day in milli-units
+	 */
+	private record MacroTotals(long calories, long protein, long carbs, long fat) {
+
+		static final MacroTotals ZERO = new MacroTotals(0, 0, 0, 0);
+
+		static MacroTotals of(UserMacroTotals totals) {
+			return new MacroTotals(totals.getCaloriesMilli(), totals.getProteinMilli(), totals.getCarbsMilli(),
+				totals.getFatMilli());
+		}
+
+		DailyMacroSummary toSummary() {
+			return new DailyMacroSummary(
+				FixedPoint.fromMilli(calories),
+				FixedPoint.fromMilli(protein),
+				FixedPoint.fromMilli(carbs),
+				FixedPoint.fromMilli(fat)
+			);
+		}
+
+	}
+
 }
 
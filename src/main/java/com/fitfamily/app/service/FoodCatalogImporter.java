@@ -0,0 +1,409 @@
+package com.fitfamily.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fitfamily.app.dto.FoodImportRecord;
+import com.fitfamily.app.dto.FoodImportResult;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodCatalogChangedEvent;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.model.Micronutrient;
+import com.fitfamily.app.model.NutrientVector;
+import com.fitfamily.app.repository.FoodCatalogChangeLog;
+import com.fitfamily.app.util.CsvReader;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Streaming bulk import of the food catalog from CSV or JSON Lines.
+ *
+ * Files are read one record at a time and written in chunks of batchSize
+ * foods, each chunk in its own transaction with JDBC batch statements, so
+ * memory use does not depend on the file size and an interrupted import
+ * can simply be re-run. Foods are upserted by name; portions are upserted
+ * by (food, label) and never deleted, since food logs reference them.
+ *
+ * The import bypasses JPA, so it records the changed foods in
+ * food_catalog_changes, evicts the changed rows from the second-level
+ * cache and publishes a FoodCatalogChangedEvent per committed chunk itself.
+ */
+@Service
+public class FoodCatalogImporter {
+
+	private static final Logger log = LoggerFactory.getLogger(FoodCatalogImporter.class);
+
+	// Only the first few rejected rows are logged individually
+	private static final int MAX_LOGGED_REJECTIONS = 20;
+
+	private static final String INSERT_FOOD = "insert into foods " +
+			"(id, name, calories_per100g, protein_per100g, carbs_per100g, fat_per100g, micronutrients_per100g, created_at, updated_at) " +
+			"values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	// A record without micronutrients keeps the ones the food already has
+	private static final String UPDATE_FOOD = "update foods set " +
+			"calories_per100g = ?, protein_per100g = ?, carbs_per100g = ?, fat_per100g = ?, " +
+			"micronutrients_per100g = coalesce(?, micronutrients_per100g), updated_at = ? where id = ?";
+	private static final String INSERT_PORTION = "insert into food_portions (id, label, grams, food_id, created_at, updated_at) " +
+			"values (?, ?, ?, ?, ?, ?)";
+	private static final String UPDATE_PORTION = "update food_portions set grams = ?, updated_at = ? where id = ?";
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final FoodCatalogChangeLog changeLog;
+	private final TransactionTemplate chunkTransaction;
+	private final ApplicationEventPublisher eventPublisher;
+	private final Cache secondLevelCache;
+	private final ObjectReader jsonReader;
+	private final int batchSize;
+
+	public FoodCatalogImporter(NamedParameterJdbcTemplate jdbcTemplate, FoodCatalogChangeLog changeLog,
+			PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher, EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+			@Value("${catalog.import.batch-size:1000}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.changeLog = changeLog;
+		this.chunkTransaction = new TransactionTemplate(transactionManager);
+		this.eventPublisher = eventPublisher;
+		this.secondLevelCache = entityManagerFactory.getCache().unwrap(Cache.class);
+		this.jsonReader = objectMapper.readerFor(FoodImportRecord.class)
+				.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Import a .csv or .jsonl (.ndjson) file
+	 *
+	 * @param file The file
+	 * @return Row counts and throughput
+	 * @throws IOException if reading fails
+	 * @throws IllegalArgumentException if the file type is not supported
+	 */
+	public FoodImportResult importFile(Path file) throws IOException {
+		String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			if (fileName.endsWith(".csv")) {
+				return importCsv(reader);
+			}
+			if (fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson")) {
+				return importJsonLines(reader);
+			}
+		}
+		throw new IllegalArgumentException("Unsupported catalog file (expected .csv or .jsonl): " + file);
+	}
+
+	/**
+	 * Import CSV with a header row
+	 *
+	 * Columns: name, calories_per_100g, protein_per_100g, carbs_per_100g,
+	 * fat_per_100g and optionally portion_label, portion_grams and one
+	 * column per micronutrient (fibre_per_100g, vitamin_c_per_100g, ...; see
+	 * Micronutrient.getCsvColumn()). A food with several portions is written
+	 * as several rows with the same name.
+	 *
+	 * @param reader The CSV input
+	 * @return Row counts and throughput
+	 * @throws IOException if reading fails
+	 */
+	public FoodImportResult importCsv(BufferedReader reader) throws IOException {
+		CsvReader csv = new CsvReader(reader);
+		List<String> header = csv.next();
+		if (header == null) {
+			return run(() -> null, () -> 0);
+		}
+		Map<String, Integer> columns = new HashMap<>();
+		for (int i = 0; i < header.size(); i++) {
+			columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+		}
+
+		return run(() -> {
+			List<String> fields = csv.next();
+			if (fields == null) {
+				return null;
+			}
+			FoodImportRecord record = new FoodImportRecord();
+			record.setName(field(fields, columns, "name"));
+			record.setCaloriesPer100g(number(fields, columns, "calories_per_100g"));
+			record.setProteinPer100g(number(fields, columns, "protein_per_100g"));
+			record.setCarbsPer100g(number(fields, columns, "carbs_per_100g"));
+			record.setFatPer100g(number(fields, columns, "fat_per_100g"));
+			for (Micronutrient nutrient : Micronutrient.values()) {
+				Double amount = number(fields, columns, nutrient.getCsvColumn());
+				if (amount != null) {
+					if (record.getMicronutrientsPer100g() == null) {
+						record.setMicronutrientsPer100g(new HashMap<>());
+					}
+					record.getMicronutrientsPer100g().put(nutrient.getKey(), amount);
+				}
+			}
+			String label = field(fields, columns, "portion_label");
+			if (label != null) {
+				record.getPortions().add(new FoodImportRecord.Portion(label, number(fields, columns, "portion_grams")));
+			}
+			return record;
+		}, csv::getLineNumber);
+	}
+
+	/**
+	 * Import JSON Lines: one FoodImportRecord object per line
+	 *
+	 * @param reader The JSON Lines input
+	 * @return Row counts and throughput
+	 * @throws IOException if reading fails
+	 */
+	public FoodImportResult importJsonLines(BufferedReader reader) throws IOException {
+		long[] lineNumber = {0};
+		return run(() -> {
+			String line;
+			do {
+				line = reader.readLine();
+				if (line == null) {
+					return null;
+				}
+				lineNumber[0]++;
+			} while (line.isBlank());
+
+			try {
+				FoodImportRecord record = jsonReader.readValue(line);
+				if (record.getPortions() == null) {
+					record.setPortions(new ArrayList<>());
+				}
+				return record;
+			} catch (JsonProcessingException e) {
+				throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+			}
+		}, () -> lineNumber[0]);
+	}
+
+	private FoodImportResult run(RecordSource source, LongSupplier lines) throws IOException {
+		long started = System.nanoTime();
+		FoodImportResult result = new FoodImportResult();
+
+		// Rows of the same food are merged, so a chunk holds each name once
+		Map<String, FoodImportRecord> chunk = new LinkedHashMap<>();
+		while (true) {
+			FoodImportRecord record;
+			try {
+				record = source.next();
+			} catch (IllegalArgumentException e) {
+				result.setRows(result.getRows() + 1);
+				reject(result, lines.getAsLong(), e.getMessage());
+				continue;
+			}
+			if (record == null) {
+				break;
+			}
+			result.setRows(result.getRows() + 1);
+
+			String error = validate(record);
+			if (error != null) {
+				reject(result, lines.getAsLong(), error);
+				continue;
+			}
+
+			chunk.merge(record.getName(), record, (previous, next) -> {
+				next.getPortions().addAll(0, previous.getPortions());
+				return next;
+			});
+			if (chunk.size() >= batchSize) {
+				writeChunk(chunk.values(), result);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			writeChunk(chunk.values(), result);
+		}
+
+		result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+		log.info("Imported {} rows in {} ms ({} rows/s): {} foods inserted, {} updated, {} portions inserted, {} updated, {} rows rejected",
+				result.getRows(), result.getElapsedMillis(), result.getRowsPerSecond(),
+				result.getFoodsInserted(), result.getFoodsUpdated(),
+				result.getPortionsInserted(), result.getPortionsUpdated(), result.getRejectedRows());
+		return result;
+	}
+
+	/**
+	 * Upsert one chunk of foods and their portions in a single transaction
+	 */
+	private void writeChunk(Collection<FoodImportRecord> records, FoodImportResult result) {
+		Set<UUID> changedFoodIds = new HashSet<>();
+		Set<UUID> updatedPortionIds = new HashSet<>();
+
+		chunkTransaction.executeWithoutResult(status -> {
+			// Before any catalog row, as FoodCatalogListener does
+			changeLog.lock();
+			LocalDateTime now = LocalDateTime.now();
+
+			Map<String, UUID> existingFoods = new HashMap<>();
+			jdbcTemplate.query("select id, name from foods where name in (:names)",
+					new MapSqlParameterSource("names", records.stream().map(FoodImportRecord::getName).toList()),
+					row -> {
+						existingFoods.put(row.getString("name"), row.getObject("id", UUID.class));
+					});
+
+			List<Object[]> foodInserts = new ArrayList<>();
+			List<Object[]> foodUpdates = new ArrayList<>();
+			Map<UUID, FoodImportRecord> recordsById = new LinkedHashMap<>();
+			for (FoodImportRecord record : records) {
+				UUID id = existingFoods.get(record.getName());
+				SqlParameterValue micronutrients = new SqlParameterValue(Types.VARBINARY,
+						record.getMicronutrientsPer100g() == null ? null
+								: NutrientVector.fromKeys(record.getMicronutrientsPer100g()).toBytes());
+				if (id == null) {
+					id = UUID.randomUUID();
+					foodInserts.add(new Object[] {id, record.getName(), record.getCaloriesPer100g(),
+							record.getProteinPer100g(), record.getCarbsPer100g(), record.getFatPer100g(), micronutrients, now, now});
+				} else {
+					foodUpdates.add(new Object[] {record.getCaloriesPer100g(), record.getProteinPer100g(),
+							record.getCarbsPer100g(), record.getFatPer100g(), micronutrients, now, id});
+				}
+				recordsById.put(id, record);
+			}
+			jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_FOOD, foodInserts);
+			jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_FOOD, foodUpdates);
+
+			// Portions of updated foods are matched by label
+			Map<UUID, Map<String, UUID>> existingPortions = new HashMap<>();
+			if (!existingFoods.isEmpty()) {
+				jdbcTemplate.query("select id, food_id, label from food_portions where food_id in (:foodIds)",
+						new MapSqlParameterSource("foodIds", existingFoods.values()),
+						row -> {
+							existingPortions.computeIfAbsent(row.getObject("food_id", UUID.class), k -> new HashMap<>())
+									.put(row.getString("label"), row.getObject("id", UUID.class));
+						});
+			}
+
+			List<Object[]> portionInserts = new ArrayList<>();
+			List<Object[]> portionUpdates = new ArrayList<>();
+			for (Map.Entry<UUID, FoodImportRecord> entry : recordsById.entrySet()) {
+				Map<String, UUID> portions = existingPortions.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+				for (FoodImportRecord.Portion portion : entry.getValue().getPortions()) {
+					UUID portionId = portions.get(portion.getLabel());
+					if (portionId == null) {
+						portionId = UUID.randomUUID();
+						portions.put(portion.getLabel(), portionId);
+						portionInserts.add(new Object[] {portionId, portion.getLabel(), portion.getGrams(), entry.getKey(), now, now});
+					} else {
+						portionUpdates.add(new Object[] {portion.getGrams(), now, portionId});
+					}
+				}
+			}
+			jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_PORTION, portionInserts);
+			jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_PORTION, portionUpdates);
+			changeLog.record(recordsById.keySet(), now);
+
+			result.setFoodsInserted(result.getFoodsInserted() + foodInserts.size());
+			result.setFoodsUpdated(result.getFoodsUpdated() + foodUpdates.size());
+			result.setPortionsInserted(result.getPortionsInserted() + portionInserts.size());
+			result.setPortionsUpdated(result.getPortionsUpdated() + portionUpdates.size());
+			changedFoodIds.addAll(recordsById.keySet());
+			portionUpdates.forEach(update -> updatedPortionIds.add((UUID) update[2]));
+		});
+
+		// Committed: drop cached copies of the rows written above, which Hibernate did not see
+		for (UUID foodId : changedFoodIds) {
+			secondLevelCache.evictEntityData(Food.class, foodId);
+			secondLevelCache.evictCollectionData(Food.class.getName() + ".foodPortions", foodId);
+		}
+		for (UUID portionId : updatedPortionIds) {
+			secondLevelCache.evictEntityData(FoodPortion.class, portionId);
+		}
+
+		// Let in-memory catalog views pick up the chunk
+		eventPublisher.publishEvent(new FoodCatalogChangedEvent(changedFoodIds));
+	}
+
+	private static String validate(FoodImportRecord record) {
+		if (record.getName() == null || record.getName().isBlank()) {
+			return "Name is required";
+		}
+		if (record.getName().length() > 255) {
+			return "Name is longer than 255 characters";
+		}
+		Double[] macros = {record.getCaloriesPer100g(), record.getProteinPer100g(),
+				record.getCarbsPer100g(), record.getFatPer100g()};
+		for (Double macro : macros) {
+			if (macro == null || macro < 0 || macro.isNaN() || macro.isInfinite()) {
+				return "Nutrition values per 100g must be non-negative numbers";
+			}
+		}
+		if (record.getMicronutrientsPer100g() != null) {
+			for (Map.Entry<String, Double> amount : record.getMicronutrientsPer100g().entrySet()) {
+				if (Micronutrient.fromKey(amount.getKey()) == null) {
+					return "Unknown micronutrient: " + amount.getKey();
+				}
+				Double value = amount.getValue();
+				if (value == null || value < 0 || value.isNaN() || value.isInfinite()) {
+					return "Nutrition values per 100g must be non-negative numbers";
+				}
+			}
+		}
+		for (FoodImportRecord.Portion portion : record.getPortions()) {
+			if (portion.getLabel() == null || portion.getLabel().isBlank() || portion.getLabel().length() > 255) {
+				return "Portion label is required (at most 255 characters)";
+			}
+			if (portion.getGrams() == null || !(portion.getGrams() > 0) || portion.getGrams().isInfinite()) {
+				return "Portion grams must be positive";
+			}
+		}
+		return null;
+	}
+
+	private static void reject(FoodImportResult result, long line, String reason) {
+		result.setRejectedRows(result.getRejectedRows() + 1);
+		if (result.getRejectedRows() <= MAX_LOGGED_REJECTIONS) {
+			log.warn("Skipping catalog row at line {}: {}", line, reason);
+		}
+	}
+
+	private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+		Integer index = columns.get(column);
+		if (index == null || index >= fields.size()) {
+			return null;
+		}
+		String value = fields.get(index).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	private static Double number(List<String> fields, Map<String, Integer> columns, String column) {
+		String value = field(fields, columns, column);
+		if (value == null) {
+			return null;
+		}
+		try {
+			return Double.valueOf(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number in " + column + ": " + value);
+		}
+	}
+
+	@FunctionalInterface
+	private interface RecordSource {
+
+		/**
+		 * @return The next record, or null at the end of the input
+		 * @throws IllegalArgumentException if the next row is malformed (it is skipped)
+		 */
+		FoodImportRecord next() throws IOException;
+
+	}
+
+}
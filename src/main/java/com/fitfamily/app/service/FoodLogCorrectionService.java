@@ -0,0 +1,409 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodLogCorrectionResponse;
+import com.fitfamily.app.exception.FoodLogCorrectionNotFoundException;
+import com.fitfamily.app.exception.FoodNotFoundException;
+import com.fitfamily.app.model.CorrectionStatus;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodLogCorrection;
+import com.fitfamily.app.model.NutrientVector;
+import com.fitfamily.app.repository.FoodLogCorrectionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.security.CatalogAdmins;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Propagates catalog corrections to historical food logs.
+ *
+ * Food logs store macros computed when they were logged, so fixing a
+ * food's nutrients (or a portion's weight) leaves existing logs stale.
+ * A correction job walks one food's logs in ID order, in chunks of
+ * catalog.corrections.chunk-size: each chunk is one set-based UPDATE that
+ * recomputes the macros from the food's current nutrients and
+ * food_portions.grams (plus one batched UPDATE per portion rescaling the
+ * micronutrient vectors), and commits together with the job's position, so
+ * an interrupted job resumes after its last chunk. Jobs run one at a time
+ * on a background thread, pausing catalog.corrections.pause-ms between
+ * chunks to leave room for regular traffic. The change of every corrected
+ * log is added to its owner's daily totals (see HistoryService).
+ *
+ * With several application instances, each job is claimed by one of them
+ * with a conditional UPDATE, and every chunk refreshes the claim's
+ * heartbeat first (locking the job's row for the chunk); a claim without
+ * a heartbeat for catalog.corrections.claim-timeout-ms may be taken over.
+ * A chunk locks its food logs while it reads them, so a concurrent
+ * deletion removes the corrected macros from the history (see
+ * FoodLogService.deleteFoodLog).
+ */
+@Service
+public class FoodLogCorrectionService {
+
+	private static final Logger logger = LoggerFactory.getLogger(FoodLogCorrectionService.class);
+
+	// Lower than any food log ID, so the first chunk needs no special query
+	private static final UUID FIRST_ID = new UUID(0, 0);
+
+	private static final List<CorrectionStatus> UNFINISHED = List.of(CorrectionStatus.PENDING, CorrectionStatus.RUNNING);
+
+	private static final String COUNT_LOGS = "select count(*) from food_logs where food_id = ?";
+	private static final String SELECT_FOOD = "select calories_per100g, protein_per100g, carbs_per100g, fat_per100g " +
+			"from foods where id = ?";
+	// Locks the chunk's logs, so a concurrent deletion waits and then sees the corrected macros
+	private static final String SELECT_CHUNK = "select id, user_id, date, calories_milli, protein_milli, carbs_milli, fat_milli " +
+			"from food_logs where food_id = ? and id > ? order by id limit ? for update";
+	// Same arithmetic and rounding as FoodLogService.addFoodLog: nutrient per 100g * (grams / 100), in milli-units
+	private static final String PORTION_MILLI = "round((? * ((select p.grams from food_portions p where p.id = food_logs.portion_id) / 100.0) * 1000)::numeric)";
+	private static final String UPDATE_CHUNK = "update food_logs set " +
+			"calories_milli = " + PORTION_MILLI + ", " +
+			"protein_milli = " + PORTION_MILLI + ", " +
+			"carbs_milli = " + PORTION_MILLI + ", " +
+			"fat_milli = " + PORTION_MILLI + " " +
+			"where food_id = ? and id > ? and id <= ?";
+	// Micronutrient vectors are scaled in Java, one per portion of the food
+	private static final String SELECT_MICRONUTRIENTS = "select micronutrients_per100g from foods where id = ?";
+	private static final String SELECT_PORTIONS = "select id, grams from food_portions where food_id = ?";
+	private static final String UPDATE_CHUNK_MICRONUTRIENTS = "update food_logs set micronutrients = ? " +
+			"where food_id = ? and portion_id = ? and id > ? and id <= ?";
+	private static final String SELECT_UPDATED = "select id, calories_milli, protein_milli, carbs_milli, fat_milli " +
+			"from food_logs where food_id = ? and id > ? and id <= ?";
+
+	private final FoodLogCorrectionRepository foodLogCorrectionRepository;
+	private final FoodRepository foodRepository;
+	private final HistoryService historyService;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transaction;
+	private final int chunkSize;
+	private final long pauseMillis;
+	private final long claimTimeoutMillis;
+	private final CatalogAdmins catalogAdmins;
+	// Identifies this instance's claims on jobs
+	private final String instanceId = UUID.randomUUID().toString();
+	private final ExecutorService worker;
+
+	private volatile boolean stopping;
+
+	public FoodLogCorrectionService(FoodLogCorrectionRepository foodLogCorrectionRepository, FoodRepository foodRepository,
+			HistoryService historyService, CatalogAdmins catalogAdmins, JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			@Value("${catalog.corrections.chunk-size:1000}") int chunkSize,
+			@Value("${catalog.corrections.pause-ms:50}") long pauseMillis,
+			@Value("${catalog.corrections.claim-timeout-ms:60000}") long claimTimeoutMillis) {
+		this.foodLogCorrectionRepository = foodLogCorrectionRepository;
+		this.foodRepository = foodRepository;
+		this.historyService = historyService;
+		this.catalogAdmins = catalogAdmins;
+		this.jdbcTemplate = jdbcTemplate;
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.chunkSize = chunkSize;
+		this.pauseMillis = pauseMillis;
+		this.claimTimeoutMillis = claimTimeoutMillis;
+		this.worker = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "food-log-corrector");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Queue a correction job per food and start working on them in the background
+	 *
+	 * @param foodIds Foods whose nutrients or portion weights were corrected
+	 * @param requestedBy Email of the current user, who must be a catalog admin
+	 * @return The queued jobs
+	 * @throws AccessDeniedException if the user is not listed in catalog.admin-emails
+	 * @throws FoodNotFoundException if a food does not exist
+	 */
+	public List<FoodLogCorrectionResponse> startCorrections(List<UUID> foodIds, String requestedBy) {
+		checkAdmin(requestedBy);
+		Set<UUID> distinctIds = new LinkedHashSet<>(foodIds);
+
+		List<FoodLogCorrection> corrections = transaction.execute(status -> {
+			Set<UUID> found = foodRepository.findAllById(distinctIds).stream()
+					.map(Food::getId)
+					.collect(Collectors.toSet());
+			for (UUID foodId : distinctIds) {
+				if (!found.contains(foodId)) {
+					throw new FoodNotFoundException("Food not found with ID: " + foodId);
+				}
+			}
+
+			List<FoodLogCorrection> queued = new ArrayList<>();
+			for (UUID foodId : distinctIds) {
+				FoodLogCorrection correction = new FoodLogCorrection();
+				correction.setFoodId(foodId);
+				correction.setStatus(CorrectionStatus.PENDING);
+				correction.setRequestedBy(requestedBy);
+				queued.add(correction);
+			}
+			return foodLogCorrectionRepository.saveAll(queued);
+		});
+
+		logger.info("Food log corrections queued [foods={}, requestedBy={}]", corrections.size(), requestedBy);
+		worker.execute(this::runPending);
+		return corrections.stream().map(this::mapToResponse).collect(Collectors.toList());
+	}
+
+	/**
+	 * Get the progress of a correction job
+	 *
+	 * @throws AccessDeniedException if the user is not a catalog admin
+	 * @throws FoodLogCorrectionNotFoundException if there is no job with the ID
+	 */
+	public FoodLogCorrectionResponse getCorrection(UUID correctionId, String requestedBy) {
+		checkAdmin(requestedBy);
+		return foodLogCorrectionRepository.findById(correctionId)
+				.map(this::mapToResponse)
+				.orElseThrow(() -> new FoodLogCorrectionNotFoundException("Food log correction not found with ID: " + correctionId));
+	}
+
+	/**
+	 * Get the 50 most recent correction jobs, newest first
+	 *
+	 * @throws AccessDeniedException if the user is not a catalog admin
+	 */
+	public List<FoodLogCorrectionResponse> getRecentCorrections(String requestedBy) {
+		checkAdmin(requestedBy);
+		return foodLogCorrectionRepository.findTop50ByOrderByCreatedAtDesc().stream()
+				.map(this::mapToResponse)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Resume jobs that were queued or interrupted before the last shutdown
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void resumeCorrections() {
+		worker.execute(this::runPending);
+	}
+
+	/**
+	 * Stop after the current chunk; an unfinished job resumes at the next start
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		stopping = true;
+		worker.shutdown();
+		worker.awaitTermination(30, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Run queued jobs one at a time, oldest first, until none is left that this instance can claim
+	 */
+	void runPending() {
+		while (!stopping) {
+			Optional<UUID> next = transaction.execute(status -> claimNext());
+			if (next.isEmpty()) {
+				return;
+			}
+			run(next.get());
+		}
+	}
+
+	private Optional<UUID> claimNext() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime staleBefore = now.minusNanos(claimTimeoutMillis * 1_000_000);
+		for (FoodLogCorrection candidate : foodLogCorrectionRepository.findByStatusInOrderByCreatedAtAsc(UNFINISHED)) {
+			if (foodLogCorrectionRepository.claim(candidate.getId(), UNFINISHED, instanceId, now, staleBefore) > 0) {
+				return Optional.of(candidate.getId());
+			}
+		}
+		return Optional.empty();
+	}
+
+	private void run(UUID correctionId) {
+		long start = System.currentTimeMillis();
+		try {
+			FoodLogCorrection started = transaction.execute(status -> {
+				if (!heartbeat(correctionId)) {
+					return null;
+				}
+				FoodLogCorrection correction = foodLogCorrectionRepository.findById(correctionId).orElseThrow();
+				if (correction.getStatus() == CorrectionStatus.PENDING) {
+					correction.setStatus(CorrectionStatus.RUNNING);
+					correction.setStartedAt(LocalDateTime.now());
+					correction.setTotalLogs(jdbcTemplate.queryForObject(COUNT_LOGS, Long.class, correction.getFoodId()));
+				}
+				return correction;
+			});
+			if (started == null) {
+				logger.info("Food log correction taken over by another instance [id={}]", correctionId);
+				return;
+			}
+			logger.info("Food log correction {} [id={}, food={}, processed={}, total={}]",
+					started.getProcessedLogs() == 0 ? "started" : "resumed", correctionId, started.getFoodId(),
+					started.getProcessedLogs(), started.getTotalLogs());
+
+			while (!stopping) {
+				Chunk chunk = transaction.execute(status -> {
+					if (!heartbeat(correctionId)) {
+						return null;
+					}
+					Chunk processed = processChunk(correctionId);
+					// Applied to the history when the chunk commits, never for a rolled-back chunk
+					processed.deltas().forEach((day, deltas) -> historyService.applyCorrection(day.userId(), day.date(), deltas));
+					return processed;
+				});
+				if (chunk == null) {
+					logger.info("Food log correction taken over by another instance [id={}]", correctionId);
+					return;
+				}
+				if (chunk.done()) {
+					logger.info("Food log correction completed [id={}, processed={}, updated={}, millis={}]",
+							correctionId, chunk.processedLogs(), chunk.updatedLogs(), System.currentTimeMillis() - start);
+					return;
+				}
+				logger.debug("Food log correction progress [id={}, processed={}]", correctionId, chunk.processedLogs());
+				if (pauseMillis > 0) {
+					Thread.sleep(pauseMillis);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stopping = true;
+		} catch (RuntimeException e) {
+			logger.error("Food log correction failed [id={}]: {}", correctionId, e.getMessage(), e);
+			transaction.executeWithoutResult(status -> foodLogCorrectionRepository.findById(correctionId).ifPresent(correction -> {
+				correction.setStatus(CorrectionStatus.FAILED);
+				String message = String.valueOf(e.getMessage());
+				correction.setError(message.length() > 255 ? message.substring(0, 255) : message);
+				correction.setFinishedAt(LocalDateTime.now());
+			}));
+			return;
+		}
+		transaction.executeWithoutResult(status -> foodLogCorrectionRepository.release(correctionId, instanceId));
+		logger.info("Food log correction paused, resumes at next start [id={}]", correctionId);
+	}
+
+	/**
+	 * Refresh this instance's claim on a job, locking the job's row until the transaction ends
+	 *
+	 * @return False if another instance has taken the job over
+	 */
+	private boolean heartbeat(UUID correctionId) {
+		return foodLogCorrectionRepository.heartbeat(correctionId, instanceId, LocalDateTime.now()) > 0;
+	}
+
+	/**
+	 * Correct the next chunk of food logs and record the job's new position
+	 */
+	private Chunk processChunk(UUID correctionId) {
+		FoodLogCorrection correction = foodLogCorrectionRepository.findById(correctionId).orElseThrow();
+		UUID foodId = correction.getFoodId();
+		UUID after = correction.getLastLogId() == null ? FIRST_ID : correction.getLastLogId();
+
+		Map<UUID, LogMacros> before = new LinkedHashMap<>();
+		jdbcTemplate.query(SELECT_CHUNK, resultSet -> {
+			LogMacros log = new LogMacros(resultSet.getObject("user_id", UUID.class), resultSet.getObject("date", LocalDate.class),
+					new long[] {resultSet.getLong("calories_milli"), resultSet.getLong("protein_milli"),
+							resultSet.getLong("carbs_milli"), resultSet.getLong("fat_milli")});
+			before.put(resultSet.getObject("id", UUID.class), log);
+		}, foodId, after, chunkSize);
+
+		if (before.isEmpty()) {
+			correction.setStatus(CorrectionStatus.COMPLETED);
+			correction.setFinishedAt(LocalDateTime.now());
+			return new Chunk(true, correction.getProcessedLogs(), correction.getUpdatedLogs(), Map.of());
+		}
+
+		UUID last = null;
+		for (UUID id : before.keySet()) {
+			last = id;
+		}
+		double[] nutrients = jdbcTemplate.queryForObject(SELECT_FOOD, (resultSet, row) -> new double[] {
+				resultSet.getDouble(1), resultSet.getDouble(2), resultSet.getDouble(3), resultSet.getDouble(4)}, foodId);
+		jdbcTemplate.update(UPDATE_CHUNK, nutrients[0], nutrients[1], nutrients[2], nutrients[3], foodId, after, last);
+		updateMicronutrients(foodId, after, last);
+
+		// Read back the new values to compute the daily totals' deltas
+		Map<DayKey, long[]> deltas = new HashMap<>();
+		long[] updated = new long[1];
+		jdbcTemplate.query(SELECT_UPDATED, resultSet -> {
+			LogMacros old = before.get(resultSet.getObject("id", UUID.class));
+			if (old == null) {
+				// Logged while this chunk ran, so already computed from the corrected food
+				return;
+			}
+			long[] change = {resultSet.getLong("calories_milli") - old.macros()[0],
+					resultSet.getLong("protein_milli") - old.macros()[1],
+					resultSet.getLong("carbs_milli") - old.macros()[2],
+					resultSet.getLong("fat_milli") - old.macros()[3]};
+			if (change[0] == 0 && change[1] == 0 && change[2] == 0 && change[3] == 0) {
+				return;
+			}
+			updated[0]++;
+			long[] day = deltas.computeIfAbsent(new DayKey(old.userId(), old.date()), key -> new long[4]);
+			for (int i = 0; i < day.length; i++) {
+				day[i] += change[i];
+			}
+		}, foodId, after, last);
+
+		correction.setLastLogId(last);
+		correction.setProcessedLogs(correction.getProcessedLogs() + before.size());
+		correction.setUpdatedLogs(correction.getUpdatedLogs() + updated[0]);
+		return new Chunk(false, correction.getProcessedLogs(), correction.getUpdatedLogs(), deltas);
+	}
+
+	/**
+	 * Rescale the chunk's micronutrients from the food's current vector, one batched UPDATE per portion
+	 */
+	private void updateMicronutrients(UUID foodId, UUID after, UUID last) {
+		byte[] per100g = jdbcTemplate.queryForObject(SELECT_MICRONUTRIENTS, byte[].class, foodId);
+		NutrientVector micronutrients = per100g == null ? null : NutrientVector.fromBytes(per100g);
+		List<Object[]> updates = jdbcTemplate.query(SELECT_PORTIONS, (resultSet, row) -> new Object[] {
+				new SqlParameterValue(Types.VARBINARY, micronutrients == null ? null
+						: micronutrients.scale(resultSet.getDouble("grams") / 100.0).toBytes()),
+				foodId, resultSet.getObject("id", UUID.class), after, last}, foodId);
+		jdbcTemplate.batchUpdate(UPDATE_CHUNK_MICRONUTRIENTS, updates);
+	}
+
+	private void checkAdmin(String email) {
+		catalogAdmins.check(email, "Food log corrections");
+	}
+
+	private FoodLogCorrectionResponse mapToResponse(FoodLogCorrection correction) {
+		Double percentComplete = null;
+		if (correction.getStatus() == CorrectionStatus.COMPLETED) {
+			percentComplete = 100.0;
+		} else if (correction.getTotalLogs() != null) {
+			percentComplete = correction.getTotalLogs() == 0 ? 100.0
+					: Math.min(100.0, Math.round(correction.getProcessedLogs() * 1000.0 / correction.getTotalLogs()) / 10.0);
+		}
+		return new FoodLogCorrectionResponse(correction.getId(), correction.getFoodId(), correction.getStatus(),
+				correction.getTotalLogs(), correction.getProcessedLogs(), correction.getUpdatedLogs(), percentComplete,
+				correction.getError(), correction.getCreatedAt(), correction.getStartedAt(), correction.getFinishedAt());
+	}
+
+	private record LogMacros(UUID userId, LocalDate date, long[] macros) {
+	}
+
+	private record DayKey(UUID userId, LocalDate date) {
+	}
+
+	/**
+	 * @param done true if no food logs were left (the job is completed)
+	 * @param deltas Change of each affected user's daily totals
+	 */
+	private record Chunk(boolean done, long processedLogs, long updatedLogs, Map<DayKey, long[]> deltas) {
+	}
+
+}
@@ -8,11 +8,14 @@ import com.fitfamily.app.exception.InvalidFoodPortionException;
 import com.fitfamily.app.model.Food;
 import com.fitfamily.app.model.FoodLog;
 import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.model.NutrientVector;
 import com.fitfamily.app.model.User;
 import com.fitfamily.app.repository.FoodLogRepository;
 import com.fitfamily.app.repository.FoodPortionRepository;
 import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.util.FixedPoint;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.UUID;
@@ -23,15 +26,26 @@ public class FoodLogService {
 	private final FoodRepository foodRepository;
 	private final FoodPortionRepository foodPortionRepository;
 	private final FoodLogRepository foodLogRepository;
+	private final HistoryService historyService;
+	private final StreakService streakService;
+	private final QuickAddService quickAddService;
+	private final RelatedFoodService relatedFoodService;
 
-	public FoodLogService(FoodRepository foodRepository, FoodPortionRepository foodPortionRepository, FoodLogRepository foodLogRepository) {
+	public FoodLogService(FoodRepository foodRepository, FoodPortionRepository foodPortionRepository, FoodLogRepository foodLogRepository,
+			HistoryService historyService, StreakService streakService, QuickAddService quickAddService,
+			RelatedFoodService relatedFoodService) {
 		this.foodRepository = foodRepository;
 		this.foodPortionRepository = foodPortionRepository;
 		this.foodLogRepository = foodLogRepository;
+		this.historyService = historyService;
+		this.streakService = streakService;
+		this.quickAddService = quickAddService;
+		this.relatedFoodService = relatedFoodService;
 	}
 
+	@Transactional
 	public FoodLog addFoodLog(AddFoodLogRequest request, User currentUser) {
-		// Fetch Food by foodId
+		// Fetch Food by foodId (recipes carry their computed nutrients, so this is one row for any food)
 		Food food = foodRepository.findById(request.getFoodId())
 				.orElseThrow(() -> new FoodNotFoundException("Food not found with ID: " + request.getFoodId()));
 
@@ -44,12 +58,15 @@ public class FoodLogService {
 			throw new InvalidFoodPortionException("The selected portion does not belong to the selected food");
 		}
 
-		// Calculate calories and macros based on portion size
+		// Calculate calories and macros based on portion size (rounded once to milli-units)
 		double portionMultiplier = portion.getGrams() / 100.0;
-		double calculatedCalories = food.getCaloriesPer100g() * portionMultiplier;
-		double calculatedProtein = food.getProteinPer100g() * portionMultiplier;
-		double calculatedCarbs = food.getCarbsPer100g() * portionMultiplier;
-		double calculatedFat = food.getFatPer100g() * portionMultiplier;
+		long calculatedCalories = FixedPoint.toMilli(food.getCaloriesPer100g() * portionMultiplier);
+		long calculatedProtein = FixedPoint.toMilli(food.getProteinPer100g() * portionMultiplier);
+		long calculatedCarbs = FixedPoint.toMilli(food.getCarbsPer100g() * portionMultiplier);
+		long calculatedFat = FixedPoint.toMilli(food.getFatPer100g() * portionMultiplier);
+		// Every micronutrient in one pass over the food's vector
+		NutrientVector micronutrients = food.getMicronutrientsPer100g() != null
+				? food.getMicronutrientsPer100g().scale(portionMultiplier) : null;
 
 		// Create FoodLog
 		FoodLog foodLog = new FoodLog();
@@ -57,15 +74,22 @@ public class FoodLogService {
 		foodLog.setFamily(currentUser.getFamily());
 		foodLog.setFood(food);
 		foodLog.setPortion(portion);
-		foodLog.setCalories(calculatedCalories);
-		foodLog.setProtein(calculatedProtein);
-		foodLog.setCarbs(calculatedCarbs);
-		foodLog.setFat(calculatedFat);
+		foodLog.setCaloriesMilli(calculatedCalories);
+		foodLog.setProteinMilli(calculatedProtein);
+		foodLog.setCarbsMilli(calculatedCarbs);
+		foodLog.setFatMilli(calculatedFat);
+		foodLog.setMicronutrients(micronutrients);
 		foodLog.setMealType(request.getMealType());
 		foodLog.setDate(LocalDate.now());
 
-		// Save and return FoodLog
-		return foodLogRepository.save(foodLog);
+		// Save FoodLog and add it to the daily history once it commits
+		FoodLog savedFoodLog = foodLogRepository.save(foodLog);
+		historyService.recordLog(foodLog);
+		streakService.recordLog(currentUser, foodLog.getDate());
+		quickAddService.recordLog(savedFoodLog);
+		relatedFoodService.recordLog(savedFoodLog);
+
+		return savedFoodLog;
 	}
 
 	/**
@@ -75,13 +99,18 @@ public class FoodLogService {
 	 * @param currentUser The current authenticated user
 	 * @throws FoodLogNotFoundException if food log not found or user is not the owner
 	 */
+	@Transactional
 	public void deleteFoodLog(UUID foodLogId, User currentUser) {
-		// Find food log by ID and user (ensures only owner can delete)
-		FoodLog foodLog = foodLogRepository.findByIdAndUser(foodLogId, currentUser)
+		// Find food log by ID and user (ensures only owner can delete), locked so its macros stay current
+		FoodLog foodLog = foodLogRepository.findByIdAndUserForUpdate(foodLogId, currentUser)
 				.orElseThrow(() -> new FoodLogNotFoundException("Food log not found with ID: " + foodLogId + " or you do not have permission to delete it"));
 
-		// Delete the food log
+		// Delete the food log and remove it from the daily history once it commits
 		foodLogRepository.delete(foodLog);
+		historyService.removeLog(foodLog);
+		streakService.removeLog(currentUser, foodLog.getDate());
+		quickAddService.removeLog(currentUser);
+		relatedFoodService.removeLog(foodLog);
 	}
 
 }
@@ -0,0 +1,85 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.FoodNutrientsResponse;
+import com.fitfamily.app.dto.FoodPortionResponse;
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.repository.CatalogSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maps catalog foods, from JPA entities or from the catalog snapshot, to
+ * the DTOs served by FoodService and held by the in-memory indexes.
+ */
+final class FoodMappings {
+
+	private FoodMappings() {
+	}
+
+	static FoodResponse toFoodResponse(Food food) {
+		List<FoodPortionResponse> portions = food.getFoodPortions().stream()
+				.map(portion -> new FoodPortionResponse(portion.getId(), portion.getLabel()))
+				.collect(Collectors.toList());
+
+		return new FoodResponse(food.getId(), food.getName(), portions);
+	}
+
+	static FoodNutrientsResponse toFoodNutrientsResponse(Food food) {
+		return new FoodNutrientsResponse(food.getId(), food.getName(), food.getCaloriesPer100g(),
+				food.getProteinPer100g(), food.getCarbsPer100g(), food.getFatPer100g());
+	}
+
+	static FoodDetailsResponse toFoodDetailsResponse(Food food) {
+		List<FoodDetailsResponse.Portion> portions = food.getFoodPortions().stream()
+				.map(portion -> new FoodDetailsResponse.Portion(portion.getId(), portion.getLabel(), portion.getGrams()))
+				.collect(Collectors.toList());
+
+		return new FoodDetailsResponse(food.getId(), food.getName(), food.getCaloriesPer100g(),
+				food.getProteinPer100g(), food.getCarbsPer100g(), food.getFatPer100g(), portions);
+	}
+
+	static List<FoodResponse> toFoodResponses(CatalogSnapshot snapshot) {
+		List<FoodResponse> foods = new ArrayList<>(snapshot.size());
+		for (int food = 0; food < snapshot.size(); food++) {
+			int first = snapshot.firstPortion(food);
+			List<FoodPortionResponse> portions = new ArrayList<>(snapshot.portionCount(food));
+			for (int portion = first; portion < first + snapshot.portionCount(food); portion++) {
+				portions.add(new FoodPortionResponse(snapshot.portionId(portion), snapshot.portionLabel(portion)));
+			}
+			foods.add(new FoodResponse(snapshot.id(food), snapshot.name(food), portions));
+		}
+		return foods;
+	}
+
+	static List<FoodNutrientsResponse> toFoodNutrientsResponses(CatalogSnapshot snapshot) {
+		List<FoodNutrientsResponse> foods = new ArrayList<>(snapshot.size());
+		for (int food = 0; food < snapshot.size(); food++) {
+			foods.add(new FoodNutrientsResponse(snapshot.id(food), snapshot.name(food),
+					snapshot.nutrientPer100g(food, CatalogSnapshot.CALORIES),
+					snapshot.nutrientPer100g(food, CatalogSnapshot.PROTEIN),
+					snapshot.nutrientPer100g(food, CatalogSnapshot.CARBS),
+					snapshot.nutrientPer100g(food, CatalogSnapshot.FAT)));
+		}
+		return foods;
+	}
+
+	static FoodDetailsResponse toFoodDetailsResponse(CatalogSnapshot snapshot, int food) {
+		int first = snapshot.firstPortion(food);
+		List<FoodDetailsResponse.Portion> portions = new ArrayList<>(snapshot.portionCount(food));
+		for (int portion = first; portion < first + snapshot.portionCount(food); portion++) {
+			portions.add(new FoodDetailsResponse.Portion(snapshot.portionId(portion),
+					snapshot.portionLabel(portion), snapshot.portionGrams(portion)));
+		}
+
+		return new FoodDetailsResponse(snapshot.id(food), snapshot.name(food),
+				snapshot.nutrientPer100g(food, CatalogSnapshot.CALORIES),
+				snapshot.nutrientPer100g(food, CatalogSnapshot.PROTEIN),
+				snapshot.nutrientPer100g(food, CatalogSnapshot.CARBS),
+				snapshot.nutrientPer100g(food, CatalogSnapshot.FAT), portions);
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.SerializedFoodSearchPage;
+import com.fitfamily.app.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of serialized first pages of food search results.
+ * 
+ * Keys are the normalized query (see FoodSearchRanking.normalize) and page
+ * size, so "Rice", " rice " and "RICE" share an entry. Every entry records
+ * the catalog version (FoodSearchIndex.version()) it was computed at; an
+ * entry from an older version is a miss, so any food or portion change
+ * invalidates the whole cache without having to find the affected queries.
+ * 
+ * Metrics: food.search.cache.requests (tagged result=hit|miss),
+ * food.search.cache.hit.ratio and food.search.cache.size.
+ */
+@Component
+public class FoodSearchCache {
+
+	private final LruCache<String, Entry> entries;
+	private final Counter hits;
+	private final Counter misses;
+
+	public FoodSearchCache(@Value("${food.search.cache.max-entries:10000}") int maxEntries,
+			MeterRegistry meterRegistry) {
+		this.entries = new LruCache<>(maxEntries);
+		this.hits = Counter.builder("food.search.cache.requests")
+				.tag("result", "hit")
+				.description("Food searches answered from the cache")
+				.register(meterRegistry);
+		this.misses = Counter.builder("food.search.cache.requests")
+				.tag("result", "miss")
+				.description("Cacheable food searches that had to be computed")
+				.register(meterRegistry);
+		Gauge.builder("food.search.cache.hit.ratio", this, FoodSearchCache::hitRatio)
+				.description("Share of cacheable food searches answered from the cache")
+				.register(meterRegistry);
+		Gauge.builder("food.search.cache.size", entries, LruCache::size)
+				.description("Cached food search pages")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * @param normalizedQuery Output of FoodSearchRanking.normalize()
+	 * @param limit Page size
+	 * @return The cache key
+	 */
+	public static String key(String normalizedQuery, int limit) {
+		return limit + ":" + normalizedQuery;
+	}
+
+	/**
+	 * Look up a page, counting the hit or miss
+	 * 
+	 * @param key Output of key()
+	 * @param catalogVersion Current catalog version
+	 * @return The page, or null if absent or computed at another version
+	 */
+	public SerializedFoodSearchPage get(String key, long catalogVersion) {
+		Entry entry = entries.get(key);
+		if (entry == null || entry.catalogVersion() != catalogVersion) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return entry.page();
+	}
+
+	/**
+	 * @param key Output of key()
+	 * @param catalogVersion Catalog version read before the search was run
+	 * @param page The serialized page
+	 */
+	public void put(String key, long catalogVersion, SerializedFoodSearchPage page) {
+		entries.put(key, new Entry(catalogVersion, page));
+	}
+
+	double hitRatio() {
+		double hitCount = hits.count();
+		double total = hitCount + misses.count();
+		return total == 0 ? 0 : hitCount / total;
+	}
+
+	private record Entry(long catalogVersion, SerializedFoodSearchPage page) {
+	}
+
+}
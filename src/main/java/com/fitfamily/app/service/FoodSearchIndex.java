@@ -0,0 +1,613 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.dto.FoodSearchPage;
+import com.fitfamily.app.util.AliasIndex;
+import com.fitfamily.app.util.FuzzyWordIndex;
+import com.fitfamily.app.util.PrefixIndex;
+import com.fitfamily.app.util.TrigramIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory search index over the food catalog.
+ * 
+ * Food names are indexed by trigram, plus every 1- and 2-character
+ * sequence (see TrigramIndex), so every query token is looked up in
+ * postings, however short. A query matches a food when the food name
+ * contains every whitespace-separated token of the query,
+ * case-insensitively; a single-token query therefore behaves like the
+ * previous SQL "name LIKE %query%" search. Matches are ranked as
+ * described in FoodSearchRanking. Queries without any match fall back to
+ * typo-tolerant matching against the words of the names (FuzzyWordIndex),
+ * so "chiken brest" still finds "Chicken Breast". Typeahead suggestions are
+ * served from a sorted prefix index (PrefixIndex) of names and name words.
+ * An empty query lists every food from a browse order sorted once per
+ * snapshot, so paging through the catalog costs a binary search per page.
+ * 
+ * Foods also match by their aliases ("roti" finds Chapati): alias words
+ * are indexed in an AliasIndex, an alias matches when it contains every
+ * token and each token starts one of its words, and a food is returned
+ * once, ranked by the best of its name and aliases.
+ * 
+ * Readers use an immutable snapshot and never lock. Catalog changes are
+ * applied in batches: changed foods are tombstoned and re-appended with new
+ * document IDs, and the index is compacted once tombstones pile up.
+ */
+@Component
+public class FoodSearchIndex {
+
+	// Compact when more than this many documents (or a quarter of the live ones) are tombstones
+	private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+
+	private static final String[] NO_ALIASES = new String[0];
+	private static final int NO_MATCH = Integer.MAX_VALUE;
+
+	private final int maxEdits;
+
+	private volatile Snapshot snapshot;
+
+	// Live documents in empty-query order, sorted on first use per snapshot version
+	private volatile BrowseOrder browseOrder;
+
+	// Writer state, guarded by this
+	private final Map<UUID, Integer> docByFoodId = new HashMap<>();
+
+	/**
+	 * @param maxEdits Largest edit distance per query token in typo-tolerant search (0 disables it)
+	 */
+	public FoodSearchIndex(@Value("${food.search.fuzzy.max-edits:2}") int maxEdits) {
+		this.maxEdits = maxEdits;
+	}
+
+	/**
+	 * @return true once the catalog has been loaded
+	 */
+	public boolean isReady() {
+		return snapshot != null;
+	}
+
+	/**
+	 * Catalog version of the current snapshot
+	 * 
+	 * Incremented by every rebuild and every applied batch of changes, so
+	 * anything derived from search results can be tagged with the version it
+	 * was computed at and recognized as stale later.
+	 * 
+	 * @return The version, or 0 before the catalog has been loaded
+	 */
+	public long version() {
+		Snapshot current = snapshot;
+		return current == null ? 0 : current.version();
+	}
+
+	/**
+	 * Replace the whole index, without aliases
+	 * 
+	 * @param foods All foods of the catalog
+	 */
+	public void rebuild(Collection<FoodResponse> foods) {
+		rebuild(foods, Map.of());
+	}
+
+	/**
+	 * Replace the whole index
+	 * 
+	 * @param foods All foods of the catalog
+	 * @param aliases Alias names by food ID (foods without aliases may be absent)
+	 */
+	public synchronized void rebuild(Collection<FoodResponse> foods, Map<UUID, List<String>> aliases) {
+		List<IndexedFood> indexed = new ArrayList<>(foods.size());
+		for (FoodResponse food : foods) {
+			indexed.add(new IndexedFood(food, normalizeAliases(aliases.get(food.getId()))));
+		}
+		rebuildIndexed(indexed);
+	}
+
+	private void rebuildIndexed(List<IndexedFood> foods) {
+		List<IndexedFood> sorted = new ArrayList<>(foods);
+		sorted.sort(Comparator.comparing(food -> food.food().getName(), String.CASE_INSENSITIVE_ORDER));
+
+		docByFoodId.clear();
+		FoodResponse[] docs = new FoodResponse[Math.max(16, sorted.size())];
+		String[] names = new String[docs.length];
+		String[][] aliases = new String[docs.length][];
+		for (int doc = 0; doc < sorted.size(); doc++) {
+			docs[doc] = sorted.get(doc).food();
+			names[doc] = FoodSearchRanking.normalize(docs[doc].getName());
+			aliases[doc] = sorted.get(doc).aliases();
+			docByFoodId.put(docs[doc].getId(), doc);
+		}
+
+		List<String> liveNames = Arrays.asList(names).subList(0, sorted.size());
+		TrigramIndex trigrams = TrigramIndex.EMPTY_WITH_SHORT_GRAMS.withDocuments(0, liveNames);
+		FuzzyWordIndex words = FuzzyWordIndex.EMPTY.withDocuments(0, liveNames);
+		PrefixIndex prefixes = PrefixIndex.EMPTY.withDocuments(0, liveNames);
+		AliasIndex aliasWords = AliasIndex.EMPTY.withDocuments(0, Arrays.asList(aliases).subList(0, sorted.size()));
+		long version = snapshot == null ? 1 : snapshot.version() + 1;
+		snapshot = new Snapshot(version, docs, names, aliases, sorted.size(), new BitSet(), 0,
+				trigrams, words, prefixes, aliasWords);
+	}
+
+	/**
+	 * Apply a batch of catalog changes, without aliases
+	 * 
+	 * @param changedFoodIds IDs of foods that were added, updated or deleted
+	 * @param currentFoods Current state of those foods (deleted ones are absent)
+	 */
+	public void apply(Collection<UUID> changedFoodIds, Collection<FoodResponse> currentFoods) {
+		apply(changedFoodIds, currentFoods, Map.of());
+	}
+
+	/**
+	 * Apply a batch of catalog changes
+	 * 
+	 * @param changedFoodIds IDs of foods that were added, updated or deleted
+	 * @param currentFoods Current state of those foods (deleted ones are absent)
+	 * @param aliases Current alias names of those foods by food ID
+	 */
+	public synchronized void apply(Collection<UUID> changedFoodIds, Collection<FoodResponse> currentFoods,
+			Map<UUID, List<String>> aliases) {
+		Snapshot current = snapshot;
+		if (current == null) {
+			return;
+		}
+
+		// Tombstone the old version of every changed food
+		BitSet deleted = (BitSet) current.deleted().clone();
+		int deletedCount = current.deletedCount();
+		for (UUID foodId : changedFoodIds) {
+			Integer doc = docByFoodId.remove(foodId);
+			if (doc != null) {
+				deleted.set(doc);
+				deletedCount++;
+			}
+		}
+
+		// Append the new versions; slots past current.size() are invisible to existing readers
+		FoodResponse[] docs = current.docs();
+		String[] names = current.names();
+		String[][] aliasNames = current.aliases();
+		int size = current.size();
+		if (size + currentFoods.size() > docs.length) {
+			int capacity = Math.max(docs.length * 2, size + currentFoods.size());
+			docs = Arrays.copyOf(docs, capacity);
+			names = Arrays.copyOf(names, capacity);
+			aliasNames = Arrays.copyOf(aliasNames, capacity);
+		}
+		List<String> addedNames = new ArrayList<>(currentFoods.size());
+		List<String[]> addedAliases = new ArrayList<>(currentFoods.size());
+		for (FoodResponse food : currentFoods) {
+			docs[size] = food;
+			names[size] = FoodSearchRanking.normalize(food.getName());
+			aliasNames[size] = normalizeAliases(aliases.get(food.getId()));
+			addedNames.add(names[size]);
+			addedAliases.add(aliasNames[size]);
+			docByFoodId.put(food.getId(), size);
+			size++;
+		}
+
+		TrigramIndex trigrams = current.trigrams().withDocuments(current.size(), addedNames);
+		FuzzyWordIndex words = current.words().withDocuments(current.size(), addedNames);
+		PrefixIndex prefixes = current.prefixes().withDocuments(current.size(), addedNames);
+		AliasIndex aliasWords = current.aliasWords().withDocuments(current.size(), addedAliases);
+		Snapshot updated = new Snapshot(current.version() + 1, docs, names, aliasNames, size, deleted, deletedCount,
+				trigrams, words, prefixes, aliasWords);
+
+		if (deletedCount > Math.max(MIN_COMPACTION_TOMBSTONES, (size - deletedCount) / 4)) {
+			rebuildIndexed(updated.liveDocs());
+		} else {
+			snapshot = updated;
+		}
+	}
+
+	/**
+	 * Search foods by name, best matches first
+	 * 
+	 * Only the best limit + 1 matches are kept while scanning (a bounded
+	 * max-heap), so memory and response size do not grow with the number of
+	 * matches. When nothing matches, the query is retried with typo
+	 * tolerance (see searchFuzzy).
+	 * 
+	 * @param query Search query (an empty query lists every food, see browse)
+	 * @param after Cursor of the previous page, or null for the first page
+	 * @param limit Maximum number of results
+	 * @return The page of results with the cursor of the next page
+	 */
+	public FoodSearchPage search(String query, FoodSearchRanking.Cursor after, int limit) {
+		Snapshot current = snapshot;
+		String normalized = FoodSearchRanking.normalize(query);
+		String[] tokens = FoodSearchRanking.tokens(normalized);
+		if (tokens.length == 0) {
+			return browse(current, after, limit);
+		}
+
+		boolean fuzzyPage = after != null && after.tier() >= FoodSearchRanking.FUZZY;
+		if (!fuzzyPage) {
+			FoodSearchPage page = searchExact(current, normalized, tokens, after, limit);
+			if (!page.getFoods().isEmpty() || after != null || maxEdits == 0) {
+				return page;
+			}
+		}
+		return searchFuzzy(current, tokens, after, limit);
+	}
+
+	/**
+	 * Foods whose name, or a later word of it, starts with the prefix
+	 * 
+	 * Names starting with the prefix come first, then names with a later
+	 * word starting with it, each group alphabetically. Costs a binary
+	 * search plus one step per result, however many foods share the prefix.
+	 * 
+	 * @param prefix Typed prefix (an empty prefix suggests nothing)
+	 * @param limit Maximum number of suggestions
+	 * @return Matching foods, best first
+	 */
+	public List<FoodResponse> suggest(String prefix, int limit) {
+		Snapshot current = snapshot;
+		String normalized = FoodSearchRanking.normalize(prefix);
+		List<FoodResponse> foods = new ArrayList<>(limit);
+		if (current == null || normalized.isEmpty() || limit <= 0) {
+			return foods;
+		}
+
+		int[] found = new int[limit];
+		current.prefixes().match(normalized, doc -> !current.deleted().get(doc), doc -> {
+			for (int i = 0; i < foods.size(); i++) {
+				if (found[i] == doc) {
+					// Another word of a food already suggested
+					return true;
+				}
+			}
+			found[foods.size()] = doc;
+			foods.add(current.docs()[doc]);
+			return foods.size() < limit;
+		});
+		return foods;
+	}
+
+	private FoodSearchPage searchExact(Snapshot current, String normalized, String[] tokens,
+			FoodSearchRanking.Cursor after, int limit) {
+		// Narrow down with the postings of every token (short tokens have exact postings)
+		int[] candidates = current.trigrams().candidates(tokens[0]);
+		for (int i = 1; i < tokens.length && candidates.length > 0; i++) {
+			candidates = TrigramIndex.intersect(candidates, current.trigrams().candidates(tokens[i]));
+		}
+
+		// Worst kept hit on top, so it can be replaced by a better one
+		PriorityQueue<Hit> best = newHeap(limit);
+		for (int doc : candidates) {
+			collect(current, doc, normalized, tokens, after, limit, best);
+		}
+
+		// Foods found by an alias only (the others were ranked above, with their aliases)
+		for (int doc : aliasCandidates(current, tokens)) {
+			if (!current.deleted().get(doc) && !containsAll(current.names()[doc], tokens)) {
+				int tier = aliasTier(current, doc, normalized, tokens);
+				if (tier != NO_MATCH) {
+					offer(tier, current.docs()[doc], after, limit, best);
+				}
+			}
+		}
+		return toPage(best, limit);
+	}
+
+	/**
+	 * Page of the empty query: every food, shortest name first
+	 * 
+	 * Every name starts with the empty query, so all foods share the PREFIX
+	 * tier and the order depends only on the names. It is sorted once per
+	 * snapshot and each page is a binary search for the cursor plus a copy.
+	 */
+	private FoodSearchPage browse(Snapshot current, FoodSearchRanking.Cursor after, int limit) {
+		int[] order = browseOrder(current);
+		FoodResponse[] docs = current.docs();
+
+		int from = 0;
+		if (after != null && after.tier() > FoodSearchRanking.PREFIX) {
+			from = order.length;
+		} else if (after != null && after.tier() == FoodSearchRanking.PREFIX) {
+			// First food after the cursor
+			int low = 0;
+			int high = order.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (after.isBefore(FoodSearchRanking.PREFIX, docs[order[mid]].getName())) {
+					high = mid;
+				} else {
+					low = mid + 1;
+				}
+			}
+			from = low;
+		}
+
+		int to = (int) Math.min(order.length, (long) from + limit);
+		List<FoodResponse> foods = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			foods.add(docs[order[i]]);
+		}
+		String nextCursor = to < order.length && to > from
+				? new FoodSearchRanking.Cursor(FoodSearchRanking.PREFIX, docs[order[to - 1]].getName()).encode()
+				: null;
+		return new FoodSearchPage(foods, nextCursor);
+	}
+
+	private int[] browseOrder(Snapshot current) {
+		BrowseOrder cached = browseOrder;
+		if (cached != null && cached.version() == current.version()) {
+			return cached.docs();
+		}
+		FoodResponse[] docs = current.docs();
+		int[] order = IntStream.range(0, current.size())
+			.filter(doc -> !current.deleted().get(doc))
+			.boxed()
+			.sorted((a, b) -> FoodSearchRanking.compare(FoodSearchRanking.PREFIX, docs[a].getName(),
+					FoodSearchRanking.PREFIX, docs[b].getName()))
+			.mapToInt(Integer::intValue)
+			.toArray();
+		// Racing readers sort the same order; whichever is stored last is as good
+		browseOrder = new BrowseOrder(current.version(), order);
+		return order;
+	}
+
+	/**
+	 * Documents with, for every token, an alias word starting with it
+	 */
+	private static int[] aliasCandidates(Snapshot current, String[] tokens) {
+		if (tokens.length == 0 || current.aliasWords().size() == 0) {
+			return new int[0];
+		}
+		int[] candidates = null;
+		for (String token : tokens) {
+			int[] docs = current.aliasWords().candidates(token);
+			candidates = candidates == null ? docs : TrigramIndex.intersect(candidates, docs);
+			if (candidates.length == 0) {
+				break;
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Best tier among the food's aliases that contain every token
+	 * 
+	 * @return The tier, or NO_MATCH
+	 */
+	private static int aliasTier(Snapshot snapshot, int doc, String normalizedQuery, String[] tokens) {
+		int best = NO_MATCH;
+		for (String alias : snapshot.aliases()[doc]) {
+			if (containsAll(alias, tokens)) {
+				best = Math.min(best, FoodSearchRanking.tier(alias, normalizedQuery, tokens));
+			}
+		}
+		return best;
+	}
+
+	private static String[] normalizeAliases(List<String> aliases) {
+		if (aliases == null || aliases.isEmpty()) {
+			return NO_ALIASES;
+		}
+		return aliases.stream().map(FoodSearchRanking::normalize).distinct().toArray(String[]::new);
+	}
+
+	/**
+	 * Typo-tolerant search
+	 * 
+	 * Every token of three or more characters must match, within its edit
+	 * budget, a word of the food name (or occur in the name exactly); shorter
+	 * tokens must occur exactly. Tokens of three to five characters may be one
+	 * edit away, longer ones up to maxEdits. Results rank after every exact
+	 * match, by total edit distance.
+	 */
+	private FoodSearchPage searchFuzzy(Snapshot current, String[] tokens, FoodSearchRanking.Cursor after, int limit) {
+		long[] matches = null;
+		List<String> shortTokens = new ArrayList<>();
+		for (String token : tokens) {
+			if (token.length() < TrigramIndex.GRAM) {
+				shortTokens.add(token);
+				continue;
+			}
+
+			List<int[]> postings = new ArrayList<>();
+			List<Integer> distances = new ArrayList<>();
+			if (FuzzyWordIndex.isWord(token)) {
+				current.words().match(token, allowedEdits(token), (docs, distance) -> {
+					postings.add(docs);
+					distances.add(distance);
+				});
+			} else {
+				// Numbers and tokens with punctuation are not in the word index; they have to occur exactly
+				postings.add(Arrays.stream(current.trigrams().candidates(token))
+						.filter(doc -> current.names()[doc].contains(token))
+						.toArray());
+				distances.add(0);
+			}
+
+			long[] tokenMatches = closestPerDoc(postings, distances);
+			matches = matches == null ? tokenMatches : intersectSummingDistances(matches, tokenMatches);
+			if (matches.length == 0) {
+				break;
+			}
+		}
+		if (matches == null) {
+			return new FoodSearchPage(new ArrayList<>(), null);
+		}
+
+		PriorityQueue<Hit> best = newHeap(limit);
+		for (long match : matches) {
+			int doc = (int) (match >>> 8);
+			if (current.deleted().get(doc) || !containsAll(current.names()[doc], shortTokens)) {
+				continue;
+			}
+			offer(FoodSearchRanking.FUZZY + (int) (match & 0xFF), current.docs()[doc], after, limit, best);
+		}
+		return toPage(best, limit);
+	}
+
+	private int allowedEdits(String token) {
+		return token.length() < 6 ? Math.min(1, maxEdits) : maxEdits;
+	}
+
+	/**
+	 * Merge the documents of a token's matching words into sorted
+	 * (doc << 8 | distance) entries, keeping the smallest distance per document
+	 */
+	private static long[] closestPerDoc(List<int[]> postings, List<Integer> distances) {
+		int total = 0;
+		for (int[] docs : postings) {
+			total += docs.length;
+		}
+		long[] entries = new long[total];
+		int n = 0;
+		for (int k = 0; k < postings.size(); k++) {
+			for (int doc : postings.get(k)) {
+				entries[n++] = (long) doc << 8 | distances.get(k);
+			}
+		}
+
+		// A single posting list is already sorted and free of duplicates
+		if (postings.size() <= 1) {
+			return entries;
+		}
+		Arrays.sort(entries);
+		n = 0;
+		for (long entry : entries) {
+			if (n == 0 || entries[n - 1] >>> 8 != entry >>> 8) {
+				entries[n++] = entry;
+			}
+		}
+		return Arrays.copyOf(entries, n);
+	}
+
+	private static long[] intersectSummingDistances(long[] a, long[] b) {
+		long[] result = new long[Math.min(a.length, b.length)];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			long docA = a[i] >>> 8;
+			long docB = b[j] >>> 8;
+			if (docA < docB) {
+				i++;
+			} else if (docB < docA) {
+				j++;
+			} else {
+				long distance = Math.min(0xFF, (a[i] & 0xFF) + (b[j] & 0xFF));
+				result[n++] = docA << 8 | distance;
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	private static boolean containsAll(String lowerName, List<String> tokens) {
+		for (String token : tokens) {
+			if (!lowerName.contains(token)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean containsAll(String lowerName, String[] tokens) {
+		for (String token : tokens) {
+			if (!lowerName.contains(token)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void collect(Snapshot snapshot, int doc, String normalizedQuery, String[] tokens,
+			FoodSearchRanking.Cursor after, int limit, PriorityQueue<Hit> best) {
+		if (snapshot.deleted().get(doc)) {
+			return;
+		}
+		String lowerName = snapshot.names()[doc];
+		if (!containsAll(lowerName, tokens)) {
+			return;
+		}
+
+		// A food is listed once, at the better of its name and alias tiers
+		int tier = FoodSearchRanking.tier(lowerName, normalizedQuery, tokens);
+		if (tier > FoodSearchRanking.EXACT && snapshot.aliases()[doc].length > 0) {
+			tier = Math.min(tier, aliasTier(snapshot, doc, normalizedQuery, tokens));
+		}
+		offer(tier, snapshot.docs()[doc], after, limit, best);
+	}
+
+	private static PriorityQueue<Hit> newHeap(int limit) {
+		return new PriorityQueue<>(limit + 2, Comparator.<Hit>naturalOrder().reversed());
+	}
+
+	private static void offer(int tier, FoodResponse food, FoodSearchRanking.Cursor after, int limit, PriorityQueue<Hit> best) {
+		if (after != null && !after.isBefore(tier, food.getName())) {
+			return;
+		}
+		if (best.size() <= limit) {
+			best.add(new Hit(tier, food));
+		} else {
+			// Only allocate for hits that displace the worst kept one
+			Hit worst = best.peek();
+			if (FoodSearchRanking.compare(tier, food.getName(), worst.tier(), worst.food().getName()) < 0) {
+				best.poll();
+				best.add(new Hit(tier, food));
+			}
+		}
+	}
+
+	private static FoodSearchPage toPage(PriorityQueue<Hit> best, int limit) {
+		List<Hit> hits = new ArrayList<>(best);
+		Collections.sort(hits);
+
+		String nextCursor = null;
+		if (hits.size() > limit) {
+			hits = hits.subList(0, limit);
+			Hit last = hits.get(limit - 1);
+			nextCursor = new FoodSearchRanking.Cursor(last.tier(), last.food().getName()).encode();
+		}
+
+		List<FoodResponse> foods = new ArrayList<>(hits.size());
+		for (Hit hit : hits) {
+			foods.add(hit.food());
+		}
+		return new FoodSearchPage(foods, nextCursor);
+	}
+
+	private record Hit(int tier, FoodResponse food) implements Comparable<Hit> {
+
+		@Override
+		public int compareTo(Hit other) {
+			return FoodSearchRanking.compare(tier, food.getName(), other.tier, other.food.getName());
+		}
+
+	}
+
+	private record Snapshot(long version, FoodResponse[] docs, String[] names, String[][] aliases, int size,
+			BitSet deleted, int deletedCount, TrigramIndex trigrams, FuzzyWordIndex words, PrefixIndex prefixes,
+			AliasIndex aliasWords) {
+
+		List<IndexedFood> liveDocs() {
+			List<IndexedFood> live = new ArrayList<>(size - deletedCount);
+			for (int doc = 0; doc < size; doc++) {
+				if (!deleted.get(doc)) {
+					live.add(new IndexedFood(docs[doc], aliases[doc]));
+				}
+			}
+			return live;
+		}
+
+	}
+
+	private record BrowseOrder(long version, int[] docs) {
+	}
+
+	// A food with its normalized aliases
+	private record IndexedFood(FoodResponse food, String[] aliases) {
+	}
+
+}
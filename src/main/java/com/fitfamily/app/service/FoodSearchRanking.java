@@ -0,0 +1,134 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.exception.InvalidSearchCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Relevance ranking and pagination cursors for food search.
+ * 
+ * Results are ordered by tier (exact, prefix, word-start, substring match),
+ * then by name length (shorter names are closer matches), then by name.
+ * Typo-tolerant matches rank after all of those, at FUZZY plus their edit
+ * distance.
+ * Food names are unique, so this is a total order and a cursor only needs
+ * the tier and name of the last result on a page.
+ */
+public final class FoodSearchRanking {
+
+	public static final int EXACT = 0;
+	public static final int PREFIX = 1;
+	public static final int WORD_START = 2;
+	public static final int SUBSTRING = 3;
+	public static final int FUZZY = 4;
+
+	private FoodSearchRanking() {
+	}
+
+	/**
+	 * Lower-case and collapse whitespace
+	 */
+	public static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+	}
+
+	/**
+	 * @param normalizedQuery Output of normalize()
+	 * @return The query's tokens (none for an empty query)
+	 */
+	public static String[] tokens(String normalizedQuery) {
+		return normalizedQuery.isEmpty() ? new String[0] : normalizedQuery.split(" ");
+	}
+
+	/**
+	 * Rank a matching name
+	 * 
+	 * @param lowerName Lower-cased food name that contains every token
+	 * @param normalizedQuery Output of normalize()
+	 * @param tokens Output of tokens()
+	 * @return EXACT, PREFIX, WORD_START or SUBSTRING
+	 */
+	public static int tier(String lowerName, String normalizedQuery, String[] tokens) {
+		if (lowerName.equals(normalizedQuery)) {
+			return EXACT;
+		}
+		if (lowerName.startsWith(normalizedQuery)) {
+			return PREFIX;
+		}
+		for (String token : tokens) {
+			if (!startsWord(lowerName, token)) {
+				return SUBSTRING;
+			}
+		}
+		return WORD_START;
+	}
+
+	/**
+	 * Compare two results in ranking order
+	 */
+	public static int compare(int tier, String name, int otherTier, String otherName) {
+		if (tier != otherTier) {
+			return Integer.compare(tier, otherTier);
+		}
+		if (name.length() != otherName.length()) {
+			return Integer.compare(name.length(), otherName.length());
+		}
+		return name.compareTo(otherName);
+	}
+
+	private static boolean startsWord(String name, String token) {
+		for (int index = name.indexOf(token); index >= 0; index = name.indexOf(token, index + 1)) {
+			if (index == 0 || !Character.isLetterOrDigit(name.charAt(index - 1))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Position after the last result of a page
+	 * 
+	 * @param tier Tier of the last result
+	 * @param name Name of the last result
+	 */
+	public record Cursor(int tier, String name) {
+
+		/**
+		 * @return Opaque URL-safe token
+		 */
+		public String encode() {
+			return Base64.getUrlEncoder().withoutPadding()
+					.encodeToString((tier + ":" + name).getBytes(StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * @param token Token from encode()
+		 * @return The cursor
+		 * @throws InvalidSearchCursorException if the token is malformed
+		 */
+		public static Cursor decode(String token) {
+			try {
+				String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+				int separator = value.indexOf(':');
+				int tier = Integer.parseInt(value.substring(0, separator));
+				if (tier < EXACT) {
+					throw new IllegalArgumentException("Unknown tier " + tier);
+				}
+				return new Cursor(tier, value.substring(separator + 1));
+			} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+				throw new InvalidSearchCursorException("Invalid search cursor");
+			}
+		}
+
+		/**
+		 * @return true if a result comes after this cursor
+		 */
+		public boolean isBefore(int tier, String name) {
+			return compare(this.tier, this.name, tier, name) < 0;
+		}
+
+	}
+
+}
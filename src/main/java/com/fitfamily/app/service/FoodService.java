@@ -1,43 +1,339 @@
 package com.fitfamily.app.service;
 
-import com.fitfamily.app.dto.FoodPortionResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.FoodBatchResponse;
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.FoodNutrientsResponse;
 import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.dto.FoodSearchPage;
+import com.fitfamily.app.dto.NutrientQueryRequest;
+import com.fitfamily.app.dto.SerializedFoodSearchPage;
+import com.fitfamily.app.exception.InvalidFoodBatchException;
+import com.fitfamily.app.exception.InvalidNutrientQueryException;
 import com.fitfamily.app.model.Food;
-import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.repository.CatalogSnapshot;
 import com.fitfamily.app.repository.FoodRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class FoodService {
 
 	private final FoodRepository foodRepository;
+	private final FoodSearchIndex foodSearchIndex;
+	private final NutrientIndex nutrientIndex;
+	private final FoodSearchCache foodSearchCache;
+	private final CatalogSnapshotService catalogSnapshotService;
+	private final ObjectMapper objectMapper;
+	private final int defaultSearchLimit;
+	private final int maxSearchLimit;
+	private final int maxBatchIds;
+	private final int defaultSuggestLimit;
+	private final int maxSuggestLimit;
+	private final int defaultNutrientLimit;
+	private final int maxNutrientLimit;
 
-	public FoodService(FoodRepository foodRepository) {
+	public FoodService(FoodRepository foodRepository, FoodSearchIndex foodSearchIndex, NutrientIndex nutrientIndex,
+			FoodSearchCache foodSearchCache, CatalogSnapshotService catalogSnapshotService, ObjectMapper objectMapper,
+			@Value("${food.search.default-limit:20}") int defaultSearchLimit,
+			@Value("${food.search.max-limit:50}") int maxSearchLimit,
+			@Value("${food.batch.max-ids:100}") int maxBatchIds,
+			@Value("${food.suggest.default-limit:8}") int defaultSuggestLimit,
+			@Value("${food.suggest.max-limit:20}") int maxSuggestLimit,
+			@Value("${food.nutrients.default-limit:20}") int defaultNutrientLimit,
+			@Value("${food.nutrients.max-limit:100}") int maxNutrientLimit) {
 		this.foodRepository = foodRepository;
+		this.foodSearchIndex = foodSearchIndex;
+		this.nutrientIndex = nutrientIndex;
+		this.foodSearchCache = foodSearchCache;
+		this.catalogSnapshotService = catalogSnapshotService;
+		this.objectMapper = objectMapper;
+		this.defaultSearchLimit = defaultSearchLimit;
+		this.maxSearchLimit = maxSearchLimit;
+		this.maxBatchIds = maxBatchIds;
+		this.defaultSuggestLimit = defaultSuggestLimit;
+		this.maxSuggestLimit = maxSuggestLimit;
+		this.defaultNutrientLimit = defaultNutrientLimit;
+		this.maxNutrientLimit = maxNutrientLimit;
 	}
 
-	public List<FoodResponse> searchFoods(String query) {
-		List<Food> foods = foodRepository.findByNameContainingIgnoreCase(query);
-		
-		return foods.stream()
-				.map(this::mapToFoodResponse)
-				.collect(Collectors.toList());
+	/**
+	 * Search foods by name, best matches first
+	 * 
+	 * @param query Search query
+	 * @param limit Page size (defaults to food.search.default-limit, capped at food.search.max-limit)
+	 * @param cursor Cursor from the previous page, or null for the first page
+	 * @return The page of results with the cursor of the next page
+	 */
+	public FoodSearchPage searchFoods(String query, Integer limit, String cursor) {
+		int pageSize = pageSize(limit);
+		FoodSearchRanking.Cursor after = cursor == null || cursor.isEmpty() ? null : FoodSearchRanking.Cursor.decode(cursor);
+
+		// Served from memory once the index is built
+		if (foodSearchIndex.isReady()) {
+			return foodSearchIndex.search(query, after, pageSize);
+		}
+		return searchDatabase(query, after, pageSize);
 	}
 
-	private FoodResponse mapToFoodResponse(Food food) {
-		List<FoodPortionResponse> portions = food.getFoodPortions().stream()
-				.map(this::mapToFoodPortionResponse)
-				.collect(Collectors.toList());
-		
-		return new FoodResponse(food.getId(), food.getName(), portions);
+	/**
+	 * Search foods by name, with the results serialized to JSON
+	 * 
+	 * First pages are served from FoodSearchCache once the index is built;
+	 * the cache key is the normalized query, so equivalent spellings of a
+	 * popular query share one entry.
+	 * 
+	 * @see #searchFoods(String, Integer, String)
+	 */
+	public SerializedFoodSearchPage searchFoodsSerialized(String query, Integer limit, String cursor) {
+		boolean cacheable = (cursor == null || cursor.isEmpty()) && foodSearchIndex.isReady();
+		if (!cacheable) {
+			return serialize(searchFoods(query, limit, cursor));
+		}
+
+		// Read the version before searching: a concurrent catalog change then
+		// makes the entry stale rather than caching old results as current
+		long catalogVersion = foodSearchIndex.version();
+		String key = FoodSearchCache.key(FoodSearchRanking.normalize(query), pageSize(limit));
+		SerializedFoodSearchPage cached = foodSearchCache.get(key, catalogVersion);
+		if (cached != null) {
+			return cached;
+		}
+
+		SerializedFoodSearchPage page = serialize(searchFoods(query, limit, null));
+		foodSearchCache.put(key, catalogVersion, page);
+		return page;
 	}
 
-	private FoodPortionResponse mapToFoodPortionResponse(FoodPortion foodPortion) {
-		return new FoodPortionResponse(foodPortion.getId(), foodPortion.getLabel());
+	/**
+	 * Typeahead suggestions: IDs and names of foods matching a typed prefix
+	 * 
+	 * Written straight to JSON bytes ([{"id": ..., "name": ...}, ...]) with a
+	 * streaming generator; portions are never touched. Until the index is
+	 * built, only names starting with the prefix are found (in the database).
+	 * 
+	 * @param prefix Typed prefix
+	 * @param limit Number of suggestions (defaults to food.suggest.default-limit, capped at food.suggest.max-limit)
+	 * @return The JSON array
+	 */
+	public byte[] suggestFoods(String prefix, Integer limit) {
+		int count = limit == null ? defaultSuggestLimit : Math.max(1, Math.min(limit, maxSuggestLimit));
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream(32 + count * 64);
+		try (JsonGenerator json = objectMapper.getFactory().createGenerator(body)) {
+			json.writeStartArray();
+			if (foodSearchIndex.isReady()) {
+				for (FoodResponse food : foodSearchIndex.suggest(prefix, count)) {
+					writeSuggestion(json, food.getId(), food.getName());
+				}
+			} else {
+				String normalized = FoodSearchRanking.normalize(prefix);
+				if (!normalized.isEmpty()) {
+					for (Object[] row : foodRepository.findIdAndNameByNamePrefix(escapeLike(normalized) + "%", PageRequest.of(0, count))) {
+						writeSuggestion(json, (UUID) row[0], (String) row[1]);
+					}
+				}
+			}
+			json.writeEndArray();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to serialize food suggestions", e);
+		}
+		return body.toByteArray();
 	}
 
-}
+	private static void writeSuggestion(JsonGenerator json, UUID id, String name) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("id", id.toString());
+		json.writeStringField("name", name);
+		json.writeEndObject();
+	}
+
+	private static String escapeLike(String text) {
+		return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	/**
+	 * Find foods by nutrients per 100g, e.g. at least 20g protein and under
+	 * 200 kcal, or the highest protein per calorie
+	 * 
+	 * Served from the nutrient index. Until it is built, the ranges are
+	 * filtered in the database and the matches ranked in memory.
+	 * 
+	 * @param request Ranges, ranking and limit (defaults to food.nutrients.default-limit, capped at food.nutrients.max-limit)
+	 * @return Matching foods, best ranked first
+	 */
+	public List<FoodNutrientsResponse> findFoodsByNutrients(NutrientQueryRequest request) {
+		NutrientIndex.Query query = toNutrientQuery(request);
+		int count = request.getLimit() == null ? defaultNutrientLimit : Math.max(1, Math.min(request.getLimit(), maxNutrientLimit));
+		if (nutrientIndex.isReady()) {
+			return nutrientIndex.find(query, count);
+		}
+
+		double[] min = query.min();
+		double[] max = query.max();
+		List<FoodNutrientsResponse> matches = foodRepository.findNutrientsByRanges(
+				finite(min[NutrientIndex.Nutrient.CALORIES.ordinal()]), finite(max[NutrientIndex.Nutrient.CALORIES.ordinal()]),
+				finite(min[NutrientIndex.Nutrient.PROTEIN.ordinal()]), finite(max[NutrientIndex.Nutrient.PROTEIN.ordinal()]),
+				finite(min[NutrientIndex.Nutrient.CARBS.ordinal()]), finite(max[NutrientIndex.Nutrient.CARBS.ordinal()]),
+				finite(min[NutrientIndex.Nutrient.FAT.ordinal()]), finite(max[NutrientIndex.Nutrient.FAT.ordinal()]));
+		return NutrientIndex.rank(matches, query, count);
+	}
+
+	private static NutrientIndex.Query toNutrientQuery(NutrientQueryRequest request) {
+		double[] min = new double[NutrientIndex.Nutrient.values().length];
+		double[] max = new double[min.length];
+		setRange(min, max, NutrientIndex.Nutrient.CALORIES, request.getMinCalories(), request.getMaxCalories());
+		setRange(min, max, NutrientIndex.Nutrient.PROTEIN, request.getMinProtein(), request.getMaxProtein());
+		setRange(min, max, NutrientIndex.Nutrient.CARBS, request.getMinCarbs(), request.getMaxCarbs());
+		setRange(min, max, NutrientIndex.Nutrient.FAT, request.getMinFat(), request.getMaxFat());
+
+		NutrientIndex.Nutrient rankBy = parseNutrient("rankBy", request.getRankBy());
+		NutrientIndex.Nutrient per = parseNutrient("per", request.getPer());
+		if (per != null && rankBy == null) {
+			throw new InvalidNutrientQueryException("per requires rankBy");
+		}
+		return new NutrientIndex.Query(min, max, rankBy, per, request.isAscending());
+	}
+
+	private static void setRange(double[] min, double[] max, NutrientIndex.Nutrient nutrient, Double lower, Double upper) {
+		String name = nutrient.name().toLowerCase();
+		if ((lower != null && lower.isNaN()) || (upper != null && upper.isNaN())) {
+			throw new InvalidNutrientQueryException("Bounds of " + name + " must be numbers");
+		}
+		min[nutrient.ordinal()] = lower == null ? Double.NEGATIVE_INFINITY : lower;
+		max[nutrient.ordinal()] = upper == null ? Double.POSITIVE_INFINITY : upper;
+		if (min[nutrient.ordinal()] > max[nutrient.ordinal()]) {
+			throw new InvalidNutrientQueryException("Minimum " + name + " is greater than the maximum");
+		}
+	}
+
+	private static NutrientIndex.Nutrient parseNutrient(String parameter, String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		try {
+			return NutrientIndex.Nutrient.valueOf(value.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new InvalidNutrientQueryException("Unknown nutrient for " + parameter + ": " + value
+					+ " (expected calories, protein, carbs or fat)");
+		}
+	}
 
+	// Unbounded ranges as SQL-safe values
+	private static double finite(double bound) {
+		return Math.max(-Double.MAX_VALUE, Math.min(Double.MAX_VALUE, bound));
+	}
+
+	/**
+	 * Get foods with their nutrients and portions by ID
+	 * 
+	 * Served from the catalog snapshot while it is in sync with the catalog,
+	 * otherwise with one statement that fetches the foods and their portions.
+	 * 
+	 * @param ids Food IDs (at most food.batch.max-ids; duplicates are ignored)
+	 * @return The found foods in request order, and the IDs that were not found
+	 */
+	public FoodBatchResponse getFoodsByIds(List<UUID> ids) {
+		if (ids.isEmpty()) {
+			throw new InvalidFoodBatchException("At least one food ID is required");
+		}
+		if (ids.size() > maxBatchIds) {
+			throw new InvalidFoodBatchException("At most " + maxBatchIds + " food IDs can be requested at once");
+		}
+
+		List<UUID> requested = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+		CatalogSnapshot snapshot = catalogSnapshotService.inSyncSnapshot();
+		Map<UUID, FoodDetailsResponse> found = new HashMap<>();
+		if (snapshot != null) {
+			for (UUID id : requested) {
+				int food = snapshot.indexOf(id);
+				if (food >= 0) {
+					found.put(id, FoodMappings.toFoodDetailsResponse(snapshot, food));
+				}
+			}
+		} else if (!requested.isEmpty()) {
+			for (Food food : foodRepository.findAllWithPortionsByIdIn(requested)) {
+				found.put(food.getId(), FoodMappings.toFoodDetailsResponse(food));
+			}
+		}
+
+		List<FoodDetailsResponse> foods = new ArrayList<>(found.size());
+		List<UUID> missingIds = new ArrayList<>();
+		for (UUID id : requested) {
+			FoodDetailsResponse food = found.get(id);
+			if (food != null) {
+				foods.add(food);
+			} else {
+				missingIds.add(id);
+			}
+		}
+		return new FoodBatchResponse(foods, missingIds);
+	}
+
+
+	private int pageSize(Integer limit) {
+		return limit == null ? defaultSearchLimit : Math.max(1, Math.min(limit, maxSearchLimit));
+	}
+
+	private SerializedFoodSearchPage serialize(FoodSearchPage page) {
+		try {
+			return new SerializedFoodSearchPage(objectMapper.writeValueAsBytes(page.getFoods()), page.getNextCursor());
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to serialize food search results", e);
+		}
+	}
+
+	/**
+	 * Ranked search in the database, used until the index is built
+	 * 
+	 * Two statements regardless of page size: one for the ranked page of IDs,
+	 * one for those foods with their portions.
+	 */
+	private FoodSearchPage searchDatabase(String query, FoodSearchRanking.Cursor after, int pageSize) {
+		String normalized = FoodSearchRanking.normalize(query);
+		String escaped = escapeLike(normalized);
+		String contains = "%" + escaped + "%";
+		String prefix = escaped + "%";
+		String wordStart = "% " + escaped + "%";
+
+		// One extra row tells whether there is a next page
+		PageRequest page = PageRequest.of(0, pageSize + 1);
+		List<Object[]> rows = after == null
+				? foodRepository.findRankedByName(normalized, contains, prefix, wordStart, page)
+				: foodRepository.findRankedByNameAfter(normalized, contains, prefix, wordStart,
+						after.tier(), after.name().length(), after.name(), page);
+
+		String nextCursor = null;
+		if (rows.size() > pageSize) {
+			rows = rows.subList(0, pageSize);
+			Object[] last = rows.get(pageSize - 1);
+			nextCursor = new FoodSearchRanking.Cursor(((Number) last[2]).intValue(), (String) last[1]).encode();
+		}
+
+		List<UUID> ids = rows.stream().map(row -> (UUID) row[0]).collect(Collectors.toList());
+		Map<UUID, Food> foodsById = ids.isEmpty() ? Map.of() : foodRepository.findAllWithPortionsByIdIn(ids).stream()
+				.collect(Collectors.toMap(Food::getId, Function.identity()));
+
+		List<FoodResponse> foods = ids.stream()
+				.map(foodsById::get)
+				.filter(Objects::nonNull)
+				.map(FoodMappings::toFoodResponse)
+				.collect(Collectors.toList());
+		return new FoodSearchPage(foods, nextCursor);
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.MacroGoalRequest;
+import com.fitfamily.app.model.MacroGoal;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.repository.MacroGoalRepository;
+import com.fitfamily.app.util.FixedPoint;
+import com.fitfamily.app.util.LruCache;
+import com.fitfamily.app.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class GoalService {
+
+	private final MacroGoalRepository macroGoalRepository;
+
+	// Users without goals are cached as Optional.empty() so they are not re-queried
+	private final LruCache<UUID, CachedGoal> goalCache;
+
+	// Goals changed through another instance are only evicted here, so entries expire
+	private final long ttlMillis;
+
+	// Number of committed goal changes (guarded by goalCache); goals read
+	// before a change committed are not cached, as they may be older than it
+	private long committedChanges;
+
+	public GoalService(MacroGoalRepository macroGoalRepository,
+			@Value("${goals.cache.max-entries:10000}") int maxCachedGoals,
+			@Value("${goals.cache.ttl-seconds:60}") long ttlSeconds) {
+		this.macroGoalRepository = macroGoalRepository;
+		this.goalCache = new LruCache<>(maxCachedGoals);
+		this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+	}
+
+	/**
+	 * Get the goals of one user
+	 *
+	 * @param user The user
+	 * @return The user's goals, or empty if none were set
+	 */
+	public Optional<MacroGoal> getGoals(User user) {
+		return Optional.ofNullable(getGoals(List.of(user.getId())).get(user.getId()));
+	}
+
+	/**
+	 * Get the goals of several users, loading cache misses in one batched query
+	 *
+	 * @param userIds The user IDs (e.g., all family members)
+	 * @return Map of user ID to goals; users without goals are absent
+	 */
+	public Map<UUID, MacroGoal> getGoals(Collection<UUID> userIds) {
+		Map<UUID, MacroGoal> goals = new HashMap<>();
+		List<UUID> misses = new ArrayList<>();
+
+		long now = System.currentTimeMillis();
+		for (UUID userId : userIds) {
+			CachedGoal cached = goalCache.get(userId);
+			if (cached == null || now - cached.loadedAt() >= ttlMillis) {
+				misses.add(userId);
+			} else {
+				cached.goal().ifPresent(goal -> goals.put(userId, goal));
+			}
+		}
+
+		if (!misses.isEmpty()) {
+			long changesBeforeRead;
+			synchronized (goalCache) {
+				changesBeforeRead = committedChanges;
+			}
+			// Taken before the query, so an entry never outlives the TTL counted from its read
+			long loadedAt = System.currentTimeMillis();
+			for (MacroGoal goal : macroGoalRepository.findAllById(misses)) {
+				goals.put(goal.getUserId(), goal);
+			}
+			synchronized (goalCache) {
+				if (committedChanges == changesBeforeRead) {
+					for (UUID userId : misses) {
+						goalCache.put(userId, new CachedGoal(Optional.ofNullable(goals.get(userId)), loadedAt));
+					}
+				}
+			}
+		}
+
+		return goals;
+	}
+
+	/**
+	 * Create or replace the user's daily goals
+	 *
+	 * @param user The user
+	 * @param request The new daily targets
+	 * @return The saved goals
+	 */
+	public MacroGoal setGoals(User user, MacroGoalRequest request) {
+		MacroGoal goal = new MacroGoal();
+		goal.setUserId(user.getId());
+		goal.setCaloriesMilli(FixedPoint.toMilli(request.getCalories()));
+		goal.setProteinMilli(FixedPoint.toMilli(request.getProtein()));
+		goal.setCarbsMilli(FixedPoint.toMilli(request.getCarbs()));
+		goal.setFatMilli(FixedPoint.toMilli(request.getFat()));
+
+		MacroGoal savedGoal = macroGoalRepository.save(goal);
+
+		// Evicted once the change is visible to other readers; the next get reloads it
+		TransactionCallbacks.afterCommit(() -> {
+			synchronized (goalCache) {
+				committedChanges++;
+				goalCache.remove(user.getId());
+			}
+		});
+
+		return savedGoal;
+	}
+
+	private record CachedGoal(Optional<MacroGoal> goal, long loadedAt) {
+	}
+
+}
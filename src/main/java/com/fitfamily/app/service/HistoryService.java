@@ -0,0 +1,222 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.MacroHistoryResponse;
+import com.fitfamily.app.exception.InvalidDateRangeException;
+import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.repository.DailyMacroTotals;
+import com.fitfamily.app.repository.DailyTotalsStore;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.UserHistoryVersionRepository;
+import com.fitfamily.app.util.FixedPoint;
+import com.fitfamily.app.util.TransactionCallbacks;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user daily macro totals for /dashboard/history, kept in the DailyTotalsStore.
+ *
+ * Food log changes reach the store only after their transaction commits,
+ * so rolled-back writes never count. A user's history is built from
+ * food_logs on first use, under the same lock as the updates, and never
+ * while one of the user's changes is still committing.
+ *
+ * The store is local to each instance. Every change also bumps the user's
+ * history version in the database, and a history whose version is behind
+ * it (it missed a change made through another instance) is rebuilt from
+ * food_logs on its next read.
+ */
+@Service
+public class HistoryService {
+
+	// Five years of daily totals
+	private static final int MAX_RANGE_DAYS = 1827;
+
+	// Users share lock stripes, so the locks do not grow with the number of users
+	private static final int LOCK_STRIPES = 256;
+
+	private final DailyTotalsStore dailyTotalsStore;
+	private final FoodLogRepository foodLogRepository;
+	private final UserHistoryVersionRepository historyVersionRepository;
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	// Users' changes written but not yet committed or rolled back (guarded by the user's lock)
+	private final Map<UUID, Integer> changesInFlight = new ConcurrentHashMap<>();
+
+	public HistoryService(DailyTotalsStore dailyTotalsStore, FoodLogRepository foodLogRepository,
+			UserHistoryVersionRepository historyVersionRepository) {
+		this.dailyTotalsStore = dailyTotalsStore;
+		this.foodLogRepository = foodLogRepository;
+		this.historyVersionRepository = historyVersionRepository;
+		Arrays.setAll(locks, stripe -> new Object());
+	}
+
+	/**
+	 * Get daily macro totals for a date range from the history store
+	 *
+	 * @param user The user whose history to retrieve
+	 * @param from First day (inclusive)
+	 * @param to Last day (inclusive)
+	 * @return MacroHistoryResponse with one entry per day
+	 * @throws InvalidDateRangeException if the range is reversed or longer than five years
+	 */
+	public MacroHistoryResponse getHistory(User user, LocalDate from, LocalDate to) {
+		if (from.isAfter(to)) {
+			throw new InvalidDateRangeException("Start date must not be after end date");
+		}
+		long rangeDays = ChronoUnit.DAYS.between(from, to) + 1;
+		if (rangeDays > MAX_RANGE_DAYS) {
+			throw new InvalidDateRangeException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+		}
+
+		int days = (int) rangeDays;
+		long[] totals = new long[days * DailyTotalsStore.FIELDS];
+		if (ensureLoaded(user)) {
+			dailyTotalsStore.readRange(user.getId(), from, days, totals);
+		} else {
+			// The history cannot be built while the user's changes are committing; sum this range in the database
+			readRangeFromDatabase(user, from, days, totals);
+		}
+
+		double[] calories = new double[days];
+		double[] protein = new double[days];
+		double[] carbs = new double[days];
+		double[] fat = new double[days];
+		for (int day = 0; day < days; day++) {
+			int offset = day * DailyTotalsStore.FIELDS;
+			calories[day] = FixedPoint.fromMilli(totals[offset]);
+			protein[day] = FixedPoint.fromMilli(totals[offset + 1]);
+			carbs[day] = FixedPoint.fromMilli(totals[offset + 2]);
+			fat[day] = FixedPoint.fromMilli(totals[offset + 3]);
+		}
+
+		return new MacroHistoryResponse(from, to, calories, protein, carbs, fat);
+	}
+
+	/**
+	 * Initialize the user's history from food_logs if it does not exist yet or is behind the database
+	 *
+	 * The history is built under the user's lock, and only while none of
+	 * the user's changes is between being written and committing: such a
+	 * change might or might not be in the rows read, and is added once it
+	 * commits.
+	 *
+	 * @param user The user whose history to initialize
+	 * @return true if the history exists, false if changes in flight kept it from being built
+	 */
+	public boolean ensureLoaded(User user) {
+		UUID userId = user.getId();
+
+		// Read before the totals, so a rebuilt history never claims changes it lacks
+		long version = historyVersionRepository.findVersion(userId).orElse(0L);
+		synchronized (lockFor(userId)) {
+			if (dailyTotalsStore.exists(userId) && dailyTotalsStore.version(userId) >= version) {
+				return true;
+			}
+			if (changesInFlight.containsKey(userId)) {
+				return false;
+			}
+			dailyTotalsStore.rebuild(userId, version, foodLogRepository.findDailyTotalsByUser(user));
+			return true;
+		}
+	}
+
+	/**
+	 * Add a saved food log to the owner's daily totals once its transaction commits
+	 *
+	 * @param foodLog The saved food log
+	 */
+	public void recordLog(FoodLog foodLog) {
+		change(foodLog.getUser().getId(), foodLog.getDate(),
+			foodLog.getCaloriesMilli(),
+			foodLog.getProteinMilli(),
+			foodLog.getCarbsMilli(),
+			foodLog.getFatMilli());
+	}
+
+	/**
+	 * Subtract a deleted food log from the owner's daily totals once its transaction commits
+	 *
+	 * @param foodLog The deleted food log
+	 */
+	public void removeLog(FoodLog foodLog) {
+		change(foodLog.getUser().getId(), foodLog.getDate(),
+			-foodLog.getCaloriesMilli(),
+			-foodLog.getProteinMilli(),
+			-foodLog.getCarbsMilli(),
+			-foodLog.getFatMilli());
+	}
+
+	/**
+	 * Add the change of corrected food logs to a user's daily totals once the correction commits
+	 *
+	 * @param userId Owner of the food logs
+	 * @param date Day of the food logs
+	 * @param deltas New minus old macros in milli-units: calories, protein, carbs, fat
+	 */
+	public void applyCorrection(UUID userId, LocalDate date, long... deltas) {
+		change(userId, date, deltas);
+	}
+
+	/**
+	 * Apply a change written in the current transaction after it commits
+	 *
+	 * Must be called after the change is written and before the
+	 * transaction ends. Users without a history are skipped: theirs is
+	 * built from the committed food logs when first needed.
+	 */
+	private void change(UUID userId, LocalDate date, long... deltas) {
+		long version = nextVersion(userId);
+		Object lock = lockFor(userId);
+		synchronized (lock) {
+			changesInFlight.merge(userId, 1, Integer::sum);
+		}
+		TransactionCallbacks.afterCompletion(committed -> {
+			synchronized (lock) {
+				changesInFlight.computeIfPresent(userId, (id, count) -> count == 1 ? null : count - 1);
+				if (committed && dailyTotalsStore.exists(userId)) {
+					dailyTotalsStore.add(userId, date, deltas);
+					dailyTotalsStore.advanceVersion(userId, version);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Bump the user's history version in the current transaction, creating its row on first use
+	 *
+	 * The row stays locked until the transaction ends, so the user's
+	 * changes get their versions in commit order.
+	 */
+	private long nextVersion(UUID userId) {
+		if (historyVersionRepository.increment(userId) == 0) {
+			historyVersionRepository.insertIfAbsent(userId);
+			historyVersionRepository.increment(userId);
+		}
+		return historyVersionRepository.findVersion(userId).orElse(0L);
+	}
+
+	private void readRangeFromDatabase(User user, LocalDate from, int days, long[] totals) {
+		for (DailyMacroTotals day : foodLogRepository.findDailyTotalsByUser(user)) {
+			long index = ChronoUnit.DAYS.between(from, day.getDate());
+			if (index >= 0 && index < days) {
+				int offset = (int) index * DailyTotalsStore.FIELDS;
+				totals[offset] = day.getCaloriesMilli();
+				totals[offset + 1] = day.getProteinMilli();
+				totals[offset + 2] = day.getCarbsMilli();
+				totals[offset + 3] = day.getFatMilli();
+			}
+		}
+	}
+
+	private Object lockFor(UUID userId) {
+		return locks[(userId.hashCode() & Integer.MAX_VALUE) % locks.length];
+	}
+
+}
@@ -0,0 +1,184 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory nutrient matrix of every (food, portion) pair, for meal planning.
+ *
+ * Each row is one serving of a portion: its calories, protein, carbs and
+ * fat, stored row-major in one double array so the optimizer scans the
+ * whole catalog without touching objects. Catalog changes only update the
+ * foods kept here and queue a rebuild on a background thread; requests
+ * always read the last built matrix and never build one themselves.
+ * Changes arriving while a rebuild is queued or running are picked up by
+ * one more rebuild, so a bulk import costs a few rebuilds instead of one
+ * per chunk.
+ */
+@Component
+public class MealPlanMatrix {
+
+	/**
+	 * Nutrients per row, in this order: calories, protein, carbs, fat
+	 */
+	public static final int NUTRIENTS = 4;
+
+	/**
+	 * Immutable matrix; nutrients of row r are nutrients[r * NUTRIENTS] onwards
+	 *
+	 * @param food Index into foodIds/foodNames of each row's food
+	 */
+	public record Snapshot(int rows, double[] nutrients, int[] food, UUID[] foodIds, String[] foodNames,
+			UUID[] portionIds, String[] portionLabels, double[] grams) {
+
+		public static final Snapshot EMPTY = new Snapshot(0, new double[0], new int[0], new UUID[0], new String[0],
+				new UUID[0], new String[0], new double[0]);
+
+		public double nutrient(int row, int nutrient) {
+			return nutrients[row * NUTRIENTS + nutrient];
+		}
+
+	}
+
+	private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+	private final Executor builder;
+
+	// Writer state, guarded by this
+	private final Map<UUID, FoodDetailsResponse> foods = new HashMap<>();
+	private boolean loaded;
+	// Changes applied to foods, and how many of them the published snapshot includes
+	private long changes;
+	private long builtChanges;
+	private boolean buildQueued;
+
+	public MealPlanMatrix() {
+		this(Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "meal-plan-matrix");
+			thread.setDaemon(true);
+			return thread;
+		}));
+	}
+
+	/**
+	 * @param builder Runs rebuilds after catalog changes
+	 */
+	MealPlanMatrix(Executor builder) {
+		this.builder = builder;
+	}
+
+	/**
+	 * @return true once the catalog has been loaded
+	 */
+	public synchronized boolean isReady() {
+		return loaded;
+	}
+
+	/**
+	 * Replace the whole catalog and build its matrix on the calling thread
+	 *
+	 * @param catalog All foods with their portions
+	 */
+	public synchronized void rebuild(Collection<FoodDetailsResponse> catalog) {
+		foods.clear();
+		catalog.forEach(food -> foods.put(food.getId(), food));
+		loaded = true;
+		changes++;
+		snapshot = build(foods.values());
+		builtChanges = changes;
+	}
+
+	/**
+	 * Apply a batch of catalog changes
+	 *
+	 * @param changedFoodIds IDs of foods that were added, updated or deleted
+	 * @param currentFoods Current state of those foods (deleted ones are absent)
+	 */
+	public synchronized void apply(Collection<UUID> changedFoodIds, Collection<FoodDetailsResponse> currentFoods) {
+		if (!loaded) {
+			return;
+		}
+		changedFoodIds.forEach(foods::remove);
+		currentFoods.forEach(food -> foods.put(food.getId(), food));
+		changes++;
+		if (!buildQueued) {
+			buildQueued = true;
+			builder.execute(this::buildLatest);
+		}
+	}
+
+	/**
+	 * @return The last built matrix (empty until the catalog is loaded)
+	 */
+	public Snapshot current() {
+		return snapshot;
+	}
+
+	private void buildLatest() {
+		List<FoodDetailsResponse> catalog;
+		long building;
+		synchronized (this) {
+			// Changes from now on queue another build
+			buildQueued = false;
+			catalog = new ArrayList<>(foods.values());
+			building = changes;
+		}
+		Snapshot built = build(catalog);
+		synchronized (this) {
+			// A full rebuild may have published a newer matrix meanwhile
+			if (building > builtChanges) {
+				snapshot = built;
+				builtChanges = building;
+			}
+		}
+	}
+
+	private static Snapshot build(Collection<FoodDetailsResponse> catalog) {
+		// Rows in food name order, so equal catalogs give equal matrices
+		List<FoodDetailsResponse> sorted = new ArrayList<>(catalog);
+		sorted.sort(Comparator.comparing(FoodDetailsResponse::getName).thenComparing(FoodDetailsResponse::getId));
+		int rows = 0;
+		for (FoodDetailsResponse food : sorted) {
+			for (FoodDetailsResponse.Portion portion : food.getPortions()) {
+				if (portion.getGrams() > 0) {
+					rows++;
+				}
+			}
+		}
+
+		double[] nutrients = new double[rows * NUTRIENTS];
+		int[] foodIndex = new int[rows];
+		UUID[] foodIds = new UUID[sorted.size()];
+		String[] foodNames = new String[sorted.size()];
+		UUID[] portionIds = new UUID[rows];
+		String[] portionLabels = new String[rows];
+		double[] grams = new double[rows];
+		int row = 0;
+		for (int f = 0; f < sorted.size(); f++) {
+			FoodDetailsResponse food = sorted.get(f);
+			foodIds[f] = food.getId();
+			foodNames[f] = food.getName();
+			for (FoodDetailsResponse.Portion portion : food.getPortions()) {
+				if (portion.getGrams() <= 0) {
+					continue;
+				}
+				double factor = portion.getGrams() / 100;
+				nutrients[row * NUTRIENTS] = food.getCaloriesPer100g() * factor;
+				nutrients[row * NUTRIENTS + 1] = food.getProteinPer100g() * factor;
+				nutrients[row * NUTRIENTS + 2] = food.getCarbsPer100g() * factor;
+				nutrients[row * NUTRIENTS + 3] = food.getFatPer100g() * factor;
+				foodIndex[row] = f;
+				portionIds[row] = portion.getId();
+				portionLabels[row] = portion.getLabel();
+				grams[row] = portion.getGrams();
+				row++;
+			}
+		}
+		return new Snapshot(rows, nutrients, foodIndex, foodIds, foodNames, portionIds, portionLabels, grams);
+	}
+
+}
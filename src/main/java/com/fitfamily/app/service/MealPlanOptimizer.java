@@ -0,0 +1,493 @@
+package com.fitfamily.app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.fitfamily.app.service.MealPlanMatrix.NUTRIENTS;
+
+/**
+ * Picks servings of catalog portions whose totals come closest to daily
+ * macro targets.
+ *
+ * The distance of a plan is the sum over calories, protein, carbs and fat
+ * of |total - target| / target. The search runs in two fork/join phases
+ * on a dedicated pool:
+ *
+ * 1. Candidates: the matrix is split into ranges scanned in parallel, each
+ *    keeping the best rows per ranking (protein, carbs and fat per calorie,
+ *    and closeness to the target proportions). Rows whose single serving
+ *    has more calories than the target are skipped.
+ *
+ * 2. Branch and bound over the candidates, one task per first candidate.
+ *    Nutrients are never negative, so overshooting a target can only get
+ *    worse as servings are added, and the remaining slots can add at most
+ *    the largest value left per nutrient. Both give a lower bound on any
+ *    plan below a node, and the node is pruned when that bound is no
+ *    better than the best plan found by any task.
+ *
+ * The whole search has a hard deadline: tasks stop when it passes and the
+ * best plan found so far is returned, marked incomplete.
+ */
+@Component
+public class MealPlanOptimizer {
+
+	// Deviations are relative to the target, but to at least these amounts (kcal, g, g, g)
+	private static final double[] MIN_SCALE = {100, 10, 10, 10};
+
+	// Rankings used to pick candidates: protein, carbs and fat per calorie, then closeness to the targets
+	private static final int RANKINGS = 4;
+
+	// Candidate scans split ranges larger than this
+	private static final int SCAN_THRESHOLD = 8192;
+
+	// Search tasks check the deadline every this many nodes
+	private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+	/**
+	 * A plan
+	 *
+	 * @param rows Matrix rows of the chosen portions
+	 * @param servings Servings of each chosen portion
+	 * @param complete false if the deadline stopped the search before it was exhausted
+	 */
+	public record Plan(int[] rows, int[] servings, boolean complete) {
+	}
+
+	private final ForkJoinPool pool;
+	private final int candidatesPerRanking;
+
+	public MealPlanOptimizer(@Value("${meal-plan.parallelism:0}") int parallelism,
+			@Value("${meal-plan.candidates-per-ranking:24}") int candidatesPerRanking) {
+		this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+				forkJoinPool -> {
+					ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+					thread.setName("meal-planner-" + thread.getPoolIndex());
+					return thread;
+				}, null, false);
+		this.candidatesPerRanking = candidatesPerRanking;
+	}
+
+	/**
+	 * Find the plan closest to the targets
+	 *
+	 * @param matrix Portions to choose from
+	 * @param targets Calories, protein, carbs and fat to reach
+	 * @param maxItems Most portions in the plan (never two of the same food)
+	 * @param maxServings Most servings of each chosen portion
+	 * @param timeBudgetMillis Time after which the best plan found so far is returned
+	 * @return The best plan found (empty if no portion brings the totals closer)
+	 */
+	public Plan optimize(MealPlanMatrix.Snapshot matrix, double[] targets, int maxItems, int maxServings,
+			long timeBudgetMillis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+		Search search = new Search(matrix, targets, maxItems, maxServings, deadline);
+		ForkJoinTask<?> task = pool.submit(search::run);
+		try {
+			task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			search.stop();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			search.stop();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Meal plan search failed", e.getCause());
+		}
+		return search.bestPlan();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * State of one optimize call, shared by its tasks
+	 */
+	private final class Search {
+
+		private final MealPlanMatrix.Snapshot matrix;
+		private final double[] targets;
+		private final double[] scale = new double[NUTRIENTS];
+		private final int maxItems;
+		private final int maxServings;
+		private final long deadline;
+
+		private volatile boolean stopped;
+
+		// Candidate rows, best first, and their nutrients per serving
+		private int[] candidates = new int[0];
+		private double[] values = new double[0];
+		// Largest value of each nutrient among candidates i onwards: suffixMax[i * NUTRIENTS + n]
+		private double[] suffixMax;
+
+		// Best plan so far as candidate positions; bestDistance is read without the lock for pruning
+		private volatile double bestDistance;
+		private int[] bestPositions = new int[0];
+		private int[] bestServings = new int[0];
+
+		private Search(MealPlanMatrix.Snapshot matrix, double[] targets, int maxItems, int maxServings, long deadline) {
+			this.matrix = matrix;
+			this.targets = targets;
+			this.maxItems = maxItems;
+			this.maxServings = maxServings;
+			this.deadline = deadline;
+			for (int n = 0; n < NUTRIENTS; n++) {
+				scale[n] = Math.max(targets[n], MIN_SCALE[n]);
+			}
+			// The empty plan
+			this.bestDistance = distance(new double[NUTRIENTS]);
+		}
+
+		private void run() {
+			TopRows[] top = new CandidateScan(0, matrix.rows()).invoke();
+			if (stopped) {
+				return;
+			}
+			selectCandidates(top);
+
+			List<Branch> branches = new ArrayList<>(candidates.length);
+			for (int first = 0; first < candidates.length; first++) {
+				branches.add(new Branch(first));
+			}
+			ForkJoinTask.invokeAll(branches);
+		}
+
+		private void stop() {
+			stopped = true;
+		}
+
+		private boolean pastDeadline() {
+			if (System.nanoTime() - deadline > 0) {
+				stopped = true;
+			}
+			return stopped;
+		}
+
+		private synchronized Plan bestPlan() {
+			int[] rows = new int[bestPositions.length];
+			for (int i = 0; i < rows.length; i++) {
+				rows[i] = candidates[bestPositions[i]];
+			}
+			return new Plan(rows, bestServings.clone(), !stopped);
+		}
+
+		/**
+		 * Union of the rankings, ordered by closeness to the targets
+		 */
+		private void selectCandidates(TopRows[] top) {
+			int[] rows = Arrays.stream(top).flatMapToInt(ranking -> Arrays.stream(ranking.rows, 0, ranking.size))
+					.distinct()
+					.boxed()
+					.sorted((a, b) -> {
+						int byFit = Double.compare(fit(b), fit(a));
+						return byFit != 0 ? byFit : Integer.compare(a, b);
+					})
+					.mapToInt(Integer::intValue)
+					.toArray();
+
+			double[] candidateValues = new double[rows.length * NUTRIENTS];
+			for (int i = 0; i < rows.length; i++) {
+				for (int n = 0; n < NUTRIENTS; n++) {
+					candidateValues[i * NUTRIENTS + n] = matrix.nutrient(rows[i], n);
+				}
+			}
+			double[] max = new double[(rows.length + 1) * NUTRIENTS];
+			for (int i = rows.length - 1; i >= 0; i--) {
+				for (int n = 0; n < NUTRIENTS; n++) {
+					max[i * NUTRIENTS + n] = Math.max(max[(i + 1) * NUTRIENTS + n], candidateValues[i * NUTRIENTS + n]);
+				}
+			}
+			candidates = rows;
+			values = candidateValues;
+			suffixMax = max;
+		}
+
+		/**
+		 * Cosine similarity of a row's nutrients (relative to the targets) with the targets
+		 */
+		private double fit(int row) {
+			double dot = 0;
+			double norm = 0;
+			for (int n = 0; n < NUTRIENTS; n++) {
+				double share = matrix.nutrient(row, n) / scale[n];
+				double target = targets[n] / scale[n];
+				dot += share * target;
+				norm += share * share;
+			}
+			return norm == 0 ? 0 : dot / Math.sqrt(norm);
+		}
+
+		private double distance(double[] totals) {
+			double distance = 0;
+			for (int n = 0; n < NUTRIENTS; n++) {
+				distance += Math.abs(totals[n] - targets[n]) / scale[n];
+			}
+			return distance;
+		}
+
+		// Distance that can no longer shrink, since totals only grow
+		private double overshoot(double[] totals) {
+			double overshoot = 0;
+			for (int n = 0; n < NUTRIENTS; n++) {
+				if (totals[n] > targets[n]) {
+					overshoot += (totals[n] - targets[n]) / scale[n];
+				}
+			}
+			return overshoot;
+		}
+
+		private synchronized void offer(double distance, int[] positions, int[] servings, int size) {
+			if (distance > bestDistance || (distance == bestDistance
+					&& Arrays.compare(positions, 0, size, bestPositions, 0, bestPositions.length) >= 0)) {
+				return;
+			}
+			bestDistance = distance;
+			bestPositions = Arrays.copyOf(positions, size);
+			bestServings = Arrays.copyOf(servings, size);
+		}
+
+		/**
+		 * Scan of matrix rows [from, to) for the best rows per ranking
+		 */
+		private final class CandidateScan extends RecursiveTask<TopRows[]> {
+
+			private final int from;
+			private final int to;
+
+			private CandidateScan(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected TopRows[] compute() {
+				if (to - from > SCAN_THRESHOLD) {
+					int middle = (from + to) >>> 1;
+					CandidateScan left = new CandidateScan(from, middle);
+					left.fork();
+					TopRows[] right = new CandidateScan(middle, to).compute();
+					TopRows[] merged = left.join();
+					for (int ranking = 0; ranking < RANKINGS; ranking++) {
+						merged[ranking].addAll(right[ranking]);
+					}
+					return merged;
+				}
+
+				TopRows[] top = new TopRows[RANKINGS];
+				for (int ranking = 0; ranking < RANKINGS; ranking++) {
+					top[ranking] = new TopRows(candidatesPerRanking);
+				}
+				if (pastDeadline()) {
+					return top;
+				}
+				for (int row = from; row < to; row++) {
+					double calories = matrix.nutrient(row, 0);
+					if (calories > targets[0]) {
+						continue;
+					}
+					// Per-calorie density of each macro, relative to its target
+					double caloriesShare = calories / scale[0];
+					for (int n = 1; n < NUTRIENTS; n++) {
+						double share = matrix.nutrient(row, n) / scale[n];
+						if (share > 0) {
+							top[n - 1].offer(row, share / (caloriesShare + 0.01));
+						}
+					}
+					top[RANKINGS - 1].offer(row, fit(row));
+				}
+				return top;
+			}
+
+		}
+
+		/**
+		 * Depth-first search over plans starting with one candidate
+		 */
+		private final class Branch extends RecursiveAction {
+
+			private final int first;
+			private final int[] positions = new int[maxItems];
+			private final int[] servings = new int[maxItems];
+			private final int[] foods = new int[maxItems];
+			// Totals with d portions chosen: totals[d]
+			private final double[][] totals = new double[maxItems + 1][NUTRIENTS];
+			private int nodes;
+
+			private Branch(int first) {
+				this.first = first;
+			}
+
+			@Override
+			protected void compute() {
+				if (!stopped) {
+					choose(first, 0);
+				}
+			}
+
+			/**
+			 * Try the candidate at the given position as portion number depth
+			 *
+			 * @return false once the search was stopped
+			 */
+			private boolean choose(int position, int depth) {
+				double[] before = totals[depth];
+				double[] after = totals[depth + 1];
+				positions[depth] = position;
+				foods[depth] = matrix.food()[candidates[position]];
+				for (int count = 1; count <= maxServings; count++) {
+					for (int n = 0; n < NUTRIENTS; n++) {
+						after[n] = before[n] + count * values[position * NUTRIENTS + n];
+					}
+					// More servings only overshoot further
+					if (overshoot(after) >= bestDistance) {
+						break;
+					}
+					servings[depth] = count;
+					if (!expand(position + 1, depth + 1)) {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			private boolean expand(int start, int depth) {
+				if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && pastDeadline()) {
+					return false;
+				}
+				double[] current = totals[depth];
+				double distance = distance(current);
+				if (distance <= bestDistance) {
+					offer(distance, positions, servings, depth);
+				}
+				if (depth == maxItems || lowerBound(current, start, maxItems - depth) >= bestDistance) {
+					return true;
+				}
+				for (int position = start; position < candidates.length; position++) {
+					if (usesFood(matrix.food()[candidates[position]], depth)) {
+						continue;
+					}
+					if (!choose(position, depth)) {
+						return false;
+					}
+				}
+				return !stopped;
+			}
+
+			private boolean usesFood(int food, int depth) {
+				for (int i = 0; i < depth; i++) {
+					if (foods[i] == food) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			/**
+			 * Smallest distance any plan extending the current one with candidates from start can reach
+			 */
+			private double lowerBound(double[] current, int start, int slots) {
+				double bound = 0;
+				for (int n = 0; n < NUTRIENTS; n++) {
+					double reachable = current[n] + slots * maxServings * suffixMax[start * NUTRIENTS + n];
+					if (current[n] > targets[n]) {
+						bound += (current[n] - targets[n]) / scale[n];
+					} else if (reachable < targets[n]) {
+						bound += (targets[n] - reachable) / scale[n];
+					}
+				}
+				return bound;
+			}
+
+		}
+
+	}
+
+	/**
+	 * Bounded min-heap of the highest-scoring rows; ties keep the lower row
+	 */
+	private static final class TopRows {
+
+		private final int[] rows;
+		private final double[] scores;
+		private int size;
+
+		private TopRows(int limit) {
+			this.rows = new int[limit];
+			this.scores = new double[limit];
+		}
+
+		private void offer(int row, double score) {
+			if (size < rows.length) {
+				rows[size] = row;
+				scores[size] = score;
+				siftUp(size++);
+			} else if (rows.length > 0 && worse(rows[0], scores[0], row, score)) {
+				rows[0] = row;
+				scores[0] = score;
+				siftDown(0);
+			}
+		}
+
+		private void addAll(TopRows other) {
+			for (int i = 0; i < other.size; i++) {
+				offer(other.rows[i], other.scores[i]);
+			}
+		}
+
+		// True if the first row ranks after the second
+		private static boolean worse(int row, double score, int otherRow, double otherScore) {
+			return score < otherScore || (score == otherScore && row > otherRow);
+		}
+
+		private void siftUp(int position) {
+			while (position > 0) {
+				int parent = (position - 1) >>> 1;
+				if (!worse(rows[position], scores[position], rows[parent], scores[parent])) {
+					return;
+				}
+				swap(position, parent);
+				position = parent;
+			}
+		}
+
+		private void siftDown(int position) {
+			while (true) {
+				int worst = position;
+				for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+					if (worse(rows[child], scores[child], rows[worst], scores[worst])) {
+						worst = child;
+					}
+				}
+				if (worst == position) {
+					return;
+				}
+				swap(position, worst);
+				position = worst;
+			}
+		}
+
+		private void swap(int i, int j) {
+			int row = rows[i];
+			rows[i] = rows[j];
+			rows[j] = row;
+			double score = scores[i];
+			scores[i] = scores[j];
+			scores[j] = score;
+		}
+
+	}
+
+}
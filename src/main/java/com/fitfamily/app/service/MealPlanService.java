@@ -0,0 +1,114 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.DailyMacroSummary;
+import com.fitfamily.app.dto.MealPlanRequest;
+import com.fitfamily.app.dto.MealPlanResponse;
+import com.fitfamily.app.exception.GoalsNotFoundException;
+import com.fitfamily.app.exception.InvalidMealPlanException;
+import com.fitfamily.app.model.MacroGoal;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.util.FixedPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fitfamily.app.service.MealPlanMatrix.NUTRIENTS;
+
+/**
+ * "Plan my day": catalog portions whose totals come closest to the user's
+ * daily macro targets (see MealPlanOptimizer).
+ */
+@Service
+public class MealPlanService {
+
+	private static final Logger logger = LoggerFactory.getLogger(MealPlanService.class);
+
+	private final MealPlanMatrix mealPlanMatrix;
+	private final MealPlanOptimizer mealPlanOptimizer;
+	private final GoalService goalService;
+	private final long timeBudgetMillis;
+	private final int maxItems;
+	private final int maxServings;
+
+	public MealPlanService(MealPlanMatrix mealPlanMatrix, MealPlanOptimizer mealPlanOptimizer, GoalService goalService,
+			@Value("${meal-plan.time-budget-ms:200}") long timeBudgetMillis,
+			@Value("${meal-plan.max-items:5}") int maxItems,
+			@Value("${meal-plan.max-servings:3}") int maxServings) {
+		this.mealPlanMatrix = mealPlanMatrix;
+		this.mealPlanOptimizer = mealPlanOptimizer;
+		this.goalService = goalService;
+		this.timeBudgetMillis = timeBudgetMillis;
+		this.maxItems = maxItems;
+		this.maxServings = maxServings;
+	}
+
+	/**
+	 * Generate a one-day plan
+	 *
+	 * @param user The user
+	 * @param request Targets replacing the user's goals, and the number of items
+	 * @return The plan, with its totals; incomplete if the time budget ran out
+	 * @throws GoalsNotFoundException if a target is missing and the user has no goals
+	 * @throws InvalidMealPlanException if the calorie target is zero
+	 */
+	public MealPlanResponse generatePlan(User user, MealPlanRequest request) {
+		long start = System.nanoTime();
+		double[] targets = targets(user, request);
+		if (targets[0] <= 0) {
+			throw new InvalidMealPlanException("A calorie target above zero is required");
+		}
+		int items = request.getMaxItems() == null ? maxItems : Math.min(request.getMaxItems(), maxItems);
+
+		MealPlanMatrix.Snapshot matrix = mealPlanMatrix.current();
+		MealPlanOptimizer.Plan plan = mealPlanOptimizer.optimize(matrix, targets, items, maxServings, timeBudgetMillis);
+
+		List<MealPlanResponse.Item> planItems = new ArrayList<>(plan.rows().length);
+		long[] totals = new long[NUTRIENTS];
+		for (int i = 0; i < plan.rows().length; i++) {
+			int row = plan.rows()[i];
+			int servings = plan.servings()[i];
+			long[] milli = new long[NUTRIENTS];
+			for (int n = 0; n < NUTRIENTS; n++) {
+				milli[n] = FixedPoint.toMilli(matrix.nutrient(row, n) * servings);
+				totals[n] += milli[n];
+			}
+			int food = matrix.food()[row];
+			planItems.add(new MealPlanResponse.Item(matrix.foodIds()[food], matrix.foodNames()[food],
+					matrix.portionIds()[row], matrix.portionLabels()[row], servings, matrix.grams()[row] * servings,
+					FixedPoint.fromMilli(milli[0]), FixedPoint.fromMilli(milli[1]),
+					FixedPoint.fromMilli(milli[2]), FixedPoint.fromMilli(milli[3])));
+		}
+
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+		logger.debug("Meal plan generated [items={}, complete={}, millis={}]", planItems.size(), plan.complete(), elapsedMillis);
+		return new MealPlanResponse(planItems,
+				new DailyMacroSummary(targets[0], targets[1], targets[2], targets[3]),
+				new DailyMacroSummary(FixedPoint.fromMilli(totals[0]), FixedPoint.fromMilli(totals[1]),
+						FixedPoint.fromMilli(totals[2]), FixedPoint.fromMilli(totals[3])),
+				plan.complete(), elapsedMillis);
+	}
+
+	private double[] targets(User user, MealPlanRequest request) {
+		Double[] requested = {request.getCalories(), request.getProtein(), request.getCarbs(), request.getFat()};
+		double[] targets = new double[NUTRIENTS];
+		long[] goalMilli = null;
+		for (int n = 0; n < NUTRIENTS; n++) {
+			if (requested[n] != null) {
+				targets[n] = requested[n];
+				continue;
+			}
+			if (goalMilli == null) {
+				MacroGoal goal = goalService.getGoals(user).orElseThrow(() ->
+						new GoalsNotFoundException("No daily goals have been set; give all targets in the request"));
+				goalMilli = new long[] {goal.getCaloriesMilli(), goal.getProteinMilli(), goal.getCarbsMilli(), goal.getFatMilli()};
+			}
+			targets[n] = FixedPoint.fromMilli(goalMilli[n]);
+		}
+		return targets;
+	}
+
+}
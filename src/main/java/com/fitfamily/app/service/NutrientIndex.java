@@ -0,0 +1,349 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodNutrientsResponse;
+import com.fitfamily.app.util.KdTree;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * In-memory index of the food catalog by nutrients per 100g.
+ *
+ * Calories, protein, carbs and fat span a 4-dimensional k-d tree (see
+ * KdTree), so a query like "at least 20g protein and under 200 kcal" only
+ * visits the parts of the catalog that can match. Matches are ranked by a
+ * nutrient or a ratio of two (e.g., protein per calorie) in a bounded heap,
+ * so top-K costs O(matches * log K) and never sorts all matches.
+ *
+ * Readers use an immutable snapshot and never lock. Like FoodSearchIndex,
+ * catalog changes tombstone the old version of a food; new versions are
+ * kept in a small unindexed tail that is scanned linearly, and the tree is
+ * rebuilt once the tail or the tombstones grow too large.
+ */
+@Component
+public class NutrientIndex {
+
+	/**
+	 * Indexed nutrients, in tree dimension order
+	 */
+	public enum Nutrient {
+
+		CALORIES(FoodNutrientsResponse::getCaloriesPer100g),
+		PROTEIN(FoodNutrientsResponse::getProteinPer100g),
+		CARBS(FoodNutrientsResponse::getCarbsPer100g),
+		FAT(FoodNutrientsResponse::getFatPer100g);
+
+		private final ToDoubleFunction<FoodNutrientsResponse> per100g;
+
+		Nutrient(ToDoubleFunction<FoodNutrientsResponse> per100g) {
+			this.per100g = per100g;
+		}
+
+		public double of(FoodNutrientsResponse food) {
+			return per100g.applyAsDouble(food);
+		}
+
+	}
+
+	/**
+	 * A nutrient query
+	 *
+	 * @param min Inclusive lower bound per Nutrient ordinal (Double.NEGATIVE_INFINITY for none)
+	 * @param max Inclusive upper bound per Nutrient ordinal (Double.POSITIVE_INFINITY for none)
+	 * @param rankBy Nutrient to rank by, or null to order by name
+	 * @param per Nutrient to divide rankBy by, or null; foods without any of it are skipped
+	 * @param ascending Lowest first instead of highest first
+	 */
+	public record Query(double[] min, double[] max, Nutrient rankBy, Nutrient per, boolean ascending) {
+	}
+
+	private static final int DIMENSIONS = Nutrient.values().length;
+
+	// Rebuild the tree when more than this many foods (or an eighth of the indexed ones) changed
+	private static final int MIN_REBUILD_CHANGES = 1024;
+
+	private static final Comparator<FoodNutrientsResponse> BY_NAME = Comparator
+			.comparing(FoodNutrientsResponse::getName, String.CASE_INSENSITIVE_ORDER)
+			.thenComparing(FoodNutrientsResponse::getId);
+
+	private volatile Snapshot snapshot;
+
+	// Writer state, guarded by this
+	private final Map<UUID, Integer> docByFoodId = new HashMap<>();
+
+	/**
+	 * @return true once the catalog has been loaded
+	 */
+	public boolean isReady() {
+		return snapshot != null;
+	}
+
+	/**
+	 * Replace the whole index
+	 *
+	 * @param foods All foods of the catalog
+	 */
+	public synchronized void rebuild(Collection<FoodNutrientsResponse> foods) {
+		// Documents in name order, so indexed documents tie-break by ID instead of comparing names
+		FoodNutrientsResponse[] docs = foods.toArray(new FoodNutrientsResponse[0]);
+		Arrays.sort(docs, BY_NAME);
+		double[] values = new double[docs.length * DIMENSIONS];
+		docByFoodId.clear();
+		for (int doc = 0; doc < docs.length; doc++) {
+			setValues(values, doc, docs[doc]);
+			docByFoodId.put(docs[doc].getId(), doc);
+		}
+		snapshot = new Snapshot(KdTree.build(DIMENSIONS, values), docs, values, docs.length, new BitSet(), 0);
+	}
+
+	/**
+	 * Apply a batch of catalog changes
+	 *
+	 * @param changedFoodIds IDs of foods that were added, updated or deleted
+	 * @param currentFoods Current state of those foods (deleted ones are absent)
+	 */
+	public synchronized void apply(Collection<UUID> changedFoodIds, Collection<FoodNutrientsResponse> currentFoods) {
+		Snapshot current = snapshot;
+		if (current == null) {
+			return;
+		}
+
+		BitSet deleted = (BitSet) current.deleted().clone();
+		int deletedCount = current.deletedCount();
+		for (UUID foodId : changedFoodIds) {
+			Integer doc = docByFoodId.remove(foodId);
+			if (doc != null) {
+				deleted.set(doc);
+				deletedCount++;
+			}
+		}
+
+		// Append to the tail; slots past current.size() are invisible to existing readers
+		FoodNutrientsResponse[] docs = current.docs();
+		double[] values = current.values();
+		int size = current.size();
+		if (size + currentFoods.size() > docs.length) {
+			int capacity = Math.max(16, Math.max(docs.length * 2, size + currentFoods.size()));
+			docs = Arrays.copyOf(docs, capacity);
+			values = Arrays.copyOf(values, capacity * DIMENSIONS);
+		}
+		for (FoodNutrientsResponse food : currentFoods) {
+			docs[size] = food;
+			setValues(values, size, food);
+			docByFoodId.put(food.getId(), size);
+			size++;
+		}
+
+		Snapshot updated = new Snapshot(current.tree(), docs, values, size, deleted, deletedCount);
+		int changes = size - current.tree().size() + deletedCount;
+		if (changes > Math.max(MIN_REBUILD_CHANGES, current.tree().size() / 8)) {
+			rebuild(updated.liveDocs());
+		} else {
+			snapshot = updated;
+		}
+	}
+
+	/**
+	 * Find foods within nutrient ranges, best ranked first
+	 *
+	 * @param query The ranges and ranking
+	 * @param limit Maximum number of foods
+	 * @return Matching foods; ties (and unranked queries) ordered by name
+	 */
+	public List<FoodNutrientsResponse> find(Query query, int limit) {
+		Snapshot current = snapshot;
+		if (current == null) {
+			return List.of();
+		}
+
+		TopFoods top = new TopFoods(current.docs(), current.tree().size(), query, limit);
+		current.tree().range(query.min(), query.max(), (doc, values, offset) -> {
+			if (!current.deleted().get(doc)) {
+				top.offer(doc, values, offset);
+			}
+		});
+		for (int doc = current.tree().size(); doc < current.size(); doc++) {
+			if (!current.deleted().get(doc) && matches(current.values(), doc * DIMENSIONS, query)) {
+				top.offer(doc, current.values(), doc * DIMENSIONS);
+			}
+		}
+		return top.toList();
+	}
+
+	/**
+	 * Filter and rank foods without an index, e.g. rows loaded from the database
+	 *
+	 * @param foods Candidate foods
+	 * @param query The ranges and ranking
+	 * @param limit Maximum number of foods
+	 * @return Matching foods, ranked like find
+	 */
+	public static List<FoodNutrientsResponse> rank(List<FoodNutrientsResponse> foods, Query query, int limit) {
+		FoodNutrientsResponse[] docs = foods.toArray(new FoodNutrientsResponse[0]);
+		double[] values = new double[DIMENSIONS];
+		TopFoods top = new TopFoods(docs, 0, query, limit);
+		for (int doc = 0; doc < docs.length; doc++) {
+			setValues(values, 0, docs[doc]);
+			if (matches(values, 0, query)) {
+				top.offer(doc, values, 0);
+			}
+		}
+		return top.toList();
+	}
+
+	private static void setValues(double[] values, int doc, FoodNutrientsResponse food) {
+		for (Nutrient nutrient : Nutrient.values()) {
+			values[doc * DIMENSIONS + nutrient.ordinal()] = nutrient.of(food);
+		}
+	}
+
+	private static boolean matches(double[] values, int offset, Query query) {
+		for (int axis = 0; axis < DIMENSIONS; axis++) {
+			double value = values[offset + axis];
+			if (value < query.min()[axis] || value > query.max()[axis]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Bounded heap of the best-ranked documents; the root is the worst kept one
+	 */
+	private static final class TopFoods {
+
+		private final FoodNutrientsResponse[] docs;
+		// Documents below this are in name order
+		private final int sortedDocs;
+		private final int rankBy;
+		private final int per;
+		private final double sign;
+		private final int limit;
+		private final int[] heap;
+		private final double[] scores;
+		private int size;
+
+		private TopFoods(FoodNutrientsResponse[] docs, int sortedDocs, Query query, int limit) {
+			this.docs = docs;
+			this.sortedDocs = sortedDocs;
+			this.rankBy = query.rankBy() == null ? -1 : query.rankBy().ordinal();
+			this.per = query.per() == null ? -1 : query.per().ordinal();
+			this.sign = query.ascending() ? -1 : 1;
+			this.limit = limit;
+			this.heap = new int[limit];
+			this.scores = new double[limit];
+		}
+
+		/**
+		 * @param values Array holding the document's nutrients, in Nutrient order from the offset
+		 */
+		private void offer(int doc, double[] values, int offset) {
+			double score = 0;
+			if (rankBy >= 0) {
+				score = values[offset + rankBy];
+				if (per >= 0) {
+					// Foods without any of the divisor cannot be ranked by the ratio
+					double divisor = values[offset + per];
+					if (divisor <= 0) {
+						return;
+					}
+					score /= divisor;
+				}
+				score *= sign;
+			}
+
+			if (size < limit) {
+				heap[size] = doc;
+				scores[size] = score;
+				siftUp(size++);
+			} else if (limit > 0 && compare(score, doc, scores[0], heap[0]) < 0) {
+				heap[0] = doc;
+				scores[0] = score;
+				siftDown(0);
+			}
+		}
+
+		/**
+		 * Negative if the first document ranks before the second (higher score, then name)
+		 */
+		private int compare(double score, int doc, double otherScore, int otherDoc) {
+			int byScore = Double.compare(otherScore, score);
+			if (byScore != 0) {
+				return byScore;
+			}
+			if (doc < sortedDocs && otherDoc < sortedDocs) {
+				return Integer.compare(doc, otherDoc);
+			}
+			return BY_NAME.compare(docs[doc], docs[otherDoc]);
+		}
+
+		private void siftUp(int position) {
+			while (position > 0) {
+				int parent = (position - 1) >>> 1;
+				// The root must be the worst: move up while ranking after the parent
+				if (compare(scores[position], heap[position], scores[parent], heap[parent]) <= 0) {
+					return;
+				}
+				swap(position, parent);
+				position = parent;
+			}
+		}
+
+		private void siftDown(int position) {
+			while (true) {
+				int worst = position;
+				for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+					if (compare(scores[child], heap[child], scores[worst], heap[worst]) > 0) {
+						worst = child;
+					}
+				}
+				if (worst == position) {
+					return;
+				}
+				swap(position, worst);
+				position = worst;
+			}
+		}
+
+		private void swap(int i, int j) {
+			int doc = heap[i];
+			heap[i] = heap[j];
+			heap[j] = doc;
+			double score = scores[i];
+			scores[i] = scores[j];
+			scores[j] = score;
+		}
+
+		private List<FoodNutrientsResponse> toList() {
+			// Popping the worst first fills the list from the back
+			FoodNutrientsResponse[] ranked = new FoodNutrientsResponse[size];
+			while (size > 0) {
+				ranked[size - 1] = docs[heap[0]];
+				size--;
+				heap[0] = heap[size];
+				scores[0] = scores[size];
+				siftDown(0);
+			}
+			return Arrays.asList(ranked);
+		}
+
+	}
+
+	// Nutrients of document d are values[d * DIMENSIONS] onwards
+	private record Snapshot(KdTree tree, FoodNutrientsResponse[] docs, double[] values, int size,
+			BitSet deleted, int deletedCount) {
+
+		List<FoodNutrientsResponse> liveDocs() {
+			List<FoodNutrientsResponse> live = new ArrayList<>(size - deletedCount);
+			for (int doc = 0; doc < size; doc++) {
+				if (!deleted.get(doc)) {
+					live.add(docs[doc]);
+				}
+			}
+			return live;
+		}
+
+	}
+
+}
@@ -0,0 +1,249 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.QuickAddFoodResponse;
+import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.FoodUsage;
+import com.fitfamily.app.util.LruCache;
+import com.fitfamily.app.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user "quick add" lists: the foods a user logged most recently and most often.
+ *
+ * Each cached user (LRU over users) keeps the quick-add.max-foods most
+ * recently logged foods plus as many more, so both lists can be served in
+ * full; when a new food arrives the least frequently logged food outside
+ * the recent ones is dropped. Committed logs update a cached list in place.
+ * A user who is not cached is rebuilt from one grouped query over the last
+ * quick-add.lookback-days of their food logs; a rebuild that overlaps a
+ * committed change of that user is returned but not cached, since the
+ * query may have missed it.
+ */
+@Service
+public class QuickAddService {
+
+	private static final Comparator<Usage> MOST_RECENT = Comparator.comparing((Usage usage) -> usage.lastLoggedAt).reversed();
+	private static final Comparator<Usage> MOST_FREQUENT = Comparator.comparingLong((Usage usage) -> usage.logCount).reversed()
+			.thenComparing(MOST_RECENT);
+
+	private final FoodLogRepository foodLogRepository;
+	private final LruCache<UUID, QuickAddList> lists;
+	// Rebuilds in progress by user; a committed change removes the entry so that rebuild is not cached
+	private final Map<UUID, Object> rebuilds = new ConcurrentHashMap<>();
+	private final int maxFoods;
+	private final int lookbackDays;
+
+	public QuickAddService(FoodLogRepository foodLogRepository,
+			@Value("${quick-add.cache.max-users:10000}") int maxCachedUsers,
+			@Value("${quick-add.max-foods:50}") int maxFoods,
+			@Value("${quick-add.lookback-days:90}") int lookbackDays) {
+		this.foodLogRepository = foodLogRepository;
+		this.lists = new LruCache<>(maxCachedUsers);
+		this.maxFoods = maxFoods;
+		this.lookbackDays = lookbackDays;
+	}
+
+	/**
+	 * Foods the user logged most recently, with the portion of the latest log
+	 *
+	 * @param user The user
+	 * @param limit Number of foods (defaults to 20, capped at quick-add.max-foods)
+	 * @return Foods, latest first
+	 */
+	public List<QuickAddFoodResponse> getRecent(User user, Integer limit) {
+		return listFor(user).top(MOST_RECENT, limit(limit));
+	}
+
+	/**
+	 * Foods the user logged most often, with the portion of the latest log
+	 *
+	 * @param user The user
+	 * @param limit Number of foods (defaults to 20, capped at quick-add.max-foods)
+	 * @return Foods, most frequent first
+	 */
+	public List<QuickAddFoodResponse> getFrequent(User user, Integer limit) {
+		return listFor(user).top(MOST_FREQUENT, limit(limit));
+	}
+
+	/**
+	 * Count a saved food log in the user's cached list once its transaction commits
+	 *
+	 * Users without a cached list are skipped; their next read rebuilds it
+	 * from the database, including this log.
+	 *
+	 * @param foodLog The saved log (with food and portion)
+	 */
+	public void recordLog(FoodLog foodLog) {
+		UUID userId = foodLog.getUser().getId();
+		TransactionCallbacks.afterCommit(() -> {
+			synchronized (lists) {
+				rebuilds.remove(userId);
+				QuickAddList list = lists.get(userId);
+				if (list != null) {
+					LocalDateTime loggedAt = foodLog.getCreatedAt() != null ? foodLog.getCreatedAt() : LocalDateTime.now();
+					list.add(foodLog.getFood().getId(), foodLog.getFood().getName(),
+							foodLog.getPortion().getId(), foodLog.getPortion().getLabel(), 1, loggedAt);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Forget the user's cached list once a log deletion commits
+	 *
+	 * @param user The user
+	 */
+	public void removeLog(User user) {
+		TransactionCallbacks.afterCommit(() -> {
+			synchronized (lists) {
+				rebuilds.remove(user.getId());
+				lists.remove(user.getId());
+			}
+		});
+	}
+
+	private int limit(Integer limit) {
+		return limit == null ? Math.min(20, maxFoods) : Math.max(1, Math.min(limit, maxFoods));
+	}
+
+	private QuickAddList listFor(User user) {
+		QuickAddList list = lists.get(user.getId());
+		if (list != null) {
+			return list;
+		}
+
+		// Registered before the query, so any change committed from here on cancels caching the result
+		Object rebuild = new Object();
+		rebuilds.put(user.getId(), rebuild);
+		try {
+			// Rows are per (food, portion), merged per food in time order so the latest portion wins
+			list = new QuickAddList(maxFoods);
+			List<FoodUsage> usages = new ArrayList<>(foodLogRepository.findFoodUsageByUserSince(user, LocalDate.now().minusDays(lookbackDays)));
+			usages.sort(Comparator.comparing(FoodUsage::getLastLoggedAt));
+			for (FoodUsage usage : usages) {
+				list.merge(usage.getFoodId(), usage.getFoodName(), usage.getPortionId(), usage.getPortionLabel(),
+						usage.getLogCount(), usage.getLastLoggedAt());
+			}
+			list.trim();
+
+			synchronized (lists) {
+				if (rebuilds.remove(user.getId(), rebuild)) {
+					lists.put(user.getId(), list);
+				}
+			}
+			return list;
+		} finally {
+			rebuilds.remove(user.getId(), rebuild);
+		}
+	}
+
+	/**
+	 * One user's bounded food list: the maxFoods most recently logged foods
+	 * plus up to maxFoods others
+	 */
+	private static final class QuickAddList {
+
+		private final int maxFoods;
+		// In logging order, oldest first
+		private final Map<UUID, Usage> usages = new LinkedHashMap<>();
+
+		private QuickAddList(int maxFoods) {
+			this.maxFoods = maxFoods;
+		}
+
+		/**
+		 * Count a new log, making room for its food if needed
+		 */
+		private synchronized void add(UUID foodId, String foodName, UUID portionId, String portionLabel,
+				long logCount, LocalDateTime loggedAt) {
+			if (!usages.containsKey(foodId) && usages.size() >= 2 * maxFoods) {
+				evictLeastFrequent();
+			}
+			merge(foodId, foodName, portionId, portionLabel, logCount, loggedAt);
+		}
+
+		/**
+		 * Drop foods beyond the capacity (after a rebuild)
+		 */
+		private synchronized void trim() {
+			while (usages.size() > 2 * maxFoods) {
+				evictLeastFrequent();
+			}
+		}
+
+		/**
+		 * Count logs of a food, moving it to the most recent end
+		 */
+		private synchronized void merge(UUID foodId, String foodName, UUID portionId, String portionLabel,
+				long logCount, LocalDateTime loggedAt) {
+			Usage usage = usages.remove(foodId);
+			if (usage == null) {
+				usage = new Usage(foodId);
+			}
+			usage.foodName = foodName;
+			usage.portionId = portionId;
+			usage.portionLabel = portionLabel;
+			usage.logCount += logCount;
+			usage.lastLoggedAt = loggedAt;
+			usages.put(foodId, usage);
+		}
+
+		/**
+		 * Drop the least frequent food (least recently logged among equals)
+		 * outside the maxFoods most recent ones
+		 */
+		private void evictLeastFrequent() {
+			Usage evicted = null;
+			Iterator<Usage> oldestFirst = usages.values().iterator();
+			for (int i = usages.size() - maxFoods; i > 0; i--) {
+				Usage usage = oldestFirst.next();
+				if (evicted == null || usage.logCount < evicted.logCount) {
+					evicted = usage;
+				}
+			}
+			if (evicted != null) {
+				usages.remove(evicted.foodId);
+			}
+		}
+
+		private synchronized List<QuickAddFoodResponse> top(Comparator<Usage> order, int limit) {
+			return usages.values().stream()
+					.sorted(order)
+					.limit(limit)
+					.map(usage -> new QuickAddFoodResponse(usage.foodId, usage.foodName, usage.portionId,
+							usage.portionLabel, usage.logCount, usage.lastLoggedAt))
+					.toList();
+		}
+
+	}
+
+	private static final class Usage {
+
+		private final UUID foodId;
+		private String foodName;
+		private UUID portionId;
+		private String portionLabel;
+		private long logCount;
+		private LocalDateTime lastLoggedAt;
+
+		private Usage(UUID foodId) {
+			this.foodId = foodId;
+		}
+
+	}
+
+}
@@ -0,0 +1,170 @@
+package com.fitfamily.app.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * In-memory graph of recipes and their ingredients.
+ *
+ * Ingredients may themselves be recipes, so the graph is a DAG: recipes
+ * are only created from existing foods and never change their
+ * ingredients, so no recipe can (transitively) contain itself. Reverse
+ * edges (ingredient to the recipes using it) find the recipes affected by
+ * a catalog change without querying recipe_ingredients.
+ *
+ * The graph records the catalog change version its edges are complete up
+ * to, so recipes created through another instance can be added from the
+ * changes after it (see RecipeService.onCatalogChanged).
+ */
+@Component
+public class RecipeGraph {
+
+	// Guarded by this
+	private final Map<UUID, Map<UUID, Double>> ingredientsByRecipe = new HashMap<>();
+	private final Map<UUID, Set<UUID>> recipesByIngredient = new HashMap<>();
+	private boolean loaded;
+	private long version;
+
+	/**
+	 * @return true once the graph has been loaded
+	 */
+	public synchronized boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * @return Catalog change version the graph is complete up to
+	 */
+	public synchronized long version() {
+		return version;
+	}
+
+	/**
+	 * Replace the whole graph, as of catalog change version 0
+	 *
+	 * @param edges Rows of [recipe ID, ingredient ID, grams]
+	 */
+	public void rebuild(List<Object[]> edges) {
+		rebuild(edges, 0);
+	}
+
+	/**
+	 * Replace the whole graph
+	 *
+	 * @param edges Rows of [recipe ID, ingredient ID, grams]
+	 * @param version Catalog change version read before the edges
+	 */
+	public synchronized void rebuild(List<Object[]> edges, long version) {
+		ingredientsByRecipe.clear();
+		recipesByIngredient.clear();
+		for (Object[] edge : edges) {
+			addEdge((UUID) edge[0], (UUID) edge[1], ((Number) edge[2]).doubleValue());
+		}
+		this.version = version;
+		loaded = true;
+	}
+
+	/**
+	 * Add the recipes of the edges that the graph does not contain yet
+	 *
+	 * Recipes never change their ingredients, so edges of known recipes are
+	 * skipped.
+	 *
+	 * @param edges Rows of [recipe ID, ingredient ID, grams]
+	 * @param version Catalog change version read before the edges
+	 */
+	public synchronized void addRecipes(List<Object[]> edges, long version) {
+		Set<UUID> known = new HashSet<>(ingredientsByRecipe.keySet());
+		for (Object[] edge : edges) {
+			if (!known.contains((UUID) edge[0])) {
+				addEdge((UUID) edge[0], (UUID) edge[1], ((Number) edge[2]).doubleValue());
+			}
+		}
+		this.version = Math.max(this.version, version);
+	}
+
+	/**
+	 * Add a new recipe, unless already added from the database
+	 *
+	 * @param recipeId ID of the recipe
+	 * @param gramsByIngredient Ingredient food IDs and their grams in the whole recipe
+	 */
+	public synchronized void addRecipe(UUID recipeId, Map<UUID, Double> gramsByIngredient) {
+		if (!ingredientsByRecipe.containsKey(recipeId)) {
+			gramsByIngredient.forEach((ingredientId, grams) -> addEdge(recipeId, ingredientId, grams));
+		}
+	}
+
+	/**
+	 * @return Ingredient food IDs of the recipe and their grams (empty if it is not a recipe)
+	 */
+	public synchronized Map<UUID, Double> ingredients(UUID recipeId) {
+		return Map.copyOf(ingredientsByRecipe.getOrDefault(recipeId, Map.of()));
+	}
+
+	/**
+	 * Recipes whose nutrients depend on any of the foods, directly or through
+	 * other recipes
+	 *
+	 * @param foodIds IDs of changed foods
+	 * @return The affected recipes in topological order: every recipe comes
+	 *         after all of its affected ingredients, so each is recomputed once
+	 */
+	public synchronized List<UUID> dependentsInOrder(Collection<UUID> foodIds) {
+		// Walk the reverse edges to collect the affected subgraph
+		Set<UUID> affected = new HashSet<>();
+		Deque<UUID> pending = new ArrayDeque<>(foodIds);
+		while (!pending.isEmpty()) {
+			for (UUID recipeId : recipesByIngredient.getOrDefault(pending.poll(), Set.of())) {
+				if (affected.add(recipeId)) {
+					pending.add(recipeId);
+				}
+			}
+		}
+		if (affected.isEmpty()) {
+			return List.of();
+		}
+
+		// Kahn's algorithm restricted to the affected recipes
+		Map<UUID, Integer> waitingFor = new HashMap<>();
+		Deque<UUID> ready = new ArrayDeque<>();
+		for (UUID recipeId : affected) {
+			int count = 0;
+			for (UUID ingredientId : ingredientsByRecipe.get(recipeId).keySet()) {
+				if (affected.contains(ingredientId)) {
+					count++;
+				}
+			}
+			if (count == 0) {
+				ready.add(recipeId);
+			} else {
+				waitingFor.put(recipeId, count);
+			}
+		}
+
+		List<UUID> order = new ArrayList<>(affected.size());
+		while (!ready.isEmpty()) {
+			UUID recipeId = ready.poll();
+			order.add(recipeId);
+			for (UUID dependent : recipesByIngredient.getOrDefault(recipeId, Set.of())) {
+				Integer count = waitingFor.get(dependent);
+				if (count != null) {
+					if (count == 1) {
+						waitingFor.remove(dependent);
+						ready.add(dependent);
+					} else {
+						waitingFor.put(dependent, count - 1);
+					}
+				}
+			}
+		}
+		return order;
+	}
+
+	private void addEdge(UUID recipeId, UUID ingredientId, double grams) {
+		ingredientsByRecipe.computeIfAbsent(recipeId, id -> new HashMap<>()).merge(ingredientId, grams, Double::sum);
+		recipesByIngredient.computeIfAbsent(ingredientId, id -> new HashSet<>()).add(recipeId);
+	}
+
+}
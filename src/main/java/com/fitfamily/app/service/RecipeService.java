@@ -0,0 +1,324 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.CreateRecipeRequest;
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.RecipeResponse;
+import com.fitfamily.app.exception.FoodNotFoundException;
+import com.fitfamily.app.exception.InvalidRecipeException;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodCatalogChangedEvent;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.model.NutrientVector;
+import com.fitfamily.app.model.RecipeIngredient;
+import com.fitfamily.app.repository.FoodCatalogChangeRepository;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.repository.RecipeIngredientRepository;
+import com.fitfamily.app.security.CatalogAdmins;
+import com.fitfamily.app.util.FixedPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recipes: foods whose nutrients are computed from ingredient foods.
+ *
+ * A recipe is stored as a regular Food whose per-100g nutrients are the
+ * weighted average of its ingredients, so logging, search and nutrient
+ * queries treat it like any other food and FoodLogService.addFoodLog
+ * still reads one row. When an ingredient changes, only the recipes that
+ * depend on it are recomputed, ingredients before the recipes using them
+ * (see RecipeGraph), in one transaction. Recipes created through another
+ * instance are added to the graph from food_catalog_changes before each
+ * recompute.
+ */
+@Service
+public class RecipeService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RecipeService.class);
+
+	private final FoodRepository foodRepository;
+	private final FoodPortionRepository foodPortionRepository;
+	private final RecipeIngredientRepository recipeIngredientRepository;
+	private final FoodCatalogChangeRepository foodCatalogChangeRepository;
+	private final RecipeGraph recipeGraph;
+	private final CatalogAdmins catalogAdmins;
+	private final TransactionTemplate transaction;
+	private final TransactionTemplate recomputeTransaction;
+
+	// Recipes updated by the running recompute, guarded by this
+	private Set<UUID> recomputing = Set.of();
+
+	public RecipeService(FoodRepository foodRepository, FoodPortionRepository foodPortionRepository,
+			RecipeIngredientRepository recipeIngredientRepository, FoodCatalogChangeRepository foodCatalogChangeRepository,
+			RecipeGraph recipeGraph, CatalogAdmins catalogAdmins, PlatformTransactionManager transactionManager) {
+		this.foodRepository = foodRepository;
+		this.foodPortionRepository = foodPortionRepository;
+		this.recipeIngredientRepository = recipeIngredientRepository;
+		this.foodCatalogChangeRepository = foodCatalogChangeRepository;
+		this.recipeGraph = recipeGraph;
+		this.catalogAdmins = catalogAdmins;
+		this.transaction = new TransactionTemplate(transactionManager);
+		// Runs after another transaction has committed, so it needs its own
+		this.recomputeTransaction = new TransactionTemplate(transactionManager);
+		this.recomputeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Create a recipe from existing foods
+	 *
+	 * The recipe gets a "100g" portion and a "1 serving" portion of the
+	 * whole recipe's weight divided by the number of servings. Recipes are
+	 * foods of the shared catalog, so only catalog admins may create them.
+	 *
+	 * @param request Name, ingredients (foods may be other recipes) and servings
+	 * @param requestedBy Email of the current user, who must be a catalog admin
+	 * @return The created recipe
+	 * @throws AccessDeniedException if the user is not listed in catalog.admin-emails
+	 * @throws FoodNotFoundException if an ingredient food does not exist
+	 * @throws InvalidRecipeException if a food with the name already exists
+	 */
+	public synchronized RecipeResponse createRecipe(CreateRecipeRequest request, String requestedBy) {
+		catalogAdmins.check(requestedBy, "Creating recipes");
+		String name = request.getName().trim();
+		int servings = request.getServings() == null ? 1 : request.getServings();
+		// The same food listed twice is one ingredient
+		Map<UUID, Double> gramsByIngredient = new LinkedHashMap<>();
+		for (CreateRecipeRequest.Ingredient ingredient : request.getIngredients()) {
+			gramsByIngredient.merge(ingredient.getFoodId(), ingredient.getGrams(), Double::sum);
+		}
+
+		RecipeResponse response = transaction.execute(status -> {
+			if (foodRepository.existsByName(name)) {
+				throw new InvalidRecipeException("A food named '" + name + "' already exists");
+			}
+			Map<UUID, Food> ingredients = foodRepository.findAllById(gramsByIngredient.keySet()).stream()
+					.collect(Collectors.toMap(Food::getId, Function.identity()));
+			for (UUID foodId : gramsByIngredient.keySet()) {
+				if (!ingredients.containsKey(foodId)) {
+					throw new FoodNotFoundException("Food not found with ID: " + foodId);
+				}
+			}
+
+			Food recipe = new Food();
+			recipe.setName(name);
+			setNutrients(recipe, gramsByIngredient, ingredients);
+			recipe = foodRepository.save(recipe);
+
+			List<RecipeIngredient> rows = new ArrayList<>();
+			for (Map.Entry<UUID, Double> entry : gramsByIngredient.entrySet()) {
+				RecipeIngredient row = new RecipeIngredient();
+				row.setRecipe(recipe);
+				row.setIngredient(ingredients.get(entry.getKey()));
+				row.setGrams(entry.getValue());
+				rows.add(row);
+			}
+			recipeIngredientRepository.saveAll(rows);
+
+			double totalGrams = totalGrams(gramsByIngredient);
+			List<FoodPortion> portions = foodPortionRepository.saveAll(List.of(
+					portion(recipe, "100g", 100),
+					portion(recipe, "1 serving", totalGrams / servings)));
+
+			return mapToRecipeResponse(recipe, rows, portions);
+		});
+
+		recipeGraph.addRecipe(response.getId(), gramsByIngredient);
+		logger.info("Recipe created [id={}, ingredients={}]", response.getId(), gramsByIngredient.size());
+		return response;
+	}
+
+	/**
+	 * Get a recipe with its ingredients and portions
+	 *
+	 * @param recipeId ID of the recipe
+	 * @return The recipe
+	 * @throws FoodNotFoundException if there is no recipe with the ID
+	 */
+	public RecipeResponse getRecipe(UUID recipeId) {
+		return transaction.execute(status -> {
+			List<RecipeIngredient> rows = recipeIngredientRepository.findByRecipeIdWithIngredient(recipeId);
+			Food recipe = rows.isEmpty() ? null : foodRepository.findById(recipeId).orElse(null);
+			if (recipe == null) {
+				throw new FoodNotFoundException("Recipe not found with ID: " + recipeId);
+			}
+			return mapToRecipeResponse(recipe, rows, foodPortionRepository.findByFood(recipe));
+		});
+	}
+
+	/**
+	 * Load the recipe graph at startup (one query)
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void loadRecipeGraph() {
+		int edges = recomputeTransaction.execute(status -> {
+			// Read the version first: recipes committed after it are added by the next refresh
+			long version = foodCatalogChangeRepository.findLatestVersion();
+			List<Object[]> rows = recipeIngredientRepository.findAllEdges();
+			recipeGraph.rebuild(rows, version);
+			return rows.size();
+		});
+		logger.info("Recipe graph loaded [edges={}]", edges);
+	}
+
+	/**
+	 * Recompute the recipes affected by committed catalog changes
+	 *
+	 * Recipes are recomputed in topological order on managed entities, so a
+	 * recipe using another recipe sees its new nutrients in the same pass.
+	 * Only recipes whose nutrients actually change are written. Their own
+	 * change event is skipped, since their dependents were already handled.
+	 */
+	@EventListener
+	public synchronized void onCatalogChanged(FoodCatalogChangedEvent event) {
+		if (!recipeGraph.isLoaded() || recomputing.containsAll(event.foodIds())) {
+			return;
+		}
+		refreshRecipeGraph();
+		List<UUID> order = recipeGraph.dependentsInOrder(event.foodIds());
+		if (order.isEmpty()) {
+			return;
+		}
+
+		Set<UUID> updated = new HashSet<>();
+		recomputing = updated;
+		try {
+			recomputeTransaction.executeWithoutResult(status -> {
+				Map<UUID, Map<UUID, Double>> ingredientsByRecipe = new HashMap<>();
+				Set<UUID> foodIds = new HashSet<>(order);
+				for (UUID recipeId : order) {
+					Map<UUID, Double> ingredients = recipeGraph.ingredients(recipeId);
+					ingredientsByRecipe.put(recipeId, ingredients);
+					foodIds.addAll(ingredients.keySet());
+				}
+				Map<UUID, Food> foods = foodRepository.findAllById(foodIds).stream()
+						.collect(Collectors.toMap(Food::getId, Function.identity()));
+
+				for (UUID recipeId : order) {
+					Food recipe = foods.get(recipeId);
+					Map<UUID, Double> ingredients = ingredientsByRecipe.get(recipeId);
+					if (recipe == null || !foods.keySet().containsAll(ingredients.keySet())) {
+						logger.warn("Skipping recompute of recipe {}: recipe or ingredient food missing", recipeId);
+						continue;
+					}
+					if (setNutrients(recipe, ingredients, foods)) {
+						updated.add(recipeId);
+					}
+				}
+			});
+		} finally {
+			recomputing = Set.of();
+		}
+		logger.info("Recipes recomputed [affected={}, updated={}]", order.size(), updated.size());
+	}
+
+	/**
+	 * Add the recipes created since the graph's catalog change version
+	 *
+	 * Events only reach the instance that made the change, so recipes
+	 * created through another instance are found in food_catalog_changes
+	 * (every recipe is a food insert). If changes since the graph's version
+	 * may have been pruned, the whole graph is reloaded instead.
+	 */
+	private void refreshRecipeGraph() {
+		recomputeTransaction.executeWithoutResult(status -> {
+			long latest = foodCatalogChangeRepository.findLatestVersion();
+			long since = recipeGraph.version();
+			if (latest <= since) {
+				return;
+			}
+			if (since < foodCatalogChangeRepository.findPrunedThrough()) {
+				List<Object[]> edges = recipeIngredientRepository.findAllEdges();
+				recipeGraph.rebuild(edges, latest);
+				logger.info("Recipe graph reloaded [edges={}]", edges.size());
+			} else {
+				recipeGraph.addRecipes(recipeIngredientRepository.findEdgesOfRecipesChangedBetween(since, latest), latest);
+			}
+		});
+	}
+
+	/**
+	 * Set a recipe's per-100g nutrients from its ingredients
+	 *
+	 * Nutrients are rounded like food log values, so recomputing from
+	 * unchanged ingredients always gives the stored values.
+	 *
+	 * @return true if any nutrient changed
+	 */
+	static boolean setNutrients(Food recipe, Map<UUID, Double> gramsByIngredient, Map<UUID, Food> foods) {
+		double calories = 0;
+		double protein = 0;
+		double carbs = 0;
+		double fat = 0;
+		NutrientVector.Sum micronutrients = new NutrientVector.Sum();
+		boolean anyMicronutrients = false;
+		for (Map.Entry<UUID, Double> entry : gramsByIngredient.entrySet()) {
+			Food ingredient = foods.get(entry.getKey());
+			double grams = entry.getValue();
+			calories += ingredient.getCaloriesPer100g() * grams;
+			protein += ingredient.getProteinPer100g() * grams;
+			carbs += ingredient.getCarbsPer100g() * grams;
+			fat += ingredient.getFatPer100g() * grams;
+			micronutrients.add(ingredient.getMicronutrientsPer100g(), grams);
+			anyMicronutrients |= ingredient.getMicronutrientsPer100g() != null;
+		}
+		double totalGrams = totalGrams(gramsByIngredient);
+
+		double newCalories = round(calories / totalGrams);
+		double newProtein = round(protein / totalGrams);
+		double newCarbs = round(carbs / totalGrams);
+		double newFat = round(fat / totalGrams);
+		// Ingredients without micronutrients count as zero; none at all leaves the recipe without
+		NutrientVector newMicronutrients = anyMicronutrients ? micronutrients.toVector().scale(1 / totalGrams) : null;
+		if (newCalories == recipe.getCaloriesPer100g() && newProtein == recipe.getProteinPer100g()
+				&& newCarbs == recipe.getCarbsPer100g() && newFat == recipe.getFatPer100g()
+				&& Objects.equals(newMicronutrients, recipe.getMicronutrientsPer100g())) {
+			return false;
+		}
+		recipe.setCaloriesPer100g(newCalories);
+		recipe.setProteinPer100g(newProtein);
+		recipe.setCarbsPer100g(newCarbs);
+		recipe.setFatPer100g(newFat);
+		recipe.setMicronutrientsPer100g(newMicronutrients);
+		return true;
+	}
+
+	private static double totalGrams(Map<UUID, Double> gramsByIngredient) {
+		return gramsByIngredient.values().stream().mapToDouble(Double::doubleValue).sum();
+	}
+
+	private static double round(double value) {
+		return FixedPoint.fromMilli(FixedPoint.toMilli(value));
+	}
+
+	private static FoodPortion portion(Food food, String label, double grams) {
+		FoodPortion portion = new FoodPortion();
+		portion.setFood(food);
+		portion.setLabel(label);
+		portion.setGrams(grams);
+		return portion;
+	}
+
+	private RecipeResponse mapToRecipeResponse(Food recipe, List<RecipeIngredient> rows, List<FoodPortion> portions) {
+		List<RecipeResponse.Ingredient> ingredients = rows.stream()
+				.map(row -> new RecipeResponse.Ingredient(row.getIngredient().getId(), row.getIngredient().getName(), row.getGrams()))
+				.collect(Collectors.toList());
+		List<FoodDetailsResponse.Portion> portionResponses = portions.stream()
+				.map(portion -> new FoodDetailsResponse.Portion(portion.getId(), portion.getLabel(), portion.getGrams()))
+				.collect(Collectors.toList());
+		return new RecipeResponse(recipe.getId(), recipe.getName(), recipe.getCaloriesPer100g(), recipe.getProteinPer100g(),
+				recipe.getCarbsPer100g(), recipe.getFatPer100g(),
+				rows.stream().mapToDouble(RecipeIngredient::getGrams).sum(), ingredients, portionResponses);
+	}
+
+}
@@ -0,0 +1,331 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.RelatedFoodResponse;
+import com.fitfamily.app.exception.FoodNotFoundException;
+import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.MealType;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.util.CoOccurrenceMatrix;
+import com.fitfamily.app.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * "Often logged with" suggestions: foods logged in the same meal (same
+ * user, date and meal type) as a given food.
+ *
+ * Food IDs are numbered densely and counted in a CoOccurrenceMatrix, which
+ * keeps every food's top related-foods.max-neighbours ready, so a lookup is
+ * O(K). Logging a food that is new to its meal counts it once with every
+ * other food of that meal (one indexed query for the meal's foods); deleting
+ * the last log of a food from a meal takes those counts back.
+ *
+ * The meal is locked from that query until the log's transaction ends and
+ * the counts change after it commits, so concurrent logs in one meal are
+ * counted one after the other: each sees the committed foods of the logs
+ * before it, and a rolled-back log counts nothing.
+ *
+ * The matrix is rebuilt from the whole food_logs history in the background
+ * at startup. The rebuild reads from a snapshot taken while no change is
+ * between its query and its count; changes counted after that are applied
+ * to the current matrix and replayed onto the rebuilt one, so none are lost
+ * or counted twice.
+ */
+@Service
+public class RelatedFoodService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RelatedFoodService.class);
+
+	// Meals share lock stripes, so the locks do not grow with the number of meals
+	private static final int LOCK_STRIPES = 256;
+
+	// Any read of food_logs starts a repeatable-read snapshot
+	private static final String START_SNAPSHOT = "select 1 from food_logs fetch first 1 rows only";
+
+	private final FoodLogRepository foodLogRepository;
+	private final FoodService foodService;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate snapshotTransaction;
+	private final int maxNeighbours;
+	private final boolean rebuildOnStartup;
+	private final ExecutorService rebuilder;
+	private final ReentrantLock[] mealLocks = new ReentrantLock[LOCK_STRIPES];
+
+	// Changes hold the read lock from their query until counted; a rebuild takes the write lock to start its snapshot
+	private final ReentrantReadWriteLock changesInFlight = new ReentrantReadWriteLock();
+
+	// Guarded by this
+	private Model model;
+	private boolean rebuilding;
+	private List<Change> pendingChanges;
+
+	public RelatedFoodService(FoodLogRepository foodLogRepository, FoodService foodService, JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			@Value("${related-foods.max-neighbours:20}") int maxNeighbours,
+			@Value("${related-foods.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+		this.foodLogRepository = foodLogRepository;
+		this.foodService = foodService;
+		this.jdbcTemplate = jdbcTemplate;
+		this.snapshotTransaction = new TransactionTemplate(transactionManager);
+		this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		this.snapshotTransaction.setReadOnly(true);
+		this.maxNeighbours = maxNeighbours;
+		this.rebuildOnStartup = rebuildOnStartup;
+		Arrays.setAll(mealLocks, stripe -> new ReentrantLock());
+		this.model = new Model(new HashMap<>(), new ArrayList<>(), new CoOccurrenceMatrix(maxNeighbours));
+		this.rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "related-foods-rebuild");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Foods most often logged in the same meal as a food
+	 *
+	 * @param foodId The food
+	 * @param limit Number of foods (defaults to 10, capped at related-foods.max-neighbours)
+	 * @return Related foods with their portions, most shared meals first
+	 * @throws FoodNotFoundException if the food does not exist
+	 */
+	public List<RelatedFoodResponse> getRelatedFoods(UUID foodId, Integer limit) {
+		int size = limit == null ? Math.min(10, maxNeighbours) : Math.max(1, Math.min(limit, maxNeighbours));
+		List<UUID> ids = new ArrayList<>(size + 1);
+		ids.add(foodId);
+		long[] mealCounts;
+		synchronized (this) {
+			Integer item = model.items().get(foodId);
+			CoOccurrenceMatrix.Neighbours neighbours = item != null
+					? model.matrix().neighbours(item) : CoOccurrenceMatrix.Neighbours.NONE;
+			mealCounts = new long[Math.min(size, neighbours.size())];
+			for (int i = 0; i < mealCounts.length; i++) {
+				ids.add(model.foodIds().get(neighbours.items()[i]));
+				mealCounts[i] = neighbours.counts()[i];
+			}
+		}
+
+		// The food and its neighbours in one lookup (in memory while the catalog snapshot is in sync)
+		Map<UUID, FoodDetailsResponse> foods = foodService.getFoodsByIds(ids).getFoods().stream()
+				.collect(Collectors.toMap(FoodDetailsResponse::getId, Function.identity()));
+		if (!foods.containsKey(foodId)) {
+			throw new FoodNotFoundException("Food not found with ID: " + foodId);
+		}
+		List<RelatedFoodResponse> related = new ArrayList<>(mealCounts.length);
+		for (int i = 0; i < mealCounts.length; i++) {
+			FoodDetailsResponse food = foods.get(ids.get(i + 1));
+			if (food != null) {
+				related.add(new RelatedFoodResponse(food.getId(), food.getName(), food.getPortions(), mealCounts[i]));
+			}
+		}
+		return related;
+	}
+
+	/**
+	 * Count a saved food log with the other foods of its meal once its transaction commits
+	 *
+	 * Must be called after the log is saved and before the transaction ends;
+	 * the meal stays locked until then.
+	 *
+	 * @param foodLog The saved log
+	 */
+	public void recordLog(FoodLog foodLog) {
+		update(foodLog, 1);
+	}
+
+	/**
+	 * Take back the counts of a deleted food log once its transaction commits,
+	 * if it was its food's last in the meal
+	 *
+	 * @param foodLog The deleted log
+	 */
+	public void removeLog(FoodLog foodLog) {
+		update(foodLog, -1);
+	}
+
+	/**
+	 * Rebuild the matrix from the whole food_logs history at startup, in the background
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildOnStartup() {
+		if (rebuildOnStartup) {
+			rebuilder.execute(this::rebuild);
+		}
+	}
+
+	/**
+	 * Rebuild the matrix from the whole food_logs history
+	 *
+	 * Reads one row per food of each meal, groups them by meal and counts
+	 * the pairs with parallel streams. Does nothing if a rebuild is already
+	 * running.
+	 *
+	 * The rows come from a repeatable-read snapshot started while no change
+	 * is in flight, so every change counted before it is in the rows and
+	 * every change counted after it is replayed.
+	 */
+	public void rebuild() {
+		synchronized (this) {
+			if (rebuilding) {
+				return;
+			}
+			rebuilding = true;
+		}
+
+		try {
+			long start = System.currentTimeMillis();
+			List<Object[]> rows = snapshotTransaction.execute(status -> {
+				changesInFlight.writeLock().lock();
+				try {
+					jdbcTemplate.queryForList(START_SNAPSHOT);
+					synchronized (this) {
+						pendingChanges = new ArrayList<>();
+					}
+				} finally {
+					changesInFlight.writeLock().unlock();
+				}
+				return foodLogRepository.findAllMealFoods();
+			});
+			Model rebuilt = Model.build(rows, maxNeighbours);
+			synchronized (this) {
+				pendingChanges.forEach(rebuilt::apply);
+				model = rebuilt;
+			}
+			logger.info("Related foods rebuilt [mealFoods={}, foods={}, millis={}]",
+					rows.size(), rebuilt.foodIds().size(), System.currentTimeMillis() - start);
+		} catch (RuntimeException e) {
+			// Incremental counts keep going on the current matrix
+			logger.warn("Failed to rebuild related foods: {}", e.getMessage());
+		} finally {
+			synchronized (this) {
+				pendingChanges = null;
+				rebuilding = false;
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		rebuilder.shutdownNow();
+	}
+
+	/**
+	 * Read the meal's other foods and count the change once it commits, with the meal locked in between
+	 *
+	 * The log is flushed before the meal is locked, so only the commit is
+	 * left to write while the lock is held. A concurrent log of the meal
+	 * waits for this one to commit or roll back, then sees it (or not).
+	 */
+	private void update(FoodLog foodLog, int delta) {
+		foodLogRepository.flush();
+		UUID foodId = foodLog.getFood().getId();
+		ReentrantLock mealLock = lockFor(foodLog);
+		changesInFlight.readLock().lock();
+		mealLock.lock();
+		List<UUID> others;
+		try {
+			others = foodLogRepository.findFoodIdsInMeal(foodLog.getUser(), foodLog.getDate(),
+					foodLog.getMealType(), foodLog.getId());
+		} catch (RuntimeException e) {
+			mealLock.unlock();
+			changesInFlight.readLock().unlock();
+			throw e;
+		}
+
+		TransactionCallbacks.afterCompletion(committed -> {
+			try {
+				// Nothing changes if the food was already part of the meal (or still is)
+				if (committed && !others.contains(foodId)) {
+					Change change = new Change(foodId, others, delta);
+					synchronized (this) {
+						model.apply(change);
+						if (pendingChanges != null) {
+							pendingChanges.add(change);
+						}
+					}
+				}
+			} finally {
+				mealLock.unlock();
+				changesInFlight.readLock().unlock();
+			}
+		});
+	}
+
+	private ReentrantLock lockFor(FoodLog foodLog) {
+		Meal meal = new Meal(foodLog.getUser().getId(), foodLog.getDate(), foodLog.getMealType());
+		return mealLocks[(meal.hashCode() & Integer.MAX_VALUE) % mealLocks.length];
+	}
+
+	/**
+	 * A food joining (delta 1) or leaving (delta -1) a meal with other foods
+	 */
+	private record Change(UUID foodId, List<UUID> otherFoodIds, int delta) {
+	}
+
+	/**
+	 * The matrix with the food ID behind each of its item numbers
+	 */
+	private record Model(Map<UUID, Integer> items, List<UUID> foodIds, CoOccurrenceMatrix matrix) {
+
+		private static Model build(List<Object[]> rows, int maxNeighbours) {
+			Map<UUID, Integer> items = new HashMap<>();
+			List<UUID> foodIds = new ArrayList<>();
+			int[] rowItems = new int[rows.size()];
+			for (int row = 0; row < rows.size(); row++) {
+				rowItems[row] = item(items, foodIds, (UUID) rows.get(row)[3]);
+			}
+
+			// Rows are distinct per (meal, food), so each meal lists its foods once
+			Collection<int[]> meals = IntStream.range(0, rows.size()).parallel().boxed()
+					.collect(Collectors.groupingByConcurrent(row -> new Meal((UUID) rows.get(row)[0],
+									(LocalDate) rows.get(row)[1], (MealType) rows.get(row)[2]),
+							Collectors.mapping(row -> rowItems[row], Collectors.toList())))
+					.values().parallelStream()
+					.map(meal -> meal.stream().mapToInt(Integer::intValue).toArray())
+					.toList();
+			return new Model(items, foodIds, CoOccurrenceMatrix.build(foodIds.size(), meals, maxNeighbours));
+		}
+
+		private void apply(Change change) {
+			int[] others = change.otherFoodIds().stream().mapToInt(id -> item(items, foodIds, id)).toArray();
+			matrix.addToGroup(item(items, foodIds, change.foodId()), others, change.delta());
+		}
+
+		private static int item(Map<UUID, Integer> items, List<UUID> foodIds, UUID foodId) {
+			return items.computeIfAbsent(foodId, id -> {
+				foodIds.add(id);
+				return foodIds.size() - 1;
+			});
+		}
+
+	}
+
+	private record Meal(UUID userId, LocalDate date, MealType mealType) {
+	}
+
+}
@@ -0,0 +1,271 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FamilyMemberDashboardResponse;
+import com.fitfamily.app.dto.UserDailyDashboardResponse;
+import com.fitfamily.app.exception.DashboardUnavailableException;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.util.CircuitBreaker;
+import com.fitfamily.app.util.LruCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serves dashboards with a stale-while-revalidate fallback.
+ * 
+ * Every read goes to the database through DashboardService and the result is
+ * kept as the last good copy for its key. When the database is slow (the load
+ * exceeds the latency budget) or failing (the circuit breaker is open), the
+ * last good copy is returned immediately instead of blocking the request
+ * thread, while at most one background refresh per key updates it.
+ *
+ * While the breaker is closed, loads run on the request thread. Only loads
+ * that may have to be abandoned run on the refresh pool, within the latency
+ * budget: the breaker's half-open trial, and those of a key whose last load
+ * failed or blew the budget (revalidated in the background behind its stale
+ * copy). A saturated pool rejects the load and the stale copy is served, so
+ * the pool never limits healthy throughput.
+ */
+@Service
+public class ResilientDashboardService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ResilientDashboardService.class);
+
+	private final DashboardService dashboardService;
+	private final long latencyBudgetMillis;
+	private final long staleTtlMillis;
+	private final CircuitBreaker circuitBreaker;
+	private final LruCache<String, Snapshot> lastGood;
+	private final Map<String, CompletableFuture<Object>> refreshes = new ConcurrentHashMap<>();
+	private final ThreadPoolExecutor refreshExecutor;
+
+	public ResilientDashboardService(DashboardService dashboardService,
+			@Value("${dashboard.fallback.latency-budget-ms:2000}") long latencyBudgetMillis,
+			@Value("${dashboard.fallback.stale-ttl-minutes:60}") long staleTtlMinutes,
+			@Value("${dashboard.fallback.max-entries:10000}") int maxEntries,
+			@Value("${dashboard.fallback.breaker.failure-threshold:5}") int failureThreshold,
+			@Value("${dashboard.fallback.breaker.open-ms:30000}") long openMillis,
+			@Value("${dashboard.fallback.refresh-threads:4}") int refreshThreads) {
+		this.dashboardService = dashboardService;
+		this.latencyBudgetMillis = latencyBudgetMillis;
+		this.staleTtlMillis = TimeUnit.MINUTES.toMillis(staleTtlMinutes);
+		this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+		this.lastGood = new LruCache<>(maxEntries);
+
+		// Bounded pool; when saturated the load is rejected and the stale copy served
+		AtomicInteger threadCount = new AtomicInteger();
+		this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads,
+				60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(100),
+				runnable -> {
+					Thread thread = new Thread(runnable, "dashboard-refresh-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+		this.refreshExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Get the daily dashboard of a user, falling back to the last good copy
+	 * 
+	 * @param user The user whose dashboard to retrieve
+	 * @param date The date for the dashboard
+	 * @return Result with the dashboard and its staleness
+	 */
+	public Result<UserDailyDashboardResponse> getUserDailyDashboard(User user, LocalDate date) {
+		return read("user:" + user.getId() + ":" + date,
+				() -> dashboardService.getUserDailyDashboard(user, date));
+	}
+
+	/**
+	 * Get the family dashboard, falling back to the last good copy
+	 * 
+	 * The copy is shared by all members of the family.
+	 * 
+	 * @param user The user (member of the family)
+	 * @param date The date for the dashboard
+	 * @return Result with the member dashboards and their staleness
+	 */
+	public Result<List<FamilyMemberDashboardResponse>> getFamilyDailyDashboard(User user, LocalDate date) {
+		if (user.getFamily() == null) {
+			return Result.fresh(dashboardService.getFamilyDailyDashboard(user, date));
+		}
+		return read("family:" + user.getFamily().getId() + ":" + date,
+				() -> dashboardService.getFamilyDailyDashboard(user, date));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Result<T> read(String key, Supplier<T> loader) {
+		Snapshot stale = lastGood.get(key);
+		if (stale != null && System.currentTimeMillis() - stale.storedAt() > staleTtlMillis) {
+			lastGood.remove(key);
+			stale = null;
+		}
+
+		// Breaker open: do not touch the database at all
+		if (!circuitBreaker.allowRequest()) {
+			if (stale != null) {
+				return staleResult(key, stale);
+			}
+			throw new DashboardUnavailableException("Dashboard is temporarily unavailable, please retry shortly");
+		}
+
+		// Healthy: the request thread loads it
+		if (circuitBreaker.getState() == CircuitBreaker.State.CLOSED
+				&& (stale == null || !stale.degraded()) && !refreshes.containsKey(key)) {
+			try {
+				return Result.fresh(load(key, loader));
+			} catch (RuntimeException e) {
+				if (stale != null) {
+					return staleResult(key, stale);
+				}
+				throw e;
+			}
+		}
+
+		// Half-open trial or degraded key: bounded by the latency budget on the pool
+		CompletableFuture<Object> refresh;
+		try {
+			refresh = refresh(key, loader);
+		} catch (RejectedExecutionException e) {
+			if (stale != null) {
+				return staleResult(key, stale);
+			}
+			throw new DashboardUnavailableException("Dashboard is temporarily unavailable, please retry shortly");
+		}
+		try {
+			return Result.fresh((T) refresh.get(latencyBudgetMillis, TimeUnit.MILLISECONDS));
+		} catch (TimeoutException e) {
+			// The refresh keeps running and replaces the stale copy when it completes
+			if (stale != null) {
+				return staleResult(key, stale);
+			}
+			throw new DashboardUnavailableException("Dashboard is temporarily unavailable, please retry shortly");
+		} catch (ExecutionException e) {
+			if (stale != null) {
+				return staleResult(key, stale);
+			}
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			if (stale != null) {
+				return staleResult(key, stale);
+			}
+			throw new DashboardUnavailableException("Dashboard request was interrupted");
+		}
+	}
+
+	/**
+	 * Start a load for the key, or join the one already running
+	 *
+	 * @throws RejectedExecutionException if the refresh pool is saturated
+	 */
+	private CompletableFuture<Object> refresh(String key, Supplier<?> loader) {
+		CompletableFuture<Object> created = new CompletableFuture<>();
+		CompletableFuture<Object> running = refreshes.putIfAbsent(key, created);
+		if (running != null) {
+			return running;
+		}
+
+		try {
+			refreshExecutor.execute(() -> {
+				try {
+					Object value = load(key, loader);
+
+					// Deregister before completing so later reads start a new load
+					refreshes.remove(key, created);
+					created.complete(value);
+				} catch (RuntimeException | Error e) {
+					refreshes.remove(key, created);
+					created.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			refreshes.remove(key, created);
+			throw e;
+		}
+		return created;
+	}
+
+	/**
+	 * Load from the database on the current thread, keeping the result as the
+	 * last good copy and recording the outcome with the circuit breaker
+	 *
+	 * A failed or too slow load marks the key as degraded, so its next loads
+	 * run on the pool within the latency budget until one is fast again.
+	 */
+	private <T> T load(String key, Supplier<T> loader) {
+		long start = System.nanoTime();
+		T value;
+		try {
+			value = loader.get();
+		} catch (RuntimeException | Error e) {
+			circuitBreaker.recordFailure();
+			Snapshot stale = lastGood.get(key);
+			if (stale != null && !stale.degraded()) {
+				lastGood.put(key, new Snapshot(stale.value(), stale.storedAt(), true));
+			}
+			throw e;
+		}
+
+		// A load that succeeds but blows the budget still counts against the database
+		boolean slow = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) > latencyBudgetMillis;
+		lastGood.put(key, new Snapshot(value, System.currentTimeMillis(), slow));
+		if (slow) {
+			circuitBreaker.recordFailure();
+		} else {
+			circuitBreaker.recordSuccess();
+		}
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Result<T> staleResult(String key, Snapshot snapshot) {
+		long ageSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - snapshot.storedAt());
+		logger.warn("Serving stale dashboard [key={}, ageSeconds={}, breaker={}]", key, ageSeconds, circuitBreaker.getState());
+		return new Result<>((T) snapshot.value(), true, ageSeconds);
+	}
+
+	CircuitBreaker.State getCircuitState() {
+		return circuitBreaker.getState();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		refreshExecutor.shutdownNow();
+	}
+
+	/**
+	 * @param degraded true if the key's last load failed or blew the latency budget
+	 */
+	private record Snapshot(Object value, long storedAt, boolean degraded) {
+	}
+
+	/**
+	 * A dashboard plus whether it was served from the last good copy
+	 * 
+	 * @param body The dashboard
+	 * @param stale true if the database was bypassed
+	 * @param ageSeconds Age of the stale copy (0 when fresh)
+	 */
+	public record Result<T>(T body, boolean stale, long ageSeconds) {
+
+		static <T> Result<T> fresh(T body) {
+			return new Result<>(body, false, 0);
+		}
+
+	}
+
+}
@@ -0,0 +1,249 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.StreakResponse;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.model.UserStreak;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.UserStreakRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class StreakService {
+
+	private final UserStreakRepository userStreakRepository;
+	private final FoodLogRepository foodLogRepository;
+
+	public StreakService(UserStreakRepository userStreakRepository, FoodLogRepository foodLogRepository) {
+		this.userStreakRepository = userStreakRepository;
+		this.foodLogRepository = foodLogRepository;
+	}
+
+	/**
+	 * Update the user's streak after a food log was added
+	 *
+	 * Runs in O(1): only the stored streak row is read and written. The row
+	 * stays locked until the log's transaction ends, so concurrent logs of
+	 * the same user are counted one after the other.
+	 *
+	 * @param user The user who logged food
+	 * @param date The date of the new log
+	 */
+	@Transactional
+	public void recordLog(User user, LocalDate date) {
+		UserStreak streak = userStreakRepository.findByIdForUpdate(user.getId())
+				.orElseGet(() -> createFromHistory(user));
+
+		LocalDate lastLoggedDate = streak.getLastLoggedDate();
+
+		// Another log on an already counted day does not change the streak
+		if (lastLoggedDate != null && !date.isAfter(lastLoggedDate)) {
+			return;
+		}
+
+		if (lastLoggedDate != null && date.equals(lastLoggedDate.plusDays(1))) {
+			streak.setCurrentStreak(streak.getCurrentStreak() + 1);
+		} else {
+			streak.setCurrentStreak(1);
+			streak.setStreakStartDate(date);
+		}
+		streak.setLastLoggedDate(date);
+		streak.setLongestStreak(Math.max(streak.getLongestStreak(), streak.getCurrentStreak()));
+
+		userStreakRepository.save(streak);
+	}
+
+	/**
+	 * Update the user's streak after a food log was deleted
+	 *
+	 * Nothing changes while other logs remain on that day. Otherwise only the
+	 * current streak's span is recomputed; the full history is only scanned
+	 * when the broken span was the user's longest streak.
+	 *
+	 * @param user The user whose log was deleted
+	 * @param date The date of the deleted log
+	 */
+	@Transactional
+	public void removeLog(User user, LocalDate date) {
+		UserStreak streak = userStreakRepository.findByIdForUpdate(user.getId()).orElse(null);
+		if (streak == null || foodLogRepository.existsByUserAndDate(user, date)) {
+			return;
+		}
+
+		LocalDate start = streak.getStreakStartDate();
+		LocalDate last = streak.getLastLoggedDate();
+		boolean inCurrentSpan = start != null && last != null && !date.isBefore(start) && !date.isAfter(last);
+
+		if (!inCurrentSpan) {
+			// An older streak may have been the longest one
+			if (streak.getLongestStreak() > streak.getCurrentStreak()) {
+				streak.setLongestStreak(Math.max(longestRun(foodLogRepository.findDistinctDatesByUser(user)), streak.getCurrentStreak()));
+				userStreakRepository.save(streak);
+			}
+			return;
+		}
+
+		boolean wasLongest = streak.getLongestStreak() == streak.getCurrentStreak();
+
+		// The day before the span has no logs, so the new streak ends inside the span
+		List<LocalDate> spanDates = foodLogRepository.findDistinctDatesByUserAndDateBetween(user, start, last);
+		if (spanDates.isEmpty()) {
+			// The whole span is gone: the latest earlier run (of any length, or none) becomes current
+			applyHistory(streak, foodLogRepository.findDistinctDatesByUser(user));
+			userStreakRepository.save(streak);
+			return;
+		}
+
+		int run = trailingRun(spanDates);
+		LocalDate newLast = spanDates.get(spanDates.size() - 1);
+		streak.setCurrentStreak(run);
+		streak.setLastLoggedDate(newLast);
+		streak.setStreakStartDate(newLast.minusDays(run - 1L));
+
+		if (wasLongest) {
+			streak.setLongestStreak(longestRun(foodLogRepository.findDistinctDatesByUser(user)));
+		}
+
+		userStreakRepository.save(streak);
+	}
+
+	/**
+	 * Get the streak of a single user
+	 *
+	 * @param user The user
+	 * @return StreakResponse as of today
+	 */
+	@Transactional(readOnly = true)
+	public StreakResponse getStreak(User user) {
+		return getStreaks(List.of(user)).get(user.getId());
+	}
+
+	/**
+	 * Get the streaks of several users with one batched lookup
+	 *
+	 * @param users The users (e.g., family members)
+	 * @return Map of user ID to StreakResponse as of today
+	 */
+	@Transactional(readOnly = true)
+	public Map<UUID, StreakResponse> getStreaks(Collection<User> users) {
+		Map<UUID, UserStreak> stored = userStreakRepository.findAllById(
+				users.stream().map(User::getId).collect(Collectors.toList())).stream()
+				.collect(Collectors.toMap(UserStreak::getUserId, Function.identity()));
+
+		LocalDate today = LocalDate.now();
+		Map<UUID, StreakResponse> streaks = new HashMap<>();
+		for (User user : users) {
+			// Users who have not logged since streaks were introduced are computed on the fly
+			UserStreak streak = stored.get(user.getId());
+			if (streak == null) {
+				streak = computeFromHistory(user);
+			}
+			streaks.put(user.getId(), toResponse(streak, today));
+		}
+		return streaks;
+	}
+
+	/**
+	 * Store the user's first streak row, built from the log history, and
+	 * return it locked
+	 *
+	 * Runs in the log's transaction (no second connection). Two first logs
+	 * of the same user may both find no row; the later insert waits for the
+	 * earlier one and inserts nothing, and both go on with the stored row.
+	 */
+	private UserStreak createFromHistory(User user) {
+		UserStreak streak = computeFromHistory(user);
+		userStreakRepository.insertIfAbsent(streak.getUserId(), streak.getCurrentStreak(), streak.getLongestStreak(),
+				streak.getStreakStartDate(), streak.getLastLoggedDate());
+		return userStreakRepository.findByIdForUpdate(user.getId())
+				.orElseThrow(() -> new IllegalStateException("Streak row missing after insert for user " + user.getId()));
+	}
+
+	/**
+	 * Build a streak from the user's full log history (first use only)
+	 */
+	private UserStreak computeFromHistory(User user) {
+		UserStreak streak = new UserStreak();
+		streak.setUserId(user.getId());
+		applyHistory(streak, foodLogRepository.findDistinctDatesByUser(user));
+		return streak;
+	}
+
+	/**
+	 * Set every field of a streak from a full log history
+	 *
+	 * @param dates Distinct dates in ascending order
+	 */
+	private static void applyHistory(UserStreak streak, List<LocalDate> dates) {
+		if (dates.isEmpty()) {
+			streak.setCurrentStreak(0);
+			streak.setLongestStreak(0);
+			streak.setLastLoggedDate(null);
+			streak.setStreakStartDate(null);
+			return;
+		}
+		int run = trailingRun(dates);
+		LocalDate last = dates.get(dates.size() - 1);
+		streak.setCurrentStreak(run);
+		streak.setLongestStreak(longestRun(dates));
+		streak.setLastLoggedDate(last);
+		streak.setStreakStartDate(last.minusDays(run - 1L));
+	}
+
+	private StreakResponse toResponse(UserStreak streak, LocalDate today) {
+		// A streak is only current if the user logged today or yesterday
+		LocalDate last = streak.getLastLoggedDate();
+		boolean active = last != null && !last.isBefore(today.minusDays(1));
+		return new StreakResponse(
+			active ? streak.getCurrentStreak() : 0,
+			streak.getLongestStreak(),
+			last
+		);
+	}
+
+	/**
+	 * Length of the run of consecutive days ending at the last date
+	 *
+	 * @param dates Distinct dates in ascending order
+	 */
+	private static int trailingRun(List<LocalDate> dates) {
+		int run = 0;
+		LocalDate expected = null;
+		for (int i = dates.size() - 1; i >= 0; i--) {
+			LocalDate date = dates.get(i);
+			if (expected != null && !date.equals(expected)) {
+				break;
+			}
+			run++;
+			expected = date.minusDays(1);
+		}
+		return run;
+	}
+
+	/**
+	 * Length of the longest run of consecutive days
+	 *
+	 * @param dates Distinct dates in ascending order
+	 */
+	private static int longestRun(List<LocalDate> dates) {
+		int longest = 0;
+		int run = 0;
+		LocalDate previous = null;
+		for (LocalDate date : dates) {
+			run = previous != null && date.equals(previous.plusDays(1)) ? run + 1 : 1;
+			longest = Math.max(longest, run);
+			previous = date;
+		}
+		return longest;
+	}
+
+}
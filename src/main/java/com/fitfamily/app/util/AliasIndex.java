@@ -0,0 +1,133 @@
+package com.fitfamily.app.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable word index over alternative names (aliases) of documents.
+ *
+ * Every distinct word of every alias is kept once in a sorted array; the
+ * documents using it are a slice of one shared int array (compressed
+ * postings), so the index holds no boxed values however many aliases
+ * there are. A lookup finds all words starting with a prefix with a binary
+ * search. Like TrigramIndex, documents are added in batches that return a
+ * new index, and new documents must have higher IDs than existing ones.
+ */
+public final class AliasIndex {
+
+	public static final AliasIndex EMPTY = new AliasIndex(new String[0], new int[] {0}, new int[0]);
+
+	private final String[] words;
+	// Postings of words[i] are docs[offsets[i]] to docs[offsets[i + 1] - 1], ascending
+	private final int[] offsets;
+	private final int[] docs;
+
+	private AliasIndex(String[] words, int[] offsets, int[] docs) {
+		this.words = words;
+		this.offsets = offsets;
+		this.docs = docs;
+	}
+
+	/**
+	 * Return a new index that also contains the given documents
+	 *
+	 * @param firstDoc ID of aliases.get(0); following entries get consecutive IDs
+	 * @param aliases Normalized (e.g., lower-cased) aliases of each document, possibly none
+	 * @return The extended index
+	 */
+	public AliasIndex withDocuments(int firstDoc, List<String[]> aliases) {
+		List<Entry> added = new ArrayList<>();
+		for (int i = 0; i < aliases.size(); i++) {
+			for (String alias : aliases.get(i)) {
+				for (String word : alias.split(" ")) {
+					if (!word.isEmpty()) {
+						added.add(new Entry(word, firstDoc + i));
+					}
+				}
+			}
+		}
+		if (added.isEmpty()) {
+			return this;
+		}
+		added.sort(Comparator.comparing(Entry::word).thenComparingInt(Entry::doc));
+
+		// Merge the sorted word lists; a word's new documents follow its existing ones
+		List<String> mergedWords = new ArrayList<>(words.length + added.size());
+		int[] mergedOffsets = new int[words.length + added.size() + 1];
+		int[] mergedDocs = new int[docs.length + added.size()];
+		int existing = 0;
+		int next = 0;
+		int out = 0;
+		while (existing < words.length || next < added.size()) {
+			String word;
+			if (next == added.size() || (existing < words.length && words[existing].compareTo(added.get(next).word()) <= 0)) {
+				word = words[existing];
+			} else {
+				word = added.get(next).word();
+			}
+
+			mergedOffsets[mergedWords.size()] = out;
+			mergedWords.add(word);
+			if (existing < words.length && words[existing].equals(word)) {
+				int length = offsets[existing + 1] - offsets[existing];
+				System.arraycopy(docs, offsets[existing], mergedDocs, out, length);
+				out += length;
+				existing++;
+			}
+			for (; next < added.size() && added.get(next).word().equals(word); next++) {
+				// The same word twice in one document's aliases is indexed once
+				int doc = added.get(next).doc();
+				if (out == mergedOffsets[mergedWords.size() - 1] || mergedDocs[out - 1] != doc) {
+					mergedDocs[out++] = doc;
+				}
+			}
+		}
+		mergedOffsets[mergedWords.size()] = out;
+
+		return new AliasIndex(mergedWords.toArray(new String[0]),
+				Arrays.copyOf(mergedOffsets, mergedWords.size() + 1), Arrays.copyOf(mergedDocs, out));
+	}
+
+	/**
+	 * Documents with an alias word starting with the prefix
+	 *
+	 * @param prefix Normalized prefix (a whole word matches itself)
+	 * @return Sorted, distinct document IDs
+	 */
+	public int[] candidates(String prefix) {
+		int first = Arrays.binarySearch(words, prefix);
+		if (first < 0) {
+			first = -first - 1;
+		}
+		int end = first;
+		while (end < words.length && words[end].startsWith(prefix)) {
+			end++;
+		}
+
+		if (end - first == 1) {
+			return Arrays.copyOfRange(docs, offsets[first], offsets[end]);
+		}
+		int[] found = Arrays.copyOfRange(docs, offsets[first], offsets[end]);
+		Arrays.sort(found);
+		int n = 0;
+		for (int doc : found) {
+			if (n == 0 || found[n - 1] != doc) {
+				found[n++] = doc;
+			}
+		}
+		return Arrays.copyOf(found, n);
+	}
+
+	/**
+	 * @return Number of distinct alias words
+	 */
+	public int size() {
+		return words.length;
+	}
+
+	private record Entry(String word, int doc) {
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.fitfamily.app.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal thread-safe circuit breaker.
+ * 
+ * Opens after failureThreshold consecutive failures. While open, calls are
+ * rejected until openMillis have passed; then a single trial call is let
+ * through (half-open), whose outcome closes or re-opens the breaker.
+ */
+public class CircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private final int failureThreshold;
+	private final long openMillis;
+	private final LongSupplier clock;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAt;
+
+	public CircuitBreaker(int failureThreshold, long openMillis) {
+		this(failureThreshold, openMillis, System::currentTimeMillis);
+	}
+
+	CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+		this.failureThreshold = failureThreshold;
+		this.openMillis = openMillis;
+		this.clock = clock;
+	}
+
+	/**
+	 * Check whether a call may go through
+	 * 
+	 * @return true when closed, or for the single trial call once the open period has passed
+	 */
+	public synchronized boolean allowRequest() {
+		if (state == State.CLOSED) {
+			return true;
+		}
+		if (state == State.OPEN && clock.getAsLong() - openedAt >= openMillis) {
+			state = State.HALF_OPEN;
+			return true;
+		}
+		return false;
+	}
+
+	public synchronized void recordSuccess() {
+		consecutiveFailures = 0;
+		state = State.CLOSED;
+	}
+
+	public synchronized void recordFailure() {
+		consecutiveFailures++;
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			state = State.OPEN;
+			openedAt = clock.getAsLong();
+		}
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+}
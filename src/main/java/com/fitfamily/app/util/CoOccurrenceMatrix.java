@@ -0,0 +1,225 @@
+package com.fitfamily.app.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * Sparse symmetric co-occurrence counts between items identified by dense
+ * int IDs, with each item's top neighbours kept ready to read.
+ *
+ * count(a, b) is the number of groups (e.g., meals) containing both a and
+ * b. Each item has a LongCountMap of its non-zero counts, and a small
+ * sorted array of its maxNeighbours best neighbours (highest count, lowest
+ * ID among equals) that is replaced whenever it changes, so reading it
+ * costs O(K). Increments only ever move a neighbour up, so they update the
+ * top array in place; a decrement of a top neighbour recomputes it from
+ * the item's counts. Counts never go below zero. Thread-safe.
+ */
+public final class CoOccurrenceMatrix {
+
+	/**
+	 * An item's best neighbours, best first (never modified)
+	 */
+	public record Neighbours(int[] items, int[] counts) {
+
+		public static final Neighbours NONE = new Neighbours(new int[0], new int[0]);
+
+		public int size() {
+			return items.length;
+		}
+
+	}
+
+	private final int maxNeighbours;
+	private LongCountMap[] counts;
+	private Neighbours[] top;
+
+	public CoOccurrenceMatrix(int maxNeighbours) {
+		this(maxNeighbours, new LongCountMap[0], new Neighbours[0]);
+	}
+
+	private CoOccurrenceMatrix(int maxNeighbours, LongCountMap[] counts, Neighbours[] top) {
+		this.maxNeighbours = maxNeighbours;
+		this.counts = counts;
+		this.top = top;
+	}
+
+	/**
+	 * Count every pair of items of the given groups, in parallel
+	 *
+	 * @param items Number of items; IDs are 0 to items - 1
+	 * @param groups Distinct item IDs of each group
+	 * @param maxNeighbours Neighbours kept ready per item
+	 * @return The matrix
+	 */
+	public static CoOccurrenceMatrix build(int items, Collection<int[]> groups, int maxNeighbours) {
+		// Pairs as (lower ID << 32 | higher ID), counted per thread and merged
+		LongCountMap pairs = groups.parallelStream().collect(LongCountMap::new, (map, group) -> {
+			for (int i = 0; i < group.length; i++) {
+				for (int j = i + 1; j < group.length; j++) {
+					map.add(pairKey(group[i], group[j]), 1);
+				}
+			}
+		}, LongCountMap::addAll);
+
+		LongCountMap[] counts = new LongCountMap[items];
+		Arrays.setAll(counts, item -> new LongCountMap());
+		pairs.forEach((pair, count) -> {
+			int a = (int) (pair >>> 32);
+			int b = (int) pair;
+			counts[a].add(b, count);
+			counts[b].add(a, count);
+		});
+
+		Neighbours[] top = new Neighbours[items];
+		IntStream.range(0, items).parallel().forEach(item -> top[item] = best(counts[item], maxNeighbours));
+		return new CoOccurrenceMatrix(maxNeighbours, counts, top);
+	}
+
+	/**
+	 * @return Number of items with an ID
+	 */
+	public synchronized int items() {
+		return counts.length;
+	}
+
+	/**
+	 * Add an item to a group, or remove it from one
+	 *
+	 * @param item The item (any non-negative ID; the matrix grows to hold it)
+	 * @param others Distinct other items of the group, not including item
+	 * @param delta 1 when item joined the group, -1 when it left it
+	 */
+	public synchronized void addToGroup(int item, int[] others, int delta) {
+		int highest = item;
+		for (int other : others) {
+			highest = Math.max(highest, other);
+		}
+		ensureCapacity(highest + 1);
+
+		for (int other : others) {
+			if (other == item || (delta < 0 && counts[item].get(other) == 0)) {
+				continue;
+			}
+			int count = counts[item].add(other, delta);
+			counts[other].add(item, delta);
+			changed(item, other, count, delta);
+			changed(other, item, count, delta);
+		}
+	}
+
+	/**
+	 * @return The count of the pair
+	 */
+	public synchronized int count(int a, int b) {
+		return a < counts.length ? counts[a].get(b) : 0;
+	}
+
+	/**
+	 * @return The item's best neighbours, best first
+	 */
+	public synchronized Neighbours neighbours(int item) {
+		return item < top.length ? top[item] : Neighbours.NONE;
+	}
+
+	private void ensureCapacity(int items) {
+		if (items <= counts.length) {
+			return;
+		}
+		int capacity = Math.max(items, counts.length + (counts.length >> 1) + 1);
+		int old = counts.length;
+		counts = Arrays.copyOf(counts, capacity);
+		top = Arrays.copyOf(top, capacity);
+		for (int item = old; item < capacity; item++) {
+			counts[item] = new LongCountMap();
+			top[item] = Neighbours.NONE;
+		}
+	}
+
+	// Keep item's top neighbours in line with the new count of (item, neighbour)
+	private void changed(int item, int neighbour, int count, int delta) {
+		Neighbours current = top[item];
+		int at = indexOf(current.items(), neighbour);
+		if (delta < 0) {
+			if (at >= 0) {
+				// Someone outside the top may now beat it
+				top[item] = best(counts[item], maxNeighbours);
+			}
+			return;
+		}
+
+		int size = current.size();
+		if (at < 0) {
+			if (size == maxNeighbours && !better(count, neighbour, current.counts()[size - 1], current.items()[size - 1])) {
+				return;
+			}
+			at = size < maxNeighbours ? size : size - 1;
+			size = Math.min(size + 1, maxNeighbours);
+		}
+		int[] items = Arrays.copyOf(current.items(), size);
+		int[] counts = Arrays.copyOf(current.counts(), size);
+		items[at] = neighbour;
+		counts[at] = count;
+		// Only this entry moved, and only up
+		for (int i = at; i > 0 && better(counts[i], items[i], counts[i - 1], items[i - 1]); i--) {
+			swap(items, counts, i, i - 1);
+		}
+		top[item] = new Neighbours(items, counts);
+	}
+
+	private static Neighbours best(LongCountMap neighbourCounts, int maxNeighbours) {
+		int limit = Math.min(maxNeighbours, neighbourCounts.size());
+		if (limit == 0) {
+			return Neighbours.NONE;
+		}
+		int[] items = new int[limit];
+		int[] counts = new int[limit];
+		int[] size = {0};
+		neighbourCounts.forEach((key, count) -> {
+			int item = (int) key;
+			int at = size[0];
+			if (at == limit) {
+				if (!better(count, item, counts[limit - 1], items[limit - 1])) {
+					return;
+				}
+				at = limit - 1;
+			} else {
+				size[0]++;
+			}
+			items[at] = item;
+			counts[at] = count;
+			for (int i = at; i > 0 && better(counts[i], items[i], counts[i - 1], items[i - 1]); i--) {
+				swap(items, counts, i, i - 1);
+			}
+		});
+		return new Neighbours(items, counts);
+	}
+
+	private static boolean better(int count, int item, int otherCount, int otherItem) {
+		return count > otherCount || (count == otherCount && item < otherItem);
+	}
+
+	private static int indexOf(int[] items, int item) {
+		for (int i = 0; i < items.length; i++) {
+			if (items[i] == item) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static void swap(int[] items, int[] counts, int i, int j) {
+		int item = items[i];
+		items[i] = items[j];
+		items[j] = item;
+		int count = counts[i];
+		counts[i] = counts[j];
+		counts[j] = count;
+	}
+
+	private static long pairKey(int a, int b) {
+		return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.fitfamily.app.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for RFC 4180 CSV.
+ * 
+ * Fields may be quoted; quoted fields can contain commas, doubled quotes
+ * and line breaks. Only the current record is held in memory, so files of
+ * any size are read in constant memory.
+ */
+public class CsvReader {
+
+	private final BufferedReader reader;
+	private long lineNumber;
+
+	public CsvReader(BufferedReader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * @return The fields of the next record, or null at the end of the input
+	 * @throws IOException if reading fails
+	 * @throws IllegalArgumentException if a quoted field is not closed
+	 */
+	public List<String> next() throws IOException {
+		String line = reader.readLine();
+		if (line == null) {
+			return null;
+		}
+		lineNumber++;
+
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (true) {
+			if (i == line.length()) {
+				if (!quoted) {
+					break;
+				}
+				// A quoted field continues on the next line
+				line = reader.readLine();
+				if (line == null) {
+					throw new IllegalArgumentException("Unterminated quoted field at line " + lineNumber);
+				}
+				lineNumber++;
+				field.append('\n');
+				i = 0;
+				continue;
+			}
+
+			char c = line.charAt(i++);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				} else if (i < line.length() && line.charAt(i) == '"') {
+					field.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * @return Number of the last line read (1-based)
+	 */
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+}
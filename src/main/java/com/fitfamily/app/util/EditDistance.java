@@ -0,0 +1,76 @@
+package com.fitfamily.app.util;
+
+/**
+ * Bounded Damerau-Levenshtein distance (optimal string alignment variant).
+ * 
+ * Insertions, deletions, substitutions and transpositions of adjacent
+ * characters each cost one edit. Only the diagonal band of width
+ * 2 * max + 1 is computed and the computation stops as soon as a whole row
+ * exceeds max, so rejecting a distant word is much cheaper than a full
+ * O(n * m) distance.
+ */
+public final class EditDistance {
+
+	private EditDistance() {
+	}
+
+	/**
+	 * @param a First string
+	 * @param b Second string
+	 * @param max Largest distance of interest
+	 * @return The distance, or max + 1 if it is larger than max
+	 */
+	public static int bounded(CharSequence a, CharSequence b, int max) {
+		int n = a.length();
+		int m = b.length();
+		if (Math.abs(n - m) > max) {
+			return max + 1;
+		}
+
+		int[] previousPrevious = new int[m + 1];
+		int[] previous = new int[m + 1];
+		int[] current = new int[m + 1];
+		for (int j = 0; j <= m; j++) {
+			previous[j] = j;
+		}
+
+		for (int i = 1; i <= n; i++) {
+			int from = Math.max(1, i - max);
+			int to = Math.min(m, i + max);
+
+			// Cells outside the band are at least max + 1 away
+			current[0] = i;
+			if (from > 1) {
+				current[from - 1] = max + 1;
+			}
+			int rowMin = from == 1 ? i : max + 1;
+
+			char ca = a.charAt(i - 1);
+			for (int j = from; j <= to; j++) {
+				char cb = b.charAt(j - 1);
+				int cost = ca == cb ? 0 : 1;
+				int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+				if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+					value = Math.min(value, previousPrevious[j - 2] + 1);
+				}
+				current[j] = value;
+				rowMin = Math.min(rowMin, value);
+			}
+			if (to < m) {
+				current[to + 1] = max + 1;
+			}
+
+			if (rowMin > max) {
+				return max + 1;
+			}
+
+			int[] recycled = previousPrevious;
+			previousPrevious = previous;
+			previous = current;
+			current = recycled;
+		}
+
+		return Math.min(previous[m], max + 1);
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.fitfamily.app.util;
+
+public class FixedPoint {
+
+	/**
+	 * Number of stored units per whole unit (milli-units: 1 kcal = 1000)
+	 */
+	public static final long SCALE = 1000L;
+
+	/**
+	 * Converts a decimal value to milli-units, rounding half up
+	 *
+	 * @param value Decimal value (e.g., 12.3456 g)
+	 * @return Value in milli-units (e.g., 12346)
+	 */
+	public static long toMilli(double value) {
+		return Math.round(value * SCALE);
+	}
+
+	/**
+	 * Converts milli-units back to a decimal value for API responses
+	 *
+	 * @param milli Value in milli-units
+	 * @return Decimal value with at most three fractional digits
+	 */
+	public static double fromMilli(long milli) {
+		return milli / (double) SCALE;
+	}
+
+	// Private constructor to prevent instantiation
+	private FixedPoint() {
+		throw new UnsupportedOperationException("Utility class cannot be instantiated");
+	}
+
+}
@@ -0,0 +1,202 @@
+package com.fitfamily.app.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index from the distinct words of documents to the documents
+ * containing them, for typo-tolerant lookups.
+ * 
+ * Words are found by trigram similarity first: the words are indexed in a
+ * TrigramIndex (padded with a space on each side, so word starts and ends
+ * count), and only words sharing enough trigrams with the query token to be
+ * within the edit budget are scored with EditDistance. The vocabulary of a
+ * catalog is far smaller than the catalog itself, so a lookup touches a few
+ * hundred words rather than every document. Like TrigramIndex, documents
+ * are added in batches that return a new index.
+ */
+public final class FuzzyWordIndex {
+
+	public static final FuzzyWordIndex EMPTY = new FuzzyWordIndex(new String[0], Map.of(), new int[0][], TrigramIndex.EMPTY);
+
+	// A single edit changes at most this many trigrams of a word (a transposition touches four)
+	private static final int TRIGRAMS_PER_EDIT = 4;
+
+	private final String[] words;
+	private final Map<String, Integer> wordIds;
+	private final int[][] postings;
+	private final TrigramIndex trigrams;
+
+	private FuzzyWordIndex(String[] words, Map<String, Integer> wordIds, int[][] postings, TrigramIndex trigrams) {
+		this.words = words;
+		this.wordIds = wordIds;
+		this.postings = postings;
+		this.trigrams = trigrams;
+	}
+
+	/**
+	 * Callback for matching words
+	 */
+	@FunctionalInterface
+	public interface MatchConsumer {
+
+		/**
+		 * @param docs Sorted IDs of the documents containing the word
+		 * @param distance Edit distance between the token and the word
+		 */
+		void accept(int[] docs, int distance);
+
+	}
+
+	/**
+	 * Return a new index that also contains the words of the given documents
+	 * 
+	 * @param firstDoc ID of texts.get(0); following texts get consecutive IDs,
+	 *                 which must be higher than every ID already in the index
+	 * @param texts Normalized (e.g., lower-cased) document texts
+	 * @return The extended index
+	 */
+	public FuzzyWordIndex withDocuments(int firstDoc, List<String> texts) {
+		Map<String, Integer> ids = new HashMap<>(wordIds);
+		List<String> addedWords = new ArrayList<>();
+		Map<Integer, List<Integer>> addedDocs = new HashMap<>();
+
+		for (int i = 0; i < texts.size(); i++) {
+			int doc = firstDoc + i;
+			for (String word : words(texts.get(i))) {
+				Integer id = ids.get(word);
+				if (id == null) {
+					id = words.length + addedWords.size();
+					ids.put(word, id);
+					addedWords.add(word);
+				}
+				List<Integer> docs = addedDocs.computeIfAbsent(id, k -> new ArrayList<>());
+				// Documents arrive in ID order, so a repeated word is always the last entry
+				if (docs.isEmpty() || docs.get(docs.size() - 1) != doc) {
+					docs.add(doc);
+				}
+			}
+		}
+		if (addedDocs.isEmpty()) {
+			return this;
+		}
+
+		String[] mergedWords = Arrays.copyOf(words, words.length + addedWords.size());
+		int[][] mergedPostings = Arrays.copyOf(postings, mergedWords.length);
+		for (int k = 0; k < addedWords.size(); k++) {
+			mergedWords[words.length + k] = addedWords.get(k);
+			mergedPostings[words.length + k] = new int[0];
+		}
+		for (Map.Entry<Integer, List<Integer>> entry : addedDocs.entrySet()) {
+			int[] existing = mergedPostings[entry.getKey()];
+			int[] merged = Arrays.copyOf(existing, existing.length + entry.getValue().size());
+			for (int k = 0; k < entry.getValue().size(); k++) {
+				merged[existing.length + k] = entry.getValue().get(k);
+			}
+			mergedPostings[entry.getKey()] = merged;
+		}
+
+		List<String> paddedWords = new ArrayList<>(addedWords.size());
+		for (String word : addedWords) {
+			paddedWords.add(pad(word));
+		}
+		return new FuzzyWordIndex(mergedWords, ids, mergedPostings, trigrams.withDocuments(words.length, paddedWords));
+	}
+
+	/**
+	 * Find the words containing the token (distance 0) and, with a budget,
+	 * the words within maxEdits of it
+	 * 
+	 * @param token Normalized query token of at least TrigramIndex.GRAM characters
+	 * @param maxEdits Largest edit distance to accept
+	 * @param consumer Called once per matching word
+	 */
+	public void match(String token, int maxEdits, MatchConsumer consumer) {
+		Set<Integer> containing = new HashSet<>();
+		for (int id : trigrams.candidates(token)) {
+			if (words[id].contains(token)) {
+				containing.add(id);
+				consumer.accept(postings[id], 0);
+			}
+		}
+		if (maxEdits == 0) {
+			return;
+		}
+
+		// Count the trigrams each word shares with the token
+		String padded = pad(token);
+		Map<Integer, Integer> shared = new HashMap<>();
+		Set<String> grams = new HashSet<>();
+		for (int start = 0; start + TrigramIndex.GRAM <= padded.length(); start++) {
+			String gram = padded.substring(start, start + TrigramIndex.GRAM);
+			if (grams.add(gram)) {
+				for (int id : trigrams.candidates(gram)) {
+					shared.merge(id, 1, Integer::sum);
+				}
+			}
+		}
+
+		// q-gram lemma: words within maxEdits share at least this many trigrams
+		int required = Math.max(1, grams.size() - TRIGRAMS_PER_EDIT * maxEdits);
+		for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+			if (entry.getValue() >= required && !containing.contains(entry.getKey())) {
+				int distance = EditDistance.bounded(token, words[entry.getKey()], maxEdits);
+				if (distance <= maxEdits) {
+					consumer.accept(postings[entry.getKey()], distance);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of distinct words in the index
+	 */
+	public int size() {
+		return words.length;
+	}
+
+	/**
+	 * @return true if the token would be indexed as a word: letters and
+	 *         digits only, with at least one letter
+	 */
+	public static boolean isWord(String token) {
+		List<String> words = words(token);
+		return words.size() == 1 && words.get(0).length() == token.length();
+	}
+
+	/**
+	 * Split a normalized text into words (runs of letters and digits);
+	 * words without any letter, like numbers, are left out
+	 */
+	static List<String> words(String text) {
+		List<String> result = new ArrayList<>();
+		int start = -1;
+		boolean hasLetter = false;
+		for (int i = 0; i <= text.length(); i++) {
+			char c = i < text.length() ? text.charAt(i) : ' ';
+			if (Character.isLetterOrDigit(c)) {
+				if (start < 0) {
+					start = i;
+					hasLetter = false;
+				}
+				hasLetter |= Character.isLetter(c);
+			} else if (start >= 0) {
+				if (hasLetter) {
+					result.add(text.substring(start, i));
+				}
+				start = -1;
+			}
+		}
+		return result;
+	}
+
+	private static String pad(String word) {
+		return " " + word + " ";
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.fitfamily.app.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+
+public class Gzip {
+
+	/**
+	 * Checks whether an Accept-Encoding header allows a gzip response
+	 *
+	 * @param acceptEncoding Header value, or null if absent
+	 * @return true unless gzip is missing or refused (q=0)
+	 */
+	public static boolean accepted(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			String name = parts[0].trim();
+			if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+				return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Decompresses gzip bytes, for clients that cannot accept them as is
+	 *
+	 * @param compressed gzip data
+	 * @return The original bytes
+	 */
+	public static byte[] decompress(byte[] compressed) {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			return in.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Invalid gzip data", e);
+		}
+	}
+
+	// Private constructor to prevent instantiation
+	private Gzip() {
+		throw new UnsupportedOperationException("Utility class cannot be instantiated");
+	}
+
+}
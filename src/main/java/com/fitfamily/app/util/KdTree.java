@@ -0,0 +1,176 @@
+package com.fitfamily.app.util;
+
+/**
+ * Immutable k-d tree over points with a few numeric dimensions.
+ *
+ * The tree is implicit: points are reordered so that the median of every
+ * range [lo, hi) on axis (depth % dimensions) sits at its middle, with
+ * smaller-or-equal values before it and greater-or-equal values after it.
+ * Coordinates are kept point-major in one double array, so the tree holds
+ * no per-node objects. A box query only descends into halves that can
+ * intersect the box, and scans small ranges linearly.
+ */
+public final class KdTree {
+
+	public static final KdTree EMPTY = new KdTree(1, new double[0], new int[0]);
+
+	// Ranges up to this size are scanned instead of split further
+	private static final int LEAF_SIZE = 8;
+
+	private final int dimensions;
+	// Coordinates of the point at tree position i: coordinates[i * dimensions] onwards
+	private final double[] coordinates;
+	// Caller's ID of the point at each tree position
+	private final int[] ids;
+
+	private KdTree(int dimensions, double[] coordinates, int[] ids) {
+		this.dimensions = dimensions;
+		this.coordinates = coordinates;
+		this.ids = ids;
+	}
+
+	/**
+	 * Callback for points found by a query
+	 */
+	@FunctionalInterface
+	public interface PointConsumer {
+
+		/**
+		 * @param id ID of the point
+		 * @param coordinates Array holding its coordinates (shared, must not be modified)
+		 * @param offset Index of its first coordinate in the array
+		 */
+		void accept(int id, double[] coordinates, int offset);
+
+	}
+
+	/**
+	 * Build a tree
+	 *
+	 * @param dimensions Number of coordinates per point
+	 * @param points Point-major coordinates; point i (its ID) starts at points[i * dimensions]
+	 * @return The tree (the array is not modified)
+	 */
+	public static KdTree build(int dimensions, double[] points) {
+		if (dimensions < 1 || points.length % dimensions != 0) {
+			throw new IllegalArgumentException("Expected a multiple of " + dimensions + " coordinates, got " + points.length);
+		}
+		int size = points.length / dimensions;
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		split(points, dimensions, order, 0, size, 0);
+
+		double[] coordinates = new double[points.length];
+		for (int position = 0; position < size; position++) {
+			System.arraycopy(points, order[position] * dimensions, coordinates, position * dimensions, dimensions);
+		}
+		return new KdTree(dimensions, coordinates, order);
+	}
+
+	/**
+	 * Report every point inside a box (bounds inclusive)
+	 *
+	 * @param min Lower bound per dimension (Double.NEGATIVE_INFINITY for none)
+	 * @param max Upper bound per dimension (Double.POSITIVE_INFINITY for none)
+	 * @param consumer Receives each point in the box, in no particular order
+	 */
+	public void range(double[] min, double[] max, PointConsumer consumer) {
+		range(min, max, consumer, 0, ids.length, 0);
+	}
+
+	/**
+	 * @return Number of points
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	private void range(double[] min, double[] max, PointConsumer consumer, int lo, int hi, int axis) {
+		while (hi - lo > LEAF_SIZE) {
+			int mid = (lo + hi) >>> 1;
+			double split = coordinates[mid * dimensions + axis];
+			if (contains(mid, min, max)) {
+				consumer.accept(ids[mid], coordinates, mid * dimensions);
+			}
+			int next = axis + 1 == dimensions ? 0 : axis + 1;
+			boolean left = min[axis] <= split;
+			boolean right = max[axis] >= split;
+			if (left && right) {
+				range(min, max, consumer, lo, mid, next);
+				lo = mid + 1;
+			} else if (left) {
+				hi = mid;
+			} else if (right) {
+				lo = mid + 1;
+			} else {
+				return;
+			}
+			axis = next;
+		}
+		for (int position = lo; position < hi; position++) {
+			if (contains(position, min, max)) {
+				consumer.accept(ids[position], coordinates, position * dimensions);
+			}
+		}
+	}
+
+	private boolean contains(int position, double[] min, double[] max) {
+		int offset = position * dimensions;
+		for (int axis = 0; axis < dimensions; axis++) {
+			double value = coordinates[offset + axis];
+			if (value < min[axis] || value > max[axis]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Arrange order[lo, hi) as a subtree split on the axis
+	 */
+	private static void split(double[] points, int dimensions, int[] order, int lo, int hi, int axis) {
+		while (hi - lo > LEAF_SIZE) {
+			int mid = (lo + hi) >>> 1;
+			select(points, dimensions, order, lo, hi - 1, mid, axis);
+			int next = axis + 1 == dimensions ? 0 : axis + 1;
+			split(points, dimensions, order, lo, mid, next);
+			lo = mid + 1;
+			axis = next;
+		}
+	}
+
+	/**
+	 * Quickselect: put the k-th smallest value of order[left, right] at k,
+	 * with smaller-or-equal values before it and greater-or-equal after it
+	 */
+	private static void select(double[] points, int dimensions, int[] order, int left, int right, int k, int axis) {
+		while (left < right) {
+			double pivot = points[order[(left + right) >>> 1] * dimensions + axis];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (points[order[i] * dimensions + axis] < pivot) {
+					i++;
+				}
+				while (points[order[j] * dimensions + axis] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int swap = order[i];
+					order[i++] = order[j];
+					order[j--] = swap;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package com.fitfamily.app.util;
+
+/**
+ * Hash map from long keys to int counts, without boxing.
+ *
+ * Open addressing with linear probing over parallel key/count arrays, at
+ * most half full. A key whose count drops to zero is removed (by shifting
+ * the following entries of its probe run back), so size() is the number of
+ * keys with a non-zero count. Not thread-safe.
+ */
+public final class LongCountMap {
+
+	private static final int MIN_CAPACITY = 4;
+
+	private long[] keys;
+	private int[] counts;
+	private int size;
+
+	public LongCountMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expectedKeys Number of keys to make room for up front
+	 */
+	public LongCountMap(int expectedKeys) {
+		int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedKeys * 2 - 1)) << 1;
+		keys = new long[capacity];
+		counts = new int[capacity];
+	}
+
+	/**
+	 * @return Number of keys with a non-zero count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The key's count, 0 if absent
+	 */
+	public int get(long key) {
+		return counts[slot(key)];
+	}
+
+	/**
+	 * Add to a key's count
+	 *
+	 * @param key The key
+	 * @param delta Amount to add (may be negative)
+	 * @return The new count; the key is removed when it reaches 0
+	 */
+	public int add(long key, int delta) {
+		if (delta == 0) {
+			return get(key);
+		}
+		int slot = slot(key);
+		if (counts[slot] == 0) {
+			keys[slot] = key;
+			counts[slot] = delta;
+			if (++size * 2 > keys.length) {
+				resize(keys.length * 2);
+			}
+			return delta;
+		}
+		int count = counts[slot] + delta;
+		if (count == 0) {
+			remove(slot);
+		} else {
+			counts[slot] = count;
+		}
+		return count;
+	}
+
+	/**
+	 * Add every count of another map to this one
+	 */
+	public void addAll(LongCountMap other) {
+		for (int slot = 0; slot < other.keys.length; slot++) {
+			if (other.counts[slot] != 0) {
+				add(other.keys[slot], other.counts[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Call the consumer once per key, in no particular order
+	 */
+	public void forEach(Consumer consumer) {
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (counts[slot] != 0) {
+				consumer.accept(keys[slot], counts[slot]);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	public interface Consumer {
+
+		void accept(long key, int count);
+
+	}
+
+	// Slot holding the key, or the empty slot where it would go
+	private int slot(long key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (counts[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void remove(int slot) {
+		int mask = keys.length - 1;
+		counts[slot] = 0;
+		size--;
+		// Move back later entries of the run that could no longer be found past the gap
+		int gap = slot;
+		for (int next = (gap + 1) & mask; counts[next] != 0; next = (next + 1) & mask) {
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				counts[gap] = counts[next];
+				counts[next] = 0;
+				gap = next;
+			}
+		}
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new long[capacity];
+		counts = new int[capacity];
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldCounts[slot] != 0) {
+				int target = slot(oldKeys[slot]);
+				keys[target] = oldKeys[slot];
+				counts[target] = oldCounts[slot];
+			}
+		}
+	}
+
+	// Fibonacci hashing, so sequential keys spread over the table
+	private static int hash(long key) {
+		long mixed = key * 0x9E3779B97F4A7C15L;
+		return (int) (mixed ^ (mixed >>> 32));
+	}
+
+}
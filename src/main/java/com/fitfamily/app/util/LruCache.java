@@ -0,0 +1,43 @@
+package com.fitfamily.app.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small thread-safe cache that evicts the least recently used entry
+ * once it holds more than maxEntries entries.
+ */
+public class LruCache<K, V> {
+
+	private final Map<K, V> entries;
+
+	public LruCache(int maxEntries) {
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	public synchronized V get(K key) {
+		return entries.get(key);
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, value);
+	}
+
+	public synchronized V remove(K key) {
+		return entries.remove(key);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+}
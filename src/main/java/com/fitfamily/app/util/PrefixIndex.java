@@ -0,0 +1,132 @@
+package com.fitfamily.app.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable sorted-array index for prefix lookups (typeahead).
+ *
+ * Every document has one entry for its whole text and one for each later
+ * word start (the text from that word on), kept in two sorted arrays. A
+ * lookup binary-searches the first key at or after the prefix and walks
+ * forward while keys still start with it, so it costs O(log n + results)
+ * regardless of how many documents share a short prefix. Whole-text
+ * matches are returned before word matches. Like TrigramIndex, documents
+ * are added in batches that return a new index.
+ */
+public final class PrefixIndex {
+
+	public static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new int[0], new String[0], new int[0]);
+
+	private final String[] textKeys;
+	private final int[] textDocs;
+	private final String[] wordKeys;
+	private final int[] wordDocs;
+
+	private PrefixIndex(String[] textKeys, int[] textDocs, String[] wordKeys, int[] wordDocs) {
+		this.textKeys = textKeys;
+		this.textDocs = textDocs;
+		this.wordKeys = wordKeys;
+		this.wordDocs = wordDocs;
+	}
+
+	/**
+	 * Callback for matching documents
+	 */
+	@FunctionalInterface
+	public interface MatchConsumer {
+
+		/**
+		 * @param doc ID of a matching document
+		 * @return false to stop the lookup
+		 */
+		boolean accept(int doc);
+
+	}
+
+	/**
+	 * Return a new index that also contains the given documents
+	 *
+	 * @param firstDoc ID of texts.get(0); following texts get consecutive IDs
+	 * @param texts Normalized (e.g., lower-cased) document texts
+	 * @return The extended index
+	 */
+	public PrefixIndex withDocuments(int firstDoc, List<String> texts) {
+		List<Entry> addedTexts = new ArrayList<>(texts.size());
+		List<Entry> addedWords = new ArrayList<>();
+		for (int i = 0; i < texts.size(); i++) {
+			String text = texts.get(i);
+			addedTexts.add(new Entry(text, firstDoc + i));
+			for (int start = 1; start < text.length(); start++) {
+				if (Character.isLetterOrDigit(text.charAt(start)) && !Character.isLetterOrDigit(text.charAt(start - 1))) {
+					addedWords.add(new Entry(text.substring(start), firstDoc + i));
+				}
+			}
+		}
+
+		Merged mergedTexts = merge(textKeys, textDocs, addedTexts);
+		Merged mergedWords = merge(wordKeys, wordDocs, addedWords);
+		return new PrefixIndex(mergedTexts.keys, mergedTexts.docs, mergedWords.keys, mergedWords.docs);
+	}
+
+	/**
+	 * Find documents with a text or word starting with the prefix
+	 *
+	 * Whole-text matches come first, each group in key order. A document
+	 * may be reported more than once (e.g., two of its words match).
+	 *
+	 * @param prefix Normalized prefix
+	 * @param live Filter for documents that may be reported (e.g., not deleted)
+	 * @param consumer Receives matching documents until it returns false
+	 */
+	public void match(String prefix, IntPredicate live, MatchConsumer consumer) {
+		if (scan(textKeys, textDocs, prefix, live, consumer)) {
+			scan(wordKeys, wordDocs, prefix, live, consumer);
+		}
+	}
+
+	/**
+	 * @return false if the consumer stopped the lookup
+	 */
+	private static boolean scan(String[] keys, int[] docs, String prefix, IntPredicate live, MatchConsumer consumer) {
+		int index = Arrays.binarySearch(keys, prefix);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		for (; index < keys.length && keys[index].startsWith(prefix); index++) {
+			if (live.test(docs[index]) && !consumer.accept(docs[index])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Merged merge(String[] keys, int[] docs, List<Entry> added) {
+		added.sort(Comparator.comparing(Entry::key));
+		String[] mergedKeys = new String[keys.length + added.size()];
+		int[] mergedDocs = new int[mergedKeys.length];
+
+		int existing = 0;
+		int next = 0;
+		for (int out = 0; out < mergedKeys.length; out++) {
+			if (next == added.size() || (existing < keys.length && keys[existing].compareTo(added.get(next).key()) <= 0)) {
+				mergedKeys[out] = keys[existing];
+				mergedDocs[out] = docs[existing++];
+			} else {
+				mergedKeys[out] = added.get(next).key();
+				mergedDocs[out] = added.get(next++).doc();
+			}
+		}
+		return new Merged(mergedKeys, mergedDocs);
+	}
+
+	private record Entry(String key, int doc) {
+	}
+
+	private record Merged(String[] keys, int[] docs) {
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.fitfamily.app.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Run in-memory side effects of a database change only once its transaction has ended.
+ *
+ * Outside a transaction (e.g., in unit tests) the change is already
+ * committed, so the callback runs immediately.
+ */
+public class TransactionCallbacks {
+
+	/**
+	 * Run an action once the current transaction has committed (never if it rolls back)
+	 *
+	 * @param action The action
+	 */
+	public static void afterCommit(Runnable action) {
+		afterCompletion(committed -> {
+			if (committed) {
+				action.run();
+			}
+		});
+	}
+
+	/**
+	 * Run an action once the current transaction has committed or rolled back
+	 *
+	 * @param action Called with true if the transaction committed
+	 */
+	public static void afterCompletion(Consumer<Boolean> action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.accept(true);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				action.accept(status == STATUS_COMMITTED);
+			}
+		});
+	}
+
+	// Private constructor to prevent instantiation
+	private TransactionCallbacks() {
+		throw new UnsupportedOperationException("Utility class cannot be instantiated");
+	}
+
+}
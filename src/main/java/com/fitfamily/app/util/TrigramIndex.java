@@ -0,0 +1,204 @@
+package com.fitfamily.app.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable trigram inverted index over documents identified by int IDs.
+ * 
+ * Each distinct 3-character sequence maps to a sorted int[] of the
+ * documents containing it. Trigram keys are kept in a sorted long[] and
+ * looked up by binary search, so lookups allocate nothing and postings
+ * stay primitive. Documents are added in batches that return a new index;
+ * unchanged posting arrays are shared with the previous index.
+ * 
+ * An index created from EMPTY_WITH_SHORT_GRAMS also keeps the postings of
+ * every 1- and 2-character sequence, so tokens shorter than a trigram are
+ * looked up exactly instead of scanning every document. That roughly
+ * triples the postings, so indexes that only see longer tokens leave it out.
+ */
+public final class TrigramIndex {
+
+	public static final int GRAM = 3;
+
+	public static final TrigramIndex EMPTY = new TrigramIndex(new long[0], new int[0][], false);
+
+	public static final TrigramIndex EMPTY_WITH_SHORT_GRAMS = new TrigramIndex(new long[0], new int[0][], true);
+
+	private static final int[] NO_DOCS = new int[0];
+
+	private final long[] keys;
+	private final int[][] postings;
+	private final boolean shortGrams;
+
+	private TrigramIndex(long[] keys, int[][] postings, boolean shortGrams) {
+		this.keys = keys;
+		this.postings = postings;
+		this.shortGrams = shortGrams;
+	}
+
+	/**
+	 * Return a new index that also contains the given documents
+	 * 
+	 * @param firstDoc ID of texts.get(0); following texts get consecutive IDs,
+	 *                 which must be higher than every ID already in the index
+	 * @param texts Normalized (e.g., lower-cased) document texts
+	 * @return The extended index
+	 */
+	public TrigramIndex withDocuments(int firstDoc, List<String> texts) {
+		Map<Long, IntList> added = new HashMap<>();
+		for (int i = 0; i < texts.size(); i++) {
+			String text = texts.get(i);
+			int doc = firstDoc + i;
+			for (int start = 0; start < text.length(); start++) {
+				for (int length = shortGrams ? 1 : GRAM; length <= GRAM && start + length <= text.length(); length++) {
+					IntList docs = added.computeIfAbsent(key(text, start, length), k -> new IntList());
+					// Documents arrive in ID order, so a repeated gram is always the last entry
+					if (docs.size == 0 || docs.last() != doc) {
+						docs.add(doc);
+					}
+				}
+			}
+		}
+		if (added.isEmpty()) {
+			return this;
+		}
+
+		long[] addedKeys = added.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+		long[] mergedKeys = new long[keys.length + addedKeys.length];
+		int[][] mergedPostings = new int[mergedKeys.length][];
+
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < keys.length || j < addedKeys.length) {
+			if (j == addedKeys.length || (i < keys.length && keys[i] < addedKeys[j])) {
+				mergedKeys[n] = keys[i];
+				mergedPostings[n++] = postings[i++];
+			} else if (i == keys.length || addedKeys[j] < keys[i]) {
+				mergedKeys[n] = addedKeys[j];
+				mergedPostings[n++] = added.get(addedKeys[j++]).toArray();
+			} else {
+				// New IDs are higher than existing ones, so appending keeps the posting sorted
+				IntList docs = added.get(addedKeys[j]);
+				int[] merged = Arrays.copyOf(postings[i], postings[i].length + docs.size);
+				System.arraycopy(docs.values, 0, merged, postings[i].length, docs.size);
+				mergedKeys[n] = keys[i++];
+				mergedPostings[n++] = merged;
+				j++;
+			}
+		}
+
+		return new TrigramIndex(Arrays.copyOf(mergedKeys, n), Arrays.copyOf(mergedPostings, n), shortGrams);
+	}
+
+	/**
+	 * Documents containing every trigram of the token
+	 * 
+	 * This is a candidate set: a document containing all trigrams does not
+	 * necessarily contain the token itself, so callers verify matches. A
+	 * token shorter than GRAM has a single posting, which is exact.
+	 * 
+	 * @param token Normalized token of at least GRAM characters, or of at
+	 *              least one character in an index with short grams
+	 * @return Sorted document IDs (empty if any trigram is unknown)
+	 */
+	public int[] candidates(String token) {
+		if (token.length() < GRAM) {
+			if (!shortGrams || token.isEmpty()) {
+				throw new IllegalArgumentException("Token too short for this index: '" + token + "'");
+			}
+			int index = Arrays.binarySearch(keys, key(token, 0, token.length()));
+			return index < 0 ? NO_DOCS : postings[index];
+		}
+
+		int count = token.length() - GRAM + 1;
+		int[][] lists = new int[count][];
+		for (int start = 0; start < count; start++) {
+			int index = Arrays.binarySearch(keys, key(token, start, GRAM));
+			if (index < 0) {
+				return NO_DOCS;
+			}
+			lists[start] = postings[index];
+		}
+
+		// Intersect the shortest postings first so the working set shrinks fastest
+		Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+		int[] result = lists[0];
+		for (int k = 1; k < lists.length && result.length > 0; k++) {
+			result = intersect(result, lists[k]);
+		}
+		return result;
+	}
+
+	/**
+	 * Number of distinct grams (trigrams, plus shorter ones if kept) in the index
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Intersect two sorted int arrays
+	 * 
+	 * Walks the smaller array and binary-searches the larger one from the
+	 * last match, which is O(small * log(large)).
+	 */
+	public static int[] intersect(int[] a, int[] b) {
+		int[] small = a.length <= b.length ? a : b;
+		int[] large = a.length <= b.length ? b : a;
+		int[] result = new int[small.length];
+		int n = 0;
+		int from = 0;
+		for (int value : small) {
+			int index = Arrays.binarySearch(large, from, large.length, value);
+			if (index >= 0) {
+				result[n++] = value;
+				from = index + 1;
+			} else {
+				from = -index - 1;
+			}
+			if (from == large.length) {
+				break;
+			}
+		}
+		return n == result.length ? result : Arrays.copyOf(result, n);
+	}
+
+	/**
+	 * Pack length characters into a key; shorter grams are tagged with their
+	 * length above the 48 character bits so they never collide with trigrams
+	 */
+	private static long key(String text, int start, int length) {
+		long key = 0;
+		for (int i = 0; i < length; i++) {
+			key = (key << 16) | text.charAt(start + i);
+		}
+		return length < GRAM ? key | ((long) length << 48) : key;
+	}
+
+	private static final class IntList {
+
+		private int[] values = new int[4];
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int last() {
+			return values[size - 1];
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.fitfamily.app.benchmark;
+
+import com.fitfamily.app.FitFamilyApplication;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.service.FoodCatalogImporter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Database statements per food lookup with and without the Hibernate
+ * second-level cache, on the full application context (H2 in-memory).
+ *
+ * foodLogLookup is what FoodLogService.addFoodLog reads (a food and a
+ * portion by ID); portionList walks Food.foodPortions. The "statements"
+ * counter is JDBC statements per millisecond, so statements / ops is the
+ * number of database hits per lookup; the tear-down also prints it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FoodLookupCacheBenchmark {
+
+	private static final int FOODS = 2_000;
+
+	@Param({"true", "false"})
+	public boolean secondLevelCache;
+
+	private Path directory;
+	private ConfigurableApplicationContext context;
+	private FoodRepository foodRepository;
+	private FoodPortionRepository foodPortionRepository;
+	private TransactionTemplate transaction;
+	private Statistics statistics;
+	private UUID[] foodIds;
+	private UUID[] portionIds;
+	private long statementsAtStart;
+	private long lookupsAtStart;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class DatabaseHits {
+
+		public long statements;
+
+		private final Random random = new Random(7);
+
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("lookup-cache-benchmark");
+		// Arguments, since they take precedence over application.yaml
+		context = new SpringApplicationBuilder(FitFamilyApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:lookup_cache_benchmark;MODE=PostgreSQL",
+						"--spring.jpa.show-sql=false",
+						"--logging.level.root=WARN",
+						"--logging.level.com.fitfamily.app=WARN",
+						"--logging.level.org.hibernate.SQL=WARN",
+						"--history.store.directory=" + directory.resolve("history"),
+						"--catalog.snapshot.path=" + directory.resolve("catalog.snapshot"),
+						"--food.second-level-cache.enabled=" + secondLevelCache);
+		foodRepository = context.getBean(FoodRepository.class);
+		foodPortionRepository = context.getBean(FoodPortionRepository.class);
+		transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+		StringBuilder csv = new StringBuilder("name,calories_per_100g,protein_per_100g,carbs_per_100g,fat_per_100g,portion_label,portion_grams\n");
+		Random random = new Random(42);
+		for (int i = 0; i < FOODS; i++) {
+			csv.append("Benchmark Food ").append(i).append(',').append(random.nextInt(900)).append(",10,20,5,100g,100\n");
+			csv.append("Benchmark Food ").append(i).append(',').append(random.nextInt(900)).append(",10,20,5,1 bowl,")
+					.append(100 + random.nextInt(200)).append('\n');
+		}
+		context.getBean(FoodCatalogImporter.class).importCsv(new BufferedReader(new StringReader(csv.toString())));
+
+		List<FoodPortion> portions = foodPortionRepository.findAll();
+		foodIds = new UUID[portions.size()];
+		portionIds = new UUID[portions.size()];
+		for (int i = 0; i < portions.size(); i++) {
+			foodIds[i] = portions.get(i).getFood().getId();
+			portionIds[i] = portions.get(i).getId();
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void startCounting() {
+		statementsAtStart = statistics.getPrepareStatementCount();
+		lookupsAtStart = statistics.getTransactionCount();
+	}
+
+	@TearDown(Level.Iteration)
+	public void printHits() {
+		long lookups = statistics.getTransactionCount() - lookupsAtStart;
+		System.out.printf("  [second-level cache %s] %.2f statements per lookup, %d cache hits, %d misses%n",
+				secondLevelCache ? "on" : "off",
+				(double) (statistics.getPrepareStatementCount() - statementsAtStart) / Math.max(lookups, 1),
+				statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		context.close();
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public double foodLogLookup(DatabaseHits hits) {
+		int i = hits.random.nextInt(portionIds.length);
+		long before = statistics.getPrepareStatementCount();
+		double grams = transaction.execute(status -> {
+			Food food = foodRepository.findById(foodIds[i]).orElseThrow();
+			FoodPortion portion = foodPortionRepository.findById(portionIds[i]).orElseThrow();
+			return food.getCaloriesPer100g() * portion.getGrams();
+		});
+		hits.statements += statistics.getPrepareStatementCount() - before;
+		return grams;
+	}
+
+	@Benchmark
+	public int portionList(DatabaseHits hits) {
+		int i = hits.random.nextInt(foodIds.length);
+		long before = statistics.getPrepareStatementCount();
+		int count = transaction.execute(status ->
+				foodRepository.findById(foodIds[i]).orElseThrow().getFoodPortions().size());
+		hits.statements += statistics.getPrepareStatementCount() - before;
+		return count;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(FoodLookupCacheBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
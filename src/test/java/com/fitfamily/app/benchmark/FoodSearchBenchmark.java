@@ -0,0 +1,124 @@
+package com.fitfamily.app.benchmark;
+
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.service.FoodSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Food name search over a 500k-food catalog: the in-memory trigram index
+ * versus "lower(name) like %q%" on H2 (the substring match of the database
+ * search used until the index is built). SampleTime mode reports p50/p90/p99
+ * per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class FoodSearchBenchmark {
+
+	private static final int FOODS = 500_000;
+
+	private static final String[] PREPARATIONS = {
+		"Grilled", "Fried", "Baked", "Steamed", "Roasted", "Boiled", "Spicy", "Smoked", "Creamy", "Crispy",
+		"Tandoori", "Masala", "Garlic", "Lemon", "Honey", "Sweet", "Sour", "Stuffed", "Mashed", "Raw"
+	};
+
+	private static final String[] INGREDIENTS = {
+		"Chicken", "Paneer", "Rice", "Lentil", "Potato", "Salmon", "Tofu", "Mutton", "Egg", "Spinach",
+		"Chickpea", "Mushroom", "Cauliflower", "Prawn", "Beef", "Quinoa", "Oats", "Corn", "Cabbage", "Pumpkin",
+		"Broccoli", "Turkey", "Pork", "Bean", "Carrot", "Peas", "Okra", "Eggplant", "Apple", "Mango"
+	};
+
+	private static final String[] DISHES = {
+		"Curry", "Salad", "Soup", "Wrap", "Sandwich", "Biryani", "Pulao", "Stew", "Tikka", "Kebab",
+		"Pasta", "Noodles", "Burger", "Pizza", "Roll", "Bowl", "Pie", "Fritters", "Dal", "Paratha"
+	};
+
+	@Param({"paneer tikka", "chicken", "sal", "grilled salmon bowl"})
+	public String query;
+
+	private FoodSearchIndex index;
+	private Connection connection;
+	private PreparedStatement likeStatement;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		List<FoodResponse> foods = catalog(FOODS);
+
+		index = new FoodSearchIndex(2);
+		index.rebuild(foods);
+
+		connection = DriverManager.getConnection("jdbc:h2:mem:food_search_benchmark");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("create table foods (id uuid primary key, name varchar(255) not null unique)");
+		}
+		try (PreparedStatement insert = connection.prepareStatement("insert into foods values (?, ?)")) {
+			for (FoodResponse food : foods) {
+				insert.setObject(1, food.getId());
+				insert.setString(2, food.getName());
+				insert.addBatch();
+			}
+			insert.executeBatch();
+		}
+		likeStatement = connection.prepareStatement("select id, name from foods where lower(name) like ?");
+	}
+
+	/**
+	 * Deterministic catalog of "Preparation Ingredient Dish #n" names
+	 */
+	static List<FoodResponse> catalog(int size) {
+		Random random = new Random(42);
+		List<FoodResponse> foods = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			String name = PREPARATIONS[random.nextInt(PREPARATIONS.length)] + " "
+					+ INGREDIENTS[random.nextInt(INGREDIENTS.length)] + " "
+					+ DISHES[random.nextInt(DISHES.length)] + " #" + i;
+			foods.add(new FoodResponse(UUID.randomUUID(), name, List.of()));
+		}
+		return foods;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		likeStatement.close();
+		connection.close();
+	}
+
+	@Benchmark
+	public List<FoodResponse> trigramIndex() {
+		return index.search(query, null, 20).getFoods();
+	}
+
+	@Benchmark
+	public void sqlLike(Blackhole blackhole) throws SQLException {
+		likeStatement.setString(1, "%" + query.toLowerCase() + "%");
+		try (ResultSet resultSet = likeStatement.executeQuery()) {
+			while (resultSet.next()) {
+				blackhole.consume(resultSet.getObject(1));
+				blackhole.consume(resultSet.getString(2));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(FoodSearchBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
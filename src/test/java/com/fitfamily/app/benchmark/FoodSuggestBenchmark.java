@@ -0,0 +1,77 @@
+package com.fitfamily.app.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.service.FoodSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead over the 500k-food catalog of FoodSearchBenchmark: a /foods/suggest
+ * response (prefix index lookup plus streamed id/name JSON) versus serializing
+ * a /foods/search page of full FoodResponses for the same keystroke. Short
+ * prefixes are the worst case for search, which ranks every substring match.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class FoodSuggestBenchmark {
+
+	private static final int FOODS = 500_000;
+	private static final int LIMIT = 8;
+
+	@Param({"c", "chi", "paneer t", "sal"})
+	public String prefix;
+
+	private FoodSearchIndex index;
+	private ObjectMapper objectMapper;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		index = new FoodSearchIndex(2);
+		index.rebuild(FoodSearchBenchmark.catalog(FOODS));
+		objectMapper = new ObjectMapper();
+	}
+
+	@Benchmark
+	public byte[] suggest() throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream(32 + LIMIT * 64);
+		try (JsonGenerator json = objectMapper.getFactory().createGenerator(body)) {
+			json.writeStartArray();
+			for (FoodResponse food : index.suggest(prefix, LIMIT)) {
+				json.writeStartObject();
+				json.writeStringField("id", food.getId().toString());
+				json.writeStringField("name", food.getName());
+				json.writeEndObject();
+			}
+			json.writeEndArray();
+		}
+		return body.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] search() throws IOException {
+		List<FoodResponse> foods = index.search(prefix, null, LIMIT).getFoods();
+		return objectMapper.writeValueAsBytes(foods);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(FoodSuggestBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
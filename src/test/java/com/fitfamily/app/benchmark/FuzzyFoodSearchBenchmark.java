@@ -0,0 +1,91 @@
+package com.fitfamily.app.benchmark;
+
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.service.FoodSearchIndex;
+import com.fitfamily.app.util.EditDistance;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typo-tolerant search over the 500k-food catalog of FoodSearchBenchmark:
+ * the index's trigram-filtered word lookup versus computing the bounded
+ * edit distance against every word of every food name. SampleTime mode
+ * reports p50/p90/p99 per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class FuzzyFoodSearchBenchmark {
+
+	private static final int FOODS = 500_000;
+	private static final int MAX_EDITS = 2;
+
+	@Param({"panner tika", "chiken", "griled salmon bowl", "biryni"})
+	public String query;
+
+	private FoodSearchIndex index;
+	private String[][] nameWords;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<FoodResponse> foods = FoodSearchBenchmark.catalog(FOODS);
+
+		index = new FoodSearchIndex(MAX_EDITS);
+		index.rebuild(foods);
+
+		nameWords = new String[foods.size()][];
+		for (int i = 0; i < foods.size(); i++) {
+			nameWords[i] = foods.get(i).getName().toLowerCase(Locale.ROOT).split(" ");
+		}
+	}
+
+	@Benchmark
+	public List<FoodResponse> fuzzyIndex() {
+		return index.search(query, null, 20).getFoods();
+	}
+
+	@Benchmark
+	public List<Integer> fullScan() {
+		String[] tokens = query.split(" ");
+		List<Integer> matches = new ArrayList<>();
+		for (int doc = 0; doc < nameWords.length; doc++) {
+			boolean all = true;
+			for (String token : tokens) {
+				boolean found = false;
+				for (String word : nameWords[doc]) {
+					if (EditDistance.bounded(token, word, MAX_EDITS) <= MAX_EDITS) {
+						found = true;
+						break;
+					}
+				}
+				if (!found) {
+					all = false;
+					break;
+				}
+			}
+			if (all) {
+				matches.add(doc);
+			}
+		}
+		return matches;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(FuzzyFoodSearchBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
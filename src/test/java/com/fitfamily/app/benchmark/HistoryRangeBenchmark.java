@@ -0,0 +1,132 @@
+package com.fitfamily.app.benchmark;
+
+import com.fitfamily.app.repository.DailyTotalsStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares a five-year history read from the memory-mapped DailyTotalsStore
+ * with the equivalent SQL GROUP BY over food_logs (H2 in-memory).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryRangeBenchmark {
+
+	private static final int DAYS = 1827;
+	private static final int LOGS_PER_DAY = 4;
+
+	private Path storeDirectory;
+	private DailyTotalsStore store;
+	private Connection connection;
+	private PreparedStatement groupByStatement;
+	private UUID userId;
+	private LocalDate from;
+	private LocalDate to;
+	private long[] buffer;
+
+	@Setup
+	public void setUp() throws Exception {
+		storeDirectory = Files.createTempDirectory("history-benchmark");
+		store = new DailyTotalsStore(storeDirectory.toString(), 1000);
+		userId = UUID.randomUUID();
+		to = LocalDate.of(2025, 12, 31);
+		from = to.minusDays(DAYS - 1);
+		buffer = new long[DAYS * DailyTotalsStore.FIELDS];
+
+		connection = DriverManager.getConnection("jdbc:h2:mem:history_benchmark");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("create table food_logs (id uuid primary key, user_id uuid not null, date date not null, " +
+					"calories_milli bigint not null, protein_milli bigint not null, " +
+					"carbs_milli bigint not null, fat_milli bigint not null)");
+			statement.execute("create index idx_food_logs_user_date on food_logs(user_id, date)");
+		}
+
+		Random random = new Random(42);
+		try (PreparedStatement insert = connection.prepareStatement(
+				"insert into food_logs values (?, ?, ?, ?, ?, ?, ?)")) {
+			for (int day = 0; day < DAYS; day++) {
+				LocalDate date = from.plusDays(day);
+				for (int log = 0; log < LOGS_PER_DAY; log++) {
+					long calories = random.nextInt(600_000);
+					long protein = random.nextInt(40_000);
+					long carbs = random.nextInt(80_000);
+					long fat = random.nextInt(30_000);
+
+					insert.setObject(1, UUID.randomUUID());
+					insert.setObject(2, userId);
+					insert.setObject(3, date);
+					insert.setLong(4, calories);
+					insert.setLong(5, protein);
+					insert.setLong(6, carbs);
+					insert.setLong(7, fat);
+					insert.addBatch();
+
+					store.add(userId, date, calories, protein, carbs, fat);
+				}
+			}
+			insert.executeBatch();
+		}
+
+		groupByStatement = connection.prepareStatement(
+				"select date, sum(calories_milli), sum(protein_milli), sum(carbs_milli), sum(fat_milli) " +
+				"from food_logs where user_id = ? and date between ? and ? group by date order by date");
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException, IOException {
+		groupByStatement.close();
+		connection.close();
+		try (Stream<Path> files = Files.walk(storeDirectory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public long[] mappedStoreRange() {
+		store.readRange(userId, from, DAYS, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public void sqlGroupByRange(Blackhole blackhole) throws SQLException {
+		groupByStatement.setObject(1, userId);
+		groupByStatement.setObject(2, from);
+		groupByStatement.setObject(3, to);
+		try (ResultSet resultSet = groupByStatement.executeQuery()) {
+			while (resultSet.next()) {
+				blackhole.consume(resultSet.getObject(1));
+				blackhole.consume(resultSet.getLong(2));
+				blackhole.consume(resultSet.getLong(3));
+				blackhole.consume(resultSet.getLong(4));
+				blackhole.consume(resultSet.getLong(5));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(HistoryRangeBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.fitfamily.app.benchmark;
+
+import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.util.FixedPoint;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares floating-point and fixed-point macro aggregation over large log batches.
+ *
+ * Run from the IDE, or after "mvn test-compile":
+ * java -cp target/test-classes:target/classes:<test classpath> com.fitfamily.app.benchmark.MacroAggregationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MacroAggregationBenchmark {
+
+	@Param({"10000", "1000000"})
+	private int size;
+
+	private double[] calories;
+	private double[] protein;
+	private double[] carbs;
+	private double[] fat;
+
+	private long[] caloriesMilli;
+	private long[] proteinMilli;
+	private long[] carbsMilli;
+	private long[] fatMilli;
+
+	private List<FoodLog> foodLogs;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+
+		calories = new double[size];
+		protein = new double[size];
+		carbs = new double[size];
+		fat = new double[size];
+		caloriesMilli = new long[size];
+		proteinMilli = new long[size];
+		carbsMilli = new long[size];
+		fatMilli = new long[size];
+		foodLogs = new ArrayList<>(size);
+
+		for (int i = 0; i < size; i++) {
+			calories[i] = random.nextDouble() * 600;
+			protein[i] = random.nextDouble() * 40;
+			carbs[i] = random.nextDouble() * 80;
+			fat[i] = random.nextDouble() * 30;
+
+			FoodLog log = new FoodLog();
+			log.setCalories(calories[i]);
+			log.setProtein(protein[i]);
+			log.setCarbs(carbs[i]);
+			log.setFat(fat[i]);
+			foodLogs.add(log);
+
+			caloriesMilli[i] = log.getCaloriesMilli();
+			proteinMilli[i] = log.getProteinMilli();
+			carbsMilli[i] = log.getCarbsMilli();
+			fatMilli[i] = log.getFatMilli();
+		}
+	}
+
+	@Benchmark
+	public double sumDoubleColumns() {
+		double totalCalories = 0;
+		double totalProtein = 0;
+		double totalCarbs = 0;
+		double totalFat = 0;
+		for (int i = 0; i < size; i++) {
+			totalCalories += calories[i];
+			totalProtein += protein[i];
+			totalCarbs += carbs[i];
+			totalFat += fat[i];
+		}
+		return totalCalories + totalProtein + totalCarbs + totalFat;
+	}
+
+	@Benchmark
+	public long sumMilliColumns() {
+		long totalCalories = 0;
+		long totalProtein = 0;
+		long totalCarbs = 0;
+		long totalFat = 0;
+		for (int i = 0; i < size; i++) {
+			totalCalories += caloriesMilli[i];
+			totalProtein += proteinMilli[i];
+			totalCarbs += carbsMilli[i];
+			totalFat += fatMilli[i];
+		}
+		return totalCalories + totalProtein + totalCarbs + totalFat;
+	}
+
+	@Benchmark
+	public double sumFoodLogsAsDouble() {
+		double totalCalories = 0;
+		double totalProtein = 0;
+		double totalCarbs = 0;
+		double totalFat = 0;
+		for (FoodLog log : foodLogs) {
+			totalCalories += log.getCalories();
+			totalProtein += log.getProtein();
+			totalCarbs += log.getCarbs();
+			totalFat += log.getFat();
+		}
+		return totalCalories + totalProtein + totalCarbs + totalFat;
+	}
+
+	@Benchmark
+	public double sumFoodLogsAsMilli() {
+		long totalCalories = 0;
+		long totalProtein = 0;
+		long totalCarbs = 0;
+		long totalFat = 0;
+		for (FoodLog log : foodLogs) {
+			totalCalories += log.getCaloriesMilli();
+			totalProtein += log.getProteinMilli();
+			totalCarbs += log.getCarbsMilli();
+			totalFat += log.getFatMilli();
+		}
+		return FixedPoint.fromMilli(totalCalories + totalProtein + totalCarbs + totalFat);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(MacroAggregationBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.fitfamily.app.benchmark;
+
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.service.MealPlanMatrix;
+import com.fitfamily.app.service.MealPlanOptimizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meal plan generation on synthetic catalogs of 1k to 100k foods with three
+ * portions each, with one or four fork/join workers and the default
+ * 200 ms budget. SampleTime mode reports p50/p99 latency per plan, which
+ * should never exceed the budget by much; the "complete" counter is plans
+ * per second whose search finished within it (the rest returned the best
+ * plan found so far). The tear-down prints how far plans land from their
+ * targets, as the mean error per nutrient.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class MealPlanBenchmark {
+
+	private static final long TIME_BUDGET_MILLIS = 200;
+	private static final int MAX_ITEMS = 5;
+	private static final int MAX_SERVINGS = 3;
+
+	@Param({"1000", "10000", "100000"})
+	public int foods;
+
+	@Param({"1", "4"})
+	public int parallelism;
+
+	private MealPlanMatrix.Snapshot snapshot;
+	private MealPlanOptimizer optimizer;
+	private double[][] targets;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Outcome {
+
+		public long complete;
+
+		private int next;
+		private int plans;
+		private final double[] error = new double[MealPlanMatrix.NUTRIENTS];
+
+		@TearDown(Level.Iteration)
+		public void printError() {
+			System.out.printf("  [%d plans] mean error: calories %.1f%%, protein %.1f%%, carbs %.1f%%, fat %.1f%%%n",
+					plans, error[0] / plans, error[1] / plans, error[2] / plans, error[3] / plans);
+			plans = 0;
+			Arrays.fill(error, 0);
+		}
+
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		List<FoodDetailsResponse> catalog = new ArrayList<>(foods);
+		for (int i = 0; i < foods; i++) {
+			double protein = random.nextInt(35);
+			double carbs = random.nextInt(80);
+			double fat = random.nextInt(40);
+			List<FoodDetailsResponse.Portion> portions = List.of(
+					new FoodDetailsResponse.Portion(UUID.randomUUID(), "100g", 100),
+					new FoodDetailsResponse.Portion(UUID.randomUUID(), "1 bowl", 150 + random.nextInt(150)),
+					new FoodDetailsResponse.Portion(UUID.randomUUID(), "1 spoon", 5 + random.nextInt(20)));
+			catalog.add(new FoodDetailsResponse(UUID.randomUUID(), "Food " + i,
+					protein * 4 + carbs * 4 + fat * 9, protein, carbs, fat, portions));
+		}
+		MealPlanMatrix matrix = new MealPlanMatrix();
+		matrix.rebuild(catalog);
+		snapshot = matrix.current();
+		optimizer = new MealPlanOptimizer(parallelism, 24);
+
+		// A spread of daily targets, from cutting to bulking
+		targets = new double[16][];
+		for (int i = 0; i < targets.length; i++) {
+			double calories = 1400 + random.nextInt(1800);
+			double protein = calories * (0.2 + random.nextDouble() * 0.15) / 4;
+			double fat = calories * (0.2 + random.nextDouble() * 0.15) / 9;
+			targets[i] = new double[] {calories, protein, (calories - protein * 4 - fat * 9) / 4, fat};
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		optimizer.shutdown();
+	}
+
+	@Benchmark
+	public MealPlanOptimizer.Plan plan(Outcome outcome) {
+		double[] target = targets[outcome.next++ % targets.length];
+		MealPlanOptimizer.Plan plan = optimizer.optimize(snapshot, target, MAX_ITEMS, MAX_SERVINGS, TIME_BUDGET_MILLIS);
+		if (plan.complete()) {
+			outcome.complete++;
+		}
+		double[] totals = new double[MealPlanMatrix.NUTRIENTS];
+		for (int i = 0; i < plan.rows().length; i++) {
+			for (int n = 0; n < totals.length; n++) {
+				totals[n] += snapshot.nutrient(plan.rows()[i], n) * plan.servings()[i];
+			}
+		}
+		for (int n = 0; n < totals.length; n++) {
+			outcome.error[n] += Math.abs(totals[n] - target[n]) * 100 / target[n];
+		}
+		outcome.plans++;
+		return plan;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(MealPlanBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.fitfamily.app.benchmark;
+
+import com.fitfamily.app.dto.FoodNutrientsResponse;
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.service.NutrientIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nutrient queries over a 500k-food catalog: the in-memory k-d tree with a
+ * bounded top-K heap versus the equivalent SQL on H2 (range predicates and,
+ * for ratios, "order by protein / calories"), which has to scan the table.
+ * SampleTime mode reports p50/p90/p99 per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class NutrientQueryBenchmark {
+
+	private static final int FOODS = 500_000;
+	private static final int LIMIT = 20;
+
+	/**
+	 * highProteinLowCalorie: at least 20g protein and at most 200 kcal, by name
+	 * proteinPerCalorie: highest protein per calorie among foods with 50+ kcal
+	 * lowCarbHighFat: under 5g carbs and over 30g fat, most protein first
+	 */
+	@Param({"highProteinLowCalorie", "proteinPerCalorie", "lowCarbHighFat"})
+	public String query;
+
+	private NutrientIndex index;
+	private NutrientIndex.Query indexQuery;
+	private Connection connection;
+	private PreparedStatement sqlStatement;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		List<FoodNutrientsResponse> foods = catalog(FOODS);
+		index = new NutrientIndex();
+		index.rebuild(foods);
+
+		connection = DriverManager.getConnection("jdbc:h2:mem:nutrient_query_benchmark;OPTIMIZE_REUSE_RESULTS=FALSE");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("create table foods (id uuid primary key, name varchar(255) not null, "
+					+ "calories_per100g double not null, protein_per100g double not null, "
+					+ "carbs_per100g double not null, fat_per100g double not null)");
+		}
+		try (PreparedStatement insert = connection.prepareStatement("insert into foods values (?, ?, ?, ?, ?, ?)")) {
+			for (FoodNutrientsResponse food : foods) {
+				insert.setObject(1, food.getId());
+				insert.setString(2, food.getName());
+				insert.setDouble(3, food.getCaloriesPer100g());
+				insert.setDouble(4, food.getProteinPer100g());
+				insert.setDouble(5, food.getCarbsPer100g());
+				insert.setDouble(6, food.getFatPer100g());
+				insert.addBatch();
+			}
+			insert.executeBatch();
+		}
+
+		double[] min = new double[NutrientIndex.Nutrient.values().length];
+		double[] max = new double[min.length];
+		Arrays.fill(min, Double.NEGATIVE_INFINITY);
+		Arrays.fill(max, Double.POSITIVE_INFINITY);
+		String select = "select id, name, calories_per100g, protein_per100g, carbs_per100g, fat_per100g from foods ";
+		switch (query) {
+			case "highProteinLowCalorie" -> {
+				min[NutrientIndex.Nutrient.PROTEIN.ordinal()] = 20;
+				max[NutrientIndex.Nutrient.CALORIES.ordinal()] = 200;
+				indexQuery = new NutrientIndex.Query(min, max, null, null, false);
+				sqlStatement = connection.prepareStatement(select
+						+ "where protein_per100g >= 20 and calories_per100g <= 200 order by lower(name) limit " + LIMIT);
+			}
+			case "proteinPerCalorie" -> {
+				min[NutrientIndex.Nutrient.CALORIES.ordinal()] = 50;
+				indexQuery = new NutrientIndex.Query(min, max, NutrientIndex.Nutrient.PROTEIN, NutrientIndex.Nutrient.CALORIES, false);
+				sqlStatement = connection.prepareStatement(select
+						+ "where calories_per100g >= 50 order by protein_per100g / calories_per100g desc limit " + LIMIT);
+			}
+			case "lowCarbHighFat" -> {
+				max[NutrientIndex.Nutrient.CARBS.ordinal()] = 5;
+				min[NutrientIndex.Nutrient.FAT.ordinal()] = 30;
+				indexQuery = new NutrientIndex.Query(min, max, NutrientIndex.Nutrient.PROTEIN, null, false);
+				sqlStatement = connection.prepareStatement(select
+						+ "where carbs_per100g <= 5 and fat_per100g >= 30 order by protein_per100g desc limit " + LIMIT);
+			}
+			default -> throw new IllegalArgumentException("Unknown query: " + query);
+		}
+	}
+
+	/**
+	 * The names of FoodSearchBenchmark with plausible, skewed nutrients per 100g
+	 */
+	static List<FoodNutrientsResponse> catalog(int size) {
+		Random random = new Random(7);
+		List<FoodNutrientsResponse> foods = new ArrayList<>(size);
+		for (FoodResponse food : FoodSearchBenchmark.catalog(size)) {
+			double protein = Math.floor(Math.pow(random.nextDouble(), 2) * 400) / 10;
+			double carbs = Math.floor(Math.pow(random.nextDouble(), 1.5) * 800) / 10;
+			double fat = Math.floor(Math.pow(random.nextDouble(), 2) * 500) / 10;
+			double calories = Math.round(protein * 4 + carbs * 4 + fat * 9);
+			foods.add(new FoodNutrientsResponse(food.getId(), food.getName(), calories, protein, carbs, fat));
+		}
+		return foods;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		sqlStatement.close();
+		connection.close();
+	}
+
+	@Benchmark
+	public List<FoodNutrientsResponse> kdTree() {
+		return index.find(indexQuery, LIMIT);
+	}
+
+	@Benchmark
+	public void sql(Blackhole blackhole) throws SQLException {
+		try (ResultSet resultSet = sqlStatement.executeQuery()) {
+			while (resultSet.next()) {
+				blackhole.consume(new FoodNutrientsResponse(resultSet.getObject(1, UUID.class), resultSet.getString(2),
+						resultSet.getDouble(3), resultSet.getDouble(4), resultSet.getDouble(5), resultSet.getDouble(6)));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(NutrientQueryBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.fitfamily.app.benchmark;
+
+import com.fitfamily.app.model.Micronutrient;
+import com.fitfamily.app.model.NutrientVector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares micronutrients as one double field per nutrient (25 columns on
+ * foods and food_logs) with NutrientVector, for scaling a food to a portion
+ * and summing a day's (or a long history's) logs.
+ *
+ * Run from the IDE, or after "mvn test-compile":
+ * java -cp target/test-classes:target/classes:<test classpath> com.fitfamily.app.benchmark.NutrientVectorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NutrientVectorBenchmark {
+
+	// A day of logs, and a long history
+	@Param({"20", "10000"})
+	private int logs;
+
+	private PerField foodFields;
+	private NutrientVector foodVector;
+	private double multiplier;
+
+	private List<PerField> logFields;
+	private List<NutrientVector> logVectors;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		foodFields = randomFields(random);
+		foodVector = foodFields.toVector();
+		multiplier = 1.58;
+
+		logFields = new ArrayList<>(logs);
+		logVectors = new ArrayList<>(logs);
+		for (int i = 0; i < logs; i++) {
+			PerField log = randomFields(random);
+			logFields.add(log);
+			logVectors.add(log.toVector());
+		}
+	}
+
+	@Benchmark
+	public PerField scalePortionPerField() {
+		return foodFields.scaled(multiplier);
+	}
+
+	@Benchmark
+	public NutrientVector scalePortionVector() {
+		return foodVector.scale(multiplier);
+	}
+
+	@Benchmark
+	public PerField sumLogsPerField() {
+		PerField total = new PerField();
+		for (PerField log : logFields) {
+			total.add(log);
+		}
+		return total;
+	}
+
+	@Benchmark
+	public NutrientVector sumLogsVector() {
+		NutrientVector.Sum total = new NutrientVector.Sum();
+		for (NutrientVector log : logVectors) {
+			total.add(log);
+		}
+		return total.toVector();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(NutrientVectorBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+	private static PerField randomFields(Random random) {
+		double[] amounts = new double[NutrientVector.SIZE];
+		for (int i = 0; i < amounts.length; i++) {
+			amounts[i] = (float) (random.nextDouble() * 100);
+		}
+		return PerField.of(amounts);
+	}
+
+	/**
+	 * The per-field alternative: what Food and FoodLog would hold with a column per nutrient
+	 */
+	public static class PerField {
+
+		double fibre, sugar, sodium, potassium, calcium, iron, magnesium, phosphorus, zinc, copper, manganese,
+				selenium, iodine, vitaminA, vitaminC, vitaminD, vitaminE, vitaminK, thiamin, riboflavin, niacin,
+				pantothenicAcid, vitaminB6, folate, vitaminB12;
+
+		static PerField of(double[] a) {
+			PerField f = new PerField();
+			f.fibre = a[0]; f.sugar = a[1]; f.sodium = a[2]; f.potassium = a[3]; f.calcium = a[4];
+			f.iron = a[5]; f.magnesium = a[6]; f.phosphorus = a[7]; f.zinc = a[8]; f.copper = a[9];
+			f.manganese = a[10]; f.selenium = a[11]; f.iodine = a[12]; f.vitaminA = a[13]; f.vitaminC = a[14];
+			f.vitaminD = a[15]; f.vitaminE = a[16]; f.vitaminK = a[17]; f.thiamin = a[18]; f.riboflavin = a[19];
+			f.niacin = a[20]; f.pantothenicAcid = a[21]; f.vitaminB6 = a[22]; f.folate = a[23]; f.vitaminB12 = a[24];
+			return f;
+		}
+
+		// As FoodLogService.addFoodLog would: one multiplication and setter per nutrient
+		PerField scaled(double m) {
+			PerField f = new PerField();
+			f.fibre = fibre * m; f.sugar = sugar * m; f.sodium = sodium * m; f.potassium = potassium * m;
+			f.calcium = calcium * m; f.iron = iron * m; f.magnesium = magnesium * m; f.phosphorus = phosphorus * m;
+			f.zinc = zinc * m; f.copper = copper * m; f.manganese = manganese * m; f.selenium = selenium * m;
+			f.iodine = iodine * m; f.vitaminA = vitaminA * m; f.vitaminC = vitaminC * m; f.vitaminD = vitaminD * m;
+			f.vitaminE = vitaminE * m; f.vitaminK = vitaminK * m; f.thiamin = thiamin * m;
+			f.riboflavin = riboflavin * m; f.niacin = niacin * m; f.pantothenicAcid = pantothenicAcid * m;
+			f.vitaminB6 = vitaminB6 * m; f.folate = folate * m; f.vitaminB12 = vitaminB12 * m;
+			return f;
+		}
+
+		void add(PerField o) {
+			fibre += o.fibre; sugar += o.sugar; sodium += o.sodium; potassium += o.potassium;
+			calcium += o.calcium; iron += o.iron; magnesium += o.magnesium; phosphorus += o.phosphorus;
+			zinc += o.zinc; copper += o.copper; manganese += o.manganese; selenium += o.selenium;
+			iodine += o.iodine; vitaminA += o.vitaminA; vitaminC += o.vitaminC; vitaminD += o.vitaminD;
+			vitaminE += o.vitaminE; vitaminK += o.vitaminK; thiamin += o.thiamin; riboflavin += o.riboflavin;
+			niacin += o.niacin; pantothenicAcid += o.pantothenicAcid; vitaminB6 += o.vitaminB6;
+			folate += o.folate; vitaminB12 += o.vitaminB12;
+		}
+
+		NutrientVector toVector() {
+			double[] a = {fibre, sugar, sodium, potassium, calcium, iron, magnesium, phosphorus, zinc, copper,
+					manganese, selenium, iodine, vitaminA, vitaminC, vitaminD, vitaminE, vitaminK, thiamin, riboflavin,
+					niacin, pantothenicAcid, vitaminB6, folate, vitaminB12};
+			Map<Micronutrient, Double> amounts = new EnumMap<>(Micronutrient.class);
+			for (Micronutrient nutrient : Micronutrient.values()) {
+				amounts.put(nutrient, a[nutrient.ordinal()]);
+			}
+			return NutrientVector.of(amounts);
+		}
+
+	}
+
+}
@@ -3,6 +3,8 @@ package com.fitfamily.app.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitfamily.app.dto.*;
 import com.fitfamily.app.model.MealType;
+import com.fitfamily.app.model.Micronutrient;
+import com.fitfamily.app.model.NutrientVector;
 import com.fitfamily.app.repository.FoodLogRepository;
 import com.fitfamily.app.repository.FoodPortionRepository;
 import com.fitfamily.app.repository.FoodRepository;
@@ -57,7 +59,7 @@ class DashboardControllerIT {
 	@BeforeEach
 	void setUp() throws Exception {
 		// Get seeded food IDs from database
-		var riceFood = foodRepository.findByNameContainingIgnoreCase("Rice").stream().findFirst().orElseThrow();
+		var riceFood = foodRepository.findByName("Rice").orElseThrow();
 		riceId = riceFood.getId();
 		riceCupPortionId = foodPortionRepository.findByFood(riceFood).stream()
 			.filter(p -> p.getLabel().contains("cup"))
@@ -65,7 +67,7 @@ class DashboardControllerIT {
 			.orElseThrow()
 			.getId();
 
-		var chickenFood = foodRepository.findByNameContainingIgnoreCase("Chicken").stream().findFirst().orElseThrow();
+		var chickenFood = foodRepository.findByName("Chicken Breast").orElseThrow();
 		chickenId = chickenFood.getId();
 		chicken100gPortionId = foodPortionRepository.findByFood(chickenFood).stream()
 			.filter(p -> p.getLabel().equals("100g"))
@@ -351,6 +353,123 @@ class DashboardControllerIT {
 		org.junit.jupiter.api.Assertions.assertEquals(2, foodLogsCount, "Should have 2 food logs");
 	}
 
+	@Test
+	void getUserDailyDashboard_sumsMicronutrientsOfPortions() throws Exception {
+		// Arrange - User 1 logged a cup of rice and 100g of chicken
+		NutrientVector rice = foodRepository.findById(riceId).orElseThrow().getMicronutrientsPer100g();
+		NutrientVector chicken = foodRepository.findById(chickenId).orElseThrow().getMicronutrientsPer100g();
+		double cupGrams = foodPortionRepository.findById(riceCupPortionId).orElseThrow().getGrams();
+		double sodium = rice.get(Micronutrient.SODIUM) * cupGrams / 100 + chicken.get(Micronutrient.SODIUM);
+
+		// Act & Assert
+		mockMvc.perform(get("/dashboard/daily")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.micronutrients.sodium").value(closeTo(sodium, 0.001)))
+			.andExpect(jsonPath("$.micronutrients.fibre").value(closeTo(rice.get(Micronutrient.FIBRE) * cupGrams / 100, 0.001)))
+			.andExpect(jsonPath("$.micronutrients.niacin").value(closeTo(chicken.get(Micronutrient.NIACIN), 0.001)))
+			.andExpect(jsonPath("$.micronutrients.vitaminD").doesNotExist());
+	}
+
+	@Test
+	void getDashboards_includeLoggingStreak() throws Exception {
+		// Act & Assert - Both users logged today for the first time
+		mockMvc.perform(get("/dashboard/daily")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.streak.currentStreak").value(1))
+			.andExpect(jsonPath("$.streak.longestStreak").value(1))
+			.andExpect(jsonPath("$.streak.lastLoggedDate").value(LocalDate.now().toString()));
+
+		mockMvc.perform(get("/dashboard/family")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$[*].dashboard.streak.currentStreak", everyItem(is(1))));
+	}
+
+	@Test
+	void getDashboards_databaseHealthy_notMarkedStale() throws Exception {
+		mockMvc.perform(get("/dashboard/daily")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist(DashboardController.STALE_HEADER));
+
+		mockMvc.perform(get("/dashboard/family")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist(DashboardController.STALE_HEADER));
+	}
+
+	@Test
+	void getHistory_defaultRange_lastDayMatchesDailyDashboard() throws Exception {
+		// Arrange
+		MvcResult dailyResult = mockMvc.perform(get("/dashboard/daily")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andReturn();
+		double todayCalories = objectMapper.readTree(dailyResult.getResponse().getContentAsString())
+			.get("summary").get("calories").asDouble();
+
+		// Act & Assert - Default range is the last 30 days ending today
+		mockMvc.perform(get("/dashboard/history")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.to").value(LocalDate.now().toString()))
+			.andExpect(jsonPath("$.from").value(LocalDate.now().minusDays(29).toString()))
+			.andExpect(jsonPath("$.calories", hasSize(30)))
+			.andExpect(jsonPath("$.calories[29]").value(todayCalories))
+			.andExpect(jsonPath("$.calories[28]").value(0.0));
+	}
+
+	@Test
+	void getHistory_afterDelete_subtractsLog() throws Exception {
+		// Arrange - User 1 logs a snack and deletes it again
+		AddFoodLogRequest request = new AddFoodLogRequest();
+		request.setFoodId(riceId);
+		request.setPortionId(riceCupPortionId);
+		request.setMealType(MealType.SNACK);
+
+		MvcResult addResult = mockMvc.perform(post("/food-logs")
+				.header("Authorization", "Bearer " + user1Token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request)))
+			.andExpect(status().isCreated())
+			.andReturn();
+		String logId = objectMapper.readTree(addResult.getResponse().getContentAsString()).get("id").asText();
+
+		mockMvc.perform(delete("/food-logs/" + logId)
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isNoContent());
+
+		MvcResult dailyResult = mockMvc.perform(get("/dashboard/daily")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andReturn();
+		double todayCalories = objectMapper.readTree(dailyResult.getResponse().getContentAsString())
+			.get("summary").get("calories").asDouble();
+
+		// Act & Assert
+		String today = LocalDate.now().toString();
+		mockMvc.perform(get("/dashboard/history")
+				.param("from", today)
+				.param("to", today)
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.calories", hasSize(1)))
+			.andExpect(jsonPath("$.calories[0]").value(todayCalories));
+	}
+
+	@Test
+	void getHistory_reversedRange_returnsBadRequest() throws Exception {
+		// Act & Assert
+		mockMvc.perform(get("/dashboard/history")
+				.param("from", LocalDate.now().toString())
+				.param("to", LocalDate.now().minusDays(1).toString())
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Invalid Date Range"));
+	}
+
 	@Test
 	void fullDashboardFlow_addLogsAndView_success() throws Exception {
 		// Already setup with 2 users, each with 2 food logs in same family
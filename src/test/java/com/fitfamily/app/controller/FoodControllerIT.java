@@ -1,9 +1,17 @@
 package com.fitfamily.app.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitfamily.app.dto.LoginRequest;
 import com.fitfamily.app.dto.RegisterRequest;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodAlias;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.repository.FoodAliasRepository;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
 import com.fitfamily.app.repository.UserRepository;
+import com.fitfamily.app.util.Gzip;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,7 +21,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.UUID;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,6 +43,15 @@ class FoodControllerIT {
 	@Autowired
 	private UserRepository userRepository;
 
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodPortionRepository foodPortionRepository;
+
+	@Autowired
+	private FoodAliasRepository foodAliasRepository;
+
 	private String jwtToken;
 
 	@BeforeEach
@@ -209,5 +230,350 @@ class FoodControllerIT {
 			.andExpect(jsonPath("$[*].name", hasItems("Rice", "Chapati", "Chicken Breast")));
 	}
 
-}
+	@Test
+	void searchFoods_catalogChanges_reflectedAfterCommit() throws Exception {
+		// Arrange - Add a food with one portion
+		Food food = new Food();
+		food.setName("Paneer Tikka");
+		food.setCaloriesPer100g(265);
+		food.setProteinPer100g(18);
+		food.setCarbsPer100g(6);
+		food.setFatPer100g(19);
+		food = foodRepository.save(food);
+
+		FoodPortion portion = new FoodPortion();
+		portion.setLabel("1 plate (150g)");
+		portion.setGrams(150);
+		portion.setFood(food);
+		portion = foodPortionRepository.save(portion);
+
+		try {
+			// Act & Assert - New food and its portion are searchable
+			mockMvc.perform(get("/foods/search")
+					.param("query", "paneer")
+					.header("Authorization", "Bearer " + jwtToken))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name").value("Paneer Tikka"))
+				.andExpect(jsonPath("$[0].portions", hasSize(1)));
+		} finally {
+			foodPortionRepository.delete(portion);
+			foodRepository.delete(food);
+		}
+
+		// Deleted food is gone
+		mockMvc.perform(get("/foods/search")
+				.param("query", "paneer")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(0)));
+	}
+
+	@Test
+	void searchFoods_seededAlias_returnsFoodOnce() throws Exception {
+		// Act & Assert - "Roti" is an alias of the seeded Chapati
+		mockMvc.perform(get("/foods/search")
+				.param("query", "roti")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(1)))
+			.andExpect(jsonPath("$[0].name").value("Chapati"));
+	}
+
+	@Test
+	void searchFoods_aliasChanges_reflectedAfterCommit() throws Exception {
+		// Arrange
+		Food rice = foodRepository.findAll().stream()
+			.filter(food -> food.getName().equals("Rice"))
+			.findFirst()
+			.orElseThrow();
+		FoodAlias alias = new FoodAlias();
+		alias.setFood(rice);
+		alias.setName("Bhaat");
+		alias.setLocale("bn-Latn");
+		alias = foodAliasRepository.save(alias);
+
+		try {
+			// Act & Assert
+			mockMvc.perform(get("/foods/search")
+					.param("query", "bhaat")
+					.header("Authorization", "Bearer " + jwtToken))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name").value("Rice"));
+		} finally {
+			foodAliasRepository.deleteById(alias.getId());
+		}
+
+		mockMvc.perform(get("/foods/search")
+				.param("query", "bhaat")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(0)));
+	}
+
+	@Test
+	void searchFoods_cachedQuery_invalidatedByCatalogChange() throws Exception {
+		// Arrange - Cache the first page of "rice"
+		mockMvc.perform(get("/foods/search")
+				.param("query", "rice")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(1)));
+
+		Food food = new Food();
+		food.setName("Rice Pudding");
+		food.setCaloriesPer100g(130);
+		food.setProteinPer100g(3.6);
+		food.setCarbsPer100g(22);
+		food.setFatPer100g(2.9);
+		food = foodRepository.save(food);
+
+		try {
+			// Act & Assert - Same normalized query sees the new food
+			mockMvc.perform(get("/foods/search")
+					.param("query", "  RICE ")
+					.header("Authorization", "Bearer " + jwtToken))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/json"))
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].name").value("Rice"))
+				.andExpect(jsonPath("$[1].name").value("Rice Pudding"));
+		} finally {
+			foodRepository.delete(food);
+		}
+	}
+
+	@Test
+	void searchFoods_limitSmallerThanMatches_returnsPagesWithCursor() throws Exception {
+		// Act & Assert - First page holds the shortest name, with a cursor to the rest
+		MvcResult firstPage = mockMvc.perform(get("/foods/search")
+				.param("query", "")
+				.param("limit", "2")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(2)))
+			.andExpect(jsonPath("$[0].name").value("Rice"))
+			.andExpect(header().exists(FoodController.NEXT_CURSOR_HEADER))
+			.andReturn();
+
+		mockMvc.perform(get("/foods/search")
+				.param("query", "")
+				.param("limit", "2")
+				.param("cursor", firstPage.getResponse().getHeader(FoodController.NEXT_CURSOR_HEADER))
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(1)))
+			.andExpect(jsonPath("$[0].name").value("Chicken Breast"))
+			.andExpect(header().doesNotExist(FoodController.NEXT_CURSOR_HEADER));
+	}
+
+	@Test
+	void searchFoods_invalidCursor_returnsBadRequest() throws Exception {
+		// Act & Assert
+		mockMvc.perform(get("/foods/search")
+				.param("query", "rice")
+				.param("cursor", "not-a-cursor")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Invalid Search Cursor"));
+	}
+
+	@Test
+	void suggestFoods_prefix_returnsIdAndNameWithCacheControl() throws Exception {
+		// Act & Assert
+		mockMvc.perform(get("/foods/suggest")
+				.param("prefix", "ch")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(header().string("Cache-Control", containsString("max-age=60")))
+			.andExpect(jsonPath("$", hasSize(2)))
+			.andExpect(jsonPath("$[0].name").value("Chapati"))
+			.andExpect(jsonPath("$[1].name").value("Chicken Breast"))
+			.andExpect(jsonPath("$[0].id").exists())
+			.andExpect(jsonPath("$[0].portions").doesNotExist());
+	}
+
+	@Test
+	void getFoodsBatch_get_returnsFoodsInRequestOrderAndMissingIds() throws Exception {
+		// Arrange
+		Food rice = foodRepository.findByName("Rice").orElseThrow();
+		Food chapati = foodRepository.findByName("Chapati").orElseThrow();
+		String missing = "00000000-0000-0000-0000-000000000001";
+
+		// Act & Assert
+		mockMvc.perform(get("/foods/batch")
+				.param("ids", chapati.getId() + "," + missing + "," + rice.getId())
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.foods", hasSize(2)))
+			.andExpect(jsonPath("$.foods[0].name").value("Chapati"))
+			.andExpect(jsonPath("$.foods[1].name").value("Rice"))
+			.andExpect(jsonPath("$.foods[1].caloriesPer100g").value(rice.getCaloriesPer100g()))
+			.andExpect(jsonPath("$.foods[1].portions[0].grams").exists())
+			.andExpect(jsonPath("$.missingIds", contains(missing)));
+	}
+
+	@Test
+	void getFoodsBatch_post_returnsFoods() throws Exception {
+		// Arrange
+		Food chicken = foodRepository.findByName("Chicken Breast").orElseThrow();
+
+		// Act & Assert
+		mockMvc.perform(post("/foods/batch")
+				.contentType("application/json")
+				.content("{\"ids\": [\"" + chicken.getId() + "\"]}")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.foods[0].id").value(chicken.getId().toString()))
+			.andExpect(jsonPath("$.foods[0].portions", hasSize(foodPortionRepository.findByFood(chicken).size())))
+			.andExpect(jsonPath("$.missingIds", hasSize(0)));
+	}
+
+	@Test
+	void findFoodsByNutrients_rangesAndRatio_returnsMatchingSeededFoods() throws Exception {
+		// Act & Assert - Only Chicken Breast has 20g+ protein under 200 kcal
+		mockMvc.perform(get("/foods/nutrients")
+				.param("minProtein", "20")
+				.param("maxCalories", "200")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(header().exists("ETag"))
+			.andExpect(jsonPath("$", hasSize(1)))
+			.andExpect(jsonPath("$[0].name").value("Chicken Breast"))
+			.andExpect(jsonPath("$[0].proteinPer100g").value(31.0));
+
+		mockMvc.perform(get("/foods/nutrients")
+				.param("rankBy", "protein")
+				.param("per", "calories")
+				.param("limit", "2")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$[*].name", contains("Chicken Breast", "Chapati")));
+	}
+
+	@Test
+	void findFoodsByNutrients_minAboveMax_returnsBadRequest() throws Exception {
+		// Act & Assert
+		mockMvc.perform(get("/foods/nutrients")
+				.param("minFat", "10")
+				.param("maxFat", "5")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Invalid Nutrient Query"));
+	}
 
+	@Test
+	void getFoodsBatch_tooManyIds_returnsBadRequest() throws Exception {
+		// Arrange
+		StringBuilder ids = new StringBuilder();
+		for (int i = 0; i < 101; i++) {
+			ids.append(i == 0 ? "" : ",").append(UUID.randomUUID());
+		}
+
+		// Act & Assert
+		mockMvc.perform(get("/foods/batch")
+				.param("ids", ids.toString())
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Invalid Food Batch"));
+	}
+
+	@Test
+	void syncFoods_fullThenDelta_returnsChangesSinceVersion() throws Exception {
+		// Arrange - Whole catalog, gzip-compressed for clients that accept it
+		MvcResult fullResult = mockMvc.perform(get("/foods/sync")
+				.header("Accept-Encoding", "gzip")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(header().string("Content-Encoding", "gzip"))
+			.andReturn();
+		JsonNode full = objectMapper.readTree(Gzip.decompress(fullResult.getResponse().getContentAsByteArray()));
+		assertTrue(full.get("full").asBoolean());
+		assertEquals(3, full.get("upserts").size());
+		long version = full.get("version").asLong();
+
+		Food food = new Food();
+		food.setName("Masala Dosa");
+		food.setCaloriesPer100g(168);
+		food.setProteinPer100g(3.9);
+		food.setCarbsPer100g(28);
+		food.setFatPer100g(4.6);
+		food = foodRepository.save(food);
+		UUID foodId = food.getId();
+
+		try {
+			// Act & Assert - Only the new food, uncompressed without Accept-Encoding
+			mockMvc.perform(get("/foods/sync")
+					.param("since", String.valueOf(version))
+					.header("Authorization", "Bearer " + jwtToken))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Content-Encoding"))
+				.andExpect(jsonPath("$.full").value(false))
+				.andExpect(jsonPath("$.version").value(greaterThan((int) version)))
+				.andExpect(jsonPath("$.upserts", hasSize(1)))
+				.andExpect(jsonPath("$.upserts[0].name").value("Masala Dosa"))
+				.andExpect(jsonPath("$.deletedIds", hasSize(0)));
+		} finally {
+			foodRepository.deleteById(foodId);
+		}
+
+		// Deleted food is reported by ID
+		mockMvc.perform(get("/foods/sync")
+				.param("since", String.valueOf(version))
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.upserts", hasSize(0)))
+			.andExpect(jsonPath("$.deletedIds", contains(foodId.toString())));
+	}
+
+	@Test
+	void searchFoods_ifNoneMatchCurrentVersion_returnsNotModifiedUntilCatalogChanges() throws Exception {
+		// Arrange
+		MvcResult first = mockMvc.perform(get("/foods/search")
+				.param("query", "rice")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(header().string("Cache-Control", containsString("no-cache")))
+			.andReturn();
+		String eTag = first.getResponse().getHeader("ETag");
+		assertTrue(eTag.startsWith("W/\""));
+
+		// Act & Assert - Same version: 304 without a body, also for other catalog reads
+		mockMvc.perform(get("/foods/search")
+				.param("query", "rice")
+				.header("If-None-Match", eTag)
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string("ETag", eTag))
+			.andExpect(content().string(""));
+
+		mockMvc.perform(get("/foods/suggest")
+				.param("prefix", "ri")
+				.header("If-None-Match", eTag)
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isNotModified());
+
+		// Any catalog write moves the version
+		Food food = new Food();
+		food.setName("Rice Noodles");
+		food.setCaloriesPer100g(109);
+		food.setProteinPer100g(0.9);
+		food.setCarbsPer100g(25);
+		food.setFatPer100g(0.2);
+		food = foodRepository.save(food);
+
+		try {
+			mockMvc.perform(get("/foods/search")
+					.param("query", "rice")
+					.header("If-None-Match", eTag)
+					.header("Authorization", "Bearer " + jwtToken))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", not(eTag)))
+				.andExpect(jsonPath("$", hasSize(2)));
+		} finally {
+			foodRepository.deleteById(food.getId());
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.fitfamily.app.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitfamily.app.dto.AddFoodLogRequest;
 import com.fitfamily.app.dto.CreateFamilyRequest;
@@ -23,6 +24,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -60,7 +62,7 @@ class FoodLogControllerIT {
 		// Note: DataSeeder automatically runs and preloads food data
 
 		// Get seeded food IDs from database
-		var riceFood = foodRepository.findByNameContainingIgnoreCase("Rice").stream().findFirst().orElseThrow();
+		var riceFood = foodRepository.findByName("Rice").orElseThrow();
 		riceId = riceFood.getId();
 		riceCupPortionId = foodPortionRepository.findByFood(riceFood).stream()
 			.filter(p -> p.getLabel().contains("cup"))
@@ -68,7 +70,7 @@ class FoodLogControllerIT {
 			.orElseThrow()
 			.getId();
 
-		var chickenFood = foodRepository.findByNameContainingIgnoreCase("Chicken").stream().findFirst().orElseThrow();
+		var chickenFood = foodRepository.findByName("Chicken Breast").orElseThrow();
 		chickenId = chickenFood.getId();
 		chicken100gPortionId = foodPortionRepository.findByFood(chickenFood).stream()
 			.filter(p -> p.getLabel().equals("100g"))
@@ -389,5 +391,103 @@ class FoodLogControllerIT {
 			.andExpect(status().isNoContent());
 	}
 
-}
+	@Test
+	void quickAdd_afterLogging_returnsRecentAndFrequentFoods() throws Exception {
+		// Arrange: read once so the list is cached and updated in place by the logs below
+		mockMvc.perform(get("/foods/recent")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(0)));
+
+		logFood(user1Token, riceId, riceCupPortionId);
+		logFood(user1Token, riceId, riceCupPortionId);
+		logFood(user1Token, chickenId, chicken100gPortionId);
+
+		// Act & Assert
+		mockMvc.perform(get("/foods/recent")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(2)))
+			.andExpect(jsonPath("$[0].foodId").value(chickenId.toString()))
+			.andExpect(jsonPath("$[0].portionId").value(chicken100gPortionId.toString()))
+			.andExpect(jsonPath("$[1].foodId").value(riceId.toString()));
+
+		mockMvc.perform(get("/foods/frequent?limit=1")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(1)))
+			.andExpect(jsonPath("$[0].foodName").value("Rice"))
+			.andExpect(jsonPath("$[0].logCount").value(2));
+
+		// Other users have their own lists
+		mockMvc.perform(get("/foods/frequent")
+				.header("Authorization", "Bearer " + user2Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(0)));
+	}
+
+	@Test
+	void getRelatedFoods_loggedInSameMeal_countsSharedMeals() throws Exception {
+		// Arrange - Counts live in memory across tests, so compare with the count before
+		long before = relatedMealCount(riceId, chickenId);
+
+		// Act - One lunch with rice (twice) and chicken; user 2 eats chicken alone
+		logFood(user1Token, riceId, riceCupPortionId);
+		logFood(user1Token, riceId, riceCupPortionId);
+		String chickenLogId = logFood(user1Token, chickenId, chicken100gPortionId);
+		logFood(user2Token, chickenId, chicken100gPortionId);
+
+		// Assert
+		assertEquals(before + 1, relatedMealCount(riceId, chickenId));
+		assertEquals(before + 1, relatedMealCount(chickenId, riceId));
+		mockMvc.perform(get("/foods/" + riceId + "/related?limit=2")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(lessThanOrEqualTo(2))))
+			.andExpect(jsonPath("$[*].foodName", hasItem("Chicken Breast")))
+			.andExpect(jsonPath("$[0].portions").isNotEmpty());
+
+		// Deleting chicken from the meal takes the shared meal back
+		mockMvc.perform(delete("/food-logs/" + chickenLogId)
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isNoContent());
+		assertEquals(before, relatedMealCount(riceId, chickenId));
+	}
+
+	@Test
+	void getRelatedFoods_unknownFood_returnsNotFound() throws Exception {
+		mockMvc.perform(get("/foods/" + UUID.randomUUID() + "/related")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isNotFound())
+			.andExpect(jsonPath("$.error").value("Food Not Found"));
+	}
+
+	private long relatedMealCount(UUID foodId, UUID relatedFoodId) throws Exception {
+		MvcResult result = mockMvc.perform(get("/foods/" + foodId + "/related")
+				.header("Authorization", "Bearer " + user1Token))
+			.andExpect(status().isOk())
+			.andReturn();
+		for (JsonNode related : objectMapper.readTree(result.getResponse().getContentAsString())) {
+			if (related.get("foodId").asText().equals(relatedFoodId.toString())) {
+				return related.get("mealCount").asLong();
+			}
+		}
+		return 0;
+	}
 
+	private String logFood(String token, UUID foodId, UUID portionId) throws Exception {
+		AddFoodLogRequest request = new AddFoodLogRequest();
+		request.setFoodId(foodId);
+		request.setPortionId(portionId);
+		request.setMealType(MealType.LUNCH);
+
+		MvcResult result = mockMvc.perform(post("/food-logs")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request)))
+			.andExpect(status().isCreated())
+			.andReturn();
+		return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+	}
+
+}
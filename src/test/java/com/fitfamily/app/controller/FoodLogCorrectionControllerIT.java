@@ -0,0 +1,102 @@
+package com.fitfamily.app.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.FoodLogCorrectionRequest;
+import com.fitfamily.app.dto.LoginRequest;
+import com.fitfamily.app.dto.RegisterRequest;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FoodLogCorrectionControllerIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	private String jwtToken;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		RegisterRequest registerRequest = new RegisterRequest();
+		registerRequest.setName("Regular User");
+		registerRequest.setEmail("regular@example.com");
+		registerRequest.setPassword("password123");
+
+		mockMvc.perform(post("/auth/register")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(registerRequest)))
+			.andExpect(status().isCreated());
+
+		LoginRequest loginRequest = new LoginRequest();
+		loginRequest.setEmail("regular@example.com");
+		loginRequest.setPassword("password123");
+
+		MvcResult loginResult = mockMvc.perform(post("/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(loginRequest)))
+			.andExpect(status().isOk())
+			.andReturn();
+
+		jwtToken = objectMapper.readTree(loginResult.getResponse().getContentAsString()).get("token").asText();
+	}
+
+	@AfterEach
+	void cleanup() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void corrections_userNotCatalogAdmin_returns403() throws Exception {
+		// Arrange
+		UUID riceId = foodRepository.findByName("Rice").orElseThrow().getId();
+
+		// Act & Assert
+		mockMvc.perform(post("/admin/food-log-corrections")
+				.header("Authorization", "Bearer " + jwtToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new FoodLogCorrectionRequest(List.of(riceId)))))
+			.andExpect(status().isForbidden())
+			.andExpect(jsonPath("$.error").value("Access Denied"));
+
+		mockMvc.perform(get("/admin/food-log-corrections")
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void startCorrections_noFoodIds_returns400() throws Exception {
+		// Act & Assert
+		mockMvc.perform(post("/admin/food-log-corrections")
+				.header("Authorization", "Bearer " + jwtToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new FoodLogCorrectionRequest(List.of()))))
+			.andExpect(status().isBadRequest());
+	}
+
+}
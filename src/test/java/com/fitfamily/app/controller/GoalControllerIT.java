@@ -0,0 +1,172 @@
+package com.fitfamily.app.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.AddFoodLogRequest;
+import com.fitfamily.app.dto.LoginRequest;
+import com.fitfamily.app.dto.MacroGoalRequest;
+import com.fitfamily.app.dto.RegisterRequest;
+import com.fitfamily.app.model.MealType;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.repository.MacroGoalRepository;
+import com.fitfamily.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GoalControllerIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodPortionRepository foodPortionRepository;
+
+	@Autowired
+	private FoodLogRepository foodLogRepository;
+
+	@Autowired
+	private MacroGoalRepository macroGoalRepository;
+
+	private String token;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		RegisterRequest registerRequest = new RegisterRequest();
+		registerRequest.setName("John Doe");
+		registerRequest.setEmail("john@example.com");
+		registerRequest.setPassword("password123");
+
+		mockMvc.perform(post("/auth/register")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(registerRequest)))
+			.andExpect(status().isCreated());
+
+		LoginRequest loginRequest = new LoginRequest();
+		loginRequest.setEmail("john@example.com");
+		loginRequest.setPassword("password123");
+
+		MvcResult loginResult = mockMvc.perform(post("/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(loginRequest)))
+			.andExpect(status().isOk())
+			.andReturn();
+
+		token = objectMapper.readTree(loginResult.getResponse().getContentAsString()).get("token").asText();
+	}
+
+	@AfterEach
+	void cleanup() {
+		foodLogRepository.deleteAll();
+		macroGoalRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	private void putGoals(double calories, double protein, double carbs, double fat) throws Exception {
+		MacroGoalRequest request = new MacroGoalRequest(calories, protein, carbs, fat);
+
+		mockMvc.perform(put("/goals")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.calories").value(calories));
+	}
+
+	@Test
+	void getGoals_noneSet_returnsNotFound() throws Exception {
+		mockMvc.perform(get("/goals")
+				.header("Authorization", "Bearer " + token))
+			.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void putGoals_thenGet_returnsLatestGoals() throws Exception {
+		// Act - Second update replaces the first (and the cached value)
+		putGoals(2000, 120, 250, 70);
+		putGoals(1800, 130, 200, 60);
+
+		// Assert
+		mockMvc.perform(get("/goals")
+				.header("Authorization", "Bearer " + token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.calories").value(1800.0))
+			.andExpect(jsonPath("$.protein").value(130.0))
+			.andExpect(jsonPath("$.carbs").value(200.0))
+			.andExpect(jsonPath("$.fat").value(60.0));
+	}
+
+	@Test
+	void putGoals_negativeValue_returnsBadRequest() throws Exception {
+		MacroGoalRequest request = new MacroGoalRequest(-1.0, 100.0, 200.0, 50.0);
+
+		mockMvc.perform(put("/goals")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request)))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.calories").exists());
+	}
+
+	@Test
+	void getDailyDashboard_withGoals_includesRemainingBudget() throws Exception {
+		// Arrange - Log 100g of chicken and set goals
+		var chicken = foodRepository.findByName("Chicken Breast").orElseThrow();
+		var portion = foodPortionRepository.findByFood(chicken).stream()
+			.filter(p -> p.getLabel().equals("100g"))
+			.findFirst()
+			.orElseThrow();
+
+		AddFoodLogRequest logRequest = new AddFoodLogRequest();
+		logRequest.setFoodId(chicken.getId());
+		logRequest.setPortionId(portion.getId());
+		logRequest.setMealType(MealType.LUNCH);
+
+		mockMvc.perform(post("/food-logs")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(logRequest)))
+			.andExpect(status().isCreated());
+
+		putGoals(2000, 100, 250, 70);
+
+		// Act & Assert
+		double calories = chicken.getCaloriesPer100g();
+		mockMvc.perform(get("/dashboard/daily")
+				.header("Authorization", "Bearer " + token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.goals.goal.calories").value(2000.0))
+			.andExpect(jsonPath("$.goals.remaining.calories").value(2000.0 - calories))
+			.andExpect(jsonPath("$.goals.percentComplete.calories").value(Math.round(calories * 1000.0 / 2000) / 10.0));
+	}
+
+	@Test
+	void putGoals_withoutAuthentication_returnsForbidden() throws Exception {
+		mockMvc.perform(put("/goals")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{}"))
+			.andExpect(status().isForbidden());
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.fitfamily.app.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.LoginRequest;
+import com.fitfamily.app.dto.MacroGoalRequest;
+import com.fitfamily.app.dto.MealPlanRequest;
+import com.fitfamily.app.dto.RegisterRequest;
+import com.fitfamily.app.repository.MacroGoalRepository;
+import com.fitfamily.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MealPlanControllerIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MacroGoalRepository macroGoalRepository;
+
+	private String token;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		RegisterRequest registerRequest = new RegisterRequest();
+		registerRequest.setName("Meal Planner");
+		registerRequest.setEmail("planner@example.com");
+		registerRequest.setPassword("password123");
+
+		mockMvc.perform(post("/auth/register")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(registerRequest)))
+			.andExpect(status().isCreated());
+
+		LoginRequest loginRequest = new LoginRequest();
+		loginRequest.setEmail("planner@example.com");
+		loginRequest.setPassword("password123");
+
+		MvcResult loginResult = mockMvc.perform(post("/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(loginRequest)))
+			.andExpect(status().isOk())
+			.andReturn();
+
+		token = objectMapper.readTree(loginResult.getResponse().getContentAsString()).get("token").asText();
+	}
+
+	@AfterEach
+	void cleanup() {
+		macroGoalRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void generatePlan_noGoalsAndNoTargets_returnsNotFound() throws Exception {
+		mockMvc.perform(post("/meal-plans")
+				.header("Authorization", "Bearer " + token))
+			.andExpect(status().isNotFound())
+			.andExpect(jsonPath("$.error").value("Goals Not Found"));
+	}
+
+	@Test
+	void generatePlan_explicitTargets_returnsPlanFromCatalog() throws Exception {
+		// Arrange
+		MealPlanRequest request = new MealPlanRequest(700.0, 45.0, 80.0, 10.0, 3);
+
+		// Act
+		MvcResult result = mockMvc.perform(post("/meal-plans")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.targets.calories").value(700.0))
+			.andReturn();
+
+		// Assert - Only seeded foods, each at most once, totals add up
+		JsonNode plan = objectMapper.readTree(result.getResponse().getContentAsString());
+		JsonNode items = plan.get("items");
+		assertTrue(items.size() >= 1 && items.size() <= 3);
+		double calories = 0;
+		for (JsonNode item : items) {
+			assertTrue(Set.of("Rice", "Chapati", "Chicken Breast").contains(item.get("foodName").asText()));
+			assertTrue(item.get("servings").asInt() >= 1);
+			calories += item.get("calories").asDouble();
+		}
+		assertEquals(items.size(), items.findValuesAsText("foodId").stream().distinct().count());
+		assertEquals(calories, plan.get("totals").get("calories").asDouble(), 0.01);
+	}
+
+	@Test
+	void generatePlan_noTargets_usesDailyGoals() throws Exception {
+		// Arrange
+		mockMvc.perform(put("/goals")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new MacroGoalRequest(1800.0, 110.0, 200.0, 50.0))))
+			.andExpect(status().isOk());
+
+		// Act & Assert - The request only overrides protein
+		mockMvc.perform(post("/meal-plans")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"protein\": 130}"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.targets.calories").value(1800.0))
+			.andExpect(jsonPath("$.targets.protein").value(130.0))
+			.andExpect(jsonPath("$.targets.fat").value(50.0))
+			.andExpect(jsonPath("$.items").isNotEmpty());
+	}
+
+	@Test
+	void generatePlan_zeroCalories_returnsBadRequest() throws Exception {
+		mockMvc.perform(post("/meal-plans")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"calories\": 0, \"protein\": 50, \"carbs\": 50, \"fat\": 20}"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Invalid Meal Plan"));
+	}
+
+	@Test
+	void generatePlan_negativeTarget_returnsBadRequest() throws Exception {
+		mockMvc.perform(post("/meal-plans")
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"calories\": 1500, \"protein\": -5}"))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void generatePlan_withoutToken_isRejected() throws Exception {
+		mockMvc.perform(post("/meal-plans"))
+			.andExpect(status().isForbidden());
+	}
+
+}
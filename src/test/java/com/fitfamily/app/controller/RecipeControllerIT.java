@@ -0,0 +1,250 @@
+package com.fitfamily.app.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.AddFoodLogRequest;
+import com.fitfamily.app.dto.CreateRecipeRequest;
+import com.fitfamily.app.dto.LoginRequest;
+import com.fitfamily.app.dto.RegisterRequest;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.MealType;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.repository.RecipeIngredientRepository;
+import com.fitfamily.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "catalog.admin-emails=recipes@example.com")
+@AutoConfigureMockMvc
+class RecipeControllerIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodPortionRepository foodPortionRepository;
+
+	@Autowired
+	private FoodLogRepository foodLogRepository;
+
+	@Autowired
+	private RecipeIngredientRepository recipeIngredientRepository;
+
+	private String jwtToken;
+
+	// Foods created by a test, removed afterwards so the seeded catalog is unchanged
+	private final List<UUID> createdFoodIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		jwtToken = registerAndLogin("recipes@example.com");
+	}
+
+	@AfterEach
+	void cleanup() {
+		foodLogRepository.deleteAll();
+		recipeIngredientRepository.deleteAll(recipeIngredientRepository.findAll().stream()
+				.filter(row -> createdFoodIds.contains(row.getRecipe().getId()))
+				.toList());
+		for (UUID foodId : createdFoodIds) {
+			foodRepository.findById(foodId).ifPresent(food -> {
+				foodPortionRepository.deleteAll(foodPortionRepository.findByFood(food));
+				foodRepository.deleteById(foodId);
+			});
+		}
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void createRecipe_ingredientChanges_recomputesNestedRecipesAndLogsOneRow() throws Exception {
+		// Arrange
+		Food moong = saveFood("Test Moong", 100, 10, 10, 1);
+		Food ghee = saveFood("Test Ghee", 900, 0, 0, 100);
+
+		JsonNode dal = createRecipe(new CreateRecipeRequest("Test Tadka Dal", List.of(
+				new CreateRecipeRequest.Ingredient(moong.getId(), 180),
+				new CreateRecipeRequest.Ingredient(ghee.getId(), 20)), 2));
+		UUID dalId = UUID.fromString(dal.get("id").asText());
+		JsonNode plate = createRecipe(new CreateRecipeRequest("Test Dal Plate", List.of(
+				new CreateRecipeRequest.Ingredient(dalId, 200),
+				new CreateRecipeRequest.Ingredient(moong.getId(), 200)), null));
+		UUID plateId = UUID.fromString(plate.get("id").asText());
+
+		// (100 * 180 + 900 * 20) / 200 and (180 * 200 + 100 * 200) / 400
+		assertRecipeCalories(dalId, 180);
+		assertRecipeCalories(plateId, 140);
+
+		// Act - Change an ingredient used directly and through the dal
+		moong.setCaloriesPer100g(200);
+		foodRepository.save(moong);
+
+		// Assert
+		assertRecipeCalories(dalId, 270);
+		assertRecipeCalories(plateId, 235);
+
+		// The whole plate (400g) is one serving, logged from the stored nutrients
+		UUID servingId = UUID.fromString(plate.get("portions").get(1).get("id").asText());
+		mockMvc.perform(post("/food-logs")
+				.header("Authorization", "Bearer " + jwtToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new AddFoodLogRequest(plateId, servingId, MealType.LUNCH))))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.foodName").value("Test Dal Plate"))
+			.andExpect(jsonPath("$.calories").value(940.0));
+	}
+
+	@Test
+	void createRecipe_returnsIngredientsAndPortions() throws Exception {
+		// Arrange
+		Food moong = saveFood("Test Moong", 100, 10, 10, 1);
+
+		// Act
+		JsonNode recipe = createRecipe(new CreateRecipeRequest("Test Moong Soup", List.of(
+				new CreateRecipeRequest.Ingredient(moong.getId(), 150),
+				new CreateRecipeRequest.Ingredient(moong.getId(), 50)), 4));
+
+		// Assert - Listing a food twice adds up its grams
+		mockMvc.perform(get("/recipes/{id}", recipe.get("id").asText())
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value("Test Moong Soup"))
+			.andExpect(jsonPath("$.totalGrams").value(200.0))
+			.andExpect(jsonPath("$.ingredients", hasSize(1)))
+			.andExpect(jsonPath("$.ingredients[0].name").value("Test Moong"))
+			.andExpect(jsonPath("$.portions[*].label", containsInAnyOrder("100g", "1 serving")))
+			.andExpect(jsonPath("$.portions[?(@.label == '1 serving')].grams", contains(50.0)));
+	}
+
+	@Test
+	void getRecipe_plainFood_returns404() throws Exception {
+		// Arrange
+		Food moong = saveFood("Test Moong", 100, 10, 10, 1);
+
+		// Act & Assert
+		mockMvc.perform(get("/recipes/{id}", moong.getId())
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void createRecipe_existingNameOrNoIngredients_returns400() throws Exception {
+		// Arrange
+		Food moong = saveFood("Test Moong", 100, 10, 10, 1);
+
+		// Act & Assert
+		mockMvc.perform(post("/recipes")
+				.header("Authorization", "Bearer " + jwtToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new CreateRecipeRequest("Rice", List.of(
+						new CreateRecipeRequest.Ingredient(moong.getId(), 100)), null))))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Invalid Recipe"));
+
+		mockMvc.perform(post("/recipes")
+				.header("Authorization", "Bearer " + jwtToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new CreateRecipeRequest("Test Empty", List.of(), null))))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void createRecipe_userNotCatalogAdmin_returns403() throws Exception {
+		// Arrange
+		Food moong = saveFood("Test Moong", 100, 10, 10, 1);
+		String cookToken = registerAndLogin("cook@example.com");
+
+		// Act & Assert
+		mockMvc.perform(post("/recipes")
+				.header("Authorization", "Bearer " + cookToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new CreateRecipeRequest("Test Moong Soup", List.of(
+						new CreateRecipeRequest.Ingredient(moong.getId(), 100)), null))))
+			.andExpect(status().isForbidden());
+		assertFalse(foodRepository.existsByName("Test Moong Soup"));
+	}
+
+	private String registerAndLogin(String email) throws Exception {
+		RegisterRequest registerRequest = new RegisterRequest();
+		registerRequest.setName("Recipe User");
+		registerRequest.setEmail(email);
+		registerRequest.setPassword("password123");
+
+		mockMvc.perform(post("/auth/register")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(registerRequest)))
+			.andExpect(status().isCreated());
+
+		LoginRequest loginRequest = new LoginRequest();
+		loginRequest.setEmail(email);
+		loginRequest.setPassword("password123");
+
+		MvcResult loginResult = mockMvc.perform(post("/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(loginRequest)))
+			.andExpect(status().isOk())
+			.andReturn();
+
+		return objectMapper.readTree(loginResult.getResponse().getContentAsString()).get("token").asText();
+	}
+
+	private Food saveFood(String name, double calories, double protein, double carbs, double fat) {
+		Food food = new Food();
+		food.setName(name);
+		food.setCaloriesPer100g(calories);
+		food.setProteinPer100g(protein);
+		food.setCarbsPer100g(carbs);
+		food.setFatPer100g(fat);
+		food = foodRepository.save(food);
+		createdFoodIds.add(food.getId());
+		return food;
+	}
+
+	private JsonNode createRecipe(CreateRecipeRequest request) throws Exception {
+		MvcResult result = mockMvc.perform(post("/recipes")
+				.header("Authorization", "Bearer " + jwtToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request)))
+			.andExpect(status().isCreated())
+			.andReturn();
+		JsonNode recipe = objectMapper.readTree(result.getResponse().getContentAsString());
+		// Recipes first, so they are deleted before their ingredients
+		createdFoodIds.add(0, UUID.fromString(recipe.get("id").asText()));
+		return recipe;
+	}
+
+	private void assertRecipeCalories(UUID recipeId, double calories) throws Exception {
+		mockMvc.perform(get("/recipes/{id}", recipeId)
+				.header("Authorization", "Bearer " + jwtToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.caloriesPer100g").value(calories));
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.fitfamily.app.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NutrientVectorTest {
+
+	@Test
+	void toBytes_fromBytes_roundTripsEveryNutrient() {
+		// Arrange
+		NutrientVector vector = NutrientVector.of(Map.of(
+				Micronutrient.FIBRE, 2.4, Micronutrient.SODIUM, 409.0, Micronutrient.VITAMIN_B12, 0.35));
+
+		// Act
+		byte[] bytes = vector.toBytes();
+
+		// Assert - 4 bytes per nutrient, little-endian
+		assertEquals(NutrientVector.SIZE * Float.BYTES, bytes.length);
+		assertEquals(vector, NutrientVector.fromBytes(bytes));
+		assertEquals(Float.floatToIntBits(2.4f) & 0xFF, bytes[0] & 0xFF);
+	}
+
+	@Test
+	void fromBytes_shorterLayout_readsMissingNutrientsAsZero() {
+		// Arrange - Written when only fibre and sugar existed
+		byte[] bytes = Arrays.copyOf(NutrientVector.of(Map.of(Micronutrient.SUGAR, 5.0)).toBytes(), 2 * Float.BYTES);
+
+		// Act
+		NutrientVector vector = NutrientVector.fromBytes(bytes);
+
+		// Assert
+		assertEquals(5.0, vector.get(Micronutrient.SUGAR));
+		assertEquals(0.0, vector.get(Micronutrient.VITAMIN_B12));
+		assertThrows(IllegalArgumentException.class, () -> NutrientVector.fromBytes(new byte[3]));
+	}
+
+	@Test
+	void scale_multipliesEveryNutrient() {
+		// Arrange
+		NutrientVector per100g = NutrientVector.of(Map.of(Micronutrient.IRON, 3.0, Micronutrient.VITAMIN_C, 12.5));
+
+		// Act
+		NutrientVector portion = per100g.scale(1.5);
+
+		// Assert
+		assertEquals(4.5, portion.get(Micronutrient.IRON), 1e-6);
+		assertEquals(18.75, portion.get(Micronutrient.VITAMIN_C), 1e-6);
+		assertEquals(0.0, portion.get(Micronutrient.FIBRE));
+	}
+
+	@Test
+	void sum_manyVectors_accumulatesWithoutFloatDrift() {
+		// Arrange
+		NutrientVector tenth = NutrientVector.of(Map.of(Micronutrient.FIBRE, 0.1));
+		NutrientVector.Sum sum = new NutrientVector.Sum();
+
+		// Act
+		for (int i = 0; i < 10_000; i++) {
+			sum.add(tenth);
+		}
+		sum.add(null);
+		sum.add(tenth, 10);
+
+		// Assert
+		assertEquals(Map.of("fibre", 1001.0), sum.toVector().toMap());
+	}
+
+	@Test
+	void fromKeys_unknownKey_throwsException() {
+		assertEquals(1.0, NutrientVector.fromKeys(Map.of("vitaminC", 1.0)).get(Micronutrient.VITAMIN_C));
+		assertThrows(IllegalArgumentException.class, () -> NutrientVector.fromKeys(Map.of("vitaminX", 1.0)));
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotStoreTest {
+
+	@TempDir
+	private Path tempDir;
+
+	private Path snapshotPath;
+	private CatalogSnapshotStore store;
+
+	@BeforeEach
+	void setUp() {
+		snapshotPath = tempDir.resolve("catalog.snapshot");
+		store = new CatalogSnapshotStore(snapshotPath.toString());
+	}
+
+	@Test
+	void write_thenReopen_readsFoodsAndPortionsFromFile() {
+		// Arrange
+		Food paneer = food("Paneer Tikka", 265.0, LocalDateTime.of(2026, 3, 1, 10, 0, 0, 123_456_000), "1 plate", "100g");
+		Food dosa = food("Dosa – masala", 168.0, LocalDateTime.of(2026, 3, 2, 10, 0), "1 dosa");
+		store.write(List.of(paneer, dosa));
+
+		// Act - A new store maps the file written by the first one
+		CatalogSnapshot snapshot = new CatalogSnapshotStore(snapshotPath.toString()).current();
+
+		// Assert
+		assertEquals(2, snapshot.size());
+		int food = snapshot.indexOf(paneer.getId());
+		assertEquals("Paneer Tikka", snapshot.name(food));
+		assertEquals(265.0, snapshot.nutrientPer100g(food, CatalogSnapshot.CALORIES));
+		assertEquals(2, snapshot.portionCount(food));
+		int portion = snapshot.portionIndexOf(food, paneer.getFoodPortions().get(1).getId());
+		assertEquals("100g", snapshot.portionLabel(portion));
+		assertEquals(100.0, snapshot.portionGrams(portion));
+		assertEquals("Dosa – masala", snapshot.name(snapshot.indexOf(dosa.getId())));
+		assertEquals(-1, snapshot.indexOf(UUID.randomUUID()));
+		assertEquals(new CatalogFingerprint(2, 3,
+				CatalogFingerprint.micros(dosa.getUpdatedAt()), CatalogFingerprint.micros(dosa.getUpdatedAt().minusDays(1))),
+				snapshot.fingerprint());
+	}
+
+	@Test
+	void write_manyFoods_everyFoodFoundByBinarySearch() {
+		// Arrange
+		List<Food> foods = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			foods.add(food("Food " + i, i, LocalDateTime.of(2026, 1, 1, 0, 0), "serving"));
+		}
+
+		// Act
+		CatalogSnapshot snapshot = store.write(foods);
+
+		// Assert
+		for (Food food : foods) {
+			int index = snapshot.indexOf(food.getId());
+			assertEquals(food.getName(), snapshot.name(index));
+			assertEquals(food.getFoodPortions().get(0).getId(), snapshot.portionId(snapshot.firstPortion(index)));
+		}
+	}
+
+	@Test
+	void merge_replacesChangedAndDropsDeletedFoods() {
+		// Arrange
+		Food rice = food("Rice", 130.0, LocalDateTime.of(2026, 1, 1, 0, 0), "1 cup");
+		Food chapati = food("Chapati", 297.0, LocalDateTime.of(2026, 1, 1, 0, 0), "1 piece");
+		store.write(List.of(rice, chapati));
+
+		Food updatedRice = food("Rice", 128.0, LocalDateTime.of(2026, 2, 1, 0, 0), "1 cup", "1 bowl");
+		updatedRice.setId(rice.getId());
+		Map<UUID, Food> changes = new HashMap<>();
+		changes.put(rice.getId(), updatedRice);
+		changes.put(chapati.getId(), null);
+
+		// Act
+		CatalogSnapshot snapshot = store.merge(changes);
+
+		// Assert
+		assertEquals(1, snapshot.size());
+		assertEquals(-1, snapshot.indexOf(chapati.getId()));
+		int food = snapshot.indexOf(rice.getId());
+		assertEquals(128.0, snapshot.nutrientPer100g(food, CatalogSnapshot.CALORIES));
+		assertEquals(2, snapshot.portionCount(food));
+		assertEquals(CatalogFingerprint.of(List.of(updatedRice)), snapshot.fingerprint());
+	}
+
+	@Test
+	void patch_sameSizedEdits_overwritesRecordsInPlace() throws Exception {
+		// Arrange
+		Food rice = food("Rice", 130.0, LocalDateTime.of(2026, 1, 1, 0, 0), "1 cup");
+		Food chapati = food("Chapati", 297.0, LocalDateTime.of(2026, 1, 1, 0, 0), "1 piece");
+		store.write(List.of(rice, chapati));
+		long size = Files.size(snapshotPath);
+
+		rice.setName("Rize");
+		rice.setCaloriesPer100g(128.0);
+		rice.setUpdatedAt(LocalDateTime.of(2026, 2, 1, 0, 0));
+		rice.getFoodPortions().get(0).setGrams(158.0);
+
+		// Act
+		boolean patched = store.patch(Map.of(rice.getId(), rice));
+
+		// Assert - Also what a restart reads
+		assertTrue(patched);
+		assertEquals(size, Files.size(snapshotPath));
+		CatalogSnapshot snapshot = new CatalogSnapshotStore(snapshotPath.toString()).current();
+		int food = snapshot.indexOf(rice.getId());
+		assertEquals("Rize", snapshot.name(food));
+		assertEquals(128.0, snapshot.nutrientPer100g(food, CatalogSnapshot.CALORIES));
+		assertEquals(158.0, snapshot.portionGrams(snapshot.firstPortion(food)));
+		assertEquals("Chapati", snapshot.name(snapshot.indexOf(chapati.getId())));
+		assertEquals(CatalogFingerprint.of(List.of(rice, chapati)), snapshot.fingerprint());
+		assertEquals(snapshot.fingerprint(), store.current().fingerprint());
+	}
+
+	@Test
+	void patch_changeNeedsRewrite_writesNothing() {
+		// Arrange
+		Food rice = food("Rice", 130.0, LocalDateTime.of(2026, 1, 1, 0, 0), "1 cup");
+		CatalogSnapshot before = store.write(List.of(rice));
+		Food renamed = food("Basmati Rice", 130.0, LocalDateTime.of(2026, 2, 1, 0, 0), "1 cup");
+		renamed.setId(rice.getId());
+		renamed.getFoodPortions().get(0).setId(rice.getFoodPortions().get(0).getId());
+		Food added = food("Oats", 389.0, LocalDateTime.of(2026, 2, 1, 0, 0));
+		Map<UUID, Food> deleted = new HashMap<>();
+		deleted.put(rice.getId(), null);
+
+		// Act & Assert - Longer name, new food, deleted food
+		assertFalse(store.patch(Map.of(rice.getId(), renamed)));
+		assertFalse(store.patch(Map.of(added.getId(), added)));
+		assertFalse(store.patch(deleted));
+		assertSame(before, store.current());
+		assertEquals("Rice", store.current().name(0));
+	}
+
+	@Test
+	void constructor_corruptFile_startsWithoutSnapshot() throws Exception {
+		// Arrange
+		Files.write(snapshotPath, new byte[] {1, 2, 3});
+
+		// Act
+		CatalogSnapshotStore reopened = new CatalogSnapshotStore(snapshotPath.toString());
+
+		// Assert
+		assertNull(reopened.current());
+	}
+
+	private static Food food(String name, double calories, LocalDateTime updatedAt, String... portionLabels) {
+		Food food = new Food();
+		food.setId(UUID.randomUUID());
+		food.setName(name);
+		food.setCaloriesPer100g(calories);
+		food.setUpdatedAt(updatedAt);
+
+		List<FoodPortion> portions = new ArrayList<>();
+		for (String label : portionLabels) {
+			FoodPortion portion = new FoodPortion();
+			portion.setId(UUID.randomUUID());
+			portion.setLabel(label);
+			portion.setGrams(label.equals("100g") ? 100.0 : 150.0);
+			portion.setFood(food);
+			portion.setUpdatedAt(updatedAt.minusDays(1));
+			portions.add(portion);
+		}
+		food.setFoodPortions(portions);
+		return food;
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.fitfamily.app.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyTotalsStoreTest {
+
+	@TempDir
+	private Path tempDir;
+
+	private DailyTotalsStore store;
+	private LocalDate date;
+
+	@BeforeEach
+	void setUp() {
+		// At most two files mapped at once
+		store = new DailyTotalsStore(tempDir.toString(), 2);
+		date = LocalDate.of(2025, 12, 25);
+	}
+
+	@AfterEach
+	void tearDown() {
+		store.flush();
+	}
+
+	@Test
+	void add_moreUsersThanOpenFiles_reopensUnmappedFilesWithTheirTotals() {
+		// Arrange
+		List<UUID> userIds = new ArrayList<>();
+		for (int user = 0; user < 5; user++) {
+			userIds.add(UUID.randomUUID());
+		}
+
+		// Act - Every user's file is unmapped by later ones and mapped again
+		for (int round = 1; round <= 3; round++) {
+			for (UUID userId : userIds) {
+				store.add(userId, date, 100_000, 10_000, 20_000, 5_000);
+			}
+		}
+
+		// Assert
+		long[] totals = new long[DailyTotalsStore.FIELDS];
+		for (UUID userId : userIds) {
+			store.readRange(userId, date, 1, totals);
+			assertArrayEquals(new long[] {300_000, 30_000, 60_000, 15_000}, totals);
+		}
+	}
+
+	@Test
+	void rebuild_replacesOpenFileWithCompleteHistory() throws IOException {
+		// Arrange
+		UUID userId = UUID.randomUUID();
+		store.rebuild(userId, 1, List.of(totals(date, 100_000)));
+		store.add(userId, date, 50_000, 0, 0, 0);
+
+		// Act
+		store.rebuild(userId, 7, List.of(totals(date.minusDays(1), 20_000), totals(date, 400_000)));
+
+		// Assert - A new store maps the replaced file; no temporary file is left
+		store.flush();
+		DailyTotalsStore reopened = new DailyTotalsStore(tempDir.toString(), 2);
+		long[] totals = new long[2 * DailyTotalsStore.FIELDS];
+		reopened.readRange(userId, date.minusDays(1), 2, totals);
+		assertEquals(20_000, totals[0]);
+		assertEquals(400_000, totals[DailyTotalsStore.FIELDS]);
+		assertEquals(7, reopened.version(userId));
+		reopened.flush();
+		try (Stream<Path> files = Files.list(tempDir)) {
+			assertEquals(List.of(userId + ".days"), files.map(path -> path.getFileName().toString()).toList());
+		}
+	}
+
+	@Test
+	void advanceVersion_missedChange_staysBehind() {
+		// Arrange
+		UUID userId = UUID.randomUUID();
+		store.rebuild(userId, 3, List.of());
+
+		// Act - Version 5 arrives without 4
+		store.advanceVersion(userId, 5);
+		long afterGap = store.version(userId);
+		store.advanceVersion(userId, 4);
+
+		// Assert
+		assertEquals(3, afterGap);
+		assertEquals(4, store.version(userId));
+	}
+
+	@Test
+	void constructor_leftoverTemporaryFile_isDeleted() throws IOException {
+		// Arrange - A rebuild interrupted by a crash
+		Path leftover = Files.createFile(tempDir.resolve(UUID.randomUUID() + "123.days.tmp"));
+
+		// Act
+		new DailyTotalsStore(tempDir.toString(), 2);
+
+		// Assert
+		assertFalse(Files.exists(leftover));
+	}
+
+	private static DailyMacroTotals totals(LocalDate date, long calories) {
+		return new DailyMacroTotals() {
+			public LocalDate getDate() { return date; }
+			public long getCaloriesMilli() { return calories; }
+			public long getProteinMilli() { return 0; }
+			public long getCarbsMilli() { return 0; }
+			public long getFatMilli() { return 0; }
+		};
+	}
+
+}
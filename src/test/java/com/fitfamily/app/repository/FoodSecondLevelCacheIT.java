@@ -0,0 +1,137 @@
+package com.fitfamily.app.repository;
+
+import com.fitfamily.app.config.HibernateCacheConfig;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FoodSecondLevelCacheIT {
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodPortionRepository foodPortionRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Statistics statistics;
+	private TransactionTemplate transaction;
+	private Food food;
+	private FoodPortion bowl;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		transaction = new TransactionTemplate(transactionManager);
+
+		food = new Food();
+		food.setName("Cache Test Poha");
+		food.setCaloriesPer100g(130);
+		food.setProteinPer100g(2.5);
+		food.setCarbsPer100g(27);
+		food.setFatPer100g(1.5);
+		food = foodRepository.save(food);
+
+		bowl = new FoodPortion();
+		bowl.setFood(food);
+		bowl.setLabel("1 bowl");
+		bowl.setGrams(150);
+		bowl = foodPortionRepository.save(bowl);
+	}
+
+	@AfterEach
+	void cleanup() {
+		foodPortionRepository.deleteAll(foodPortionRepository.findByFood(food));
+		foodRepository.deleteById(food.getId());
+	}
+
+	@Test
+	void findById_secondTransaction_isServedFromCache() {
+		// Arrange
+		entityManagerFactory.getCache().evictAll();
+		CacheRegionStatistics foods = statistics.getDomainDataRegionStatistics(HibernateCacheConfig.FOODS_REGION);
+		CacheRegionStatistics portions = statistics.getDomainDataRegionStatistics(HibernateCacheConfig.FOOD_PORTIONS_REGION);
+		loadFoodAndPortion();
+		long foodHits = foods.getHitCount();
+		long portionHits = portions.getHitCount();
+
+		// Act
+		Food loaded = loadFoodAndPortion();
+
+		// Assert
+		assertEquals(foodHits + 1, foods.getHitCount());
+		assertEquals(portionHits + 1, portions.getHitCount());
+		assertEquals(130, loaded.getCaloriesPer100g());
+		assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+				.tag("region", HibernateCacheConfig.FOODS_REGION)
+				.tag("result", "hit")
+				.functionCounter().count() >= 1);
+	}
+
+	@Test
+	void foodPortions_portionAdded_evictsCachedList() {
+		// Arrange - The food's portion list is cached
+		assertEquals(List.of("1 bowl"), portionLabels());
+
+		FoodPortion spoon = new FoodPortion();
+		spoon.setFood(food);
+		spoon.setLabel("1 spoon");
+		spoon.setGrams(10);
+
+		// Act
+		foodPortionRepository.save(spoon);
+
+		// Assert
+		assertEquals(List.of("1 bowl", "1 spoon"), portionLabels().stream().sorted().toList());
+	}
+
+	@Test
+	void save_updatedFood_isNotServedStale() {
+		// Arrange
+		loadFoodAndPortion();
+		food.setCaloriesPer100g(150);
+
+		// Act
+		foodRepository.save(food);
+
+		// Assert
+		assertEquals(150, loadFoodAndPortion().getCaloriesPer100g());
+	}
+
+	private Food loadFoodAndPortion() {
+		return transaction.execute(status -> {
+			foodPortionRepository.findById(bowl.getId()).orElseThrow();
+			return foodRepository.findById(food.getId()).orElseThrow();
+		});
+	}
+
+	private List<String> portionLabels() {
+		return transaction.execute(status -> foodRepository.findById(food.getId()).orElseThrow()
+				.getFoodPortions().stream().map(FoodPortion::getLabel).toList());
+	}
+
+}
@@ -0,0 +1,287 @@
+package com.fitfamily.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodCatalogChangedEvent;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.repository.CatalogFingerprint;
+import com.fitfamily.app.repository.CatalogSnapshot;
+import com.fitfamily.app.repository.CatalogSnapshotStore;
+import com.fitfamily.app.repository.CatalogStats;
+import com.fitfamily.app.repository.FoodAliasRepository;
+import com.fitfamily.app.repository.FoodCatalogChangeLog;
+import com.fitfamily.app.repository.FoodCatalogChangeRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogIndexUpdaterTest {
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@Mock
+	private FoodCatalogChangeRepository foodCatalogChangeRepository;
+
+	@Mock
+	private FoodCatalogChangeLog foodCatalogChangeLog;
+
+	@Mock
+	private FoodAliasRepository foodAliasRepository;
+
+	@Mock
+	private FoodSearchIndex foodSearchIndex;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@TempDir
+	private Path tempDir;
+
+	private CatalogSnapshotStore catalogSnapshotStore;
+
+	private CatalogVersion catalogVersion;
+
+	private CatalogSnapshotService catalogSnapshotService;
+
+	private CatalogIndexUpdater catalogIndexUpdater;
+
+	private Food food1;
+	private Food food2;
+	private FoodPortion portion1;
+	private FoodPortion portion2;
+	private FoodPortion portion3;
+
+	@BeforeEach
+	void setUp() {
+		catalogSnapshotStore = new CatalogSnapshotStore(tempDir.resolve("catalog.snapshot").toString());
+		catalogVersion = new CatalogVersion(foodSearchIndex);
+		catalogSnapshotService = new CatalogSnapshotService(foodRepository, foodCatalogChangeRepository, foodCatalogChangeLog,
+			catalogSnapshotStore, new ObjectMapper(), transactionManager, 2, 60000, 60000);
+		catalogIndexUpdater = new CatalogIndexUpdater(foodRepository, foodCatalogChangeRepository, foodAliasRepository, foodSearchIndex,
+			new NutrientIndex(), new MealPlanMatrix(), catalogVersion, catalogSnapshotService, transactionManager);
+
+		// Setup food 1
+		food1 = new Food();
+		food1.setId(UUID.randomUUID());
+		food1.setName("Chicken Breast");
+		food1.setCaloriesPer100g(165.0);
+		food1.setProteinPer100g(31.0);
+		food1.setCarbsPer100g(0.0);
+		food1.setFatPer100g(3.6);
+		food1.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+
+		// Setup portions for food 1
+		portion1 = new FoodPortion();
+		portion1.setId(UUID.randomUUID());
+		portion1.setLabel("100g");
+		portion1.setGrams(100.0);
+		portion1.setFood(food1);
+
+		portion2 = new FoodPortion();
+		portion2.setId(UUID.randomUUID());
+		portion2.setLabel("1 piece (150g)");
+		portion2.setGrams(150.0);
+		portion2.setFood(food1);
+
+		food1.setFoodPortions(Arrays.asList(portion1, portion2));
+
+		// Setup food 2
+		food2 = new Food();
+		food2.setId(UUID.randomUUID());
+		food2.setName("Rice");
+		food2.setCaloriesPer100g(130.0);
+		food2.setProteinPer100g(2.7);
+		food2.setCarbsPer100g(28.2);
+		food2.setFatPer100g(0.3);
+		food2.setUpdatedAt(LocalDateTime.of(2026, 1, 2, 12, 0));
+
+		// Setup portions for food 2
+		portion3 = new FoodPortion();
+		portion3.setId(UUID.randomUUID());
+		portion3.setLabel("1 cup (cooked)");
+		portion3.setGrams(158.0);
+		portion3.setFood(food2);
+
+		food2.setFoodPortions(Arrays.asList(portion3));
+	}
+
+	@Test
+	void onCatalogChanged_loadsChangedFoodsInOneQueryAndUpdatesIndex() {
+		// Arrange
+		Set<UUID> changed = Set.of(food1.getId(), food2.getId());
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodRepository.findAllWithPortionsByIdIn(changed)).thenReturn(List.of(food1));
+
+		// Act - food2 was deleted, so only food1 is loaded
+		catalogIndexUpdater.onCatalogChanged(new FoodCatalogChangedEvent(changed));
+
+		// Assert
+		verify(foodSearchIndex).apply(eq(changed), argThat(foods -> foods.size() == 1
+			&& foods.iterator().next().getPortions().size() == 2), eq(Map.of()));
+	}
+
+	@Test
+	void onCatalogChanged_tagsCatalogWithChangeVersionReadBeforeLoading() {
+		// Arrange
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodSearchIndex.version()).thenReturn(4L);
+		when(foodCatalogChangeRepository.findLatestVersion()).thenReturn(12L);
+		when(foodRepository.findAllWithPortionsByIdIn(Set.of(food1.getId()))).thenReturn(List.of(food1));
+		assertNull(catalogVersion.eTag());
+
+		// Act
+		catalogIndexUpdater.onCatalogChanged(new FoodCatalogChangedEvent(Set.of(food1.getId())));
+
+		// Assert
+		assertEquals("W/\"12.4\"", catalogVersion.eTag());
+		InOrder order = inOrder(foodCatalogChangeRepository, foodRepository, foodSearchIndex);
+		order.verify(foodCatalogChangeRepository).findLatestVersion();
+		order.verify(foodRepository).findAllWithPortionsByIdIn(any());
+		order.verify(foodSearchIndex).apply(any(), any(), any());
+	}
+
+	@Test
+	void onCatalogChanged_aliasesOfChangedFoods_appliedWithFoods() {
+		// Arrange
+		Set<UUID> changed = Set.of(food1.getId());
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodRepository.findAllWithPortionsByIdIn(changed)).thenReturn(List.of(food1));
+		when(foodAliasRepository.findFoodIdsAndNamesByFoodIdIn(changed)).thenReturn(List.of(
+			new Object[] {food1.getId(), "Murgh"},
+			new Object[] {food1.getId(), "Pollo"}));
+
+		// Act
+		catalogIndexUpdater.onCatalogChanged(new FoodCatalogChangedEvent(changed));
+
+		// Assert
+		verify(foodSearchIndex).apply(eq(changed), argThat(foods -> foods.size() == 1),
+			eq(Map.of(food1.getId(), List.of("Murgh", "Pollo"))));
+	}
+
+	@Test
+	void onCatalogChanged_indexNotBuilt_skipsLoading() {
+		// Arrange
+		when(foodSearchIndex.isReady()).thenReturn(false);
+
+		// Act
+		catalogIndexUpdater.onCatalogChanged(new FoodCatalogChangedEvent(Set.of(food1.getId())));
+
+		// Assert
+		verifyNoInteractions(foodRepository);
+		verify(foodSearchIndex, never()).apply(any(), any(), any());
+	}
+
+	@Test
+	void onCatalogChanged_rewritesSnapshotWithChangedFoods() throws Exception {
+		// Arrange
+		catalogSnapshotStore.write(List.of(food1, food2));
+		Food added = new Food(UUID.randomUUID(), "Oats", 389.0, 16.9, 66.3, 6.9, null, null, LocalDateTime.now(), List.of());
+		Set<UUID> changed = Set.of(food2.getId(), added.getId());
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodRepository.findAllWithPortionsByIdIn(changed)).thenReturn(List.of(added));
+
+		// Act - food2 was deleted and Oats added; flushing skips the write delay
+		catalogIndexUpdater.onCatalogChanged(new FoodCatalogChangedEvent(changed));
+		catalogSnapshotService.flushSnapshot();
+
+		// Assert
+		CatalogSnapshot snapshot = catalogSnapshotStore.current();
+		assertEquals(2, snapshot.size());
+		assertEquals(-1, snapshot.indexOf(food2.getId()));
+		assertEquals("Oats", snapshot.name(snapshot.indexOf(added.getId())));
+		assertEquals(2, snapshot.portionCount(snapshot.indexOf(food1.getId())));
+	}
+
+	@Test
+	void buildIndexes_noSnapshot_loadsDatabaseAndWritesSnapshot() {
+		// Arrange
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1, food2));
+
+		// Act
+		catalogIndexUpdater.buildIndexes();
+
+		// Assert
+		verify(foodSearchIndex).rebuild(argThat(foods -> foods.size() == 2), any());
+		verify(foodRepository, never()).findCatalogStats();
+		assertEquals(CatalogFingerprint.of(List.of(food1, food2)), catalogSnapshotStore.current().fingerprint());
+	}
+
+	@Test
+	void buildIndexes_currentSnapshot_buildsIndexWithoutLoadingCatalog() {
+		// Arrange
+		catalogSnapshotStore.write(List.of(food1, food2));
+		stubCatalogStats(2, 3, food2.getUpdatedAt(), null);
+
+		// Act
+		catalogIndexUpdater.buildIndexes();
+
+		// Assert
+		verify(foodRepository, never()).findAllWithPortions();
+		verify(foodSearchIndex).rebuild(argThat((Collection<FoodResponse> foods) -> foods.stream()
+			.anyMatch(food -> food.getName().equals("Chicken Breast") && food.getPortions().size() == 2)), any());
+	}
+
+	@Test
+	void buildIndexes_aliases_loadedInOneQueryAndGroupedByFood() {
+		// Arrange
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1, food2));
+		when(foodAliasRepository.findAllFoodIdsAndNames()).thenReturn(List.of(
+			new Object[] {food1.getId(), "Murgh"},
+			new Object[] {food2.getId(), "Chawal"}));
+
+		// Act
+		catalogIndexUpdater.buildIndexes();
+
+		// Assert
+		verify(foodSearchIndex).rebuild(any(), eq(Map.of(food1.getId(), List.of("Murgh"), food2.getId(), List.of("Chawal"))));
+		verify(foodAliasRepository, never()).findFoodIdsAndNamesByFoodIdIn(any());
+	}
+
+	@Test
+	void buildIndexes_staleSnapshot_loadsDatabase() {
+		// Arrange - A food was updated after the snapshot was written
+		catalogSnapshotStore.write(List.of(food1, food2));
+		stubCatalogStats(2, 3, food2.getUpdatedAt().plusMinutes(1), null);
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1, food2));
+
+		// Act
+		catalogIndexUpdater.buildIndexes();
+
+		// Assert
+		verify(foodRepository).findAllWithPortions();
+		verify(foodSearchIndex).rebuild(argThat(foods -> foods.size() == 2), any());
+	}
+
+	private void stubCatalogStats(long foodCount, long portionCount, LocalDateTime foodsUpdatedAt,
+			LocalDateTime portionsUpdatedAt) {
+		CatalogStats stats = mock(CatalogStats.class);
+		when(stats.getFoodCount()).thenReturn(foodCount);
+		when(stats.getPortionCount()).thenReturn(portionCount);
+		when(stats.getFoodsUpdatedAt()).thenReturn(foodsUpdatedAt);
+		when(stats.getPortionsUpdatedAt()).thenReturn(portionsUpdatedAt);
+		when(foodRepository.findCatalogStats()).thenReturn(stats);
+	}
+
+}
@@ -0,0 +1,242 @@
+package com.fitfamily.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.FoodSyncResponse;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.repository.CatalogSnapshot;
+import com.fitfamily.app.repository.CatalogSnapshotStore;
+import com.fitfamily.app.repository.FoodCatalogChangeLog;
+import com.fitfamily.app.repository.FoodCatalogChangeRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.util.Gzip;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@Mock
+	private FoodCatalogChangeRepository foodCatalogChangeRepository;
+
+	@Mock
+	private FoodCatalogChangeLog foodCatalogChangeLog;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@TempDir
+	private Path tempDir;
+
+	private CatalogSnapshotStore catalogSnapshotStore;
+
+	private CatalogSnapshotService catalogSnapshotService;
+
+	private Food food1;
+	private Food food2;
+	private FoodPortion portion1;
+	private FoodPortion portion2;
+	private FoodPortion portion3;
+
+	@BeforeEach
+	void setUp() {
+		catalogSnapshotStore = new CatalogSnapshotStore(tempDir.resolve("catalog.snapshot").toString());
+		catalogSnapshotService = new CatalogSnapshotService(foodRepository, foodCatalogChangeRepository, foodCatalogChangeLog,
+			catalogSnapshotStore, new ObjectMapper(), transactionManager, 2, 60000, 60000);
+
+		// Setup food 1
+		food1 = new Food();
+		food1.setId(UUID.randomUUID());
+		food1.setName("Chicken Breast");
+		food1.setCaloriesPer100g(165.0);
+		food1.setProteinPer100g(31.0);
+		food1.setCarbsPer100g(0.0);
+		food1.setFatPer100g(3.6);
+		food1.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+
+		// Setup portions for food 1
+		portion1 = new FoodPortion();
+		portion1.setId(UUID.randomUUID());
+		portion1.setLabel("100g");
+		portion1.setGrams(100.0);
+		portion1.setFood(food1);
+
+		portion2 = new FoodPortion();
+		portion2.setId(UUID.randomUUID());
+		portion2.setLabel("1 piece (150g)");
+		portion2.setGrams(150.0);
+		portion2.setFood(food1);
+
+		food1.setFoodPortions(Arrays.asList(portion1, portion2));
+
+		// Setup food 2
+		food2 = new Food();
+		food2.setId(UUID.randomUUID());
+		food2.setName("Rice");
+		food2.setCaloriesPer100g(130.0);
+		food2.setProteinPer100g(2.7);
+		food2.setCarbsPer100g(28.2);
+		food2.setFatPer100g(0.3);
+		food2.setUpdatedAt(LocalDateTime.of(2026, 1, 2, 12, 0));
+
+		// Setup portions for food 2
+		portion3 = new FoodPortion();
+		portion3.setId(UUID.randomUUID());
+		portion3.setLabel("1 cup (cooked)");
+		portion3.setGrams(158.0);
+		portion3.setFood(food2);
+
+		food2.setFoodPortions(Arrays.asList(portion3));
+	}
+
+	@Test
+	void recordChanges_rewriteNotDue_patchesEditsAndDefersRewrite() throws Exception {
+		// Arrange - No write delay; the snapshot was just written, so a rewrite is not due for a minute
+		catalogSnapshotService = new CatalogSnapshotService(foodRepository, foodCatalogChangeRepository, foodCatalogChangeLog,
+			catalogSnapshotStore, new ObjectMapper(), transactionManager, 2, 0, 60000);
+		catalogSnapshotService.writeSnapshot(List.of(food1, food2));
+		Food corrected = new Food(food1.getId(), food1.getName(), 170.0, 31.0, 0.0, 3.6, null, null,
+			food1.getUpdatedAt().plusMinutes(1), food1.getFoodPortions());
+		Food added = new Food(UUID.randomUUID(), "Oats", 389.0, 16.9, 66.3, 6.9, null, null, LocalDateTime.now(), List.of());
+
+		// Act - A nutrient correction, then a new food
+		catalogSnapshotService.recordChanges(Set.of(food1.getId()), List.of(corrected));
+		CatalogSnapshot afterCorrection = awaitSnapshot(snapshot -> snapshot.nutrientPer100g(
+			snapshot.indexOf(food1.getId()), CatalogSnapshot.CALORIES) == 170.0);
+		catalogSnapshotService.recordChanges(Set.of(added.getId()), List.of(added));
+		Thread.sleep(200);
+
+		// Assert - The correction was patched in place; the new food waits for the rewrite
+		assertEquals(2, afterCorrection.size());
+		assertEquals(-1, catalogSnapshotStore.current().indexOf(added.getId()));
+		assertNull(catalogSnapshotService.inSyncSnapshot());
+		catalogSnapshotService.flushSnapshot();
+		assertEquals(3, catalogSnapshotStore.current().size());
+	}
+
+	@Test
+	void syncFoods_noVersion_returnsWholeCatalogBuiltOncePerVersion() throws Exception {
+		// Arrange
+		when(foodCatalogChangeRepository.findLatestVersion()).thenReturn(7L);
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1, food2));
+
+		// Act
+		FoodSyncResponse first = readSync(catalogSnapshotService.syncFoods(null));
+		FoodSyncResponse second = readSync(catalogSnapshotService.syncFoods(0L));
+
+		// Assert
+		assertTrue(first.isFull());
+		assertEquals(7, first.getVersion());
+		assertEquals(List.of(food1.getId(), food2.getId()), first.getUpserts().stream().map(FoodDetailsResponse::getId).toList());
+		assertEquals(2, first.getUpserts().get(0).getPortions().size());
+		assertTrue(first.getDeletedIds().isEmpty());
+		assertEquals(first, second);
+		verify(foodRepository, times(1)).findAllWithPortions();
+	}
+
+	@Test
+	void syncFoods_sinceVersion_returnsChangedFoodsAndDeletedIds() throws Exception {
+		// Arrange
+		UUID deletedId = UUID.randomUUID();
+		when(foodCatalogChangeRepository.findLatestVersion()).thenReturn(9L);
+		when(foodCatalogChangeRepository.findFoodIdsChangedBetween(eq(5L), eq(9L), any())).thenReturn(List.of(food2.getId(), deletedId));
+		when(foodRepository.findAllWithPortionsByIdIn(List.of(food2.getId(), deletedId))).thenReturn(List.of(food2));
+
+		// Act
+		FoodSyncResponse delta = readSync(catalogSnapshotService.syncFoods(5L));
+
+		// Assert
+		assertFalse(delta.isFull());
+		assertEquals(9, delta.getVersion());
+		assertEquals(1, delta.getUpserts().size());
+		assertEquals(food2.getId(), delta.getUpserts().get(0).getId());
+		assertEquals(130.0, delta.getUpserts().get(0).getCaloriesPer100g());
+		assertEquals(List.of(deletedId), delta.getDeletedIds());
+		verify(foodRepository, never()).findAllWithPortions();
+	}
+
+	@Test
+	void syncFoods_moreChangesThanDeltaLimit_returnsWholeCatalog() throws Exception {
+		// Arrange
+		when(foodCatalogChangeRepository.findLatestVersion()).thenReturn(9L);
+		when(foodCatalogChangeRepository.findFoodIdsChangedBetween(eq(1L), eq(9L), argThat((Pageable page) -> page.getPageSize() == 3)))
+			.thenReturn(List.of(food1.getId(), food2.getId(), UUID.randomUUID()));
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1, food2));
+
+		// Act
+		FoodSyncResponse response = readSync(catalogSnapshotService.syncFoods(1L));
+
+		// Assert
+		assertTrue(response.isFull());
+		assertEquals(2, response.getUpserts().size());
+		verify(foodRepository, never()).findAllWithPortionsByIdIn(any());
+	}
+
+	@Test
+	void syncFoods_sinceOlderThanPrunedChanges_returnsWholeCatalog() throws Exception {
+		// Arrange - The remaining change looks like a small delta, but older ones were pruned
+		when(foodCatalogChangeRepository.findLatestVersion()).thenReturn(9L);
+		when(foodCatalogChangeRepository.findFoodIdsChangedBetween(eq(2L), eq(9L), any())).thenReturn(List.of(food2.getId()));
+		when(foodCatalogChangeRepository.findPrunedThrough()).thenReturn(6L);
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1, food2));
+
+		// Act
+		FoodSyncResponse response = readSync(catalogSnapshotService.syncFoods(2L));
+
+		// Assert
+		assertTrue(response.isFull());
+		assertEquals(2, response.getUpserts().size());
+		verify(foodRepository, never()).findAllWithPortionsByIdIn(any());
+	}
+
+	@Test
+	void syncFoods_versionAheadOfServer_returnsWholeCatalog() throws Exception {
+		// Arrange
+		when(foodCatalogChangeRepository.findLatestVersion()).thenReturn(3L);
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1));
+
+		// Act
+		FoodSyncResponse response = readSync(catalogSnapshotService.syncFoods(40L));
+
+		// Assert
+		assertTrue(response.isFull());
+		assertEquals(3, response.getVersion());
+		verify(foodCatalogChangeRepository, never()).findFoodIdsChangedBetween(anyLong(), anyLong(), any());
+	}
+
+	private static FoodSyncResponse readSync(byte[] gzip) throws Exception {
+		return new ObjectMapper().readValue(Gzip.decompress(gzip), FoodSyncResponse.class);
+	}
+
+	private CatalogSnapshot awaitSnapshot(Predicate<CatalogSnapshot> condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.test(catalogSnapshotStore.current()) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		return catalogSnapshotStore.current();
+	}
+
+}
@@ -3,9 +3,12 @@ package com.fitfamily.app.service;
 import com.fitfamily.app.dto.DailyMacroSummary;
 import com.fitfamily.app.dto.FamilyMemberDashboardResponse;
 import com.fitfamily.app.dto.FoodLogResponse;
+import com.fitfamily.app.dto.GoalProgressResponse;
+import com.fitfamily.app.dto.StreakResponse;
 import com.fitfamily.app.dto.UserDailyDashboardResponse;
 import com.fitfamily.app.model.*;
 import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.UserMacroTotals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +20,8 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +33,12 @@ class DashboardServiceTest {
 	@Mock
 	private FoodLogRepository foodLogRepository;
 
+	@Mock
+	private StreakService streakService;
+
+	@Mock
+	private GoalService goalService;
+
 	@InjectMocks
 	private DashboardService dashboardService;
 
@@ -85,6 +96,7 @@ class DashboardServiceTest {
 
 		List<FoodLog> foodLogs = Arrays.asList(log1, log2, log3);
 		when(foodLogRepository.findByUserAndDate(user, testDate)).thenReturn(foodLogs);
+		when(foodLogRepository.findTotalsByUserAndDate(user, testDate)).thenReturn(Optional.of(totals(user, foodLogs)));
 
 		// Act
 		UserDailyDashboardResponse result = dashboardService.getUserDailyDashboard(user, testDate);
@@ -155,6 +167,8 @@ class DashboardServiceTest {
 
 		List<FoodLog> allFamilyLogs = Arrays.asList(user1Log1, user1Log2, user2Log1);
 		when(foodLogRepository.findByFamilyAndDate(family, testDate)).thenReturn(allFamilyLogs);
+		when(foodLogRepository.findTotalsByFamilyAndDate(family, testDate)).thenReturn(List.of(
+			totals(user, List.of(user1Log1, user1Log2)), totals(user2, List.of(user2Log1))));
 
 		// Act
 		List<FamilyMemberDashboardResponse> result = dashboardService.getFamilyDailyDashboard(user, testDate);
@@ -187,6 +201,112 @@ class DashboardServiceTest {
 		verify(foodLogRepository, times(1)).findByFamilyAndDate(family, testDate);
 	}
 
+	@Test
+	void getFamilyDailyDashboard_loadsAllStreaksInOneBatch() {
+		// Arrange
+		User user2 = new User();
+		user2.setId(UUID.randomUUID());
+		user2.setName("Jane Doe");
+		user2.setFamily(family);
+
+		FoodLog user1Log = createFoodLog(user, food1, portion1, 200.0, 5.0, 40.0, 2.0, MealType.BREAKFAST);
+		FoodLog user2Log = createFoodLog(user2, food2, portion2, 165.0, 31.0, 0.0, 3.6, MealType.LUNCH);
+		when(foodLogRepository.findByFamilyAndDate(family, testDate)).thenReturn(Arrays.asList(user1Log, user2Log));
+		when(streakService.getStreaks(anyCollection())).thenReturn(Map.of(
+			user.getId(), new StreakResponse(3, 5, testDate),
+			user2.getId(), new StreakResponse(1, 1, testDate)
+		));
+
+		// Act
+		List<FamilyMemberDashboardResponse> result = dashboardService.getFamilyDailyDashboard(user, testDate);
+
+		// Assert
+		FamilyMemberDashboardResponse johnDashboard = result.stream()
+			.filter(d -> d.getUserName().equals("John Doe"))
+			.findFirst()
+			.orElseThrow();
+		assertEquals(3, johnDashboard.getDashboard().getStreak().getCurrentStreak());
+		assertEquals(5, johnDashboard.getDashboard().getStreak().getLongestStreak());
+
+		verify(streakService, times(1)).getStreaks(anyCollection());
+		verify(streakService, never()).getStreak(any());
+	}
+
+	@Test
+	void getUserDailyDashboard_withGoals_computesRemainingAndPercent() {
+		// Arrange
+		FoodLog log1 = createFoodLog(user, food1, portion1, 200.0, 5.0, 40.0, 2.0, MealType.BREAKFAST);
+		FoodLog log2 = createFoodLog(user, food2, portion2, 165.0, 31.0, 0.0, 3.6, MealType.LUNCH);
+		when(foodLogRepository.findByUserAndDate(user, testDate)).thenReturn(Arrays.asList(log1, log2));
+		when(foodLogRepository.findTotalsByUserAndDate(user, testDate)).thenReturn(Optional.of(totals(user, List.of(log1, log2))));
+		when(goalService.getGoals(user)).thenReturn(Optional.of(
+			new MacroGoal(user.getId(), 2_000_000, 30_000, 0, 5_000, null)));
+
+		// Act
+		UserDailyDashboardResponse result = dashboardService.getUserDailyDashboard(user, testDate);
+
+		// Assert
+		GoalProgressResponse goals = result.getGoals();
+		assertNotNull(goals);
+		assertEquals(2000.0, goals.getGoal().getCalories(), 0.0001);
+		assertEquals(1635.0, goals.getRemaining().getCalories(), 0.0001); // 2000 - 365
+		assertEquals(-6.0, goals.getRemaining().getProtein(), 0.0001);   // goal exceeded
+		assertEquals(-0.6, goals.getRemaining().getFat(), 0.0001);
+		assertEquals(18.3, goals.getPercentComplete().getCalories(), 0.0001); // 365 / 2000
+		assertEquals(120.0, goals.getPercentComplete().getProtein(), 0.0001);
+		assertEquals(0.0, goals.getPercentComplete().getCarbs(), 0.0001);     // no carb goal
+	}
+
+	@Test
+	void getUserDailyDashboard_noGoals_omitsGoalProgress() {
+		// Arrange
+		when(foodLogRepository.findByUserAndDate(user, testDate)).thenReturn(new ArrayList<>());
+		when(goalService.getGoals(user)).thenReturn(Optional.empty());
+
+		// Act
+		UserDailyDashboardResponse result = dashboardService.getUserDailyDashboard(user, testDate);
+
+		// Assert
+		assertNull(result.getGoals());
+	}
+
+	@Test
+	void getFamilyDailyDashboard_loadsAllGoalsInOneBatch() {
+		// Arrange
+		User user2 = new User();
+		user2.setId(UUID.randomUUID());
+		user2.setName("Jane Doe");
+		user2.setFamily(family);
+
+		FoodLog user1Log = createFoodLog(user, food1, portion1, 200.0, 5.0, 40.0, 2.0, MealType.BREAKFAST);
+		FoodLog user2Log = createFoodLog(user2, food2, portion2, 165.0, 31.0, 0.0, 3.6, MealType.LUNCH);
+		when(foodLogRepository.findByFamilyAndDate(family, testDate)).thenReturn(Arrays.asList(user1Log, user2Log));
+		when(foodLogRepository.findTotalsByFamilyAndDate(family, testDate)).thenReturn(List.of(
+			totals(user, List.of(user1Log)), totals(user2, List.of(user2Log))));
+		when(goalService.getGoals(anyCollection())).thenReturn(Map.of(
+			user.getId(), new MacroGoal(user.getId(), 1_000_000, 50_000, 100_000, 20_000, null)
+		));
+
+		// Act
+		List<FamilyMemberDashboardResponse> result = dashboardService.getFamilyDailyDashboard(user, testDate);
+
+		// Assert - John has goals, Jane has none
+		FamilyMemberDashboardResponse johnDashboard = result.stream()
+			.filter(d -> d.getUserName().equals("John Doe"))
+			.findFirst()
+			.orElseThrow();
+		FamilyMemberDashboardResponse janeDashboard = result.stream()
+			.filter(d -> d.getUserName().equals("Jane Doe"))
+			.findFirst()
+			.orElseThrow();
+		assertEquals(800.0, johnDashboard.getDashboard().getGoals().getRemaining().getCalories(), 0.0001);
+		assertEquals(20.0, johnDashboard.getDashboard().getGoals().getPercentComplete().getCalories(), 0.0001);
+		assertNull(janeDashboard.getDashboard().getGoals());
+
+		verify(goalService, times(1)).getGoals(anyCollection());
+		verify(goalService, never()).getGoals(any(User.class));
+	}
+
 	@Test
 	void getFamilyDailyDashboard_userNotInFamily_returnsEmptyList() {
 		// Arrange
@@ -221,6 +341,7 @@ class DashboardServiceTest {
 		// Arrange
 		FoodLog log = createFoodLog(user, food1, portion1, 100.5, 10.2, 20.3, 5.1, MealType.SNACK);
 		when(foodLogRepository.findByUserAndDate(user, testDate)).thenReturn(Arrays.asList(log));
+		when(foodLogRepository.findTotalsByUserAndDate(user, testDate)).thenReturn(Optional.of(totals(user, List.of(log))));
 
 		// Act
 		UserDailyDashboardResponse result = dashboardService.getUserDailyDashboard(user, testDate);
@@ -233,6 +354,57 @@ class DashboardServiceTest {
 		assertEquals(5.1, summary.getFat(), 0.01);
 	}
 
+	@Test
+	void getUserDailyDashboard_manyFractionalLogs_sumsExactly() {
+		// Arrange - ten logs of 0.1 would drift to 0.9999999999999999 with double sums;
+		// the database sums their milli-units exactly
+		List<FoodLog> foodLogs = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			foodLogs.add(createFoodLog(user, food1, portion1, 0.1, 0.1, 0.1, 0.1, MealType.SNACK));
+		}
+		when(foodLogRepository.findByUserAndDate(user, testDate)).thenReturn(foodLogs);
+		when(foodLogRepository.findTotalsByUserAndDate(user, testDate)).thenReturn(Optional.of(totals(user, foodLogs)));
+
+		// Act
+		UserDailyDashboardResponse result = dashboardService.getUserDailyDashboard(user, testDate);
+
+		// Assert
+		DailyMacroSummary summary = result.getSummary();
+		assertEquals(1.0, summary.getCalories());
+		assertEquals(1.0, summary.getProtein());
+		assertEquals(1.0, summary.getCarbs());
+		assertEquals(1.0, summary.getFat());
+	}
+
+	@Test
+	void getUserDailyDashboard_micronutrients_sumsVectorsAndSkipsLogsWithout() {
+		// Arrange
+		FoodLog rice = createFoodLog(user, food1, portion1, 200.0, 5.0, 40.0, 2.0, MealType.LUNCH);
+		rice.setMicronutrients(NutrientVector.of(Map.of(Micronutrient.FIBRE, 0.6, Micronutrient.SODIUM, 1.5)));
+		FoodLog chicken = createFoodLog(user, food2, portion2, 165.0, 31.0, 0.0, 3.6, MealType.LUNCH);
+		chicken.setMicronutrients(NutrientVector.of(Map.of(Micronutrient.SODIUM, 74.0, Micronutrient.NIACIN, 13.7)));
+		FoodLog unknown = createFoodLog(user, food1, portion1, 100.0, 1.0, 1.0, 1.0, MealType.SNACK);
+		when(foodLogRepository.findByUserAndDate(user, testDate)).thenReturn(List.of(rice, chicken, unknown));
+
+		// Act
+		UserDailyDashboardResponse result = dashboardService.getUserDailyDashboard(user, testDate);
+
+		// Assert - Only non-zero totals, in layout order
+		assertEquals(Map.of("fibre", 0.6, "sodium", 75.5, "niacin", 13.7), result.getMicronutrients());
+		assertEquals(List.of("fibre", "sodium", "niacin"), List.copyOf(result.getMicronutrients().keySet()));
+	}
+
+	// What the grouped sum query returns for the user's logs
+	private static UserMacroTotals totals(User user, List<FoodLog> logs) {
+		return new UserMacroTotals() {
+			public UUID getUserId() { return user.getId(); }
+			public long getCaloriesMilli() { return logs.stream().mapToLong(FoodLog::getCaloriesMilli).sum(); }
+			public long getProteinMilli() { return logs.stream().mapToLong(FoodLog::getProteinMilli).sum(); }
+			public long getCarbsMilli() { return logs.stream().mapToLong(FoodLog::getCarbsMilli).sum(); }
+			public long getFatMilli() { return logs.stream().mapToLong(FoodLog::getFatMilli).sum(); }
+		};
+	}
+
 	// Helper method to create FoodLog
 	private FoodLog createFoodLog(User user, Food food, FoodPortion portion,
 	                               double calories, double protein, double carbs, double fat,
@@ -0,0 +1,231 @@
+package com.fitfamily.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.FoodImportResult;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.model.Micronutrient;
+import com.fitfamily.app.repository.FoodCatalogChangeLog;
+import com.fitfamily.app.repository.FoodCatalogChangeRepository;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FoodCatalogImporterIT {
+
+	private static final String CSV_HEADER =
+		"name,calories_per_100g,protein_per_100g,carbs_per_100g,fat_per_100g,portion_label,portion_grams\n";
+
+	@Autowired
+	private FoodCatalogImporter foodCatalogImporter;
+
+	@Autowired
+	private FoodService foodService;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodPortionRepository foodPortionRepository;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private FoodCatalogChangeLog foodCatalogChangeLog;
+
+	@Autowired
+	private FoodCatalogChangeRepository foodCatalogChangeRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@AfterEach
+	void cleanup() {
+		List<Food> imported = importedFoods();
+		foodPortionRepository.deleteAllById(imported.stream()
+			.flatMap(food -> food.getFoodPortions().stream())
+			.map(FoodPortion::getId)
+			.collect(Collectors.toList()));
+		foodRepository.deleteAllById(imported.stream().map(Food::getId).collect(Collectors.toList()));
+	}
+
+	@Test
+	void importCsv_validAndInvalidRows_insertsValidFoodsWithPortions() throws Exception {
+		// Arrange
+		String csv = CSV_HEADER
+			+ "Import Test Rice,130,2.7,28.2,0.3,1 cup (cooked),158\n"
+			+ "Import Test Rice,130,2.7,28.2,0.3,1 bowl,200\n"
+			+ "\"Import Test Dal, Yellow\",116,9,20,0.4,,\n"
+			+ "Import Test Bad Number,abc,1,1,1,,\n"
+			+ "Import Test Negative,100,1,1,-1,,\n";
+
+		// Act
+		FoodImportResult result = foodCatalogImporter.importCsv(reader(csv));
+
+		// Assert
+		assertEquals(5, result.getRows());
+		assertEquals(2, result.getRejectedRows());
+		assertEquals(2, result.getFoodsInserted());
+		assertEquals(2, result.getPortionsInserted());
+
+		Map<String, Food> foods = importedFoodsByName();
+		assertEquals(2, foods.size());
+		assertEquals(130, foods.get("Import Test Rice").getCaloriesPer100g());
+		assertEquals(2, foods.get("Import Test Rice").getFoodPortions().size());
+		assertTrue(foods.get("Import Test Dal, Yellow").getFoodPortions().isEmpty());
+
+		// Committed chunks reach the search index
+		assertEquals(2, foodService.searchFoods("import test", null, null).getFoods().size());
+	}
+
+	@Test
+	void importJsonLines_existingFood_updatesFoodAndUpsertsPortionsByLabel() throws Exception {
+		// Arrange
+		foodCatalogImporter.importCsv(reader(CSV_HEADER + "Import Test Oats,389,16.9,66.3,6.9,1 cup,80\n"));
+		// Loaded once, so the food and its portion are in the second-level cache
+		Food cached = importedFoodsByName().get("Import Test Oats");
+		FoodPortion cachedCup = cached.getFoodPortions().get(0);
+		foodRepository.findById(cached.getId()).orElseThrow();
+		foodPortionRepository.findById(cachedCup.getId()).orElseThrow();
+		String jsonLines = "{\"name\":\"Import Test Oats\",\"caloriesPer100g\":379,\"proteinPer100g\":13.2,"
+			+ "\"carbsPer100g\":67.7,\"fatPer100g\":6.5,\"portions\":[{\"label\":\"1 cup\",\"grams\":81},"
+			+ "{\"label\":\"1 tbsp\",\"grams\":5}]}\n"
+			+ "\n"
+			+ "{\"name\":\"Import Test Milk\",\"caloriesPer100g\":42,\"proteinPer100g\":3.4,"
+			+ "\"carbsPer100g\":5,\"fatPer100g\":1,\"source\":\"ignored\"}\n"
+			+ "{not json}\n";
+
+		// Act
+		FoodImportResult result = foodCatalogImporter.importJsonLines(reader(jsonLines));
+
+		// Assert
+		assertEquals(3, result.getRows());
+		assertEquals(1, result.getRejectedRows());
+		assertEquals(1, result.getFoodsInserted());
+		assertEquals(1, result.getFoodsUpdated());
+		assertEquals(1, result.getPortionsInserted());
+		assertEquals(1, result.getPortionsUpdated());
+
+		// The JDBC writes evicted the cached copies
+		assertEquals(379, foodRepository.findById(cached.getId()).orElseThrow().getCaloriesPer100g());
+		assertEquals(81, foodPortionRepository.findById(cachedCup.getId()).orElseThrow().getGrams());
+
+		Food oats = importedFoodsByName().get("Import Test Oats");
+		assertEquals(379, oats.getCaloriesPer100g());
+		Map<String, Double> portions = oats.getFoodPortions().stream()
+			.collect(Collectors.toMap(FoodPortion::getLabel, FoodPortion::getGrams));
+		assertEquals(Map.of("1 cup", 81.0, "1 tbsp", 5.0), portions);
+	}
+
+	@Test
+	void importCsv_moreFoodsThanBatchSize_writesEveryChunk() throws Exception {
+		// Arrange
+		FoodCatalogImporter smallBatches = new FoodCatalogImporter(jdbcTemplate, foodCatalogChangeLog, transactionManager,
+			eventPublisher, entityManagerFactory, objectMapper, 2);
+		StringBuilder csv = new StringBuilder(CSV_HEADER);
+		for (int i = 0; i < 5; i++) {
+			csv.append("Import Test Chunk ").append(i).append(",100,1,1,1,100g,100\n");
+		}
+
+		// Act
+		FoodImportResult result = smallBatches.importCsv(reader(csv.toString()));
+
+		// Assert
+		assertEquals(5, result.getFoodsInserted());
+		assertEquals(5, result.getPortionsInserted());
+		assertEquals(5, importedFoods().size());
+		assertEquals(5, foodService.searchFoods("import test chunk", null, null).getFoods().size());
+	}
+
+	@Test
+	void importMicronutrients_csvColumnsAndJsonObject_storedAsVectors() throws Exception {
+		// Arrange
+		String csv = "name,calories_per_100g,protein_per_100g,carbs_per_100g,fat_per_100g,fibre_per_100g,vitamin_c_per_100g\n"
+			+ "Import Test Guava,68,2.6,14.3,1,5.4,228.3\n"
+			+ "Import Test Plain,100,1,1,1,,\n"
+			+ "Import Test Negative Fibre,100,1,1,1,-1,\n";
+		String jsonLines = "{\"name\":\"Import Test Guava\",\"caloriesPer100g\":68,\"proteinPer100g\":2.6,"
+			+ "\"carbsPer100g\":14.3,\"fatPer100g\":1}\n"
+			+ "{\"name\":\"Import Test Spinach\",\"caloriesPer100g\":23,\"proteinPer100g\":2.9,"
+			+ "\"carbsPer100g\":3.6,\"fatPer100g\":0.4,\"micronutrientsPer100g\":{\"iron\":2.7,\"vitaminK\":483}}\n"
+			+ "{\"name\":\"Import Test Unknown\",\"caloriesPer100g\":1,\"proteinPer100g\":1,"
+			+ "\"carbsPer100g\":1,\"fatPer100g\":1,\"micronutrientsPer100g\":{\"vitaminX\":1}}\n";
+
+		// Act - The JSON line for guava has no micronutrients, so it keeps the CSV ones
+		FoodImportResult csvResult = foodCatalogImporter.importCsv(reader(csv));
+		FoodImportResult jsonResult = foodCatalogImporter.importJsonLines(reader(jsonLines));
+
+		// Assert
+		assertEquals(1, csvResult.getRejectedRows());
+		assertEquals(1, jsonResult.getRejectedRows());
+		Map<String, Food> foods = importedFoodsByName();
+		Food guava = foodRepository.findById(foods.get("Import Test Guava").getId()).orElseThrow();
+		assertEquals(5.4, guava.getMicronutrientsPer100g().get(Micronutrient.FIBRE), 1e-5);
+		assertEquals(228.3, guava.getMicronutrientsPer100g().get(Micronutrient.VITAMIN_C), 1e-4);
+		assertNull(foods.get("Import Test Plain").getMicronutrientsPer100g());
+		assertEquals(Map.of("iron", 2.7, "vitaminK", 483.0),
+			foods.get("Import Test Spinach").getMicronutrientsPer100g().toMap());
+	}
+
+	@Test
+	void importCsv_sameFoodTwice_recordsNextVersionsAndPruneKeepsLatestChange() throws Exception {
+		// Arrange
+		long before = foodCatalogChangeRepository.findLatestVersion();
+		foodCatalogImporter.importCsv(reader(CSV_HEADER + "Import Test Pruned,100,1,1,1,,\n"));
+		foodCatalogImporter.importCsv(reader(CSV_HEADER + "Import Test Pruned,110,1,1,1,,\n"));
+		long after = foodCatalogChangeRepository.findLatestVersion();
+		UUID foodId = importedFoodsByName().get("Import Test Pruned").getId();
+
+		// Act
+		foodCatalogChangeLog.prune(Integer.MAX_VALUE);
+
+		// Assert - Only the second change is left, and no client was cut off
+		assertEquals(before + 2, after);
+		assertEquals(List.of(foodId), foodCatalogChangeRepository.findFoodIdsChangedBetween(after - 1, after, PageRequest.of(0, 10)));
+		assertTrue(foodCatalogChangeRepository.findFoodIdsChangedBetween(before, after - 1, PageRequest.of(0, 10)).isEmpty());
+		assertEquals(0, foodCatalogChangeRepository.findPrunedThrough());
+	}
+
+	private List<Food> importedFoods() {
+		return foodRepository.findAllWithPortions().stream()
+			.filter(food -> food.getName().startsWith("Import Test"))
+			.collect(Collectors.toList());
+	}
+
+	private Map<String, Food> importedFoodsByName() {
+		return importedFoods().stream().collect(Collectors.toMap(Food::getName, food -> food));
+	}
+
+	private static BufferedReader reader(String text) {
+		return new BufferedReader(new StringReader(text));
+	}
+
+}
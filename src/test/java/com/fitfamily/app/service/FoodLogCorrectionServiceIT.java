@@ -0,0 +1,255 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodLogCorrectionResponse;
+import com.fitfamily.app.dto.MacroHistoryResponse;
+import com.fitfamily.app.model.CorrectionStatus;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.FoodLogCorrection;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.model.MealType;
+import com.fitfamily.app.model.Role;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.repository.FoodLogCorrectionRepository;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.repository.UserRepository;
+import com.fitfamily.app.security.CatalogAdmins;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FoodLogCorrectionServiceIT {
+
+	private static final String ADMIN = "catalog-admin@example.com";
+
+	@Autowired
+	private FoodLogCorrectionRepository foodLogCorrectionRepository;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodPortionRepository foodPortionRepository;
+
+	@Autowired
+	private FoodLogRepository foodLogRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private HistoryService historyService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private FoodLogCorrectionService correctionService;
+	private User user;
+	private Food food;
+	private FoodPortion bowl;
+	private FoodPortion spoon;
+	// Logs in ID order, which is the order corrections process them in
+	private List<FoodLog> logs;
+
+	@BeforeEach
+	void setUp() {
+		// Chunks of two logs, so five logs take three chunks
+		correctionService = new FoodLogCorrectionService(foodLogCorrectionRepository, foodRepository, historyService,
+				new CatalogAdmins(" Catalog-Admin@example.com ,other@example.com"), jdbcTemplate, transactionManager, 2, 0, 60_000);
+
+		user = new User();
+		user.setName("Correction User");
+		user.setEmail("corrections@example.com");
+		user.setPassword("secret");
+		user.setRole(Role.MEMBER);
+		user = userRepository.save(user);
+
+		food = new Food();
+		food.setName("Correction Test Halwa");
+		food.setCaloriesPer100g(100);
+		food.setProteinPer100g(1);
+		food.setCarbsPer100g(10);
+		food.setFatPer100g(5);
+		food = foodRepository.save(food);
+		bowl = foodPortionRepository.save(portion("1 bowl", 200));
+		spoon = foodPortionRepository.save(portion("1 spoon", 15));
+
+		logs = new ArrayList<>();
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < 5; i++) {
+			logs.add(foodLogRepository.save(log(i % 2 == 0 ? bowl : spoon, today.minusDays(i % 2))));
+		}
+		List<UUID> idOrder = jdbcTemplate.queryForList("select id from food_logs where food_id = ? order by id",
+				UUID.class, food.getId());
+		logs.sort(Comparator.comparingInt(log -> idOrder.indexOf(log.getId())));
+	}
+
+	@AfterEach
+	void cleanup() throws InterruptedException {
+		correctionService.shutdown();
+		foodLogCorrectionRepository.deleteAll();
+		foodLogRepository.deleteAll();
+		foodPortionRepository.deleteAll(List.of(bowl, spoon));
+		foodRepository.deleteById(food.getId());
+		userRepository.deleteById(user.getId());
+	}
+
+	@Test
+	void startCorrections_staleLogs_recomputesAllChunksAndDailyTotals() throws Exception {
+		// Arrange - History is built from the stale logs, then the food is corrected
+		historyService.ensureLoaded(user);
+		food.setCaloriesPer100g(400);
+		foodRepository.save(food);
+
+		// Act
+		List<FoodLogCorrectionResponse> queued = correctionService.startCorrections(List.of(food.getId(), food.getId()), ADMIN);
+		FoodLogCorrectionResponse completed = awaitFinished(queued.get(0).getId());
+
+		// Assert
+		assertEquals(1, queued.size());
+		assertEquals(CorrectionStatus.COMPLETED, completed.getStatus());
+		assertEquals(5, completed.getTotalLogs());
+		assertEquals(5, completed.getProcessedLogs());
+		assertEquals(5, completed.getUpdatedLogs());
+		assertEquals(100.0, completed.getPercentComplete());
+
+		for (FoodLog log : foodLogRepository.findAllById(logs.stream().map(FoodLog::getId).toList())) {
+			double grams = log.getPortion().getId().equals(bowl.getId()) ? 200 : 15;
+			assertEquals(Math.round(400 * grams / 100 * 1000), log.getCaloriesMilli());
+			assertEquals(Math.round(1 * grams / 100 * 1000), log.getProteinMilli());
+		}
+
+		// Today: 3 bowls (2400 kcal); yesterday: 2 spoons (120 kcal)
+		LocalDate today = LocalDate.now();
+		MacroHistoryResponse history = historyService.getHistory(user, today.minusDays(1), today);
+		assertEquals(120, history.getCalories()[0]);
+		assertEquals(2400, history.getCalories()[1]);
+	}
+
+	@Test
+	void resumeCorrections_interruptedJob_continuesAfterLastProcessedLog() throws Exception {
+		// Arrange - A job that committed its first three logs before a restart
+		food.setCaloriesPer100g(400);
+		foodRepository.save(food);
+		FoodLogCorrection interrupted = new FoodLogCorrection();
+		interrupted.setFoodId(food.getId());
+		interrupted.setStatus(CorrectionStatus.RUNNING);
+		interrupted.setTotalLogs(5L);
+		interrupted.setProcessedLogs(3);
+		interrupted.setUpdatedLogs(3);
+		interrupted.setLastLogId(logs.get(2).getId());
+		interrupted.setRequestedBy(ADMIN);
+		interrupted = foodLogCorrectionRepository.save(interrupted);
+
+		// Act
+		correctionService.resumeCorrections();
+		FoodLogCorrectionResponse completed = awaitFinished(interrupted.getId());
+
+		// Assert - The first three logs were not touched again
+		assertEquals(CorrectionStatus.COMPLETED, completed.getStatus());
+		assertEquals(5, completed.getProcessedLogs());
+		assertEquals(5, completed.getUpdatedLogs());
+		for (int i = 0; i < logs.size(); i++) {
+			FoodLog log = foodLogRepository.findById(logs.get(i).getId()).orElseThrow();
+			double calories = i < 3 ? 100 : 400;
+			double grams = log.getPortion().getId().equals(bowl.getId()) ? 200 : 15;
+			assertEquals(Math.round(calories * grams / 100 * 1000), log.getCaloriesMilli());
+		}
+	}
+
+	@Test
+	void runPending_jobClaimedByAnotherInstance_runsOnlyOnceTheClaimIsStale() {
+		// Arrange - Another instance claimed the job and is working on it
+		food.setCaloriesPer100g(400);
+		foodRepository.save(food);
+		FoodLogCorrection claimed = new FoodLogCorrection();
+		claimed.setFoodId(food.getId());
+		claimed.setStatus(CorrectionStatus.PENDING);
+		claimed.setRequestedBy(ADMIN);
+		claimed.setClaimedBy("other-instance");
+		claimed.setHeartbeatAt(LocalDateTime.now());
+		claimed = foodLogCorrectionRepository.save(claimed);
+
+		// Act
+		correctionService.runPending();
+
+		// Assert
+		assertEquals(CorrectionStatus.PENDING, foodLogCorrectionRepository.findById(claimed.getId()).orElseThrow().getStatus());
+
+		// Act - The other instance stopped sending heartbeats
+		claimed = foodLogCorrectionRepository.findById(claimed.getId()).orElseThrow();
+		claimed.setHeartbeatAt(LocalDateTime.now().minusMinutes(2));
+		foodLogCorrectionRepository.save(claimed);
+		correctionService.runPending();
+
+		// Assert
+		FoodLogCorrection completed = foodLogCorrectionRepository.findById(claimed.getId()).orElseThrow();
+		assertEquals(CorrectionStatus.COMPLETED, completed.getStatus());
+		assertEquals(5, completed.getUpdatedLogs());
+		assertNotEquals("other-instance", completed.getClaimedBy());
+	}
+
+	@Test
+	void startCorrections_notAdmin_throwsAccessDenied() {
+		// Act & Assert
+		assertThrows(AccessDeniedException.class,
+				() -> correctionService.startCorrections(List.of(food.getId()), "corrections@example.com"));
+		assertEquals(0, foodLogCorrectionRepository.count());
+	}
+
+	private FoodLogCorrectionResponse awaitFinished(UUID correctionId) throws InterruptedException {
+		for (int attempt = 0; attempt < 200; attempt++) {
+			FoodLogCorrectionResponse correction = correctionService.getCorrection(correctionId, ADMIN);
+			if (correction.getStatus() == CorrectionStatus.COMPLETED || correction.getStatus() == CorrectionStatus.FAILED) {
+				return correction;
+			}
+			Thread.sleep(50);
+		}
+		fail("Correction did not finish in time");
+		return null;
+	}
+
+	private FoodPortion portion(String label, double grams) {
+		FoodPortion portion = new FoodPortion();
+		portion.setFood(food);
+		portion.setLabel(label);
+		portion.setGrams(grams);
+		return portion;
+	}
+
+	private FoodLog log(FoodPortion portion, LocalDate date) {
+		// Macros as logged before the correction
+		FoodLog foodLog = new FoodLog();
+		foodLog.setUser(user);
+		foodLog.setFood(food);
+		foodLog.setPortion(portion);
+		foodLog.setCaloriesMilli(Math.round(food.getCaloriesPer100g() * portion.getGrams() / 100 * 1000));
+		foodLog.setProteinMilli(Math.round(food.getProteinPer100g() * portion.getGrams() / 100 * 1000));
+		foodLog.setCarbsMilli(Math.round(food.getCarbsPer100g() * portion.getGrams() / 100 * 1000));
+		foodLog.setFatMilli(Math.round(food.getFatPer100g() * portion.getGrams() / 100 * 1000));
+		foodLog.setMealType(MealType.SNACK);
+		foodLog.setDate(date);
+		return foodLog;
+	}
+
+}
@@ -17,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,6 +37,18 @@ class FoodLogServiceTest {
 	@Mock
 	private FoodLogRepository foodLogRepository;
 
+	@Mock
+	private HistoryService historyService;
+
+	@Mock
+	private StreakService streakService;
+
+	@Mock
+	private QuickAddService quickAddService;
+
+	@Mock
+	private RelatedFoodService relatedFoodService;
+
 	@InjectMocks
 	private FoodLogService foodLogService;
 
@@ -125,6 +138,8 @@ class FoodLogServiceTest {
 		verify(foodRepository, times(1)).findById(food.getId());
 		verify(foodPortionRepository, times(1)).findById(portion.getId());
 		verify(foodLogRepository, times(1)).save(any(FoodLog.class));
+		verify(historyService, times(1)).recordLog(savedFoodLog);
+		verify(streakService, times(1)).recordLog(user, LocalDate.now());
 	}
 
 	@Test
@@ -241,5 +256,43 @@ class FoodLogServiceTest {
 		assertEquals(10.0, savedFoodLog.getFat(), 0.01);
 	}
 
+	@Test
+	void addFoodLog_foodWithMicronutrients_scalesWholeVector() {
+		// Arrange - 150g portion of a food with fibre, sodium and vitamin C per 100g
+		food.setMicronutrientsPer100g(NutrientVector.of(Map.of(
+				Micronutrient.FIBRE, 2.0, Micronutrient.SODIUM, 40.0, Micronutrient.VITAMIN_C, 12.5)));
+		when(foodRepository.findById(food.getId())).thenReturn(Optional.of(food));
+		when(foodPortionRepository.findById(portion.getId())).thenReturn(Optional.of(portion));
+		when(foodLogRepository.save(any(FoodLog.class))).thenReturn(foodLog);
+
+		// Act
+		foodLogService.addFoodLog(request, user);
+
+		// Assert
+		ArgumentCaptor<FoodLog> foodLogCaptor = ArgumentCaptor.forClass(FoodLog.class);
+		verify(foodLogRepository).save(foodLogCaptor.capture());
+		NutrientVector micronutrients = foodLogCaptor.getValue().getMicronutrients();
+		assertEquals(3.0, micronutrients.get(Micronutrient.FIBRE), 1e-6);
+		assertEquals(60.0, micronutrients.get(Micronutrient.SODIUM), 1e-6);
+		assertEquals(18.75, micronutrients.get(Micronutrient.VITAMIN_C), 1e-6);
+		assertEquals(0.0, micronutrients.get(Micronutrient.IRON));
+	}
+
+	@Test
+	void addFoodLog_foodWithoutMicronutrients_storesNone() {
+		// Arrange
+		when(foodRepository.findById(food.getId())).thenReturn(Optional.of(food));
+		when(foodPortionRepository.findById(portion.getId())).thenReturn(Optional.of(portion));
+		when(foodLogRepository.save(any(FoodLog.class))).thenReturn(foodLog);
+
+		// Act
+		foodLogService.addFoodLog(request, user);
+
+		// Assert
+		ArgumentCaptor<FoodLog> foodLogCaptor = ArgumentCaptor.forClass(FoodLog.class);
+		verify(foodLogRepository).save(foodLogCaptor.capture());
+		assertNull(foodLogCaptor.getValue().getMicronutrients());
+	}
+
 }
 
@@ -0,0 +1,62 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.SerializedFoodSearchPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodSearchCacheTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private FoodSearchCache cache;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new FoodSearchCache(2, meterRegistry);
+	}
+
+	@Test
+	void get_sameVersion_hit() {
+		SerializedFoodSearchPage page = new SerializedFoodSearchPage(new byte[] {'[', ']'}, null);
+		cache.put(FoodSearchCache.key("rice", 20), 3, page);
+
+		assertSame(page, cache.get(FoodSearchCache.key("rice", 20), 3));
+		assertNull(cache.get(FoodSearchCache.key("rice", 10), 3));
+	}
+
+	@Test
+	void get_olderVersion_miss() {
+		cache.put(FoodSearchCache.key("rice", 20), 3, new SerializedFoodSearchPage(new byte[0], null));
+
+		assertNull(cache.get(FoodSearchCache.key("rice", 20), 4));
+	}
+
+	@Test
+	void put_beyondMaxEntries_evictsLeastRecentlyUsed() {
+		cache.put("a", 1, new SerializedFoodSearchPage(new byte[0], null));
+		cache.put("b", 1, new SerializedFoodSearchPage(new byte[0], null));
+		cache.get("a", 1);
+		cache.put("c", 1, new SerializedFoodSearchPage(new byte[0], null));
+
+		assertNotNull(cache.get("a", 1));
+		assertNull(cache.get("b", 1));
+		assertEquals(2.0, meterRegistry.get("food.search.cache.size").gauge().value());
+	}
+
+	@Test
+	void metrics_countHitsAndMisses() {
+		cache.put("rice", 1, new SerializedFoodSearchPage(new byte[0], null));
+		cache.get("rice", 1);
+		cache.get("rice", 1);
+		cache.get("rice", 1);
+		cache.get("egg", 1);
+
+		assertEquals(3.0, meterRegistry.get("food.search.cache.requests").tag("result", "hit").counter().count());
+		assertEquals(1.0, meterRegistry.get("food.search.cache.requests").tag("result", "miss").counter().count());
+		assertEquals(0.75, meterRegistry.get("food.search.cache.hit.ratio").gauge().value());
+	}
+
+}
@@ -0,0 +1,296 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.dto.FoodSearchPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodSearchIndexTest {
+
+	private FoodSearchIndex index;
+	private FoodResponse rice;
+	private FoodResponse chicken;
+	private FoodResponse chapati;
+
+	@BeforeEach
+	void setUp() {
+		rice = food("Rice");
+		chicken = food("Chicken Breast");
+		chapati = food("Chapati");
+
+		index = new FoodSearchIndex(2);
+		index.rebuild(List.of(rice, chicken, chapati));
+	}
+
+	@Test
+	void search_substringIgnoringCase_matchesLikeQuery() {
+		assertEquals(List.of(chicken), search("CHICKEN"));
+		assertEquals(List.of(chicken), search("ick"));
+		assertEquals(List.of(), search("pizza"));
+	}
+
+	@Test
+	void search_emptyQuery_listsAllNamesShortestFirst() {
+		assertEquals(List.of(rice, chapati, chicken), search(""));
+	}
+
+	@Test
+	void search_shortTokens_matchSubstringsLikeLongerOnes() {
+		assertEquals(List.of(chapati, chicken), search("ch"));
+		assertEquals(List.of(rice, chicken), search("e"));
+		assertEquals(List.of(rice, chicken), search("r c"));
+		assertEquals(List.of(), search("z"));
+	}
+
+	@Test
+	void search_emptyQueryAfterChanges_pagesThroughLiveFoods() {
+		// Arrange - Chapati deleted, curry added
+		FoodResponse curry = food("Chicken Curry");
+		index.apply(Set.of(chapati.getId(), curry.getId()), List.of(curry));
+
+		// Act
+		FoodSearchPage first = index.search("", null, 2);
+		FoodSearchPage second = index.search("", FoodSearchRanking.Cursor.decode(first.getNextCursor()), 2);
+
+		// Assert
+		assertEquals(List.of(rice, curry), first.getFoods());
+		assertEquals(List.of(chicken), second.getFoods());
+		assertNull(second.getNextCursor());
+	}
+
+	@Test
+	void search_multipleTokens_requiresEveryToken() {
+		assertEquals(List.of(chicken), search("breast chicken"));
+		assertEquals(List.of(), search("chicken rice"));
+	}
+
+	@Test
+	void search_rankedExactThenPrefixThenWordStartThenSubstring() {
+		// Arrange
+		FoodResponse exact = food("Egg");
+		FoodResponse prefix = food("Eggplant");
+		FoodResponse wordStart = food("Boiled Egg");
+		FoodResponse substring = food("Veggie Burger");
+		index.rebuild(List.of(substring, wordStart, prefix, exact));
+
+		// Act & Assert
+		assertEquals(List.of(exact, prefix, wordStart, substring), search("egg"));
+	}
+
+	@Test
+	void search_followingCursors_visitsEveryMatchOnce() {
+		// Arrange
+		List<FoodResponse> foods = new ArrayList<>();
+		for (int i = 0; i < 95; i++) {
+			foods.add(food("Soup " + i));
+		}
+		index.rebuild(foods);
+
+		// Act
+		List<FoodResponse> visited = new ArrayList<>();
+		FoodSearchRanking.Cursor cursor = null;
+		int pages = 0;
+		do {
+			FoodSearchPage page = index.search("soup", cursor, 10);
+			visited.addAll(page.getFoods());
+			cursor = page.getNextCursor() == null ? null : FoodSearchRanking.Cursor.decode(page.getNextCursor());
+			pages++;
+		} while (cursor != null);
+
+		// Assert
+		assertEquals(10, pages);
+		assertEquals(95, visited.size());
+		assertEquals(Set.copyOf(foods), Set.copyOf(visited));
+		assertEquals(search("soup"), visited);
+	}
+
+	@Test
+	void search_lastPage_hasNoCursor() {
+		FoodSearchPage page = index.search("", null, 3);
+
+		assertEquals(3, page.getFoods().size());
+		assertNull(page.getNextCursor());
+		assertNotNull(index.search("", null, 2).getNextCursor());
+	}
+
+	@Test
+	void search_typos_fallBackToFuzzyMatches() {
+		assertEquals(List.of(chicken), search("chiken brest"));
+		assertEquals(List.of(chapati), search("chappati"));
+		assertEquals(List.of(), search("pizza"));
+	}
+
+	@Test
+	void search_fuzzyMatches_rankedByEditDistance() {
+		// Arrange
+		FoodResponse oneEdit = food("Chicken Soup");
+		FoodResponse twoEdits = food("Smoked Chickens");
+		index.rebuild(List.of(twoEdits, oneEdit));
+
+		// Act
+		FoodSearchPage page = index.search("chiken", null, 1);
+
+		// Assert - Second page continues with the fuzzy matches
+		assertEquals(List.of(oneEdit), page.getFoods());
+		FoodSearchPage next = index.search("chiken", FoodSearchRanking.Cursor.decode(page.getNextCursor()), 1);
+		assertEquals(List.of(twoEdits), next.getFoods());
+		assertNull(next.getNextCursor());
+	}
+
+	@Test
+	void search_exactMatchesExist_noFuzzyMatches() {
+		// "rice" is one edit from "Rise", but exact matches win outright
+		index.rebuild(List.of(rice, food("Rise and Shine Oats")));
+
+		assertEquals(List.of(rice), search("rice"));
+	}
+
+	@Test
+	void search_fuzzyDisabled_returnsNothingForTypos() {
+		FoodSearchIndex exactOnly = new FoodSearchIndex(0);
+		exactOnly.rebuild(List.of(rice, chicken, chapati));
+
+		assertEquals(List.of(), exactOnly.search("chiken", null, 10).getFoods());
+	}
+
+	@Test
+	void apply_addedUpdatedAndDeletedFoods_visibleToNextSearch() {
+		// Arrange
+		FoodResponse renamedRice = new FoodResponse(rice.getId(), "Brown Rice", List.of());
+		FoodResponse curry = food("Chicken Curry");
+
+		// Act - Rice renamed, curry added, chapati deleted
+		index.apply(Set.of(rice.getId(), curry.getId(), chapati.getId()), List.of(renamedRice, curry));
+
+		// Assert
+		assertEquals(List.of(renamedRice), search("rice"));
+		assertEquals(Set.of(chicken, curry), Set.copyOf(search("chicken")));
+		assertEquals(List.of(), search("chapati"));
+		assertEquals(List.of(), search("chappati"));
+		assertEquals(List.of(renamedRice), search("brwn"));
+		assertEquals(3, search("").size());
+	}
+
+	@Test
+	void apply_manyChanges_compactsWithoutLosingFoods() {
+		// Arrange - Enough updates to trigger compaction several times
+		List<FoodResponse> foods = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			foods.add(food("Food " + i));
+		}
+		index.rebuild(foods);
+
+		// Act
+		for (int round = 0; round < 3; round++) {
+			List<FoodResponse> renamed = foods.stream()
+				.map(food -> new FoodResponse(food.getId(), food.getName() + "x", List.of()))
+				.collect(Collectors.toList());
+			index.apply(foods.stream().map(FoodResponse::getId).collect(Collectors.toSet()), renamed);
+			foods = renamed;
+		}
+
+		// Assert
+		List<FoodResponse> all = search("");
+		assertEquals(3000, all.size());
+		assertTrue(all.stream().allMatch(food -> food.getName().endsWith("xxx")));
+		assertEquals(List.of("Food 42xxx"), search("42xxx").stream()
+			.map(FoodResponse::getName)
+			.filter(name -> name.startsWith("Food 42x"))
+			.collect(Collectors.toList()));
+	}
+
+	@Test
+	void search_aliasWords_findFoodByOtherName() {
+		// Arrange
+		index.rebuild(List.of(rice, chicken, chapati), Map.of(
+			chapati.getId(), List.of("Roti", "Phulka", "रोटी"),
+			rice.getId(), List.of("Basmati Chawal")));
+
+		// Act & Assert
+		assertEquals(List.of(chapati), search("roti"));
+		assertEquals(List.of(chapati), search("PHUL"));
+		assertEquals(List.of(chapati), search("रोटी"));
+		assertEquals(List.of(rice), search("chawal basmati"));
+		assertEquals(List.of(), search("oti"));
+	}
+
+	@Test
+	void search_nameAndAliasMatch_foodListedOnceAtBestTier() {
+		// Arrange - "Roti" is an exact alias match, the name of the other food only a prefix match
+		FoodResponse rotiCanai = food("Roti Canai");
+		index.rebuild(List.of(rice, chicken, chapati, rotiCanai), Map.of(
+			chapati.getId(), List.of("Roti", "Roti Chapati"),
+			rotiCanai.getId(), List.of("Roti Prata")));
+
+		// Act & Assert
+		assertEquals(List.of(chapati, rotiCanai), search("roti"));
+		assertEquals(List.of(chapati), search("chapati"));
+	}
+
+	@Test
+	void apply_changedAliases_replaceOldOnesAndSurviveCompaction() {
+		// Arrange
+		index.rebuild(List.of(rice, chicken, chapati), Map.of(chapati.getId(), List.of("Roti")));
+
+		// Act - Chapati's alias renamed, then enough changes to compact
+		index.apply(Set.of(chapati.getId()), List.of(chapati), Map.of(chapati.getId(), List.of("Phulka")));
+		for (int round = 0; round < 3; round++) {
+			List<FoodResponse> foods = new ArrayList<>();
+			for (int i = 0; i < 1500; i++) {
+				foods.add(food("Food " + round + " " + i));
+			}
+			index.apply(foods.stream().map(FoodResponse::getId).collect(Collectors.toSet()), foods);
+			index.apply(foods.stream().map(FoodResponse::getId).collect(Collectors.toSet()), List.of());
+		}
+
+		// Assert
+		assertEquals(List.of(), search("roti"));
+		assertEquals(List.of(chapati), search("phulka"));
+		assertEquals(3, search("").size());
+	}
+
+	@Test
+	void suggest_namePrefixesThenWordPrefixes_upToLimit() {
+		// Arrange
+		FoodResponse grilled = food("Grilled Chicken");
+		index.rebuild(List.of(rice, chicken, chapati, grilled));
+
+		// Act & Assert
+		assertEquals(List.of(chicken, grilled), index.suggest("CHICK", 10));
+		assertEquals(List.of(chapati), index.suggest("ch", 1));
+		assertEquals(List.of(chicken), index.suggest("brea", 10));
+		assertEquals(List.of(), index.suggest("  ", 10));
+	}
+
+	@Test
+	void suggest_afterApply_skipsDeletedAndFindsRenamedFoods() {
+		// Arrange
+		FoodResponse renamedRice = new FoodResponse(rice.getId(), "Brown Rice", List.of());
+
+		// Act - Rice renamed, chapati deleted
+		index.apply(Set.of(rice.getId(), chapati.getId()), List.of(renamedRice));
+
+		// Assert
+		assertEquals(List.of(renamedRice), index.suggest("ri", 10));
+		assertEquals(List.of(renamedRice), index.suggest("bro", 10));
+		assertEquals(List.of(chicken), index.suggest("ch", 10));
+	}
+
+	private List<FoodResponse> search(String query) {
+		return index.search(query, null, 10_000).getFoods();
+	}
+
+	private static FoodResponse food(String name) {
+		return new FoodResponse(UUID.randomUUID(), name, List.of());
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Database search path of FoodService (used until the in-memory index is built)
+ */
+@SpringBootTest
+class FoodServiceIT {
+
+	private static final int FOODS = 20;
+
+	@Autowired
+	private FoodService foodService;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodPortionRepository foodPortionRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	// Never ready, so every search goes to the database
+	@MockitoBean
+	private FoodSearchIndex foodSearchIndex;
+
+	private final List<Food> foods = new ArrayList<>();
+	private final List<FoodPortion> portions = new ArrayList<>();
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < FOODS; i++) {
+			Food food = new Food();
+			food.setName("Statement Test Food " + (char) ('A' + i));
+			food.setCaloriesPer100g(100);
+			food.setProteinPer100g(10);
+			food.setCarbsPer100g(10);
+			food.setFatPer100g(5);
+			food = foodRepository.save(food);
+			foods.add(food);
+
+			for (String label : List.of("100g", "1 serving (150g)")) {
+				FoodPortion portion = new FoodPortion();
+				portion.setLabel(label);
+				portion.setGrams(100);
+				portion.setFood(food);
+				portions.add(foodPortionRepository.save(portion));
+			}
+		}
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+	}
+
+	@AfterEach
+	void cleanup() {
+		statistics.setStatisticsEnabled(false);
+		foodPortionRepository.deleteAll(portions);
+		foodRepository.deleteAll(foods);
+	}
+
+	@Test
+	void searchFoods_statementCountIndependentOfResultSize() {
+		// Act
+		long singleResultStatements = countStatements(() -> {
+			List<FoodResponse> result = foodService.searchFoods("statement test food c", null, null).getFoods();
+			assertEquals(1, result.size());
+			assertEquals(2, result.get(0).getPortions().size());
+		});
+
+		long allResultsStatements = countStatements(() -> {
+			List<FoodResponse> result = foodService.searchFoods("statement test food", null, null).getFoods();
+			assertEquals(FOODS, result.size());
+			result.forEach(food -> assertEquals(2, food.getPortions().size()));
+		});
+
+		// Assert - One statement ranks the page, one loads its foods with portions, however many foods match
+		assertEquals(2, singleResultStatements);
+		assertEquals(singleResultStatements, allResultsStatements);
+	}
+
+	private long countStatements(Runnable search) {
+		statistics.clear();
+		search.run();
+		return statistics.getPrepareStatementCount();
+	}
+
+}
@@ -1,23 +1,49 @@
 package com.fitfamily.app.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfamily.app.dto.FoodBatchResponse;
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.FoodNutrientsResponse;
 import com.fitfamily.app.dto.FoodPortionResponse;
 import com.fitfamily.app.dto.FoodResponse;
+import com.fitfamily.app.dto.FoodSearchPage;
+import com.fitfamily.app.dto.NutrientQueryRequest;
+import com.fitfamily.app.dto.SerializedFoodSearchPage;
+import com.fitfamily.app.exception.InvalidFoodBatchException;
+import com.fitfamily.app.exception.InvalidNutrientQueryException;
+import com.fitfamily.app.exception.InvalidSearchCursorException;
 import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodCatalogChangedEvent;
 import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.repository.CatalogSnapshotStore;
+import com.fitfamily.app.repository.FoodAliasRepository;
+import com.fitfamily.app.repository.FoodCatalogChangeLog;
+import com.fitfamily.app.repository.FoodCatalogChangeRepository;
 import com.fitfamily.app.repository.FoodRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,7 +52,32 @@ class FoodServiceTest {
 	@Mock
 	private FoodRepository foodRepository;
 
-	@InjectMocks
+	@Mock
+	private FoodCatalogChangeRepository foodCatalogChangeRepository;
+
+	@Mock
+	private FoodCatalogChangeLog foodCatalogChangeLog;
+
+	@Mock
+	private FoodAliasRepository foodAliasRepository;
+
+	@Mock
+	private FoodSearchIndex foodSearchIndex;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@TempDir
+	private Path tempDir;
+
+	private FoodSearchCache foodSearchCache;
+
+	private CatalogSnapshotStore catalogSnapshotStore;
+
+	private NutrientIndex nutrientIndex;
+
+	private CatalogIndexUpdater catalogIndexUpdater;
+
 	private FoodService foodService;
 
 	private Food food1;
@@ -37,6 +88,16 @@ class FoodServiceTest {
 
 	@BeforeEach
 	void setUp() {
+		foodSearchCache = new FoodSearchCache(100, new SimpleMeterRegistry());
+		catalogSnapshotStore = new CatalogSnapshotStore(tempDir.resolve("catalog.snapshot").toString());
+		nutrientIndex = new NutrientIndex();
+		CatalogSnapshotService catalogSnapshotService = new CatalogSnapshotService(foodRepository, foodCatalogChangeRepository,
+			foodCatalogChangeLog, catalogSnapshotStore, new ObjectMapper(), transactionManager, 2, 60000, 60000);
+		catalogIndexUpdater = new CatalogIndexUpdater(foodRepository, foodCatalogChangeRepository, foodAliasRepository, foodSearchIndex,
+			nutrientIndex, new MealPlanMatrix(), new CatalogVersion(foodSearchIndex), catalogSnapshotService, transactionManager);
+		foodService = new FoodService(foodRepository, foodSearchIndex, nutrientIndex, foodSearchCache, catalogSnapshotService,
+			new ObjectMapper(), 20, 50, 3, 8, 20, 20, 100);
+
 		// Setup food 1
 		food1 = new Food();
 		food1.setId(UUID.randomUUID());
@@ -45,6 +106,7 @@ class FoodServiceTest {
 		food1.setProteinPer100g(31.0);
 		food1.setCarbsPer100g(0.0);
 		food1.setFatPer100g(3.6);
+		food1.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
 
 		// Setup portions for food 1
 		portion1 = new FoodPortion();
@@ -69,6 +131,7 @@ class FoodServiceTest {
 		food2.setProteinPer100g(2.7);
 		food2.setCarbsPer100g(28.2);
 		food2.setFatPer100g(0.3);
+		food2.setUpdatedAt(LocalDateTime.of(2026, 1, 2, 12, 0));
 
 		// Setup portions for food 2
 		portion3 = new FoodPortion();
@@ -84,10 +147,10 @@ class FoodServiceTest {
 	void searchFoods_success_returnsMatchingFoods() {
 		// Arrange
 		String query = "chicken";
-		when(foodRepository.findByNameContainingIgnoreCase(query)).thenReturn(Arrays.asList(food1));
+		stubDatabaseSearch(query, food1);
 
 		// Act
-		List<FoodResponse> result = foodService.searchFoods(query);
+		List<FoodResponse> result = foodService.searchFoods(query, null, null).getFoods();
 
 		// Assert
 		assertNotNull(result);
@@ -110,17 +173,17 @@ class FoodServiceTest {
 		assertEquals("1 piece (150g)", portionResponse2.getLabel());
 
 		// Verify interactions
-		verify(foodRepository, times(1)).findByNameContainingIgnoreCase(query);
+		verify(foodRepository, times(1)).findRankedByName(eq(query.toLowerCase()), any(), any(), any(), any());
 	}
 
 	@Test
 	void searchFoods_multipleResults_returnsAll() {
 		// Arrange
 		String query = "rice";
-		when(foodRepository.findByNameContainingIgnoreCase(query)).thenReturn(Arrays.asList(food2));
+		stubDatabaseSearch(query, food2);
 
 		// Act
-		List<FoodResponse> result = foodService.searchFoods(query);
+		List<FoodResponse> result = foodService.searchFoods(query, null, null).getFoods();
 
 		// Assert
 		assertNotNull(result);
@@ -136,33 +199,33 @@ class FoodServiceTest {
 	void searchFoods_noResults_returnsEmptyList() {
 		// Arrange
 		String query = "pizza";
-		when(foodRepository.findByNameContainingIgnoreCase(query)).thenReturn(new ArrayList<>());
+		stubDatabaseSearch(query);
 
 		// Act
-		List<FoodResponse> result = foodService.searchFoods(query);
+		List<FoodResponse> result = foodService.searchFoods(query, null, null).getFoods();
 
 		// Assert
 		assertNotNull(result);
 		assertTrue(result.isEmpty());
 
-		verify(foodRepository, times(1)).findByNameContainingIgnoreCase(query);
+		verify(foodRepository, times(1)).findRankedByName(eq(query.toLowerCase()), any(), any(), any(), any());
 	}
 
 	@Test
 	void searchFoods_caseInsensitive_works() {
 		// Arrange
 		String query = "CHICKEN"; // uppercase query
-		when(foodRepository.findByNameContainingIgnoreCase(query)).thenReturn(Arrays.asList(food1));
+		stubDatabaseSearch(query, food1);
 
 		// Act
-		List<FoodResponse> result = foodService.searchFoods(query);
+		List<FoodResponse> result = foodService.searchFoods(query, null, null).getFoods();
 
 		// Assert
 		assertNotNull(result);
 		assertEquals(1, result.size());
 		assertEquals("Chicken Breast", result.get(0).getName());
 
-		verify(foodRepository, times(1)).findByNameContainingIgnoreCase(query);
+		verify(foodRepository, times(1)).findRankedByName(eq(query.toLowerCase()), any(), any(), any(), any());
 	}
 
 	@Test
@@ -173,10 +236,10 @@ class FoodServiceTest {
 		foodWithNoPortions.setName("New Food");
 		foodWithNoPortions.setFoodPortions(new ArrayList<>());
 
-		when(foodRepository.findByNameContainingIgnoreCase("new")).thenReturn(Arrays.asList(foodWithNoPortions));
+		stubDatabaseSearch("new", foodWithNoPortions);
 
 		// Act
-		List<FoodResponse> result = foodService.searchFoods("new");
+		List<FoodResponse> result = foodService.searchFoods("new", null, null).getFoods();
 
 		// Assert
 		assertNotNull(result);
@@ -188,11 +251,10 @@ class FoodServiceTest {
 	@Test
 	void searchFoods_multipleMatchingFoods_returnsAllMapped() {
 		// Arrange
-		when(foodRepository.findByNameContainingIgnoreCase("food"))
-			.thenReturn(Arrays.asList(food1, food2));
+		stubDatabaseSearch("food", food1, food2);
 
 		// Act
-		List<FoodResponse> result = foodService.searchFoods("food");
+		List<FoodResponse> result = foodService.searchFoods("food", null, null).getFoods();
 
 		// Assert
 		assertEquals(2, result.size());
@@ -200,5 +262,286 @@ class FoodServiceTest {
 		assertEquals("Rice", result.get(1).getName());
 	}
 
-}
+	@Test
+	void searchFoods_indexReady_servesFromIndexWithoutQuery() {
+		// Arrange
+		FoodResponse indexed = new FoodResponse(food1.getId(), "Chicken Breast", List.of());
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodSearchIndex.search(eq("chicken"), isNull(), eq(20))).thenReturn(new FoodSearchPage(List.of(indexed), null));
+
+		// Act
+		List<FoodResponse> result = foodService.searchFoods("chicken", null, null).getFoods();
+
+		// Assert
+		assertEquals(List.of(indexed), result);
+		verifyNoInteractions(foodRepository);
+	}
+
+	@Test
+	void searchFoods_limitAboveMaximum_cappedAtMaximum() {
+		// Arrange
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodSearchIndex.search(eq("rice"), isNull(), anyInt())).thenReturn(new FoodSearchPage(List.of(), null));
+
+		// Act
+		foodService.searchFoods("rice", 10_000, null);
+		foodService.searchFoods("rice", 0, null);
+
+		// Assert
+		verify(foodSearchIndex).search("rice", null, 50);
+		verify(foodSearchIndex).search("rice", null, 1);
+	}
+
+	@Test
+	void searchFoods_databaseHasMoreRows_returnsPageAndCursor() {
+		// Arrange - limit + 1 rows come back, so there is a next page
+		when(foodRepository.findRankedByName(eq("i"), eq("%i%"), eq("i%"), eq("% i%"), any(Pageable.class)))
+			.thenReturn(List.of(
+				new Object[]{food2.getId(), food2.getName(), FoodSearchRanking.SUBSTRING},
+				new Object[]{food1.getId(), food1.getName(), FoodSearchRanking.SUBSTRING}));
+		when(foodRepository.findAllWithPortionsByIdIn(List.of(food2.getId()))).thenReturn(List.of(food2));
+
+		// Act
+		FoodSearchPage page = foodService.searchFoods("i", 1, null);
+
+		// Assert
+		assertEquals(List.of("Rice"), page.getFoods().stream().map(FoodResponse::getName).toList());
+		assertEquals(new FoodSearchRanking.Cursor(FoodSearchRanking.SUBSTRING, "Rice"),
+			FoodSearchRanking.Cursor.decode(page.getNextCursor()));
+	}
+
+	@Test
+	void searchFoods_databaseWithCursor_continuesAfterCursor() {
+		// Arrange
+		String cursor = new FoodSearchRanking.Cursor(FoodSearchRanking.SUBSTRING, "Rice").encode();
+		when(foodRepository.findRankedByNameAfter(eq("i"), any(), any(), any(),
+			eq(FoodSearchRanking.SUBSTRING), eq(4), eq("Rice"), any(Pageable.class)))
+			.thenReturn(List.<Object[]>of(new Object[]{food1.getId(), food1.getName(), FoodSearchRanking.SUBSTRING}));
+		when(foodRepository.findAllWithPortionsByIdIn(List.of(food1.getId()))).thenReturn(List.of(food1));
+
+		// Act
+		FoodSearchPage page = foodService.searchFoods("i", 1, cursor);
+
+		// Assert
+		assertEquals(List.of("Chicken Breast"), page.getFoods().stream().map(FoodResponse::getName).toList());
+		assertNull(page.getNextCursor());
+	}
+
+	@Test
+	void searchFoods_malformedCursor_throwsException() {
+		assertThrows(InvalidSearchCursorException.class, () -> foodService.searchFoods("rice", null, "not-a-cursor"));
+		verifyNoInteractions(foodRepository);
+	}
+
+	@Test
+	void searchFoodsSerialized_equivalentQueries_servedFromCache() throws Exception {
+		// Arrange
+		FoodResponse indexed = new FoodResponse(food1.getId(), "Chicken Breast", List.of());
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodSearchIndex.version()).thenReturn(7L);
+		when(foodSearchIndex.search(eq("chicken"), isNull(), eq(20))).thenReturn(new FoodSearchPage(List.of(indexed), null));
+
+		// Act
+		SerializedFoodSearchPage first = foodService.searchFoodsSerialized("chicken", null, null);
+		SerializedFoodSearchPage second = foodService.searchFoodsSerialized("  CHICKEN ", null, null);
+
+		// Assert
+		assertSame(first, second);
+		assertEquals("Chicken Breast", new ObjectMapper().readTree(first.getBody()).get(0).get("name").asText());
+		verify(foodSearchIndex, times(1)).search(any(), any(), anyInt());
+		assertEquals(0.5, foodSearchCache.hitRatio());
+	}
+
+	@Test
+	void searchFoodsSerialized_catalogVersionChanged_searchesAgain() {
+		// Arrange
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodSearchIndex.version()).thenReturn(1L, 2L);
+		when(foodSearchIndex.search(eq("rice"), isNull(), eq(20))).thenReturn(new FoodSearchPage(List.of(), null));
+
+		// Act
+		foodService.searchFoodsSerialized("rice", null, null);
+		foodService.searchFoodsSerialized("rice", null, null);
+
+		// Assert
+		verify(foodSearchIndex, times(2)).search(any(), any(), anyInt());
+	}
+
+	@Test
+	void searchFoodsSerialized_withCursor_notCached() {
+		// Arrange
+		String cursor = new FoodSearchRanking.Cursor(FoodSearchRanking.PREFIX, "Rice").encode();
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodSearchIndex.search(eq("rice"), any(), eq(20))).thenReturn(new FoodSearchPage(List.of(), null));
+
+		// Act
+		foodService.searchFoodsSerialized("rice", null, cursor);
+		foodService.searchFoodsSerialized("rice", null, cursor);
+
+		// Assert
+		verify(foodSearchIndex, times(2)).search(any(), any(), anyInt());
+		verify(foodSearchIndex, never()).version();
+	}
+
+	@Test
+	void getFoodsByIds_snapshotNotInSync_loadsFromDatabaseInRequestOrder() {
+		// Arrange
+		UUID unknown = UUID.randomUUID();
+		when(foodRepository.findAllWithPortionsByIdIn(List.of(food2.getId(), unknown, food1.getId())))
+			.thenReturn(List.of(food1, food2));
+
+		// Act
+		FoodBatchResponse result = foodService.getFoodsByIds(List.of(food2.getId(), unknown, food1.getId()));
+
+		// Assert
+		assertEquals(List.of("Rice", "Chicken Breast"),
+			result.getFoods().stream().map(FoodDetailsResponse::getName).toList());
+		assertEquals(158.0, result.getFoods().get(0).getPortions().get(0).getGrams());
+		assertEquals(List.of(unknown), result.getMissingIds());
+	}
+
+	@Test
+	void getFoodsByIds_snapshotInSync_servedWithoutQuery() {
+		// Arrange
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1, food2));
+		catalogIndexUpdater.buildIndexes();
+		UUID unknown = UUID.randomUUID();
+
+		// Act - Duplicates are returned once
+		FoodBatchResponse result = foodService.getFoodsByIds(List.of(food1.getId(), unknown, food1.getId()));
+
+		// Assert
+		assertEquals(1, result.getFoods().size());
+		FoodDetailsResponse food = result.getFoods().get(0);
+		assertEquals("Chicken Breast", food.getName());
+		assertEquals(31.0, food.getProteinPer100g());
+		assertEquals(2, food.getPortions().size());
+		assertEquals(List.of(unknown), result.getMissingIds());
+		verify(foodRepository, never()).findAllWithPortionsByIdIn(any());
+	}
+
+	@Test
+	void getFoodsByIds_afterCatalogChange_loadsFromDatabaseUntilSnapshotRewritten() {
+		// Arrange
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1, food2));
+		catalogIndexUpdater.buildIndexes();
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodRepository.findAllWithPortionsByIdIn(any())).thenReturn(List.of(food1));
+
+		// Act
+		catalogIndexUpdater.onCatalogChanged(new FoodCatalogChangedEvent(Set.of(food1.getId())));
+		foodService.getFoodsByIds(List.of(food1.getId()));
+
+		// Assert
+		verify(foodRepository, times(2)).findAllWithPortionsByIdIn(any());
+	}
+
+	@Test
+	void getFoodsByIds_tooManyIds_throwsException() {
+		// Arrange
+		List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+		// Act & Assert
+		assertThrows(InvalidFoodBatchException.class, () -> foodService.getFoodsByIds(ids));
+		verifyNoInteractions(foodRepository);
+	}
+
+	@Test
+	void findFoodsByNutrients_afterCatalogChange_servedFromIndexWithoutQuery() {
+		// Arrange
+		when(foodRepository.findAllWithPortions()).thenReturn(List.of(food1));
+		catalogIndexUpdater.buildIndexes();
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodRepository.findAllWithPortionsByIdIn(Set.of(food2.getId()))).thenReturn(List.of(food2));
+		catalogIndexUpdater.onCatalogChanged(new FoodCatalogChangedEvent(Set.of(food2.getId())));
+		NutrientQueryRequest request = new NutrientQueryRequest();
+		request.setMaxCalories(200.0);
+		request.setRankBy("Protein");
+		request.setPer("calories");
 
+		// Act
+		List<FoodNutrientsResponse> foods = foodService.findFoodsByNutrients(request);
+
+		// Assert
+		assertEquals(List.of("Chicken Breast", "Rice"), foods.stream().map(FoodNutrientsResponse::getName).toList());
+		verify(foodRepository, never()).findNutrientsByRanges(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+			anyDouble(), anyDouble(), anyDouble(), anyDouble());
+	}
+
+	@Test
+	void findFoodsByNutrients_indexNotBuilt_filtersInDatabaseWithFiniteBounds() {
+		// Arrange
+		NutrientQueryRequest request = new NutrientQueryRequest();
+		request.setMinProtein(20.0);
+		request.setLimit(1000);
+		when(foodRepository.findNutrientsByRanges(-Double.MAX_VALUE, Double.MAX_VALUE, 20.0, Double.MAX_VALUE,
+			-Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, Double.MAX_VALUE))
+			.thenReturn(List.of(new FoodNutrientsResponse(food1.getId(), "Chicken Breast", 165, 31, 0, 3.6)));
+
+		// Act
+		List<FoodNutrientsResponse> foods = foodService.findFoodsByNutrients(request);
+
+		// Assert
+		assertEquals(1, foods.size());
+		assertEquals(food1.getId(), foods.get(0).getId());
+	}
+
+	@Test
+	void findFoodsByNutrients_invalidQuery_throwsException() {
+		NutrientQueryRequest inverted = new NutrientQueryRequest();
+		inverted.setMinCalories(300.0);
+		inverted.setMaxCalories(100.0);
+		NutrientQueryRequest unknown = new NutrientQueryRequest();
+		unknown.setRankBy("fiber");
+		NutrientQueryRequest perOnly = new NutrientQueryRequest();
+		perOnly.setPer("calories");
+
+		assertThrows(InvalidNutrientQueryException.class, () -> foodService.findFoodsByNutrients(inverted));
+		assertThrows(InvalidNutrientQueryException.class, () -> foodService.findFoodsByNutrients(unknown));
+		assertThrows(InvalidNutrientQueryException.class, () -> foodService.findFoodsByNutrients(perOnly));
+		verifyNoInteractions(foodRepository);
+	}
+
+	@Test
+	void suggestFoods_indexReady_writesIdAndNameOnly() {
+		// Arrange
+		when(foodSearchIndex.isReady()).thenReturn(true);
+		when(foodSearchIndex.suggest("chi", 8)).thenReturn(List.of(
+			new FoodResponse(food1.getId(), "Chicken \"Breast\"", List.of(new FoodPortionResponse(portion1.getId(), "100g")))));
+
+		// Act
+		byte[] json = foodService.suggestFoods("chi", null);
+
+		// Assert
+		assertEquals("[{\"id\":\"" + food1.getId() + "\",\"name\":\"Chicken \\\"Breast\\\"\"}]", new String(json, StandardCharsets.UTF_8));
+		verifyNoInteractions(foodRepository);
+	}
+
+	@Test
+	void suggestFoods_indexNotBuilt_queriesNamePrefixWithCappedLimit() {
+		// Arrange
+		when(foodSearchIndex.isReady()).thenReturn(false);
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[]{food2.getId(), food2.getName()});
+		when(foodRepository.findIdAndNameByNamePrefix(eq("50\\%%"), any())).thenReturn(rows);
+
+		// Act
+		String json = new String(foodService.suggestFoods(" 50% ", 100), StandardCharsets.UTF_8);
+
+		// Assert
+		assertTrue(json.contains("\"name\":\"Rice\""));
+		verify(foodRepository).findIdAndNameByNamePrefix(any(), argThat((Pageable page) -> page.getPageSize() == 20));
+	}
+
+	private void stubDatabaseSearch(String query, Food... foods) {
+		List<Object[]> rows = new ArrayList<>();
+		for (Food food : foods) {
+			rows.add(new Object[]{food.getId(), food.getName(), FoodSearchRanking.SUBSTRING});
+		}
+		when(foodRepository.findRankedByName(eq(query.toLowerCase()), any(), any(), any(), any())).thenReturn(rows);
+		if (foods.length > 0) {
+			when(foodRepository.findAllWithPortionsByIdIn(any())).thenReturn(Arrays.asList(foods));
+		}
+	}
+
+}
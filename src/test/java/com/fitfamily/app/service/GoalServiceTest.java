@@ -0,0 +1,151 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.MacroGoalRequest;
+import com.fitfamily.app.model.MacroGoal;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.repository.MacroGoalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GoalServiceTest {
+
+	@Mock
+	private MacroGoalRepository macroGoalRepository;
+
+	private GoalService goalService;
+
+	private User user;
+	private User user2;
+
+	@BeforeEach
+	void setUp() {
+		goalService = new GoalService(macroGoalRepository, 100, 60);
+
+		user = new User();
+		user.setId(UUID.randomUUID());
+		user.setName("John Doe");
+
+		user2 = new User();
+		user2.setId(UUID.randomUUID());
+		user2.setName("Jane Doe");
+	}
+
+	@Test
+	void getGoals_family_loadsMissesInOneQueryAndCachesThem() {
+		// Arrange - Only John has goals
+		MacroGoal goal = new MacroGoal(user.getId(), 2_000_000, 100_000, 250_000, 70_000, null);
+		List<UUID> ids = List.of(user.getId(), user2.getId());
+		when(macroGoalRepository.findAllById(ids)).thenReturn(List.of(goal));
+
+		// Act - Second call is served from the cache, including Jane's missing goals
+		Map<UUID, MacroGoal> first = goalService.getGoals(ids);
+		Map<UUID, MacroGoal> second = goalService.getGoals(ids);
+
+		// Assert
+		assertEquals(Map.of(user.getId(), goal), first);
+		assertEquals(first, second);
+		verify(macroGoalRepository, times(1)).findAllById(any());
+	}
+
+	@Test
+	void getGoals_partiallyCached_queriesOnlyMisses() {
+		// Arrange
+		when(macroGoalRepository.findAllById(List.of(user.getId()))).thenReturn(List.of());
+		goalService.getGoals(user);
+
+		// Act
+		goalService.getGoals(List.of(user.getId(), user2.getId()));
+
+		// Assert
+		verify(macroGoalRepository).findAllById(List.of(user2.getId()));
+	}
+
+	@Test
+	void setGoals_evictsCachedValue() {
+		// Arrange - No goals cached yet
+		when(macroGoalRepository.findAllById(List.of(user.getId()))).thenReturn(List.of());
+		assertTrue(goalService.getGoals(user).isEmpty());
+		when(macroGoalRepository.save(any(MacroGoal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		// Act
+		MacroGoal saved = goalService.setGoals(user, new MacroGoalRequest(1800.5, 120.0, 200.0, 60.25));
+		when(macroGoalRepository.findAllById(List.of(user.getId()))).thenReturn(List.of(saved));
+		Optional<MacroGoal> result = goalService.getGoals(user);
+
+		// Assert - Stored in milli-units and re-read once
+		assertTrue(result.isPresent());
+		assertEquals(1_800_500, result.get().getCaloriesMilli());
+		assertEquals(60_250, result.get().getFatMilli());
+		goalService.getGoals(user);
+		verify(macroGoalRepository, times(2)).findAllById(any());
+	}
+
+	@Test
+	void getGoals_goalsChangedDuringRead_doesNotCacheOldGoals() {
+		// Arrange - setGoals commits while the old goals are being read
+		MacroGoal old = new MacroGoal(user.getId(), 2_000_000, 100_000, 250_000, 70_000, null);
+		when(macroGoalRepository.save(any(MacroGoal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(macroGoalRepository.findAllById(List.of(user.getId())))
+			.thenAnswer(invocation -> {
+				goalService.setGoals(user, new MacroGoalRequest(1800.0, 120.0, 200.0, 60.0));
+				return List.of(old);
+			})
+			.thenReturn(List.of());
+
+		// Act
+		Optional<MacroGoal> during = goalService.getGoals(user);
+		Optional<MacroGoal> after = goalService.getGoals(user);
+
+		// Assert - The old goals are returned once but not cached
+		assertEquals(Optional.of(old), during);
+		assertTrue(after.isEmpty());
+		verify(macroGoalRepository, times(2)).findAllById(any());
+	}
+
+	@Test
+	void setGoals_saveFails_keepsCachedValue() {
+		// Arrange
+		MacroGoal goal = new MacroGoal(user.getId(), 2_000_000, 100_000, 250_000, 70_000, null);
+		when(macroGoalRepository.findAllById(List.of(user.getId()))).thenReturn(List.of(goal));
+		goalService.getGoals(user);
+		when(macroGoalRepository.save(any(MacroGoal.class))).thenThrow(new IllegalStateException("database down"));
+
+		// Act
+		assertThrows(IllegalStateException.class,
+			() -> goalService.setGoals(user, new MacroGoalRequest(1800.0, 120.0, 200.0, 60.0)));
+		goalService.getGoals(user);
+
+		// Assert - Nothing was committed, so the cached goals are still current
+		verify(macroGoalRepository, times(1)).findAllById(List.of(user.getId()));
+	}
+
+	@Test
+	void getGoals_entryExpired_reloadsGoalsChangedElsewhere() {
+		// Arrange - A TTL of zero expires entries at once
+		GoalService expiring = new GoalService(macroGoalRepository, 100, 0);
+		MacroGoal goal = new MacroGoal(user.getId(), 2_000_000, 100_000, 250_000, 70_000, null);
+		when(macroGoalRepository.findAllById(List.of(user.getId()))).thenReturn(List.of(), List.of(goal));
+
+		// Act - The goals are set through another instance in between
+		Optional<MacroGoal> first = expiring.getGoals(user);
+		Optional<MacroGoal> second = expiring.getGoals(user);
+
+		// Assert
+		assertTrue(first.isEmpty());
+		assertEquals(Optional.of(goal), second);
+	}
+
+}
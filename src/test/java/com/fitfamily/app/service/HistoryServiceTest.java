@@ -0,0 +1,238 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.MacroHistoryResponse;
+import com.fitfamily.app.exception.InvalidDateRangeException;
+import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.repository.DailyMacroTotals;
+import com.fitfamily.app.repository.DailyTotalsStore;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.UserHistoryVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryServiceTest {
+
+	@Mock
+	private FoodLogRepository foodLogRepository;
+
+	@Mock
+	private UserHistoryVersionRepository historyVersionRepository;
+
+	@TempDir
+	Path storeDirectory;
+
+	private DailyTotalsStore dailyTotalsStore;
+	private HistoryService historyService;
+	private User user;
+	private LocalDate testDate;
+
+	@BeforeEach
+	void setUp() {
+		dailyTotalsStore = new DailyTotalsStore(storeDirectory.toString(), 1000);
+		historyService = new HistoryService(dailyTotalsStore, foodLogRepository, historyVersionRepository);
+		testDate = LocalDate.of(2025, 12, 25);
+
+		user = new User();
+		user.setId(UUID.randomUUID());
+		user.setName("John Doe");
+	}
+
+	@Test
+	void getHistory_newUser_rebuildsFromDatabaseOnce() {
+		// Arrange
+		when(foodLogRepository.findDailyTotalsByUser(user))
+			.thenReturn(List.of(totals(testDate.minusDays(1), 500_000, 20_000, 60_000, 10_000)));
+
+		// Act
+		MacroHistoryResponse result = historyService.getHistory(user, testDate.minusDays(2), testDate);
+		historyService.getHistory(user, testDate.minusDays(2), testDate);
+
+		// Assert
+		assertArrayEquals(new double[] {0.0, 500.0, 0.0}, result.getCalories());
+		assertArrayEquals(new double[] {0.0, 20.0, 0.0}, result.getProtein());
+		assertArrayEquals(new double[] {0.0, 60.0, 0.0}, result.getCarbs());
+		assertArrayEquals(new double[] {0.0, 10.0, 0.0}, result.getFat());
+		verify(foodLogRepository, times(1)).findDailyTotalsByUser(user);
+	}
+
+	@Test
+	void recordAndRemoveLog_updateDailyTotals() {
+		// Arrange
+		when(foodLogRepository.findDailyTotalsByUser(user)).thenReturn(new ArrayList<>());
+		historyService.ensureLoaded(user);
+		FoodLog first = createFoodLog(150.0, 30.0, 45.0, 15.0);
+		FoodLog second = createFoodLog(100.5, 10.2, 20.3, 5.1);
+
+		// Act
+		historyService.recordLog(first);
+		historyService.recordLog(second);
+		historyService.removeLog(first);
+
+		// Assert
+		MacroHistoryResponse result = historyService.getHistory(user, testDate, testDate);
+		assertEquals(100.5, result.getCalories()[0]);
+		assertEquals(10.2, result.getProtein()[0]);
+		assertEquals(20.3, result.getCarbs()[0]);
+		assertEquals(5.1, result.getFat()[0]);
+	}
+
+	@Test
+	void recordLog_rolledBack_doesNotChangeDailyTotals() {
+		// Arrange
+		when(foodLogRepository.findDailyTotalsByUser(user)).thenReturn(new ArrayList<>());
+		historyService.ensureLoaded(user);
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		try {
+			historyService.recordLog(createFoodLog(150.0, 30.0, 45.0, 15.0));
+			completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		// Assert
+		assertEquals(0.0, historyService.getHistory(user, testDate, testDate).getCalories()[0]);
+	}
+
+	@Test
+	void getHistory_changeCommitting_readsDatabaseAndBuildsHistoryAfterCommit() {
+		// Arrange - A log is saved but its transaction has not committed yet
+		when(foodLogRepository.findDailyTotalsByUser(user))
+			.thenReturn(List.of(totals(testDate, 100_000, 0, 0, 0)))
+			.thenReturn(List.of(totals(testDate, 250_000, 0, 0, 0)));
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			historyService.recordLog(createFoodLog(150.0, 30.0, 45.0, 15.0));
+
+			// Act - Building the history now could count the log twice or never
+			MacroHistoryResponse during = historyService.getHistory(user, testDate, testDate);
+			completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+			// Assert
+			assertEquals(100.0, during.getCalories()[0]);
+			assertFalse(dailyTotalsStore.exists(user.getId()));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(250.0, historyService.getHistory(user, testDate, testDate).getCalories()[0]);
+	}
+
+	@Test
+	void getHistory_rangeSpanningSeveralYears_growsStoreAndReadsAllDays() {
+		// Arrange
+		when(foodLogRepository.findDailyTotalsByUser(user)).thenReturn(new ArrayList<>());
+		historyService.ensureLoaded(user);
+		LocalDate from = testDate.minusYears(4);
+		FoodLog oldLog = createFoodLog(200.0, 5.0, 40.0, 2.0);
+		oldLog.setDate(from);
+		historyService.recordLog(oldLog);
+		historyService.recordLog(createFoodLog(300.0, 5.0, 40.0, 2.0));
+
+		// Act
+		MacroHistoryResponse result = historyService.getHistory(user, from, testDate);
+
+		// Assert
+		double[] calories = result.getCalories();
+		assertEquals(200.0, calories[0]);
+		assertEquals(300.0, calories[calories.length - 1]);
+	}
+
+	@Test
+	void getHistory_changedThroughAnotherInstance_rebuildsHistory() {
+		// Arrange - Built at version 3; another instance then adds a log (version 4) this store never sees
+		when(historyVersionRepository.findVersion(user.getId()))
+			.thenReturn(Optional.of(3L))
+			.thenReturn(Optional.of(4L));
+		when(foodLogRepository.findDailyTotalsByUser(user))
+			.thenReturn(List.of(totals(testDate, 100_000, 0, 0, 0)))
+			.thenReturn(List.of(totals(testDate, 250_000, 0, 0, 0)));
+		historyService.getHistory(user, testDate, testDate);
+
+		// Act
+		MacroHistoryResponse result = historyService.getHistory(user, testDate, testDate);
+
+		// Assert
+		assertEquals(250.0, result.getCalories()[0]);
+		assertEquals(4L, dailyTotalsStore.version(user.getId()));
+	}
+
+	@Test
+	void recordLog_nextVersion_keepsHistoryCurrent() {
+		// Arrange - Built at version 3; this instance commits version 4
+		when(historyVersionRepository.findVersion(user.getId())).thenReturn(Optional.of(3L));
+		when(foodLogRepository.findDailyTotalsByUser(user)).thenReturn(List.of(totals(testDate, 100_000, 0, 0, 0)));
+		historyService.ensureLoaded(user);
+		when(historyVersionRepository.increment(user.getId())).thenReturn(1);
+		when(historyVersionRepository.findVersion(user.getId())).thenReturn(Optional.of(4L));
+
+		// Act
+		historyService.recordLog(createFoodLog(150.0, 30.0, 45.0, 15.0));
+		MacroHistoryResponse result = historyService.getHistory(user, testDate, testDate);
+
+		// Assert - Read from the store without a rebuild
+		assertEquals(250.0, result.getCalories()[0]);
+		verify(foodLogRepository, times(1)).findDailyTotalsByUser(user);
+	}
+
+	@Test
+	void getHistory_reversedRange_throwsException() {
+		// Act & Assert
+		assertThrows(InvalidDateRangeException.class,
+			() -> historyService.getHistory(user, testDate, testDate.minusDays(1)));
+		verifyNoInteractions(foodLogRepository);
+	}
+
+	@Test
+	void getHistory_rangeLongerThanFiveYears_throwsException() {
+		// Act & Assert
+		assertThrows(InvalidDateRangeException.class,
+			() -> historyService.getHistory(user, testDate.minusYears(6), testDate));
+	}
+
+	private void completeTransaction(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+	}
+
+	private FoodLog createFoodLog(double calories, double protein, double carbs, double fat) {
+		FoodLog log = new FoodLog();
+		log.setUser(user);
+		log.setDate(testDate);
+		log.setCalories(calories);
+		log.setProtein(protein);
+		log.setCarbs(carbs);
+		log.setFat(fat);
+		return log;
+	}
+
+	private DailyMacroTotals totals(LocalDate date, long calories, long protein, long carbs, long fat) {
+		return new DailyMacroTotals() {
+			public LocalDate getDate() { return date; }
+			public long getCaloriesMilli() { return calories; }
+			public long getProteinMilli() { return protein; }
+			public long getCarbsMilli() { return carbs; }
+			public long getFatMilli() { return fat; }
+		};
+	}
+
+}
@@ -0,0 +1,209 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealPlanOptimizerTest {
+
+	private MealPlanOptimizer optimizer;
+	private MealPlanMatrix matrix;
+
+	@BeforeEach
+	void setUp() {
+		optimizer = new MealPlanOptimizer(4, 24);
+		// Rebuilds after catalog changes run on the calling thread
+		matrix = new MealPlanMatrix(Runnable::run);
+	}
+
+	@AfterEach
+	void tearDown() {
+		optimizer.shutdown();
+	}
+
+	@Test
+	void optimize_exactCombinationExists_findsIt() {
+		// Arrange - 2 bowls of rice, 1 serving of chicken and 1 spoon of ghee
+		matrix.rebuild(List.of(
+			food("Rice", 130, 2.7, 28.2, 0.3, portion("1 bowl", 200)),
+			food("Chicken Breast", 165, 31, 0, 3.6, portion("1 serving", 150)),
+			food("Ghee", 900, 0, 0, 100, portion("1 spoon", 10)),
+			food("Chapati", 297, 9.6, 50.8, 6.1, portion("1 piece", 40))));
+		double[] targets = {130 * 4 + 165 * 1.5 + 90, 2.7 * 4 + 31 * 1.5, 28.2 * 4, 0.3 * 4 + 3.6 * 1.5 + 10};
+
+		// Act
+		MealPlanOptimizer.Plan plan = optimizer.optimize(matrix.current(), targets, 4, 3, 5000);
+
+		// Assert
+		assertTrue(plan.complete());
+		assertEquals(Set.of("Rice x2", "Chicken Breast x1", "Ghee x1"), describe(plan));
+		assertArrayEquals(targets, totals(plan), 1e-9);
+	}
+
+	@Test
+	void optimize_allRowsCandidates_matchesExhaustiveSearch() {
+		// Arrange - Few enough rows that every one is a candidate
+		Random random = new Random(11);
+		List<FoodDetailsResponse> foods = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			foods.add(food("Food " + i, 50 + random.nextInt(400), random.nextInt(30), random.nextInt(60),
+				random.nextInt(25), portion("100g", 100), portion("1 bowl", 150 + random.nextInt(150))));
+		}
+		matrix.rebuild(foods);
+		double[] targets = {1800, 90, 200, 60};
+
+		// Act
+		MealPlanOptimizer.Plan plan = optimizer.optimize(matrix.current(), targets, 3, 2, 5000);
+
+		// Assert
+		assertTrue(plan.complete());
+		assertEquals(exhaustiveBest(matrix.current(), targets, 3, 2), distance(totals(plan), targets), 1e-9);
+		assertEquals(plan.rows().length, Arrays.stream(plan.rows()).map(row -> matrix.current().food()[row]).distinct().count());
+	}
+
+	@Test
+	void optimize_budgetExhausted_returnsBestSoFarIncomplete() {
+		// Arrange
+		Random random = new Random(5);
+		List<FoodDetailsResponse> foods = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			foods.add(food("Food " + i, random.nextInt(500), random.nextInt(40), random.nextInt(80),
+				random.nextInt(40), portion("100g", 100), portion("1 bowl", 200)));
+		}
+		matrix.rebuild(foods);
+		MealPlanMatrix.Snapshot snapshot = matrix.current();
+
+		// Act
+		long start = System.nanoTime();
+		MealPlanOptimizer.Plan plan = optimizer.optimize(snapshot, new double[] {2200, 140, 250, 70}, 8, 3, 0);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		// Assert
+		assertFalse(plan.complete());
+		assertTrue(elapsedMillis < 1000, "took " + elapsedMillis + " ms");
+	}
+
+	@Test
+	void current_catalogChanges_rebuildsRows() {
+		// Arrange
+		FoodDetailsResponse rice = food("Rice", 130, 2.7, 28.2, 0.3, portion("1 bowl", 200), portion("Empty", 0));
+		FoodDetailsResponse dal = food("Dal", 116, 9, 20, 0.4, portion("1 katori", 150));
+		matrix.rebuild(List.of(rice, dal));
+
+		// Act
+		MealPlanMatrix.Snapshot before = matrix.current();
+		FoodDetailsResponse updatedRice = food("Rice", 100, 2, 22, 0.2, portion("1 bowl", 200));
+		updatedRice.setId(rice.getId());
+		matrix.apply(List.of(rice.getId(), dal.getId()), List.of(updatedRice));
+		MealPlanMatrix.Snapshot after = matrix.current();
+
+		// Assert - Rows in name order, one per portion with grams
+		assertEquals(2, before.rows());
+		assertEquals("Dal", before.foodNames()[before.food()[0]]);
+		assertEquals(174, before.nutrient(0, 0), 1e-9);
+		assertEquals(260, before.nutrient(1, 0), 1e-9);
+		assertEquals(1, after.rows());
+		assertEquals(200, after.nutrient(0, 0), 1e-9);
+	}
+
+	@Test
+	void apply_buildsInBackground_readersKeepLastMatrixUntilBuilt() {
+		// Arrange - Builds wait in a queue until run
+		List<Runnable> queued = new ArrayList<>();
+		MealPlanMatrix background = new MealPlanMatrix(queued::add);
+		FoodDetailsResponse rice = food("Rice", 130, 2.7, 28.2, 0.3, portion("1 bowl", 200));
+		background.rebuild(List.of(rice));
+		MealPlanMatrix.Snapshot built = background.current();
+
+		// Act - Two changes before the build runs
+		background.apply(List.of(), List.of(food("Dal", 116, 9, 20, 0.4, portion("1 katori", 150))));
+		background.apply(List.of(), List.of(food("Ghee", 900, 0, 0, 100, portion("1 spoon", 5))));
+		MealPlanMatrix.Snapshot beforeBuild = background.current();
+		queued.forEach(Runnable::run);
+
+		// Assert - One build picks up both changes
+		assertSame(built, beforeBuild);
+		assertEquals(1, queued.size());
+		assertEquals(3, background.current().rows());
+	}
+
+	private Set<String> describe(MealPlanOptimizer.Plan plan) {
+		MealPlanMatrix.Snapshot snapshot = matrix.current();
+		Set<String> items = new HashSet<>();
+		for (int i = 0; i < plan.rows().length; i++) {
+			items.add(snapshot.foodNames()[snapshot.food()[plan.rows()[i]]] + " x" + plan.servings()[i]);
+		}
+		return items;
+	}
+
+	private double[] totals(MealPlanOptimizer.Plan plan) {
+		MealPlanMatrix.Snapshot snapshot = matrix.current();
+		double[] totals = new double[MealPlanMatrix.NUTRIENTS];
+		for (int i = 0; i < plan.rows().length; i++) {
+			for (int n = 0; n < MealPlanMatrix.NUTRIENTS; n++) {
+				totals[n] += snapshot.nutrient(plan.rows()[i], n) * plan.servings()[i];
+			}
+		}
+		return totals;
+	}
+
+	// Same distance as the optimizer (targets here are above its minimum scales)
+	private static double distance(double[] totals, double[] targets) {
+		double distance = 0;
+		for (int n = 0; n < MealPlanMatrix.NUTRIENTS; n++) {
+			distance += Math.abs(totals[n] - targets[n]) / targets[n];
+		}
+		return distance;
+	}
+
+	private static double exhaustiveBest(MealPlanMatrix.Snapshot snapshot, double[] targets, int maxItems, int maxServings) {
+		return exhaustive(snapshot, targets, 0, maxItems, maxServings, new double[MealPlanMatrix.NUTRIENTS], Set.of());
+	}
+
+	private static double exhaustive(MealPlanMatrix.Snapshot snapshot, double[] targets, int start, int slots,
+			int maxServings, double[] totals, Set<Integer> usedFoods) {
+		double best = distance(totals, targets);
+		if (slots == 0) {
+			return best;
+		}
+		for (int row = start; row < snapshot.rows(); row++) {
+			int food = snapshot.food()[row];
+			if (usedFoods.contains(food)) {
+				continue;
+			}
+			Set<Integer> used = new HashSet<>(usedFoods);
+			used.add(food);
+			for (int servings = 1; servings <= maxServings; servings++) {
+				double[] next = totals.clone();
+				for (int n = 0; n < MealPlanMatrix.NUTRIENTS; n++) {
+					next[n] += snapshot.nutrient(row, n) * servings;
+				}
+				best = Math.min(best, exhaustive(snapshot, targets, row + 1, slots - 1, maxServings, next, used));
+			}
+		}
+		return best;
+	}
+
+	private static FoodDetailsResponse food(String name, double calories, double protein, double carbs, double fat,
+			FoodDetailsResponse.Portion... portions) {
+		return new FoodDetailsResponse(UUID.randomUUID(), name, calories, protein, carbs, fat,
+			Arrays.stream(portions).collect(Collectors.toList()));
+	}
+
+	private static FoodDetailsResponse.Portion portion(String label, double grams) {
+		return new FoodDetailsResponse.Portion(UUID.randomUUID(), label, grams);
+	}
+
+}
@@ -0,0 +1,165 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodNutrientsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NutrientIndexTest {
+
+	private NutrientIndex index;
+	private FoodNutrientsResponse rice;
+	private FoodNutrientsResponse chicken;
+	private FoodNutrientsResponse chapati;
+	private FoodNutrientsResponse tofu;
+
+	@BeforeEach
+	void setUp() {
+		rice = food("Rice", 130, 2.7, 28.2, 0.3);
+		chicken = food("Chicken Breast", 165, 31, 0, 3.6);
+		chapati = food("Chapati", 297, 9.6, 50.8, 6.1);
+		tofu = food("Tofu", 76, 8, 1.9, 4.8);
+
+		index = new NutrientIndex();
+		index.rebuild(List.of(rice, chicken, chapati, tofu));
+	}
+
+	@Test
+	void find_ranges_returnsFoodsInsideOrderedByName() {
+		assertEquals(List.of(chapati, chicken, tofu), index.find(query().min(NutrientIndex.Nutrient.PROTEIN, 8).build(), 10));
+		assertEquals(List.of(chicken), index.find(query()
+			.min(NutrientIndex.Nutrient.PROTEIN, 20)
+			.max(NutrientIndex.Nutrient.CALORIES, 200).build(), 10));
+		assertEquals(List.of(), index.find(query().min(NutrientIndex.Nutrient.FAT, 50).build(), 10));
+	}
+
+	@Test
+	void find_rankedByRatio_topKHighestFirst() {
+		// Protein per calorie: chicken 0.19, tofu 0.11, chapati 0.03, rice 0.02
+		NutrientIndex.Query proteinPerCalorie = query().rankBy(NutrientIndex.Nutrient.PROTEIN, NutrientIndex.Nutrient.CALORIES).build();
+
+		assertEquals(List.of(chicken, tofu), index.find(proteinPerCalorie, 2));
+		assertEquals(List.of(chicken, tofu, chapati, rice), index.find(proteinPerCalorie, 10));
+	}
+
+	@Test
+	void find_rankedAscending_lowestFirst() {
+		NutrientIndex.Query leastCarbs = query().rankBy(NutrientIndex.Nutrient.CARBS, null).ascending().build();
+
+		assertEquals(List.of(chicken, tofu, rice), index.find(leastCarbs, 3));
+	}
+
+	@Test
+	void find_ratioWithZeroDivisor_skipsFood() {
+		NutrientIndex.Query proteinPerCarb = query().rankBy(NutrientIndex.Nutrient.PROTEIN, NutrientIndex.Nutrient.CARBS).build();
+
+		assertEquals(List.of(tofu, chapati, rice), index.find(proteinPerCarb, 10));
+	}
+
+	@Test
+	void apply_addedUpdatedAndDeletedFoods_visibleToNextQuery() {
+		// Arrange
+		FoodNutrientsResponse leanRice = food(rice.getId(), "Rice", 130, 25, 28.2, 0.3);
+		FoodNutrientsResponse egg = food("Egg", 155, 13, 1.1, 11);
+
+		// Act - Rice updated, egg added, chicken deleted
+		index.apply(Set.of(rice.getId(), egg.getId(), chicken.getId()), List.of(leanRice, egg));
+
+		// Assert
+		assertEquals(List.of(egg, leanRice), index.find(query().min(NutrientIndex.Nutrient.PROTEIN, 10).build(), 10));
+		assertEquals(4, index.find(query().build(), 10).size());
+	}
+
+	@Test
+	void apply_manyChanges_rebuildsWithoutLosingFoods() {
+		// Arrange
+		List<FoodNutrientsResponse> foods = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			foods.add(food("Food " + i, i % 500, i % 40, i % 70, i % 30));
+		}
+		index.rebuild(foods);
+
+		// Act - Every food gains 100 kcal, three times over
+		for (int round = 0; round < 3; round++) {
+			List<FoodNutrientsResponse> updated = foods.stream()
+				.map(food -> food(food.getId(), food.getName(), food.getCaloriesPer100g() + 100,
+					food.getProteinPer100g(), food.getCarbsPer100g(), food.getFatPer100g()))
+				.collect(Collectors.toList());
+			index.apply(foods.stream().map(FoodNutrientsResponse::getId).collect(Collectors.toSet()), updated);
+			foods = updated;
+		}
+
+		// Assert
+		assertEquals(3000, index.find(query().min(NutrientIndex.Nutrient.CALORIES, 300).build(), 5000).size());
+		assertEquals(List.of(), index.find(query().max(NutrientIndex.Nutrient.CALORIES, 299).build(), 5000));
+	}
+
+	@Test
+	void rank_unindexedFoods_filteredAndRankedLikeFind() {
+		NutrientIndex.Query mostProtein = query().max(NutrientIndex.Nutrient.CALORIES, 200)
+			.rankBy(NutrientIndex.Nutrient.PROTEIN, null).build();
+
+		assertEquals(index.find(mostProtein, 10), NutrientIndex.rank(List.of(rice, chicken, chapati, tofu), mostProtein, 10));
+	}
+
+	private static QueryBuilder query() {
+		return new QueryBuilder();
+	}
+
+	private static FoodNutrientsResponse food(String name, double calories, double protein, double carbs, double fat) {
+		return food(UUID.randomUUID(), name, calories, protein, carbs, fat);
+	}
+
+	private static FoodNutrientsResponse food(UUID id, String name, double calories, double protein, double carbs, double fat) {
+		return new FoodNutrientsResponse(id, name, calories, protein, carbs, fat);
+	}
+
+	private static final class QueryBuilder {
+
+		private final double[] min = new double[NutrientIndex.Nutrient.values().length];
+		private final double[] max = new double[min.length];
+		private NutrientIndex.Nutrient rankBy;
+		private NutrientIndex.Nutrient per;
+		private boolean ascending;
+
+		private QueryBuilder() {
+			Arrays.fill(min, Double.NEGATIVE_INFINITY);
+			Arrays.fill(max, Double.POSITIVE_INFINITY);
+		}
+
+		private QueryBuilder min(NutrientIndex.Nutrient nutrient, double value) {
+			min[nutrient.ordinal()] = value;
+			return this;
+		}
+
+		private QueryBuilder max(NutrientIndex.Nutrient nutrient, double value) {
+			max[nutrient.ordinal()] = value;
+			return this;
+		}
+
+		private QueryBuilder rankBy(NutrientIndex.Nutrient nutrient, NutrientIndex.Nutrient divisor) {
+			rankBy = nutrient;
+			per = divisor;
+			return this;
+		}
+
+		private QueryBuilder ascending() {
+			ascending = true;
+			return this;
+		}
+
+		private NutrientIndex.Query build() {
+			return new NutrientIndex.Query(min, max, rankBy, per, ascending);
+		}
+
+	}
+
+}
@@ -0,0 +1,300 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.QuickAddFoodResponse;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.FoodPortion;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.FoodUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuickAddServiceTest {
+
+	@Mock
+	private FoodLogRepository foodLogRepository;
+
+	private QuickAddService quickAddService;
+
+	private User user;
+	private Food rice;
+	private Food chicken;
+	private Food oats;
+	private FoodPortion riceCup;
+	private FoodPortion riceBowl;
+	private FoodPortion chicken100g;
+	private FoodPortion oatsCup;
+	private LocalDateTime now;
+
+	@BeforeEach
+	void setUp() {
+		quickAddService = new QuickAddService(foodLogRepository, 100, 2, 90);
+
+		user = new User();
+		user.setId(UUID.randomUUID());
+
+		rice = food("Rice");
+		chicken = food("Chicken Breast");
+		oats = food("Oats");
+		riceCup = portion(rice, "1 cup");
+		riceBowl = portion(rice, "1 bowl");
+		chicken100g = portion(chicken, "100g");
+		oatsCup = portion(oats, "1 cup");
+
+		now = LocalDateTime.now();
+	}
+
+	@Test
+	void getRecent_notCached_rebuildsFromGroupedQueryWithLatestPortion() {
+		// Arrange
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class))).thenReturn(List.of(
+				usage(riceBowl, 1, now.minusHours(1)),
+				usage(chicken100g, 1, now.minusHours(2)),
+				usage(riceCup, 3, now.minusDays(2))));
+
+		// Act
+		List<QuickAddFoodResponse> recent = quickAddService.getRecent(user, null);
+
+		// Assert
+		assertEquals(2, recent.size());
+		assertEquals(rice.getId(), recent.get(0).getFoodId());
+		assertEquals(riceBowl.getId(), recent.get(0).getPortionId());
+		assertEquals(4, recent.get(0).getLogCount());
+		assertEquals(chicken.getId(), recent.get(1).getFoodId());
+	}
+
+	@Test
+	void getFrequent_cached_doesNotQueryAgain() {
+		// Arrange
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class))).thenReturn(List.of(
+				usage(chicken100g, 1, now.minusHours(1)),
+				usage(riceCup, 3, now.minusDays(2))));
+		quickAddService.getRecent(user, null);
+
+		// Act
+		List<QuickAddFoodResponse> frequent = quickAddService.getFrequent(user, 1);
+
+		// Assert
+		assertEquals(1, frequent.size());
+		assertEquals(rice.getId(), frequent.get(0).getFoodId());
+		verify(foodLogRepository, times(1)).findFoodUsageByUserSince(eq(user), any(LocalDate.class));
+	}
+
+	@Test
+	void getFrequent_moreFoodsThanCapacity_keepsMostFrequent() {
+		// Arrange
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class))).thenReturn(List.of(
+				usage(oatsCup, 1, now.minusHours(1)),
+				usage(chicken100g, 2, now.minusDays(1)),
+				usage(riceCup, 5, now.minusDays(3))));
+
+		// Act
+		List<QuickAddFoodResponse> frequent = quickAddService.getFrequent(user, 10);
+
+		// Assert
+		assertEquals(List.of(rice.getId(), chicken.getId()), frequent.stream().map(QuickAddFoodResponse::getFoodId).toList());
+	}
+
+	@Test
+	void recordLog_cachedUser_updatesListInPlace() {
+		// Arrange
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class))).thenReturn(List.of(
+				usage(riceCup, 1, now.minusDays(1))));
+		quickAddService.getRecent(user, null);
+
+		// Act
+		quickAddService.recordLog(log(chicken100g, now));
+		quickAddService.recordLog(log(chicken100g, now.plusSeconds(1)));
+		List<QuickAddFoodResponse> recent = quickAddService.getRecent(user, null);
+
+		// Assert
+		assertEquals(List.of(chicken.getId(), rice.getId()), recent.stream().map(QuickAddFoodResponse::getFoodId).toList());
+		assertEquals(2, recent.get(0).getLogCount());
+		verify(foodLogRepository, times(1)).findFoodUsageByUserSince(eq(user), any(LocalDate.class));
+	}
+
+	@Test
+	void recordLog_fullList_evictsLeastFrequentOlderFoodAndKeepsNewOnes() {
+		// Arrange - Full at twice max-foods (2); chicken and milk are the two most recent
+		FoodPortion eggsPiece = portion(food("Eggs"), "1 piece");
+		FoodPortion milkGlass = portion(food("Milk"), "1 glass");
+		FoodPortion breadSlice = portion(food("Bread"), "1 slice");
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class))).thenReturn(List.of(
+				usage(riceCup, 4, now.minusDays(4)),
+				usage(eggsPiece, 1, now.minusDays(3)),
+				usage(chicken100g, 2, now.minusDays(2)),
+				usage(milkGlass, 1, now.minusDays(1))));
+		quickAddService.getRecent(user, null);
+
+		// Act - Oats evicts eggs; after chicken is logged again, bread evicts milk
+		quickAddService.recordLog(log(oatsCup, now));
+		quickAddService.recordLog(log(chicken100g, now.plusSeconds(1)));
+		quickAddService.recordLog(log(breadSlice, now.plusSeconds(2)));
+		List<QuickAddFoodResponse> recent = quickAddService.getRecent(user, 10);
+		List<QuickAddFoodResponse> frequent = quickAddService.getFrequent(user, null);
+
+		// Assert
+		assertEquals(List.of(breadSlice.getFood().getId(), chicken.getId()), recent.stream().map(QuickAddFoodResponse::getFoodId).toList());
+		assertEquals(List.of(rice.getId(), chicken.getId()), frequent.stream().map(QuickAddFoodResponse::getFoodId).toList());
+		assertEquals(3, frequent.get(1).getLogCount());
+	}
+
+	@Test
+	void recordLog_newFoods_alwaysShownAsRecent() {
+		// Arrange - Both cached foods are more frequent than any new one
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class))).thenReturn(List.of(
+				usage(riceCup, 5, now.minusDays(2)),
+				usage(chicken100g, 5, now.minusDays(1))));
+		quickAddService.getRecent(user, null);
+
+		// Act
+		for (int i = 0; i < 5; i++) {
+			quickAddService.recordLog(log(portion(food("Food " + i), "1 serving"), now.plusSeconds(i)));
+		}
+		List<QuickAddFoodResponse> recent = quickAddService.getRecent(user, null);
+
+		// Assert
+		assertEquals(List.of("Food 4", "Food 3"), recent.stream().map(QuickAddFoodResponse::getFoodName).toList());
+	}
+
+	@Test
+	void recordLog_rolledBack_isNotCounted() {
+		// Arrange
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class))).thenReturn(List.of(
+				usage(riceCup, 1, now.minusDays(1))));
+		quickAddService.getRecent(user, null);
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		try {
+			quickAddService.recordLog(log(chicken100g, now));
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		// Assert
+		assertEquals(List.of(rice.getId()),
+				quickAddService.getRecent(user, null).stream().map(QuickAddFoodResponse::getFoodId).toList());
+	}
+
+	@Test
+	void getRecent_logCommittedDuringRebuild_doesNotCacheRebuild() {
+		// Arrange - A log commits while the rebuild's query runs, after it read the rows
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class)))
+				.thenAnswer(invocation -> {
+					quickAddService.recordLog(log(chicken100g, now));
+					return List.of(usage(riceCup, 1, now.minusDays(1)));
+				})
+				.thenReturn(List.of(usage(riceCup, 1, now.minusDays(1)), usage(chicken100g, 1, now)));
+
+		// Act
+		quickAddService.getRecent(user, null);
+		List<QuickAddFoodResponse> recent = quickAddService.getRecent(user, null);
+
+		// Assert - The second read rebuilds and sees the log
+		assertEquals(List.of(chicken.getId(), rice.getId()), recent.stream().map(QuickAddFoodResponse::getFoodId).toList());
+		verify(foodLogRepository, times(2)).findFoodUsageByUserSince(eq(user), any(LocalDate.class));
+	}
+
+	@Test
+	void recordLog_userNotCached_isSkipped() {
+		// Act
+		quickAddService.recordLog(log(riceCup, now));
+
+		// Assert
+		verifyNoInteractions(foodLogRepository);
+	}
+
+	@Test
+	void removeLog_forcesRebuildOnNextRead() {
+		// Arrange
+		when(foodLogRepository.findFoodUsageByUserSince(eq(user), any(LocalDate.class))).thenReturn(List.of(
+				usage(riceCup, 1, now.minusDays(1))));
+		quickAddService.getRecent(user, null);
+
+		// Act
+		quickAddService.removeLog(user);
+		quickAddService.getRecent(user, null);
+
+		// Assert
+		verify(foodLogRepository, times(2)).findFoodUsageByUserSince(eq(user), any(LocalDate.class));
+	}
+
+	private static Food food(String name) {
+		Food food = new Food();
+		food.setId(UUID.randomUUID());
+		food.setName(name);
+		return food;
+	}
+
+	private static FoodPortion portion(Food food, String label) {
+		FoodPortion portion = new FoodPortion();
+		portion.setId(UUID.randomUUID());
+		portion.setFood(food);
+		portion.setLabel(label);
+		return portion;
+	}
+
+	private FoodLog log(FoodPortion portion, LocalDateTime createdAt) {
+		FoodLog foodLog = new FoodLog();
+		foodLog.setUser(user);
+		foodLog.setFood(portion.getFood());
+		foodLog.setPortion(portion);
+		foodLog.setCreatedAt(createdAt);
+		return foodLog;
+	}
+
+	private static FoodUsage usage(FoodPortion portion, long logCount, LocalDateTime lastLoggedAt) {
+		return new FoodUsage() {
+			@Override
+			public UUID getFoodId() {
+				return portion.getFood().getId();
+			}
+
+			@Override
+			public String getFoodName() {
+				return portion.getFood().getName();
+			}
+
+			@Override
+			public UUID getPortionId() {
+				return portion.getId();
+			}
+
+			@Override
+			public String getPortionLabel() {
+				return portion.getLabel();
+			}
+
+			@Override
+			public long getLogCount() {
+				return logCount;
+			}
+
+			@Override
+			public LocalDateTime getLastLoggedAt() {
+				return lastLoggedAt;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.fitfamily.app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeGraphTest {
+
+	private RecipeGraph recipeGraph;
+
+	private final UUID rice = UUID.randomUUID();
+	private final UUID lentils = UUID.randomUUID();
+	private final UUID ghee = UUID.randomUUID();
+	private final UUID dal = UUID.randomUUID();
+	private final UUID khichdi = UUID.randomUUID();
+	private final UUID thali = UUID.randomUUID();
+	private final UUID salad = UUID.randomUUID();
+
+	@BeforeEach
+	void setUp() {
+		// dal(lentils, ghee); khichdi(rice, dal); thali(dal, khichdi, rice); salad(unrelated)
+		recipeGraph = new RecipeGraph();
+		recipeGraph.rebuild(List.of(
+				new Object[] {dal, lentils, 200.0},
+				new Object[] {dal, ghee, 10.0},
+				new Object[] {khichdi, rice, 150.0},
+				new Object[] {khichdi, dal, 150.0},
+				new Object[] {thali, dal, 100.0},
+				new Object[] {thali, khichdi, 200.0},
+				new Object[] {thali, rice, 100.0},
+				new Object[] {salad, UUID.randomUUID(), 80.0}));
+	}
+
+	@Test
+	void dependentsInOrder_sharedIngredient_listsEachRecipeOnceAfterItsIngredients() {
+		// Act
+		List<UUID> order = recipeGraph.dependentsInOrder(Set.of(ghee));
+
+		// Assert
+		assertEquals(List.of(dal, khichdi, thali), order);
+	}
+
+	@Test
+	void dependentsInOrder_onlyIncludesAffectedRecipes() {
+		// Act
+		List<UUID> order = recipeGraph.dependentsInOrder(Set.of(rice));
+
+		// Assert
+		assertEquals(List.of(khichdi, thali), order);
+		assertTrue(recipeGraph.dependentsInOrder(Set.of(thali)).isEmpty());
+	}
+
+	@Test
+	void addRecipe_extendsGraph() {
+		// Arrange
+		UUID feast = UUID.randomUUID();
+
+		// Act
+		recipeGraph.addRecipe(feast, Map.of(thali, 500.0, salad, 100.0));
+
+		// Assert
+		assertEquals(List.of(dal, khichdi, thali, feast), recipeGraph.dependentsInOrder(Set.of(lentils)));
+		assertEquals(Map.of(thali, 500.0, salad, 100.0), recipeGraph.ingredients(feast));
+		assertTrue(recipeGraph.ingredients(rice).isEmpty());
+	}
+
+	@Test
+	void addRecipes_knownRecipesSkipped_versionAdvanced() {
+		// Arrange
+		UUID feast = UUID.randomUUID();
+
+		// Act - Dal is already in the graph; the feast is then also added locally
+		recipeGraph.addRecipes(List.of(
+				new Object[] {dal, lentils, 200.0},
+				new Object[] {feast, dal, 300.0}), 12);
+		recipeGraph.addRecipe(feast, Map.of(dal, 300.0));
+
+		// Assert - No edge counted twice
+		assertEquals(Map.of(lentils, 200.0, ghee, 10.0), recipeGraph.ingredients(dal));
+		assertEquals(Map.of(dal, 300.0), recipeGraph.ingredients(feast));
+		assertEquals(12, recipeGraph.version());
+	}
+
+}
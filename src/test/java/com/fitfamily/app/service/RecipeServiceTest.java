@@ -0,0 +1,231 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.CreateRecipeRequest;
+import com.fitfamily.app.dto.RecipeResponse;
+import com.fitfamily.app.exception.FoodNotFoundException;
+import com.fitfamily.app.exception.InvalidRecipeException;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodCatalogChangedEvent;
+import com.fitfamily.app.model.Micronutrient;
+import com.fitfamily.app.model.NutrientVector;
+import com.fitfamily.app.repository.FoodCatalogChangeRepository;
+import com.fitfamily.app.repository.FoodPortionRepository;
+import com.fitfamily.app.repository.FoodRepository;
+import com.fitfamily.app.repository.RecipeIngredientRepository;
+import com.fitfamily.app.security.CatalogAdmins;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeServiceTest {
+
+	private static final String ADMIN = "chef@example.com";
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@Mock
+	private FoodPortionRepository foodPortionRepository;
+
+	@Mock
+	private RecipeIngredientRepository recipeIngredientRepository;
+
+	@Mock
+	private FoodCatalogChangeRepository foodCatalogChangeRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private RecipeGraph recipeGraph;
+	private RecipeService recipeService;
+
+	private Food rice;
+	private Food lentils;
+
+	@BeforeEach
+	void setUp() {
+		recipeGraph = new RecipeGraph();
+		recipeService = new RecipeService(foodRepository, foodPortionRepository, recipeIngredientRepository,
+				foodCatalogChangeRepository, recipeGraph, new CatalogAdmins(ADMIN), transactionManager);
+
+		rice = food("Rice", 130, 2.7, 28, 0.3);
+		lentils = food("Lentils", 116, 9, 20, 0.4);
+	}
+
+	@Test
+	void createRecipe_computesWeightedNutrientsAndServingPortion() {
+		// Arrange
+		when(foodRepository.findAllById(any())).thenReturn(List.of(rice, lentils));
+		when(foodRepository.save(any(Food.class))).thenAnswer(invocation -> {
+			Food food = invocation.getArgument(0);
+			food.setId(UUID.randomUUID());
+			return food;
+		});
+		when(foodPortionRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		// Act
+		RecipeResponse recipe = recipeService.createRecipe(new CreateRecipeRequest("Khichdi", List.of(
+				new CreateRecipeRequest.Ingredient(rice.getId(), 150),
+				new CreateRecipeRequest.Ingredient(lentils.getId(), 50)), 2), ADMIN);
+
+		// Assert - (130 * 150 + 116 * 50) / 200 per 100g
+		assertEquals(126.5, recipe.getCaloriesPer100g());
+		assertEquals(4.275, recipe.getProteinPer100g());
+		assertEquals(26, recipe.getCarbsPer100g());
+		assertEquals(0.325, recipe.getFatPer100g());
+		assertEquals(200, recipe.getTotalGrams());
+		assertEquals("1 serving", recipe.getPortions().get(1).getLabel());
+		assertEquals(100, recipe.getPortions().get(1).getGrams());
+		assertEquals(Set.of(rice.getId(), lentils.getId()), recipeGraph.ingredients(recipe.getId()).keySet());
+	}
+
+	@Test
+	void createRecipe_unknownIngredient_throwsFoodNotFound() {
+		// Arrange
+		when(foodRepository.findAllById(any())).thenReturn(List.of(rice));
+
+		// Act & Assert
+		assertThrows(FoodNotFoundException.class, () -> recipeService.createRecipe(new CreateRecipeRequest("Khichdi", List.of(
+				new CreateRecipeRequest.Ingredient(rice.getId(), 150),
+				new CreateRecipeRequest.Ingredient(UUID.randomUUID(), 50)), null), ADMIN));
+		verify(foodRepository, never()).save(any());
+	}
+
+	@Test
+	void createRecipe_existingName_throwsInvalidRecipe() {
+		// Arrange
+		when(foodRepository.existsByName("Rice")).thenReturn(true);
+
+		// Act & Assert
+		assertThrows(InvalidRecipeException.class, () -> recipeService.createRecipe(new CreateRecipeRequest(" Rice ", List.of(
+				new CreateRecipeRequest.Ingredient(rice.getId(), 150)), null), ADMIN));
+	}
+
+	@Test
+	void createRecipe_userNotCatalogAdmin_throwsAccessDenied() {
+		// Act & Assert
+		assertThrows(AccessDeniedException.class, () -> recipeService.createRecipe(new CreateRecipeRequest("Khichdi", List.of(
+				new CreateRecipeRequest.Ingredient(rice.getId(), 150)), null), "cook@example.com"));
+		verifyNoInteractions(foodRepository);
+	}
+
+	@Test
+	void onCatalogChanged_recomputesDependentsInTopologicalOrderWithOneLoad() {
+		// Arrange - khichdi uses rice and lentils; plate uses khichdi and rice
+		Food khichdi = food("Khichdi", 126.5, 4.275, 26, 0.325);
+		Food plate = food("Plate", 128.25, 3.4875, 27, 0.3125);
+		Food unrelated = food("Salad", 20, 1, 3, 0);
+		recipeGraph.rebuild(List.of(
+				new Object[] {khichdi.getId(), rice.getId(), 150.0},
+				new Object[] {khichdi.getId(), lentils.getId(), 50.0},
+				new Object[] {plate.getId(), khichdi.getId(), 100.0},
+				new Object[] {plate.getId(), rice.getId(), 100.0},
+				new Object[] {unrelated.getId(), UUID.randomUUID(), 100.0}));
+		lentils.setCaloriesPer100g(316);
+		when(foodRepository.findAllById(any())).thenReturn(List.of(plate, rice, khichdi, lentils));
+
+		// Act
+		recipeService.onCatalogChanged(new FoodCatalogChangedEvent(Set.of(lentils.getId())));
+
+		// Assert - khichdi first, so the plate sees its new calories
+		assertEquals(176.5, khichdi.getCaloriesPer100g());
+		assertEquals(153.25, plate.getCaloriesPer100g());
+		assertEquals(4.275, khichdi.getProteinPer100g());
+		assertEquals(20, unrelated.getCaloriesPer100g());
+		verify(foodRepository, times(1)).findAllById(any());
+	}
+
+	@Test
+	void onCatalogChanged_foodWithoutRecipes_doesNothing() {
+		// Arrange
+		recipeGraph.rebuild(List.of());
+
+		// Act
+		recipeService.onCatalogChanged(new FoodCatalogChangedEvent(Set.of(rice.getId())));
+
+		// Assert
+		verifyNoInteractions(foodRepository, recipeIngredientRepository);
+	}
+
+	@Test
+	void onCatalogChanged_recipeCreatedByAnotherInstance_addedToGraphAndRecomputed() {
+		// Arrange - Khichdi was created elsewhere at version 6, after this graph was loaded at 5
+		Food khichdi = food("Khichdi", 126.5, 4.275, 26, 0.325);
+		recipeGraph.rebuild(List.of(), 5);
+		when(foodCatalogChangeRepository.findLatestVersion()).thenReturn(7L);
+		when(recipeIngredientRepository.findEdgesOfRecipesChangedBetween(5, 7)).thenReturn(List.of(
+				new Object[] {khichdi.getId(), rice.getId(), 150.0},
+				new Object[] {khichdi.getId(), lentils.getId(), 50.0}));
+		lentils.setCaloriesPer100g(316);
+		when(foodRepository.findAllById(any())).thenReturn(List.of(khichdi, rice, lentils));
+
+		// Act
+		recipeService.onCatalogChanged(new FoodCatalogChangedEvent(Set.of(lentils.getId())));
+
+		// Assert
+		assertEquals(176.5, khichdi.getCaloriesPer100g());
+		assertEquals(7, recipeGraph.version());
+		verify(recipeIngredientRepository, never()).findAllEdges();
+	}
+
+	@Test
+	void onCatalogChanged_changesPrunedSinceGraphVersion_reloadsGraph() {
+		// Arrange
+		recipeGraph.rebuild(List.of(), 5);
+		when(foodCatalogChangeRepository.findLatestVersion()).thenReturn(90L);
+		when(foodCatalogChangeRepository.findPrunedThrough()).thenReturn(40L);
+		when(recipeIngredientRepository.findAllEdges()).thenReturn(List.of());
+
+		// Act
+		recipeService.onCatalogChanged(new FoodCatalogChangedEvent(Set.of(rice.getId())));
+
+		// Assert
+		assertEquals(90, recipeGraph.version());
+		verify(recipeIngredientRepository, never()).findEdgesOfRecipesChangedBetween(anyLong(), anyLong());
+	}
+
+	@Test
+	void setNutrients_weightsMicronutrientVectorsByGrams() {
+		// Arrange - Rice has no micronutrient data, so it counts as zero
+		lentils.setMicronutrientsPer100g(NutrientVector.of(Map.of(Micronutrient.FIBRE, 8.0, Micronutrient.IRON, 3.3)));
+		Food khichdi = food("Khichdi", 0, 0, 0, 0);
+
+		// Act
+		boolean changed = RecipeService.setNutrients(khichdi, Map.of(rice.getId(), 150.0, lentils.getId(), 50.0),
+				Map.of(rice.getId(), rice, lentils.getId(), lentils));
+
+		// Assert - 8 * 50 / 200 and 3.3 * 50 / 200 per 100g
+		assertTrue(changed);
+		assertEquals(Map.of("fibre", 2.0, "iron", 0.825), khichdi.getMicronutrientsPer100g().toMap());
+		assertFalse(RecipeService.setNutrients(khichdi, Map.of(rice.getId(), 150.0, lentils.getId(), 50.0),
+				Map.of(rice.getId(), rice, lentils.getId(), lentils)));
+	}
+
+	private static Food food(String name, double calories, double protein, double carbs, double fat) {
+		Food food = new Food();
+		food.setId(UUID.randomUUID());
+		food.setName(name);
+		food.setCaloriesPer100g(calories);
+		food.setProteinPer100g(protein);
+		food.setCarbsPer100g(carbs);
+		food.setFatPer100g(fat);
+		return food;
+	}
+
+}
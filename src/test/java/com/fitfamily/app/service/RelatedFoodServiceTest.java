@@ -0,0 +1,244 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.FoodBatchResponse;
+import com.fitfamily.app.dto.FoodDetailsResponse;
+import com.fitfamily.app.dto.RelatedFoodResponse;
+import com.fitfamily.app.exception.FoodNotFoundException;
+import com.fitfamily.app.model.Food;
+import com.fitfamily.app.model.FoodLog;
+import com.fitfamily.app.model.MealType;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.repository.FoodLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RelatedFoodServiceTest {
+
+	@Mock
+	private FoodLogRepository foodLogRepository;
+
+	@Mock
+	private FoodService foodService;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private RelatedFoodService relatedFoodService;
+
+	private User user;
+	private Food rice;
+	private Food dal;
+	private Food chicken;
+	private LocalDate today;
+
+	@BeforeEach
+	void setUp() {
+		relatedFoodService = new RelatedFoodService(foodLogRepository, foodService, jdbcTemplate, transactionManager, 5, false);
+
+		user = new User();
+		user.setId(UUID.randomUUID());
+		rice = food("Rice");
+		dal = food("Dal");
+		chicken = food("Chicken Breast");
+		today = LocalDate.now();
+
+		lenient().when(foodService.getFoodsByIds(anyList())).thenAnswer(invocation -> {
+			List<FoodDetailsResponse> found = new ArrayList<>();
+			for (Object id : invocation.<List<?>>getArgument(0)) {
+				for (Food food : List.of(rice, dal, chicken)) {
+					if (food.getId().equals(id)) {
+						found.add(new FoodDetailsResponse(food.getId(), food.getName(), 100, 1, 1, 1, List.of()));
+					}
+				}
+			}
+			return new FoodBatchResponse(found, List.of());
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		relatedFoodService.shutdown();
+	}
+
+	@Test
+	void recordLog_foodNewToMeal_countsItWithTheMealsFoods() {
+		// Arrange - Rice and dal are already in today's lunch
+		FoodLog chickenLog = log(chicken, MealType.LUNCH);
+		when(foodLogRepository.findFoodIdsInMeal(user, today, MealType.LUNCH, chickenLog.getId()))
+				.thenReturn(List.of(rice.getId(), dal.getId()));
+
+		// Act
+		relatedFoodService.recordLog(chickenLog);
+
+		// Assert
+		List<RelatedFoodResponse> related = relatedFoodService.getRelatedFoods(chicken.getId(), null);
+		assertEquals(List.of("Dal", "Rice"), related.stream().map(RelatedFoodResponse::getFoodName).sorted().toList());
+		assertEquals(1, related.get(0).getMealCount());
+		assertEquals(List.of("Chicken Breast"), names(relatedFoodService.getRelatedFoods(rice.getId(), null)));
+	}
+
+	@Test
+	void recordLog_foodAlreadyInMeal_countsNothingMore() {
+		// Arrange
+		FoodLog first = log(rice, MealType.DINNER);
+		FoodLog second = log(rice, MealType.DINNER);
+		when(foodLogRepository.findFoodIdsInMeal(user, today, MealType.DINNER, first.getId()))
+				.thenReturn(List.of(dal.getId()));
+		when(foodLogRepository.findFoodIdsInMeal(user, today, MealType.DINNER, second.getId()))
+				.thenReturn(List.of(dal.getId(), rice.getId()));
+
+		// Act
+		relatedFoodService.recordLog(first);
+		relatedFoodService.recordLog(second);
+
+		// Assert
+		assertEquals(1, relatedFoodService.getRelatedFoods(rice.getId(), null).get(0).getMealCount());
+	}
+
+	@Test
+	void removeLog_lastOfItsFoodInMeal_takesCountsBack() {
+		// Arrange
+		FoodLog dalLog = log(dal, MealType.LUNCH);
+		when(foodLogRepository.findFoodIdsInMeal(user, today, MealType.LUNCH, dalLog.getId()))
+				.thenReturn(List.of(rice.getId()));
+		relatedFoodService.recordLog(dalLog);
+
+		// Act
+		relatedFoodService.removeLog(dalLog);
+
+		// Assert
+		assertTrue(relatedFoodService.getRelatedFoods(rice.getId(), null).isEmpty());
+	}
+
+	@Test
+	void recordLog_rolledBack_countsNothing() {
+		// Arrange
+		FoodLog chickenLog = log(chicken, MealType.LUNCH);
+		when(foodLogRepository.findFoodIdsInMeal(user, today, MealType.LUNCH, chickenLog.getId()))
+				.thenReturn(List.of(rice.getId()));
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		try {
+			relatedFoodService.recordLog(chickenLog);
+			complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		// Assert
+		assertTrue(relatedFoodService.getRelatedFoods(rice.getId(), null).isEmpty());
+	}
+
+	@Test
+	void recordLog_concurrentLogInSameMeal_waitsForTheFirstToCommit() throws InterruptedException {
+		// Arrange - Each log sees the other only once it has committed
+		FoodLog chickenLog = log(chicken, MealType.LUNCH);
+		FoodLog riceLog = log(rice, MealType.LUNCH);
+		when(foodLogRepository.findFoodIdsInMeal(user, today, MealType.LUNCH, chickenLog.getId()))
+				.thenReturn(List.of());
+		when(foodLogRepository.findFoodIdsInMeal(user, today, MealType.LUNCH, riceLog.getId()))
+				.thenReturn(List.of(chicken.getId()));
+		Thread second = new Thread(() -> relatedFoodService.recordLog(riceLog));
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		try {
+			relatedFoodService.recordLog(chickenLog);
+			second.start();
+			second.join(200);
+			assertTrue(second.isAlive());
+			verify(foodLogRepository, never()).findFoodIdsInMeal(user, today, MealType.LUNCH, riceLog.getId());
+			complete(TransactionSynchronization.STATUS_COMMITTED);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		second.join(5_000);
+
+		// Assert - The pair is counted once, by the second log
+		assertFalse(second.isAlive());
+		assertEquals(List.of(1L), relatedFoodService.getRelatedFoods(chicken.getId(), null).stream()
+				.map(RelatedFoodResponse::getMealCount).toList());
+	}
+
+	@Test
+	void rebuild_logRecordedWhileReading_isCountedOnce() {
+		// Arrange - History: one lunch of rice and dal, one dinner of rice, dal and chicken
+		UUID otherUserId = UUID.randomUUID();
+		FoodLog chickenLog = log(chicken, MealType.BREAKFAST);
+		when(foodLogRepository.findFoodIdsInMeal(user, today, MealType.BREAKFAST, chickenLog.getId()))
+				.thenReturn(List.of(rice.getId()));
+		when(foodLogRepository.findAllMealFoods()).thenAnswer(invocation -> {
+			// Logged after the rebuild started reading, so missing from the rows
+			relatedFoodService.recordLog(chickenLog);
+			List<Object[]> rows = new ArrayList<>();
+			rows.add(new Object[] {user.getId(), today, MealType.LUNCH, rice.getId()});
+			rows.add(new Object[] {user.getId(), today, MealType.LUNCH, dal.getId()});
+			rows.add(new Object[] {otherUserId, today, MealType.DINNER, rice.getId()});
+			rows.add(new Object[] {otherUserId, today, MealType.DINNER, dal.getId()});
+			rows.add(new Object[] {otherUserId, today, MealType.DINNER, chicken.getId()});
+			return rows;
+		});
+
+		// Act
+		relatedFoodService.rebuild();
+
+		// Assert - Dal shares two meals with rice, chicken one rebuilt plus one replayed
+		List<RelatedFoodResponse> related = relatedFoodService.getRelatedFoods(rice.getId(), null);
+		assertEquals(List.of("Chicken Breast", "Dal"), names(related));
+		assertEquals(List.of(2L, 2L), related.stream().map(RelatedFoodResponse::getMealCount).toList());
+	}
+
+	@Test
+	void getRelatedFoods_unknownFood_throwsNotFound() {
+		assertThrows(FoodNotFoundException.class, () -> relatedFoodService.getRelatedFoods(UUID.randomUUID(), null));
+	}
+
+	private static void complete(int status) {
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(synchronization -> synchronization.afterCompletion(status));
+	}
+
+	private List<String> names(List<RelatedFoodResponse> related) {
+		return related.stream().map(RelatedFoodResponse::getFoodName).sorted().toList();
+	}
+
+	private FoodLog log(Food food, MealType mealType) {
+		FoodLog foodLog = new FoodLog();
+		foodLog.setId(UUID.randomUUID());
+		foodLog.setUser(user);
+		foodLog.setFood(food);
+		foodLog.setMealType(mealType);
+		foodLog.setDate(today);
+		return foodLog;
+	}
+
+	private static Food food(String name) {
+		Food food = new Food();
+		food.setId(UUID.randomUUID());
+		food.setName(name);
+		return food;
+	}
+
+}
@@ -0,0 +1,259 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.DailyMacroSummary;
+import com.fitfamily.app.dto.UserDailyDashboardResponse;
+import com.fitfamily.app.exception.DashboardUnavailableException;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.util.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientDashboardServiceTest {
+
+	private static final long LATENCY_BUDGET_MS = 50;
+
+	@Mock
+	private DashboardService dashboardService;
+
+	private ResilientDashboardService resilientDashboardService;
+
+	private User user;
+	private LocalDate date;
+	private UserDailyDashboardResponse first;
+	private UserDailyDashboardResponse second;
+
+	@BeforeEach
+	void setUp() {
+		// Breaker opens after 2 consecutive failures and stays open for a minute
+		resilientDashboardService = new ResilientDashboardService(dashboardService, LATENCY_BUDGET_MS, 60, 100, 2, 60_000, 2);
+
+		user = new User();
+		user.setId(UUID.randomUUID());
+		user.setName("John Doe");
+		date = LocalDate.of(2025, 12, 25);
+
+		first = new UserDailyDashboardResponse(date, new DailyMacroSummary(100, 10, 10, 1), List.of(), null, null, Map.of());
+		second = new UserDailyDashboardResponse(date, new DailyMacroSummary(200, 20, 20, 2), List.of(), null, null, Map.of());
+	}
+
+	@AfterEach
+	void tearDown() {
+		resilientDashboardService.shutdown();
+	}
+
+	@Test
+	void getUserDailyDashboard_databaseHealthy_returnsFreshResult() {
+		// Arrange
+		when(dashboardService.getUserDailyDashboard(user, date)).thenReturn(first, second);
+
+		// Act
+		ResilientDashboardService.Result<UserDailyDashboardResponse> result1 = resilientDashboardService.getUserDailyDashboard(user, date);
+		ResilientDashboardService.Result<UserDailyDashboardResponse> result2 = resilientDashboardService.getUserDailyDashboard(user, date);
+
+		// Assert - Every read goes to the database while it is healthy
+		assertFalse(result1.stale());
+		assertSame(first, result1.body());
+		assertFalse(result2.stale());
+		assertSame(second, result2.body());
+	}
+
+	@Test
+	void getUserDailyDashboard_noCopyBreakerClosed_loadsOnRequestThread() {
+		// Arrange
+		Thread requestThread = Thread.currentThread();
+		when(dashboardService.getUserDailyDashboard(user, date)).thenAnswer(invocation -> {
+			assertSame(requestThread, Thread.currentThread());
+			return first;
+		});
+
+		// Act
+		ResilientDashboardService.Result<UserDailyDashboardResponse> result = resilientDashboardService.getUserDailyDashboard(user, date);
+
+		// Assert
+		assertFalse(result.stale());
+		assertSame(first, result.body());
+	}
+
+	@Test
+	void getUserDailyDashboard_halfOpenTrialWithoutCopyTooSlow_failsFast() {
+		// Arrange - One failure opens the breaker, which half-opens immediately
+		resilientDashboardService.shutdown();
+		resilientDashboardService = new ResilientDashboardService(dashboardService, LATENCY_BUDGET_MS, 60, 100, 1, 0, 2);
+		User otherUser = new User();
+		otherUser.setId(UUID.randomUUID());
+		when(dashboardService.getUserDailyDashboard(otherUser, date)).thenThrow(new IllegalStateException("connection refused"));
+		assertThrows(IllegalStateException.class, () -> resilientDashboardService.getUserDailyDashboard(otherUser, date));
+		CountDownLatch release = new CountDownLatch(1);
+		when(dashboardService.getUserDailyDashboard(user, date)).thenAnswer(invocation -> {
+			release.await();
+			return first;
+		});
+
+		// Act
+		long start = System.nanoTime();
+		assertThrows(DashboardUnavailableException.class, () -> resilientDashboardService.getUserDailyDashboard(user, date));
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		release.countDown();
+
+		// Assert - The trial gave up after the latency budget instead of waiting for the database
+		assertTrue(elapsedMillis < 2_000, "Half-open trial should not block the request thread");
+	}
+
+	@Test
+	void getUserDailyDashboard_databaseFails_returnsLastGoodCopy() {
+		// Arrange
+		when(dashboardService.getUserDailyDashboard(user, date))
+			.thenReturn(first)
+			.thenThrow(new IllegalStateException("connection refused"));
+		resilientDashboardService.getUserDailyDashboard(user, date);
+
+		// Act
+		ResilientDashboardService.Result<UserDailyDashboardResponse> result = resilientDashboardService.getUserDailyDashboard(user, date);
+
+		// Assert
+		assertTrue(result.stale());
+		assertSame(first, result.body());
+	}
+
+	@Test
+	void getUserDailyDashboard_databaseFailsWithoutCopy_rethrows() {
+		// Arrange
+		when(dashboardService.getUserDailyDashboard(user, date)).thenThrow(new IllegalStateException("connection refused"));
+
+		// Act & Assert
+		assertThrows(IllegalStateException.class, () -> resilientDashboardService.getUserDailyDashboard(user, date));
+	}
+
+	@Test
+	void getUserDailyDashboard_cachedKeysHealthy_loadsConcurrentlyOnRequestThreads() throws Exception {
+		// Arrange - Each load waits until all of them run at once, more than the 2 refresh threads
+		int readers = 6;
+		when(dashboardService.getUserDailyDashboard(user, date)).thenReturn(first);
+		resilientDashboardService.getUserDailyDashboard(user, date);
+		CountDownLatch allLoading = new CountDownLatch(readers);
+		when(dashboardService.getUserDailyDashboard(user, date)).thenAnswer(invocation -> {
+			allLoading.countDown();
+			assertTrue(allLoading.await(5, TimeUnit.SECONDS), "Loads of cached keys should not be serialized");
+			return second;
+		});
+
+		ExecutorService requestThreads = Executors.newFixedThreadPool(readers);
+
+		// Act
+		List<Future<ResilientDashboardService.Result<UserDailyDashboardResponse>>> reads = new ArrayList<>();
+		try {
+			for (int i = 0; i < readers; i++) {
+				reads.add(requestThreads.submit(() -> resilientDashboardService.getUserDailyDashboard(user, date)));
+			}
+
+			// Assert
+			for (Future<ResilientDashboardService.Result<UserDailyDashboardResponse>> read : reads) {
+				ResilientDashboardService.Result<UserDailyDashboardResponse> result = read.get(10, TimeUnit.SECONDS);
+				assertFalse(result.stale());
+				assertSame(second, result.body());
+			}
+		} finally {
+			requestThreads.shutdownNow();
+		}
+	}
+
+	@Test
+	void getUserDailyDashboard_slowDatabase_returnsStaleAndRefreshesOnceInBackground() throws Exception {
+		// Arrange - The second load blows the budget, so the next ones run in the background; the third blocks until released
+		CountDownLatch release = new CountDownLatch(1);
+		when(dashboardService.getUserDailyDashboard(user, date))
+			.thenReturn(first)
+			.thenAnswer(invocation -> {
+				Thread.sleep(LATENCY_BUDGET_MS * 2);
+				return first;
+			})
+			.thenAnswer(invocation -> {
+				release.await();
+				return second;
+			});
+		resilientDashboardService.getUserDailyDashboard(user, date);
+		assertFalse(resilientDashboardService.getUserDailyDashboard(user, date).stale());
+
+		// Act - Two requests during the slow period
+		long start = System.nanoTime();
+		ResilientDashboardService.Result<UserDailyDashboardResponse> slow1 = resilientDashboardService.getUserDailyDashboard(user, date);
+		ResilientDashboardService.Result<UserDailyDashboardResponse> slow2 = resilientDashboardService.getUserDailyDashboard(user, date);
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		// Assert - Both are served stale after the latency budget, sharing one refresh
+		assertTrue(slow1.stale());
+		assertTrue(slow2.stale());
+		assertSame(first, slow2.body());
+		assertTrue(elapsedMillis < 2_000, "Stale copy should be served without waiting for the database");
+		verify(dashboardService, times(3)).getUserDailyDashboard(user, date);
+
+		// The background refresh replaces the stale copy once the database answers
+		release.countDown();
+		ResilientDashboardService.Result<UserDailyDashboardResponse> afterRefresh = awaitBody(second);
+		assertSame(second, afterRefresh.body());
+	}
+
+	@Test
+	void getUserDailyDashboard_breakerOpen_skipsDatabase() {
+		// Arrange - One good load, then two failures open the breaker
+		when(dashboardService.getUserDailyDashboard(user, date))
+			.thenReturn(first)
+			.thenThrow(new IllegalStateException("connection refused"));
+		resilientDashboardService.getUserDailyDashboard(user, date);
+		resilientDashboardService.getUserDailyDashboard(user, date);
+		resilientDashboardService.getUserDailyDashboard(user, date);
+		assertEquals(CircuitBreaker.State.OPEN, resilientDashboardService.getCircuitState());
+
+		// Act
+		ResilientDashboardService.Result<UserDailyDashboardResponse> result = resilientDashboardService.getUserDailyDashboard(user, date);
+
+		// Assert
+		assertTrue(result.stale());
+		assertSame(first, result.body());
+		verify(dashboardService, times(3)).getUserDailyDashboard(user, date);
+	}
+
+	@Test
+	void getUserDailyDashboard_breakerOpenWithoutCopy_returnsUnavailable() {
+		// Arrange - Another user's failures open the breaker
+		User otherUser = new User();
+		otherUser.setId(UUID.randomUUID());
+		when(dashboardService.getUserDailyDashboard(otherUser, date)).thenThrow(new IllegalStateException("connection refused"));
+		assertThrows(IllegalStateException.class, () -> resilientDashboardService.getUserDailyDashboard(otherUser, date));
+		assertThrows(IllegalStateException.class, () -> resilientDashboardService.getUserDailyDashboard(otherUser, date));
+
+		// Act & Assert
+		assertThrows(DashboardUnavailableException.class, () -> resilientDashboardService.getUserDailyDashboard(user, date));
+		verify(dashboardService, never()).getUserDailyDashboard(user, date);
+	}
+
+	private ResilientDashboardService.Result<UserDailyDashboardResponse> awaitBody(UserDailyDashboardResponse expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		ResilientDashboardService.Result<UserDailyDashboardResponse> result;
+		do {
+			Thread.sleep(10);
+			result = resilientDashboardService.getUserDailyDashboard(user, date);
+		} while (result.body() != expected && System.currentTimeMillis() < deadline);
+		return result;
+	}
+
+}
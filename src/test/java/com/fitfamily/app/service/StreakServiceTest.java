@@ -0,0 +1,255 @@
+package com.fitfamily.app.service;
+
+import com.fitfamily.app.dto.StreakResponse;
+import com.fitfamily.app.model.User;
+import com.fitfamily.app.model.UserStreak;
+import com.fitfamily.app.repository.FoodLogRepository;
+import com.fitfamily.app.repository.UserStreakRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StreakServiceTest {
+
+	@Mock
+	private UserStreakRepository userStreakRepository;
+
+	@Mock
+	private FoodLogRepository foodLogRepository;
+
+	@InjectMocks
+	private StreakService streakService;
+
+	private User user;
+	private LocalDate today;
+
+	@BeforeEach
+	void setUp() {
+		user = new User();
+		user.setId(UUID.randomUUID());
+		user.setName("John Doe");
+
+		today = LocalDate.now();
+	}
+
+	@Test
+	void recordLog_dayAfterLastLog_extendsStreak() {
+		// Arrange
+		UserStreak streak = new UserStreak(user.getId(), 3, 3, today.minusDays(3), today.minusDays(1));
+		when(userStreakRepository.findByIdForUpdate(user.getId())).thenReturn(Optional.of(streak));
+
+		// Act
+		streakService.recordLog(user, today);
+
+		// Assert
+		UserStreak saved = captureSaved();
+		assertEquals(4, saved.getCurrentStreak());
+		assertEquals(4, saved.getLongestStreak());
+		assertEquals(today, saved.getLastLoggedDate());
+		assertEquals(today.minusDays(3), saved.getStreakStartDate());
+		verifyNoInteractions(foodLogRepository);
+	}
+
+	@Test
+	void recordLog_afterGap_startsNewStreakAndKeepsLongest() {
+		// Arrange
+		UserStreak streak = new UserStreak(user.getId(), 5, 5, today.minusDays(10), today.minusDays(6));
+		when(userStreakRepository.findByIdForUpdate(user.getId())).thenReturn(Optional.of(streak));
+
+		// Act
+		streakService.recordLog(user, today);
+
+		// Assert
+		UserStreak saved = captureSaved();
+		assertEquals(1, saved.getCurrentStreak());
+		assertEquals(5, saved.getLongestStreak());
+		assertEquals(today, saved.getStreakStartDate());
+	}
+
+	@Test
+	void recordLog_sameDay_doesNotChangeStreak() {
+		// Arrange
+		UserStreak streak = new UserStreak(user.getId(), 2, 4, today.minusDays(1), today);
+		when(userStreakRepository.findByIdForUpdate(user.getId())).thenReturn(Optional.of(streak));
+
+		// Act
+		streakService.recordLog(user, today);
+
+		// Assert
+		assertEquals(2, streak.getCurrentStreak());
+		assertEquals(4, streak.getLongestStreak());
+		verify(userStreakRepository, never()).save(any());
+	}
+
+	@Test
+	void recordLog_noStoredStreak_initializesFromHistory() {
+		// Arrange - Logs on the two previous days, plus an older 3-day streak
+		when(userStreakRepository.insertIfAbsent(user.getId(), 2, 3, today.minusDays(2), today.minusDays(1))).thenReturn(1);
+		when(userStreakRepository.findByIdForUpdate(user.getId()))
+			.thenReturn(Optional.empty())
+			.thenReturn(Optional.of(new UserStreak(user.getId(), 2, 3, today.minusDays(2), today.minusDays(1))));
+		when(foodLogRepository.findDistinctDatesByUser(user)).thenReturn(List.of(
+			today.minusDays(10), today.minusDays(9), today.minusDays(8),
+			today.minusDays(2), today.minusDays(1)
+		));
+
+		// Act
+		streakService.recordLog(user, today);
+
+		// Assert
+		verify(userStreakRepository, times(1)).insertIfAbsent(any(), anyInt(), anyInt(), any(), any());
+		UserStreak saved = captureSaved();
+		assertEquals(3, saved.getCurrentStreak());
+		assertEquals(3, saved.getLongestStreak());
+		assertEquals(today.minusDays(2), saved.getStreakStartDate());
+	}
+
+	@Test
+	void recordLog_firstRowCreatedConcurrently_usesStoredRow() {
+		// Arrange - Another first log inserted the row between the lookup and the insert
+		UserStreak stored = new UserStreak(user.getId(), 1, 1, today.minusDays(1), today.minusDays(1));
+		when(userStreakRepository.findByIdForUpdate(user.getId()))
+			.thenReturn(Optional.empty())
+			.thenReturn(Optional.of(stored));
+		when(userStreakRepository.insertIfAbsent(user.getId(), 0, 0, null, null)).thenReturn(0);
+
+		// Act
+		streakService.recordLog(user, today);
+
+		// Assert
+		UserStreak saved = captureSaved();
+		assertSame(stored, saved);
+		assertEquals(2, saved.getCurrentStreak());
+	}
+
+	@Test
+	void removeLog_otherLogsRemainOnThatDay_doesNothing() {
+		// Arrange
+		UserStreak streak = new UserStreak(user.getId(), 2, 2, today.minusDays(1), today);
+		when(userStreakRepository.findByIdForUpdate(user.getId())).thenReturn(Optional.of(streak));
+		when(foodLogRepository.existsByUserAndDate(user, today)).thenReturn(true);
+
+		// Act
+		streakService.removeLog(user, today);
+
+		// Assert
+		verify(userStreakRepository, never()).save(any());
+	}
+
+	@Test
+	void removeLog_breaksCurrentStreak_recomputesOnlyTheSpan() {
+		// Arrange - Current 4-day streak, longest 6; the middle day loses its only log
+		UserStreak streak = new UserStreak(user.getId(), 4, 6, today.minusDays(3), today);
+		when(userStreakRepository.findByIdForUpdate(user.getId())).thenReturn(Optional.of(streak));
+		when(foodLogRepository.existsByUserAndDate(user, today.minusDays(1))).thenReturn(false);
+		when(foodLogRepository.findDistinctDatesByUserAndDateBetween(user, today.minusDays(3), today))
+			.thenReturn(List.of(today.minusDays(3), today.minusDays(2), today));
+
+		// Act
+		streakService.removeLog(user, today.minusDays(1));
+
+		// Assert
+		UserStreak saved = captureSaved();
+		assertEquals(1, saved.getCurrentStreak());
+		assertEquals(6, saved.getLongestStreak());
+		assertEquals(today, saved.getStreakStartDate());
+		verify(foodLogRepository, never()).findDistinctDatesByUser(any());
+	}
+
+	@Test
+	void removeLog_onlyDayOfCurrentStreak_resetsToEarlierRun() {
+		// Arrange - A 2-day run ending 3 days ago, then today's log is deleted
+		UserStreak streak = new UserStreak(user.getId(), 1, 2, today, today);
+		List<LocalDate> remaining = List.of(today.minusDays(4), today.minusDays(3));
+		when(userStreakRepository.findByIdForUpdate(user.getId())).thenReturn(Optional.of(streak));
+		when(foodLogRepository.existsByUserAndDate(user, today)).thenReturn(false);
+		when(foodLogRepository.findDistinctDatesByUserAndDateBetween(user, today, today)).thenReturn(List.of());
+		when(foodLogRepository.findDistinctDatesByUser(user)).thenReturn(remaining);
+
+		// Act
+		streakService.removeLog(user, today);
+
+		// Assert
+		UserStreak saved = captureSaved();
+		assertEquals(2, saved.getCurrentStreak());
+		assertEquals(2, saved.getLongestStreak());
+		assertEquals(today.minusDays(3), saved.getLastLoggedDate());
+		assertEquals(today.minusDays(4), saved.getStreakStartDate());
+	}
+
+	@Test
+	void removeLog_lastLoggedDay_resetsStreak() {
+		// Arrange
+		UserStreak streak = new UserStreak(user.getId(), 1, 1, today, today);
+		when(userStreakRepository.findByIdForUpdate(user.getId())).thenReturn(Optional.of(streak));
+		when(foodLogRepository.existsByUserAndDate(user, today)).thenReturn(false);
+		when(foodLogRepository.findDistinctDatesByUserAndDateBetween(user, today, today)).thenReturn(List.of());
+		when(foodLogRepository.findDistinctDatesByUser(user)).thenReturn(List.of());
+
+		// Act
+		streakService.removeLog(user, today);
+
+		// Assert
+		UserStreak saved = captureSaved();
+		assertEquals(0, saved.getCurrentStreak());
+		assertEquals(0, saved.getLongestStreak());
+		assertNull(saved.getLastLoggedDate());
+		assertNull(saved.getStreakStartDate());
+	}
+
+	@Test
+	void removeLog_breaksLongestStreak_recomputesLongest() {
+		// Arrange - The current streak is also the longest
+		UserStreak streak = new UserStreak(user.getId(), 3, 3, today.minusDays(2), today);
+		List<LocalDate> remaining = List.of(today.minusDays(2), today.minusDays(1));
+		when(userStreakRepository.findByIdForUpdate(user.getId())).thenReturn(Optional.of(streak));
+		when(foodLogRepository.existsByUserAndDate(user, today)).thenReturn(false);
+		when(foodLogRepository.findDistinctDatesByUserAndDateBetween(user, today.minusDays(2), today)).thenReturn(remaining);
+		when(foodLogRepository.findDistinctDatesByUser(user)).thenReturn(remaining);
+
+		// Act
+		streakService.removeLog(user, today);
+
+		// Assert
+		UserStreak saved = captureSaved();
+		assertEquals(2, saved.getCurrentStreak());
+		assertEquals(2, saved.getLongestStreak());
+		assertEquals(today.minusDays(1), saved.getLastLoggedDate());
+	}
+
+	@Test
+	void getStreak_lastLogBeforeYesterday_reportsNoCurrentStreak() {
+		// Arrange
+		UserStreak streak = new UserStreak(user.getId(), 5, 7, today.minusDays(6), today.minusDays(2));
+		when(userStreakRepository.findAllById(List.of(user.getId()))).thenReturn(List.of(streak));
+
+		// Act
+		StreakResponse result = streakService.getStreak(user);
+
+		// Assert
+		assertEquals(0, result.getCurrentStreak());
+		assertEquals(7, result.getLongestStreak());
+		assertEquals(today.minusDays(2), result.getLastLoggedDate());
+	}
+
+	private UserStreak captureSaved() {
+		ArgumentCaptor<UserStreak> captor = ArgumentCaptor.forClass(UserStreak.class);
+		verify(userStreakRepository).save(captor.capture());
+		return captor.getValue();
+	}
+
+}
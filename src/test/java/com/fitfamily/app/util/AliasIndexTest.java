@@ -0,0 +1,46 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AliasIndexTest {
+
+	@Test
+	void candidates_wordPrefixes_sortedDistinctDocuments() {
+		AliasIndex index = AliasIndex.EMPTY.withDocuments(0, List.of(
+			new String[] {"roti", "phulka"},
+			new String[] {"basmati chawal"},
+			new String[] {},
+			new String[] {"rotli", "roti canai"}));
+
+		assertArrayEquals(new int[] {0, 3}, index.candidates("rot"));
+		assertArrayEquals(new int[] {1}, index.candidates("chawal"));
+		assertArrayEquals(new int[] {3}, index.candidates("can"));
+		assertArrayEquals(new int[] {}, index.candidates("oti"));
+		assertArrayEquals(new int[] {}, index.candidates("zzz"));
+	}
+
+	@Test
+	void withDocuments_sameWordTwiceInDocument_indexedOnce() {
+		AliasIndex index = AliasIndex.EMPTY.withDocuments(0, List.<String[]>of(
+			new String[] {"roti", "roti canai", "tandoori roti"}));
+
+		assertArrayEquals(new int[] {0}, index.candidates("roti"));
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	void withDocuments_mergesBatches_andPreviousIndexUnchanged() {
+		AliasIndex first = AliasIndex.EMPTY.withDocuments(0, List.of(new String[] {"curd"}, new String[] {"dahi"}));
+		AliasIndex second = first.withDocuments(2, List.of(new String[] {"curd rice"}, new String[] {}));
+
+		assertArrayEquals(new int[] {0, 2}, second.candidates("curd"));
+		assertArrayEquals(new int[] {2}, second.candidates("rice"));
+		assertArrayEquals(new int[] {0}, first.candidates("curd"));
+		assertSame(second, second.withDocuments(4, List.<String[]>of(new String[] {})));
+	}
+
+}
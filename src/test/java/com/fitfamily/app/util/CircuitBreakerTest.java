@@ -0,0 +1,52 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final CircuitBreaker breaker = new CircuitBreaker(2, 1000, now::get);
+
+	@Test
+	void recordFailure_reachesThreshold_opensBreaker() {
+		breaker.recordFailure();
+		assertTrue(breaker.allowRequest());
+
+		breaker.recordFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+	}
+
+	@Test
+	void allowRequest_afterOpenPeriod_allowsSingleTrial() {
+		breaker.recordFailure();
+		breaker.recordFailure();
+		now.addAndGet(1000);
+
+		// Only one trial call goes through while half-open
+		assertTrue(breaker.allowRequest());
+		assertFalse(breaker.allowRequest());
+
+		breaker.recordSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	void recordFailure_duringTrial_reopensBreaker() {
+		breaker.recordFailure();
+		breaker.recordFailure();
+		now.addAndGet(1000);
+		assertTrue(breaker.allowRequest());
+
+		breaker.recordFailure();
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+	}
+
+}
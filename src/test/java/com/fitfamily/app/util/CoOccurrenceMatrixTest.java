@@ -0,0 +1,86 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoOccurrenceMatrixTest {
+
+	@Test
+	void build_countsPairsPerGroup() {
+		// Rice (0) with dal (1) twice, rice with chicken (2) once
+		CoOccurrenceMatrix matrix = CoOccurrenceMatrix.build(3,
+				List.of(new int[] {0, 1}, new int[] {1, 0, 2}, new int[] {2}), 5);
+
+		assertEquals(2, matrix.count(0, 1));
+		assertEquals(2, matrix.count(1, 0));
+		assertEquals(1, matrix.count(0, 2));
+		assertArrayEquals(new int[] {1, 2}, matrix.neighbours(0).items());
+		assertArrayEquals(new int[] {2, 1}, matrix.neighbours(0).counts());
+		// Equal counts: lower ID first
+		assertArrayEquals(new int[] {0, 1}, matrix.neighbours(2).items());
+	}
+
+	@Test
+	void addToGroup_sameGroupsAsBuild_givesSameNeighbours() {
+		// Arrange - Many items, few neighbours kept, so top lists keep changing
+		Random random = new Random(9);
+		List<int[]> groups = new ArrayList<>();
+		for (int g = 0; g < 2000; g++) {
+			groups.add(random.ints(0, 60).distinct().limit(1 + random.nextInt(5)).toArray());
+		}
+
+		// Act - Add each group's items one by one
+		CoOccurrenceMatrix incremental = new CoOccurrenceMatrix(3);
+		for (int[] group : groups) {
+			for (int i = 0; i < group.length; i++) {
+				incremental.addToGroup(group[i], Arrays.copyOf(group, i), 1);
+			}
+		}
+		CoOccurrenceMatrix built = CoOccurrenceMatrix.build(60, groups, 3);
+
+		// Assert
+		for (int item = 0; item < 60; item++) {
+			assertArrayEquals(built.neighbours(item).items(), incremental.neighbours(item).items(), "item " + item);
+			assertArrayEquals(built.neighbours(item).counts(), incremental.neighbours(item).counts(), "item " + item);
+		}
+	}
+
+	@Test
+	void addToGroup_topNeighbourRemoved_promotesNextBest() {
+		// Arrange - 0 shares 3 groups with 1, 2 with 2 and 1 with 3; two neighbours kept
+		CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2);
+		for (int i = 0; i < 3; i++) {
+			matrix.addToGroup(1, new int[] {0}, 1);
+		}
+		for (int i = 0; i < 2; i++) {
+			matrix.addToGroup(2, new int[] {0}, 1);
+		}
+		matrix.addToGroup(3, new int[] {0}, 1);
+		assertArrayEquals(new int[] {1, 2}, matrix.neighbours(0).items());
+
+		// Act - 2 leaves both of its groups with 0
+		matrix.addToGroup(2, new int[] {0}, -1);
+		matrix.addToGroup(2, new int[] {0}, -1);
+
+		// Assert
+		assertArrayEquals(new int[] {1, 3}, matrix.neighbours(0).items());
+		assertEquals(0, matrix.neighbours(2).size());
+	}
+
+	@Test
+	void addToGroup_removingUncountedPair_staysAtZero() {
+		CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2);
+
+		matrix.addToGroup(0, new int[] {1}, -1);
+
+		assertEquals(0, matrix.count(0, 1));
+		assertEquals(0, matrix.neighbours(0).size());
+	}
+
+}
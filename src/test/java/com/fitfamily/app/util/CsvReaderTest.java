@@ -0,0 +1,45 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+	@Test
+	void next_plainAndQuotedFields_splitsRecords() throws IOException {
+		CsvReader reader = reader("name,grams\n\"Rice, cooked\",158\n\"Say \"\"cheese\"\"\",\n");
+
+		assertEquals(List.of("name", "grams"), reader.next());
+		assertEquals(List.of("Rice, cooked", "158"), reader.next());
+		assertEquals(List.of("Say \"cheese\"", ""), reader.next());
+		assertNull(reader.next());
+		assertEquals(3, reader.getLineNumber());
+	}
+
+	@Test
+	void next_quotedLineBreak_continuesOnNextLine() throws IOException {
+		CsvReader reader = reader("\"two\nlines\",1\nnext,2\n");
+
+		assertEquals(List.of("two\nlines", "1"), reader.next());
+		assertEquals(2, reader.getLineNumber());
+		assertEquals(List.of("next", "2"), reader.next());
+	}
+
+	@Test
+	void next_unterminatedQuote_throwsException() {
+		CsvReader reader = reader("\"open,1\n");
+
+		assertThrows(IllegalArgumentException.class, reader::next);
+	}
+
+	private static CsvReader reader(String csv) {
+		return new CsvReader(new BufferedReader(new StringReader(csv)));
+	}
+
+}
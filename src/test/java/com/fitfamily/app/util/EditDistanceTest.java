@@ -0,0 +1,32 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditDistanceTest {
+
+	@Test
+	void bounded_singleEdits_countOneEach() {
+		assertEquals(0, EditDistance.bounded("chicken", "chicken", 2));
+		assertEquals(1, EditDistance.bounded("chiken", "chicken", 2));
+		assertEquals(1, EditDistance.bounded("chappati", "chapati", 2));
+		assertEquals(1, EditDistance.bounded("rice", "rise", 2));
+		assertEquals(1, EditDistance.bounded("biryani", "biryain", 2));
+	}
+
+	@Test
+	void bounded_combinedEdits_addUp() {
+		assertEquals(2, EditDistance.bounded("brest", "breasts", 2));
+		assertEquals(3, EditDistance.bounded("kitten", "sitting", 3));
+		assertEquals(3, EditDistance.bounded("", "egg", 3));
+	}
+
+	@Test
+	void bounded_distanceAboveMax_returnsMaxPlusOne() {
+		assertEquals(3, EditDistance.bounded("salmon", "lemon", 2));
+		assertEquals(2, EditDistance.bounded("rice", "noodles", 1));
+		assertEquals(1, EditDistance.bounded("tea", "tea bag", 0));
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+	@Test
+	void toMilli_roundsToNearestMilliUnit() {
+		// Act & Assert
+		assertEquals(12346L, FixedPoint.toMilli(12.3456));
+		assertEquals(12345L, FixedPoint.toMilli(12.3454));
+		assertEquals(0L, FixedPoint.toMilli(0.0));
+	}
+
+	@Test
+	void fromMilli_convertsBackToDecimal() {
+		// Act & Assert
+		assertEquals(12.346, FixedPoint.fromMilli(12346L));
+		assertEquals(0.0, FixedPoint.fromMilli(0L));
+	}
+
+	@Test
+	void milliSums_areExactWhereDoubleSumsDrift() {
+		// Arrange - 0.1 cannot be represented exactly as a double
+		double doubleTotal = 0;
+		long milliTotal = 0;
+
+		// Act
+		for (int i = 0; i < 10; i++) {
+			doubleTotal += 0.1;
+			milliTotal += FixedPoint.toMilli(0.1);
+		}
+
+		// Assert
+		assertNotEquals(1.0, doubleTotal);
+		assertEquals(1.0, FixedPoint.fromMilli(milliTotal));
+	}
+
+}
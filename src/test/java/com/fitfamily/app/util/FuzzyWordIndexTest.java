@@ -0,0 +1,59 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyWordIndexTest {
+
+	@Test
+	void match_wordsWithinEditBudget_returnsTheirDocuments() {
+		FuzzyWordIndex index = FuzzyWordIndex.EMPTY.withDocuments(0, List.of("chicken breast", "chickpeas", "chicken curry"));
+
+		Map<String, Integer> matches = matches(index, "chiken", 2);
+
+		assertEquals(Map.of("[0, 2]", 1), matches);
+	}
+
+	@Test
+	void match_zeroEdits_requiresExactWord() {
+		FuzzyWordIndex index = FuzzyWordIndex.EMPTY.withDocuments(0, List.of("rice", "brown rice", "rise"));
+
+		assertEquals(Map.of("[0, 1]", 0), matches(index, "rice", 0));
+		assertEquals(Map.of("[0, 1]", 0, "[2]", 1), matches(index, "rice", 1));
+	}
+
+	@Test
+	void match_wordsContainingToken_matchWithoutEdits() {
+		FuzzyWordIndex index = FuzzyWordIndex.EMPTY.withDocuments(0, List.of("chicken breast", "chickpeas", "rice"));
+
+		assertEquals(Map.of("[0]", 0, "[1]", 0), matches(index, "chick", 0));
+	}
+
+	@Test
+	void withDocuments_numbersLeftOut_andPreviousIndexUnchanged() {
+		FuzzyWordIndex first = FuzzyWordIndex.EMPTY.withDocuments(0, List.of("soup #12", "soup 2go"));
+		FuzzyWordIndex second = first.withDocuments(2, List.of("tomato soup"));
+
+		assertEquals(List.of("soup", "2go"), FuzzyWordIndex.words("soup 2go"));
+		assertTrue(FuzzyWordIndex.isWord("2go"));
+		assertFalse(FuzzyWordIndex.isWord("12"));
+		assertFalse(FuzzyWordIndex.isWord("mac&cheese"));
+		assertEquals(2, first.size());
+		assertEquals(3, second.size());
+		assertEquals(Map.of("[0, 1, 2]", 0), matches(second, "soup", 0));
+		assertEquals(Map.of("[0, 1]", 0), matches(first, "soup", 0));
+	}
+
+	private static Map<String, Integer> matches(FuzzyWordIndex index, String token, int maxEdits) {
+		Map<String, Integer> matches = new HashMap<>();
+		index.match(token, maxEdits, (docs, distance) -> matches.put(Arrays.toString(docs), distance));
+		return matches;
+	}
+
+}
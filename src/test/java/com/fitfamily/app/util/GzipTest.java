@@ -0,0 +1,43 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipTest {
+
+	@Test
+	void accepted_gzipListed_returnsTrue() {
+		// Act & Assert
+		assertTrue(Gzip.accepted("gzip"));
+		assertTrue(Gzip.accepted("deflate, GZIP;q=0.8, br"));
+		assertTrue(Gzip.accepted("*"));
+	}
+
+	@Test
+	void accepted_gzipMissingOrRefused_returnsFalse() {
+		// Act & Assert
+		assertFalse(Gzip.accepted(null));
+		assertFalse(Gzip.accepted("identity"));
+		assertFalse(Gzip.accepted("br, gzip;q=0"));
+		assertFalse(Gzip.accepted("gzip; q=0.000"));
+	}
+
+	@Test
+	void decompress_returnsOriginalBytes() throws Exception {
+		// Arrange
+		byte[] original = "{\"version\":1}".getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(original);
+		}
+
+		// Act & Assert
+		assertArrayEquals(original, Gzip.decompress(compressed.toByteArray()));
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KdTreeTest {
+
+	@Test
+	void range_boxBoundsInclusive_reportsPointsInside() {
+		KdTree tree = KdTree.build(2, new double[] {
+			0, 0,
+			5, 5,
+			10, 10,
+			5, 20});
+
+		assertEquals(List.of(1, 2), sorted(tree, new double[] {5, 0}, new double[] {10, 10}));
+		assertEquals(List.of(3), sorted(tree, new double[] {4, 15}, new double[] {6, Double.POSITIVE_INFINITY}));
+		assertEquals(List.of(), sorted(tree, new double[] {6, 6}, new double[] {9, 9}));
+	}
+
+	@Test
+	void range_randomPointsWithDuplicates_matchesLinearScan() {
+		// Arrange - Few distinct values, so many points share a split value
+		Random random = new Random(42);
+		int dimensions = 4;
+		double[] points = new double[5000 * dimensions];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = random.nextInt(20);
+		}
+		KdTree tree = KdTree.build(dimensions, points);
+
+		for (int query = 0; query < 200; query++) {
+			double[] min = new double[dimensions];
+			double[] max = new double[dimensions];
+			for (int axis = 0; axis < dimensions; axis++) {
+				min[axis] = random.nextBoolean() ? Double.NEGATIVE_INFINITY : random.nextInt(20);
+				max[axis] = random.nextBoolean() ? Double.POSITIVE_INFINITY : min[axis] + random.nextInt(10);
+			}
+
+			// Act
+			List<Integer> found = sorted(tree, min, max);
+
+			// Assert
+			List<Integer> expected = new ArrayList<>();
+			for (int point = 0; point < points.length / dimensions; point++) {
+				boolean inside = true;
+				for (int axis = 0; axis < dimensions; axis++) {
+					double value = points[point * dimensions + axis];
+					inside &= value >= min[axis] && value <= max[axis];
+				}
+				if (inside) {
+					expected.add(point);
+				}
+			}
+			assertEquals(expected, found);
+		}
+	}
+
+	@Test
+	void build_coordinateCountNotMultipleOfDimensions_throwsException() {
+		assertThrows(IllegalArgumentException.class, () -> KdTree.build(4, new double[] {1, 2, 3}));
+	}
+
+	@Test
+	void range_emptyTree_reportsNothing() {
+		assertEquals(List.of(), sorted(KdTree.EMPTY, new double[] {0}, new double[] {1}));
+		assertEquals(0, KdTree.build(3, new double[0]).size());
+	}
+
+	private static List<Integer> sorted(KdTree tree, double[] min, double[] max) {
+		List<Integer> ids = new ArrayList<>();
+		tree.range(min, max, (id, coordinates, offset) -> ids.add(id));
+		ids.sort(null);
+		return ids;
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongCountMapTest {
+
+	@Test
+	void add_countReachesZero_removesKey() {
+		LongCountMap map = new LongCountMap();
+
+		assertEquals(2, map.add(7, 2));
+		assertEquals(1, map.add(7, -1));
+		assertEquals(0, map.add(7, -1));
+
+		assertEquals(0, map.get(7));
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	void add_randomChanges_matchesHashMap() {
+		// Few distinct keys, so probe runs collide, grow and shrink through removals
+		LongCountMap map = new LongCountMap();
+		Map<Long, Integer> expected = new HashMap<>();
+		Random random = new Random(3);
+		for (int i = 0; i < 100_000; i++) {
+			long key = (long) random.nextInt(500) << (random.nextBoolean() ? 32 : 0);
+			int delta = random.nextInt(5) - 2;
+			int count = expected.merge(key, delta, Integer::sum);
+			if (count == 0) {
+				expected.remove(key);
+			}
+			assertEquals(count, map.add(key, delta));
+		}
+
+		assertEquals(expected.size(), map.size());
+		Map<Long, Integer> actual = new HashMap<>();
+		map.forEach(actual::put);
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	void addAll_mergesCounts() {
+		LongCountMap a = new LongCountMap();
+		a.add(1, 2);
+		a.add(2, 1);
+		LongCountMap b = new LongCountMap(100);
+		b.add(2, -1);
+		b.add(3, 4);
+
+		a.addAll(b);
+
+		assertEquals(2, a.size());
+		assertEquals(2, a.get(1));
+		assertEquals(0, a.get(2));
+		assertEquals(4, a.get(3));
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+	@Test
+	void put_overCapacity_evictsLeastRecentlyUsed() {
+		LruCache<String, Integer> cache = new LruCache<>(2);
+		cache.put("a", 1);
+		cache.put("b", 2);
+
+		// Reading "a" makes "b" the eldest entry
+		cache.get("a");
+		cache.put("c", 3);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals(3, cache.get("c"));
+	}
+
+	@Test
+	void remove_deletesEntry() {
+		LruCache<String, Integer> cache = new LruCache<>(2);
+		cache.put("a", 1);
+
+		assertEquals(1, cache.remove("a"));
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.size());
+	}
+
+}
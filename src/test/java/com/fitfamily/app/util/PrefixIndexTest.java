@@ -0,0 +1,67 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+	@Test
+	void match_textPrefixesBeforeWordPrefixes() {
+		PrefixIndex index = PrefixIndex.EMPTY.withDocuments(0, List.of("grilled chicken", "chicken breast", "chickpeas", "rice"));
+
+		assertEquals(List.of(1, 2, 0), matches(index, "chick", 10));
+		assertEquals(List.of(1), matches(index, "chicken b", 10));
+		assertEquals(List.of(), matches(index, "icken", 10));
+	}
+
+	@Test
+	void match_wordsAfterPunctuation_areWordStarts() {
+		PrefixIndex index = PrefixIndex.EMPTY.withDocuments(0, List.of("rice (cooked)", "dal-makhani"));
+
+		assertEquals(List.of(0), matches(index, "cook", 10));
+		assertEquals(List.of(1), matches(index, "makh", 10));
+	}
+
+	@Test
+	void match_consumerStops_noFurtherMatches() {
+		PrefixIndex index = PrefixIndex.EMPTY.withDocuments(0, List.of("apple", "apricot", "avocado", "green apple"));
+
+		assertEquals(List.of(0, 1), matches(index, "ap", 2));
+	}
+
+	@Test
+	void match_deadDocuments_skipped() {
+		PrefixIndex index = PrefixIndex.EMPTY.withDocuments(0, List.of("apple", "apricot"));
+
+		List<Integer> docs = new ArrayList<>();
+		index.match("ap", doc -> doc != 0, docs::add);
+
+		assertEquals(List.of(1), docs);
+	}
+
+	@Test
+	void withDocuments_mergesBatchesInOrder_andPreviousIndexUnchanged() {
+		PrefixIndex first = PrefixIndex.EMPTY.withDocuments(0, List.of("banana", "blueberry"));
+		PrefixIndex second = first.withDocuments(2, List.of("baguette", "black beans"));
+
+		// "black beans" also matches through its second word
+
+		assertEquals(List.of(2, 0, 3, 1, 3), matches(second, "b", 10));
+		assertEquals(List.of(3), matches(second, "bea", 10));
+		assertEquals(List.of(0, 1), matches(first, "b", 10));
+	}
+
+	private static List<Integer> matches(PrefixIndex index, String prefix, int limit) {
+		List<Integer> docs = new ArrayList<>();
+		index.match(prefix, doc -> true, doc -> {
+			docs.add(doc);
+			return docs.size() < limit;
+		});
+		return docs;
+	}
+
+}
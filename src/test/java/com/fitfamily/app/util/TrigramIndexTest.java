@@ -0,0 +1,57 @@
+package com.fitfamily.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+	@Test
+	void candidates_returnsDocumentsContainingAllTrigrams() {
+		TrigramIndex index = TrigramIndex.EMPTY.withDocuments(0, List.of("chicken breast", "chickpeas", "rice"));
+
+		assertArrayEquals(new int[] {0, 1}, index.candidates("chi"));
+		assertArrayEquals(new int[] {0}, index.candidates("chicken"));
+		assertArrayEquals(new int[0], index.candidates("pizza"));
+	}
+
+	@Test
+	void withDocuments_appendsToExistingPostingsAndKeepsPreviousIndex() {
+		TrigramIndex first = TrigramIndex.EMPTY.withDocuments(0, List.of("rice", "brown rice"));
+		TrigramIndex second = first.withDocuments(2, List.of("rice noodles"));
+
+		assertArrayEquals(new int[] {0, 1, 2}, second.candidates("rice"));
+		assertArrayEquals(new int[] {2}, second.candidates("noodle"));
+
+		// The previous index is unchanged
+		assertArrayEquals(new int[] {0, 1}, first.candidates("rice"));
+		assertArrayEquals(new int[0], first.candidates("noodle"));
+	}
+
+	@Test
+	void candidates_shortGrams_returnsDocumentsContainingToken() {
+		TrigramIndex index = TrigramIndex.EMPTY_WITH_SHORT_GRAMS.withDocuments(0, List.of("chicken breast", "chickpeas", "rice"));
+
+		assertArrayEquals(new int[] {0, 1, 2}, index.candidates("c"));
+		assertArrayEquals(new int[] {0, 2}, index.candidates("r"));
+		assertArrayEquals(new int[] {0, 1}, index.candidates("ck"));
+		assertArrayEquals(new int[0], index.candidates("z"));
+		assertArrayEquals(new int[] {0}, index.candidates("chicken"));
+	}
+
+	@Test
+	void candidates_shortTokenWithoutShortGrams_isRejected() {
+		TrigramIndex index = TrigramIndex.EMPTY.withDocuments(0, List.of("rice"));
+
+		assertThrows(IllegalArgumentException.class, () -> index.candidates("ri"));
+	}
+
+	@Test
+	void intersect_sortedArrays_returnsCommonValues() {
+		assertArrayEquals(new int[] {3, 9}, TrigramIndex.intersect(new int[] {1, 3, 5, 9}, new int[] {2, 3, 4, 6, 7, 8, 9, 10}));
+		assertArrayEquals(new int[0], TrigramIndex.intersect(new int[] {1, 2}, new int[] {3, 4}));
+	}
+
+}